@@ -15,12 +15,17 @@
  */
 package org.socialsignin.spring.data.dynamodb.query;
 
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
-import org.springframework.dao.EmptyResultDataAccessException;
-import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityInformation;
+import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBKeyAttributeValueMarshaller;
+import org.springframework.util.Assert;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 
 /**
  * 
@@ -28,19 +33,110 @@ import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
  */
 public abstract class AbstractMultipleEntityQuery<T> extends AbstractQuery<T> implements Query<T> {
 
+	private DynamoDBEntityInformation<T, ?> entityInformation;
+
 	public AbstractMultipleEntityQuery(DynamoDBMapper dynamoDBMapper, Class<T> clazz) {
+		this(dynamoDBMapper, clazz, null);
+	}
+
+	/**
+	 * @param entityInformation
+	 *            the information of the entities read, from whose keys pages
+	 *            of filtered results are resumed - may be null, in which case
+	 *            pages of filtered results are read as those of unfiltered
+	 *            results are
+	 */
+	public AbstractMultipleEntityQuery(DynamoDBMapper dynamoDBMapper, Class<T> clazz,
+			DynamoDBEntityInformation<T, ?> entityInformation) {
 		super(dynamoDBMapper, clazz);
+		this.entityInformation = entityInformation;
 	}
 
+	/**
+	 * Reads no more than two results, which is enough to determine whether
+	 * the result is unique
+	 */
 	@Override
 	public T getSingleResult() {
-		List<T> results = getResultList();
-		if (results.size() > 1) {
-			throw new IncorrectResultSizeDataAccessException("result returns more than one elements", 1, results.size());
-		}
-		if (results.size() == 0) {
-			throw new EmptyResultDataAccessException("No results found", 1);
-		}
-		return results.get(0);
+		return getSingleResult(getResultPage(null, 2).getResults());
+	}
+
+	/**
+	 * Reads pages of unfiltered results limited to the number of results still
+	 * needed, so that no more items are read than are returned, and further
+	 * pages only when a page reaches the 1MB page size limit.
+	 * 
+	 * The Limit of a filtered read limits the items evaluated rather than the
+	 * items matched, so limiting pages of filtered results to the number of
+	 * results still needed would take a round trip for each few results.
+	 * Filtered results are instead read in full pages, the last of which is
+	 * trimmed to the results needed and resumed from the key of its last
+	 * returned result.
+	 * 
+	 * Pages are also limited to the page size of the query, if it has one.
+	 */
+	@Override
+	public ResultPage<T> getResultPage(Map<String, AttributeValue> exclusiveStartKey, int maxResults) {
+		Assert.isTrue(maxResults > 0, "maxResults must be positive");
+		boolean fullPages = entityInformation != null && isFiltered();
+		List<T> results = new ArrayList<T>();
+		Map<String, AttributeValue> lastEvaluatedKey = exclusiveStartKey;
+		do {
+			int remaining = maxResults - results.size();
+			Integer limit = getRequestLimit(remaining);
+			if (fullPages) {
+				limit = pageSize > 0 ? pageSize : null;
+			}
+			ResultPage<T> page = readPage(lastEvaluatedKey, limit);
+			if (fullPages && page.getResults().size() > remaining) {
+				results.addAll(page.getResults().subList(0, remaining));
+				return new ResultPage<T>(results, getKey(entityInformation, results.get(results.size() - 1)));
+			}
+			results.addAll(page.getResults());
+			lastEvaluatedKey = page.getLastEvaluatedKey();
+		} while (lastEvaluatedKey != null && results.size() < maxResults);
+		return new ResultPage<T>(results, lastEvaluatedKey);
+	}
+
+	/**
+	 * @return whether the items read are filtered after they are evaluated,
+	 *         such that a page may hold fewer results than its limit
+	 */
+	protected boolean isFiltered() {
+		return false;
 	}
+
+	/**
+	 * @return the names of the key attributes of the entities read, which are
+	 *         read with each page of filtered results so that a page can be
+	 *         resumed from the key of its last returned result - or null if
+	 *         there is no entity information for this query
+	 */
+	protected List<String> getKeyAttributeNames() {
+		return entityInformation == null ? null : getKeyMarshaller(entityInformation).getKeyAttributeNames();
+	}
+
+	private static <T, ID extends Serializable> Map<String, AttributeValue> getKey(
+			DynamoDBEntityInformation<T, ID> entityInformation, T result) {
+		return getKeyMarshaller(entityInformation).getKey(entityInformation.getId(result));
+	}
+
+	private static <T, ID extends Serializable> DynamoDBKeyAttributeValueMarshaller<T, ID> getKeyMarshaller(
+			DynamoDBEntityInformation<T, ID> entityInformation) {
+		return new DynamoDBKeyAttributeValueMarshaller<T, ID>(entityInformation);
+	}
+
+	/**
+	 * Makes a single request for the results after the given key, evaluating
+	 * at most limit items
+	 * 
+	 * @param exclusiveStartKey
+	 *            the key after which to start reading - may be null
+	 * @param limit
+	 *            the maximum number of items to evaluate - may be null, in
+	 *            which case the page is limited only by the 1MB page size
+	 *            limit
+	 * @return the results read, and the key at which to resume
+	 */
+	protected abstract ResultPage<T> readPage(Map<String, AttributeValue> exclusiveStartKey, Integer limit);
 }
@@ -15,9 +15,21 @@
  */
 package org.socialsignin.spring.data.dynamodb.query;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 import org.socialsignin.spring.data.dynamodb.mapping.DynamoDBPersistentProperty;
+import org.socialsignin.spring.data.dynamodb.repository.CloseableIterator;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.util.Assert;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.ConsistentReads;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.PaginationLoadingStrategy;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 
 /**
  * {@link DynamoDBPersistentProperty} implementation
@@ -29,6 +41,9 @@ public abstract class AbstractQuery<T> implements Query<T> {
 	protected DynamoDBMapper dynamoDBMapper;
 	protected Class<T> clazz;
 	protected boolean scanEnabled = false;
+	protected ConsistentReads consistentReads;
+	protected int pageSize;
+	protected PaginationLoadingStrategy paginationLoadingStrategy;
 
 	public void setScanEnabled(boolean scanEnabled) {
 		this.scanEnabled = scanEnabled;
@@ -38,9 +53,124 @@ public abstract class AbstractQuery<T> implements Query<T> {
 		return scanEnabled;
 	}
 
+	@Override
+	public void setConsistentReads(ConsistentReads consistentReads) {
+		this.consistentReads = consistentReads;
+	}
+
+	@Override
+	public void setPageSize(int pageSize) {
+		Assert.isTrue(pageSize >= 0, "pageSize must not be negative");
+		this.pageSize = pageSize;
+	}
+
+	@Override
+	public void setPaginationLoadingStrategy(PaginationLoadingStrategy paginationLoadingStrategy) {
+		this.paginationLoadingStrategy = paginationLoadingStrategy;
+	}
+
+	/**
+	 * Returns the DynamoDBMapperConfig overrides for the read settings of
+	 * this query
+	 * 
+	 * @return the overrides, or null if the mapper's config is not overridden
+	 */
+	protected DynamoDBMapperConfig getMapperConfig() {
+		if (consistentReads == null && paginationLoadingStrategy == null) {
+			return null;
+		}
+		return new DynamoDBMapperConfig(null, consistentReads, null, paginationLoadingStrategy);
+	}
+
+	/**
+	 * Returns the DynamoDBMapperConfig overrides for iterating over the
+	 * results of this query a page at a time
+	 */
+	protected DynamoDBMapperConfig getIterationMapperConfig() {
+		if (consistentReads == null) {
+			return LazyResultIterator.ITERATION_ONLY_CONFIG;
+		}
+		return new DynamoDBMapperConfig(null, consistentReads, null, PaginationLoadingStrategy.ITERATION_ONLY);
+	}
+
+	/**
+	 * Returns the Limit of a request for at most the given number of items,
+	 * bounded by the page size of this query
+	 */
+	protected int getRequestLimit(int limit) {
+		return pageSize > 0 ? Math.min(limit, pageSize) : limit;
+	}
+
 	public AbstractQuery(DynamoDBMapper dynamoDBMapper, Class<T> clazz) {
 		this.dynamoDBMapper = dynamoDBMapper;
 		this.clazz = clazz;
 	}
 
+	/**
+	 * Returns the single result of the given results
+	 * 
+	 * @throws IncorrectResultSizeDataAccessException
+	 *             if there is more than one result
+	 * @throws EmptyResultDataAccessException
+	 *             if there is no result
+	 */
+	protected T getSingleResult(List<T> results) {
+		if (results.size() > 1) {
+			throw new IncorrectResultSizeDataAccessException("result returns more than one elements", 1, results.size());
+		}
+		if (results.size() == 0) {
+			throw new EmptyResultDataAccessException("No results found", 1);
+		}
+		return results.get(0);
+	}
+
+	/**
+	 * Iterates over the result list - override to load results lazily where
+	 * they may span several pages
+	 */
+	@Override
+	public CloseableIterator<T> getResultIterator() {
+		return new LazyResultIterator<T>(getResultList().iterator());
+	}
+
+	/**
+	 * Counts the result list - override to count the results without reading
+	 * them where the results may span several pages
+	 */
+	@Override
+	public long getResultCount() {
+		return getResultList().size();
+	}
+
+	/**
+	 * Reads the first page of a single result - override where a limit of a
+	 * single item does not bound the items needed to find the first result
+	 */
+	@Override
+	public boolean hasResults() {
+		return !getResultPage(null, 1).getResults().isEmpty();
+	}
+
+	/**
+	 * Returns the first results of the result list - override to read only
+	 * the items of the page where the results may span several pages
+	 */
+	@Override
+	public ResultPage<T> getResultPage(Map<String, AttributeValue> exclusiveStartKey, int maxResults) {
+		Assert.isNull(exclusiveStartKey, "This query cannot be resumed from a cursor");
+		List<T> results = getResultList();
+		Assert.state(results.size() <= maxResults, "This query cannot be paged");
+		return new ResultPage<T>(new ArrayList<T>(results), null);
+	}
+
+	@Override
+	public ResultPage<T> getResultSlice(Map<String, AttributeValue> exclusiveStartKey, int maxResults) {
+		ResultPage<T> resultPage = getResultPage(exclusiveStartKey, maxResults);
+		if (resultPage.getLastEvaluatedKey() != null
+				&& getResultPage(resultPage.getLastEvaluatedKey(), 1).getResults().isEmpty()) {
+			return new ResultPage<T>(resultPage.getResults(), null);
+		}
+		return resultPage;
+	}
+
 }
@@ -31,4 +31,17 @@ public abstract class AbstractSingleEntityQuery<T> extends AbstractQuery<T> impl
 	public List<T> getResultList() {
 		return Arrays.asList(getSingleResult());
 	}
+
+	/**
+	 * Loads the entity, reading its item with a single GetItem request
+	 */
+	@Override
+	public boolean hasResults() {
+		return getSingleResult() != null;
+	}
+
+	@Override
+	public long getResultCount() {
+		return getSingleResult() == null ? 0 : 1;
+	}
 }
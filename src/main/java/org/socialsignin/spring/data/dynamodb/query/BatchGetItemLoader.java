@@ -0,0 +1,203 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+
+/**
+ * Loads the items of a single table for a list of keys using BatchGetItem,
+ * splitting the keys into chunks of at most 100 keys.
+ *
+ * When an ExecutorService is supplied, chunks are dispatched concurrently:
+ * the calling thread and up to one task per remaining chunk take chunks from a
+ * shared queue until it is empty, so the load completes even if the
+ * ExecutorService is saturated, or the calling thread is one of its threads.
+ *
+ * Unprocessed keys are retried after an exponential backoff with full jitter,
+ * so that concurrent chunks do not retry in lockstep, for up to 6 attempts,
+ * after which the load fails with the keys which are still unprocessed.
+ * DynamoDB returns unprocessed keys both when a response would exceed 16MB
+ * and when provisioned throughput is exceeded - the backoff is reset
+ * whenever a response returns items, so only the latter are backed off
+ * further.
+ *
+ * Optionally only the given attributes of each item are retrieved, so that
+ * for example the existence of items can be determined by retrieving their
+ * key attributes only.
+ *
+ * @author Michael Lavelle
+ */
+public class BatchGetItemLoader {
+
+	public static final int MAX_BATCH_GET_ITEMS = 100;
+
+	private static final int MAX_ATTEMPTS = 6;
+
+	private static final long INITIAL_RETRY_DELAY_MILLIS = 50;
+
+	private static final long MAX_RETRY_DELAY_MILLIS = 5000;
+
+	private static final Random JITTER = new Random();
+
+	private AmazonDynamoDB amazonDynamoDB;
+
+	private String tableName;
+
+	private List<String> attributesToGet;
+
+	private boolean consistentRead;
+
+	private ExecutorService executorService;
+
+	public BatchGetItemLoader(AmazonDynamoDB amazonDynamoDB, String tableName, List<String> attributesToGet,
+			boolean consistentRead) {
+		this(amazonDynamoDB, tableName, attributesToGet, consistentRead, null);
+	}
+
+	/**
+	 * @param amazonDynamoDB
+	 * @param tableName
+	 * @param attributesToGet
+	 *            the attributes to retrieve, or null to retrieve all attributes
+	 * @param consistentRead
+	 * @param executorService
+	 *            the ExecutorService on which chunks are dispatched
+	 *            concurrently - may be null, in which case chunks are loaded
+	 *            sequentially by the calling thread
+	 */
+	public BatchGetItemLoader(AmazonDynamoDB amazonDynamoDB, String tableName, List<String> attributesToGet,
+			boolean consistentRead, ExecutorService executorService) {
+		Assert.notNull(amazonDynamoDB);
+		Assert.notNull(tableName);
+		this.amazonDynamoDB = amazonDynamoDB;
+		this.tableName = tableName;
+		this.attributesToGet = attributesToGet;
+		this.consistentRead = consistentRead;
+		this.executorService = executorService;
+	}
+
+	/**
+	 * @param keys
+	 *            the keys of the items to load, which should not contain
+	 *            duplicates
+	 * @return the loaded items, in no particular order - items which do not
+	 *         exist are omitted
+	 */
+	public List<Map<String, AttributeValue>> load(List<Map<String, AttributeValue>> keys) {
+		final Queue<List<Map<String, AttributeValue>>> chunks = new ConcurrentLinkedQueue<List<Map<String, AttributeValue>>>();
+		for (int start = 0; start < keys.size(); start += MAX_BATCH_GET_ITEMS) {
+			chunks.add(new ArrayList<Map<String, AttributeValue>>(keys.subList(start,
+					Math.min(start + MAX_BATCH_GET_ITEMS, keys.size()))));
+		}
+		final List<Map<String, AttributeValue>> items = Collections
+				.synchronizedList(new ArrayList<Map<String, AttributeValue>>(keys.size()));
+
+		List<FutureTask<Void>> workers = new ArrayList<FutureTask<Void>>();
+		for (int i = 1; i < chunks.size(); i++) {
+			FutureTask<Void> worker = WorkerTasks.execute(executorService, new Callable<Void>() {
+				public Void call() {
+					loadChunks(chunks, items);
+					return null;
+				}
+			});
+			if (worker == null) {
+				// Remaining chunks are loaded by the workers already executed
+				// and by the calling thread
+				break;
+			}
+			workers.add(worker);
+		}
+
+		try {
+			loadChunks(chunks, items);
+		} finally {
+			// Stop workers taking further chunks if the calling thread failed
+			chunks.clear();
+		}
+		for (FutureTask<Void> worker : workers) {
+			WorkerTasks.await(worker, "loading items from table " + tableName);
+		}
+		return new ArrayList<Map<String, AttributeValue>>(items);
+	}
+
+	private void loadChunks(Queue<List<Map<String, AttributeValue>>> chunks, List<Map<String, AttributeValue>> items) {
+		List<Map<String, AttributeValue>> chunk;
+		while ((chunk = chunks.poll()) != null) {
+			items.addAll(loadBatch(chunk));
+		}
+	}
+
+	protected List<Map<String, AttributeValue>> loadBatch(List<Map<String, AttributeValue>> keys) {
+		List<Map<String, AttributeValue>> items = new ArrayList<Map<String, AttributeValue>>();
+		KeysAndAttributes keysAndAttributes = new KeysAndAttributes().withKeys(keys).withConsistentRead(consistentRead);
+		if (attributesToGet != null) {
+			keysAndAttributes.setAttributesToGet(attributesToGet);
+		}
+		Map<String, KeysAndAttributes> requestItems = Collections.singletonMap(tableName, keysAndAttributes);
+		long retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+		for (int attempt = 1; requestItems != null && !requestItems.isEmpty(); attempt++) {
+			if (attempt > MAX_ATTEMPTS) {
+				List<Map<String, AttributeValue>> unprocessedKeys = requestItems.get(tableName).getKeys();
+				throw new DataAccessResourceFailureException(String.format(
+						"Unable to load %s items from table %s after %s attempts - unprocessed keys: %s",
+						unprocessedKeys.size(), tableName, MAX_ATTEMPTS, unprocessedKeys));
+			}
+			if (attempt > 1) {
+				// Back off before retrying unprocessed keys, with full jitter
+				sleep((long) (JITTER.nextDouble() * retryDelay) + 1);
+				retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+			}
+			BatchGetItemResult result = amazonDynamoDB.batchGetItem(new BatchGetItemRequest().withRequestItems(requestItems));
+			List<Map<String, AttributeValue>> responseItems = result.getResponses() == null ? null : result.getResponses().get(
+					tableName);
+			if (responseItems != null && !responseItems.isEmpty()) {
+				items.addAll(responseItems);
+				// Response size limit reached rather than throttled
+				retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+			}
+			requestItems = result.getUnprocessedKeys();
+		}
+		return items;
+	}
+
+	private void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while loading items from table " + tableName, e);
+		}
+	}
+
+}
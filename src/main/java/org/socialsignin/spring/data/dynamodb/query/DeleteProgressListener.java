@@ -0,0 +1,39 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.query;
+
+/**
+ * Receives the progress of a bulk delete of the items of a table, such as
+ * that made by deleteAll.
+ * 
+ * Callbacks may be made concurrently from the threads deleting the segments
+ * of a table scanned in parallel, so implementations must be thread-safe.
+ * 
+ * @author Michael Lavelle
+ */
+public interface DeleteProgressListener {
+
+	/**
+	 * Called each time a page of scanned items has been deleted
+	 * 
+	 * @param tableName
+	 *            the name of the table whose items are being deleted
+	 * @param deletedCount
+	 *            the total number of items deleted from the table so far
+	 */
+	void itemsDeleted(String tableName, long deletedCount);
+
+}
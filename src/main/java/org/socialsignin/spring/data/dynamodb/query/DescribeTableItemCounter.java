@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.query;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+
+/**
+ * Provides the approximate number of items in a table from DescribeTable,
+ * reusing the described count for a maximum age so that frequent callers
+ * issue at most one DescribeTable request per table per period.
+ * 
+ * @author Michael Lavelle
+ */
+public class DescribeTableItemCounter {
+
+	private AmazonDynamoDB amazonDynamoDB;
+
+	private String tableName;
+
+	private long maxAgeNanos;
+
+	private volatile long itemCount;
+
+	private volatile long describedAtNanos;
+
+	private volatile boolean described;
+
+	public DescribeTableItemCounter(AmazonDynamoDB amazonDynamoDB, String tableName, long maxAgeMillis) {
+		Assert.notNull(amazonDynamoDB);
+		Assert.notNull(tableName);
+		Assert.isTrue(maxAgeMillis >= 0, "maxAgeMillis must not be negative");
+		this.amazonDynamoDB = amazonDynamoDB;
+		this.tableName = tableName;
+		this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+	}
+
+	public long getItemCount() {
+		if (isCurrent()) {
+			return itemCount;
+		}
+		synchronized (this) {
+			// Another thread may have described the table while this thread
+			// was waiting
+			if (!isCurrent()) {
+				Long describedItemCount = amazonDynamoDB.describeTable(new DescribeTableRequest(tableName)).getTable()
+						.getItemCount();
+				itemCount = describedItemCount == null ? 0 : describedItemCount;
+				describedAtNanos = System.nanoTime();
+				described = true;
+			}
+			return itemCount;
+		}
+	}
+
+	private boolean isCurrent() {
+		return described && System.nanoTime() - describedAtNanos < maxAgeNanos;
+	}
+
+}
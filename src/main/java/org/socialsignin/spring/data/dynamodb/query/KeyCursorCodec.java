@@ -0,0 +1,137 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.query;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.util.BinaryUtils;
+
+/**
+ * Encodes the key at which a scan or query is to be resumed - its
+ * ExclusiveStartKey - as an opaque cursor string, and decodes such cursors.
+ * 
+ * Key attribute values must be strings, numbers or binary, as DynamoDB
+ * requires of key attributes. A key has at most four attributes - the hash
+ * and range keys of the table and, for a query of a secondary index, the
+ * hash and range keys of the index.
+ * 
+ * @author Michael Lavelle
+ */
+public class KeyCursorCodec {
+
+	public static final int MAX_KEY_ATTRIBUTES = 4;
+
+	private KeyCursorCodec() {
+	}
+
+	/**
+	 * @param key
+	 * @return the cursor encoding the given key, or null if the key is null
+	 */
+	public static String encode(Map<String, AttributeValue> key) {
+		if (key == null) {
+			return null;
+		}
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(bytes);
+		try {
+			output.writeInt(key.size());
+			for (Map.Entry<String, AttributeValue> keyAttribute : key.entrySet()) {
+				AttributeValue value = keyAttribute.getValue();
+				output.writeUTF(keyAttribute.getKey());
+				if (value.getS() != null) {
+					output.writeByte('S');
+					output.writeUTF(value.getS());
+				} else if (value.getN() != null) {
+					output.writeByte('N');
+					output.writeUTF(value.getN());
+				} else if (value.getB() != null) {
+					ByteBuffer binary = value.getB().duplicate();
+					byte[] binaryBytes = new byte[binary.remaining()];
+					binary.get(binaryBytes);
+					output.writeByte('B');
+					output.writeInt(binaryBytes.length);
+					output.write(binaryBytes);
+				} else {
+					throw new IllegalArgumentException("Key attribute '" + keyAttribute.getKey()
+							+ "' must be a string, number or binary value");
+				}
+			}
+			output.flush();
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to encode cursor", e);
+		}
+		return BinaryUtils.toBase64(bytes.toByteArray());
+	}
+
+	/**
+	 * @param cursor
+	 * @return the key encoded by the given cursor, or null if the cursor is
+	 *         null
+	 * @throws IllegalArgumentException
+	 *             if the cursor is not one produced by
+	 *             {@link #encode(Map)}
+	 */
+	public static Map<String, AttributeValue> decode(String cursor) {
+		if (cursor == null) {
+			return null;
+		}
+		try {
+			DataInputStream input = new DataInputStream(new ByteArrayInputStream(BinaryUtils.fromBase64(cursor)));
+			int keyAttributeCount = input.readInt();
+			if (keyAttributeCount < 1 || keyAttributeCount > MAX_KEY_ATTRIBUTES) {
+				throw new IllegalArgumentException("Invalid cursor: " + cursor);
+			}
+			Map<String, AttributeValue> key = new HashMap<String, AttributeValue>();
+			for (int i = 0; i < keyAttributeCount; i++) {
+				String name = input.readUTF();
+				byte type = input.readByte();
+				if (type == 'S') {
+					key.put(name, new AttributeValue().withS(input.readUTF()));
+				} else if (type == 'N') {
+					key.put(name, new AttributeValue().withN(input.readUTF()));
+				} else if (type == 'B') {
+					int length = input.readInt();
+					if (length < 0 || length > input.available()) {
+						throw new IllegalArgumentException("Invalid cursor: " + cursor);
+					}
+					byte[] binaryBytes = new byte[length];
+					input.readFully(binaryBytes);
+					key.put(name, new AttributeValue().withB(ByteBuffer.wrap(binaryBytes)));
+				} else {
+					throw new IllegalArgumentException("Invalid cursor: " + cursor);
+				}
+			}
+			return key;
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+		} catch (RuntimeException e) {
+			if (e instanceof IllegalArgumentException) {
+				throw e;
+			}
+			throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+		}
+	}
+
+}
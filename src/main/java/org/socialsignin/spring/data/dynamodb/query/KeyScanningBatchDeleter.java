@@ -0,0 +1,258 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.DeleteRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+
+/**
+ * Deletes every item of a table without materializing the table in memory.
+ *
+ * The table is scanned page by page, retrieving only the key attributes of
+ * each item, and the keys of each page are deleted in batches of 25 items.
+ * At most two pages of keys are held in memory per scanned segment,
+ * regardless of the size of the table.
+ *
+ * When an ExecutorService is supplied, the segments of a table scanned in
+ * parallel are taken from a shared queue by the calling thread and by up to
+ * one task per remaining segment, and the keys of each page are deleted on
+ * the ExecutorService while the next page is being scanned. Work which the
+ * ExecutorService has not started by the time it is needed is done by the
+ * waiting thread, so the delete completes even if the ExecutorService is
+ * saturated. Without an ExecutorService, segments and pages are deleted
+ * sequentially by the calling thread.
+ *
+ * Unprocessed items are retried after an exponential backoff with full
+ * jitter, so that concurrent segments do not retry in lockstep. Progress is
+ * logged at debug level and reported to an optional
+ * {@link DeleteProgressListener}.
+ *
+ * @author Michael Lavelle
+ */
+public class KeyScanningBatchDeleter {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(KeyScanningBatchDeleter.class);
+
+	public static final int MAX_BATCH_WRITE_ITEMS = 25;
+
+	private static final long INITIAL_RETRY_DELAY_MILLIS = 50;
+
+	private static final long MAX_RETRY_DELAY_MILLIS = 5000;
+
+	private static final Random JITTER = new Random();
+
+	private AmazonDynamoDB amazonDynamoDB;
+
+	private String tableName;
+
+	private List<String> keyAttributeNames;
+
+	private ExecutorService executorService;
+
+	private DeleteProgressListener progressListener;
+
+	private final AtomicLong deletedCount = new AtomicLong();
+
+	public KeyScanningBatchDeleter(AmazonDynamoDB amazonDynamoDB, String tableName, List<String> keyAttributeNames) {
+		this(amazonDynamoDB, tableName, keyAttributeNames, null, null);
+	}
+
+	/**
+	 * @param amazonDynamoDB
+	 * @param tableName
+	 * @param keyAttributeNames
+	 * @param executorService
+	 *            the ExecutorService on which segments are scanned and pages
+	 *            deleted concurrently - may be null, in which case they are
+	 *            deleted sequentially by the calling thread
+	 * @param progressListener
+	 *            the listener to report progress to - may be null
+	 */
+	public KeyScanningBatchDeleter(AmazonDynamoDB amazonDynamoDB, String tableName, List<String> keyAttributeNames,
+			ExecutorService executorService, DeleteProgressListener progressListener) {
+		Assert.notNull(amazonDynamoDB);
+		Assert.notNull(tableName);
+		Assert.notEmpty(keyAttributeNames);
+		this.amazonDynamoDB = amazonDynamoDB;
+		this.tableName = tableName;
+		this.keyAttributeNames = keyAttributeNames;
+		this.executorService = executorService;
+		this.progressListener = progressListener;
+	}
+
+	/**
+	 * Deletes all items of the table, scanning the table in the given number
+	 * of segments when totalSegments is greater than one.
+	 *
+	 * @param totalSegments
+	 *            the number of segments to scan
+	 * @return the number of items deleted
+	 */
+	public long deleteAll(int totalSegments) {
+		LOGGER.debug("Deleting all items from table {}", tableName);
+		if (totalSegments <= 1) {
+			deleteSegment(newScanRequest());
+		} else {
+			final Queue<ScanRequest> segmentScanRequests = new ConcurrentLinkedQueue<ScanRequest>();
+			for (int segment = 0; segment < totalSegments; segment++) {
+				segmentScanRequests.add(newScanRequest().withTotalSegments(totalSegments).withSegment(segment));
+			}
+
+			List<FutureTask<Void>> workers = new ArrayList<FutureTask<Void>>();
+			for (int i = 1; i < totalSegments; i++) {
+				FutureTask<Void> worker = WorkerTasks.execute(executorService, new Callable<Void>() {
+					public Void call() {
+						deleteSegments(segmentScanRequests);
+						return null;
+					}
+				});
+				if (worker == null) {
+					// Remaining segments are deleted by the workers already
+					// executed and by the calling thread
+					break;
+				}
+				workers.add(worker);
+			}
+
+			try {
+				deleteSegments(segmentScanRequests);
+			} finally {
+				// Stop workers taking further segments if the calling thread
+				// failed
+				segmentScanRequests.clear();
+			}
+			for (FutureTask<Void> worker : workers) {
+				await(worker);
+			}
+		}
+		LOGGER.debug("Deleted {} items from table {}", deletedCount.get(), tableName);
+		return deletedCount.get();
+	}
+
+	/**
+	 * @return the number of items deleted so far
+	 */
+	public long getDeletedCount() {
+		return deletedCount.get();
+	}
+
+	private ScanRequest newScanRequest() {
+		return new ScanRequest(tableName).withAttributesToGet(keyAttributeNames);
+	}
+
+	private void deleteSegments(Queue<ScanRequest> segmentScanRequests) {
+		ScanRequest segmentScanRequest;
+		while ((segmentScanRequest = segmentScanRequests.poll()) != null) {
+			deleteSegment(segmentScanRequest);
+		}
+	}
+
+	private void deleteSegment(ScanRequest scanRequest) {
+		// The keys of one page are deleted while the next page is scanned
+		FutureTask<Void> pendingDelete = null;
+		try {
+			ScanResult scanResult;
+			do {
+				scanResult = amazonDynamoDB.scan(scanRequest);
+				await(pendingDelete);
+				pendingDelete = deleteKeysAsync(scanResult.getItems());
+				scanRequest.setExclusiveStartKey(scanResult.getLastEvaluatedKey());
+			} while (scanResult.getLastEvaluatedKey() != null);
+			await(pendingDelete);
+		} finally {
+			if (pendingDelete != null) {
+				pendingDelete.cancel(true);
+			}
+		}
+	}
+
+	private FutureTask<Void> deleteKeysAsync(final List<Map<String, AttributeValue>> keys) {
+		Callable<Void> delete = new Callable<Void>() {
+			public Void call() throws InterruptedException {
+				deleteKeys(keys);
+				return null;
+			}
+		};
+		FutureTask<Void> pendingDelete = WorkerTasks.execute(executorService, delete);
+		if (pendingDelete == null) {
+			// Deleted by the calling thread instead
+			pendingDelete = new FutureTask<Void>(delete);
+			pendingDelete.run();
+		}
+		return pendingDelete;
+	}
+
+	private void deleteKeys(List<Map<String, AttributeValue>> keys) throws InterruptedException {
+		for (int start = 0; start < keys.size(); start += MAX_BATCH_WRITE_ITEMS) {
+			List<WriteRequest> writeRequests = new ArrayList<WriteRequest>(MAX_BATCH_WRITE_ITEMS);
+			for (Map<String, AttributeValue> key : keys.subList(start, Math.min(start + MAX_BATCH_WRITE_ITEMS, keys.size()))) {
+				writeRequests.add(new WriteRequest(new DeleteRequest(key)));
+			}
+			writeBatch(writeRequests);
+		}
+		long deleted = deletedCount.addAndGet(keys.size());
+		if (!keys.isEmpty()) {
+			LOGGER.debug("Deleted {} items so far from table {}", deleted, tableName);
+			if (progressListener != null) {
+				progressListener.itemsDeleted(tableName, deleted);
+			}
+		}
+	}
+
+	private void writeBatch(List<WriteRequest> writeRequests) throws InterruptedException {
+		Map<String, List<WriteRequest>> requestItems = Collections.singletonMap(tableName, writeRequests);
+		long retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+		while (requestItems != null && !requestItems.isEmpty()) {
+			BatchWriteItemResult result = amazonDynamoDB.batchWriteItem(new BatchWriteItemRequest()
+					.withRequestItems(requestItems));
+			requestItems = result.getUnprocessedItems();
+			if (requestItems != null && !requestItems.isEmpty()) {
+				// Back off before retrying unprocessed items, which are
+				// returned when provisioned throughput is exceeded, with full
+				// jitter
+				Thread.sleep((long) (JITTER.nextDouble() * retryDelay) + 1);
+				retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MILLIS);
+			}
+		}
+	}
+
+	private void await(FutureTask<Void> task) {
+		WorkerTasks.await(task, "deleting items from table " + tableName);
+	}
+
+}
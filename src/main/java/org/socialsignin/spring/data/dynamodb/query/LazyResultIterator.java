@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.query;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import org.socialsignin.spring.data.dynamodb.repository.CloseableIterator;
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.PaginationLoadingStrategy;
+
+/**
+ * A {@link CloseableIterator} over the results of a scan or query.
+ * 
+ * Scans and queries made with {@link #ITERATION_ONLY_CONFIG} return paginated
+ * lists which load each page of results as iteration reaches it, and which
+ * release each page once it has been iterated over, so that iterating over
+ * them holds at most one page of results in memory.
+ * 
+ * @author Michael Lavelle
+ * 
+ * @param <T>
+ *            the type of the results
+ */
+public class LazyResultIterator<T> implements CloseableIterator<T> {
+
+	/**
+	 * DynamoDBMapperConfig overrides which make scans and queries load and
+	 * release their pages of results as they are iterated over
+	 */
+	public static final DynamoDBMapperConfig ITERATION_ONLY_CONFIG = new DynamoDBMapperConfig(
+			PaginationLoadingStrategy.ITERATION_ONLY);
+
+	private Iterator<T> results;
+
+	private int remainingResults;
+
+	public LazyResultIterator(Iterator<T> results) {
+		this(results, 0);
+	}
+
+	/**
+	 * @param results
+	 *            the results to iterate over
+	 * @param maxResults
+	 *            the maximum number of results to return, after which no
+	 *            further pages are loaded, or 0 to return all the results
+	 */
+	public LazyResultIterator(Iterator<T> results, int maxResults) {
+		Assert.notNull(results);
+		Assert.isTrue(maxResults >= 0, "maxResults must not be negative");
+		this.results = results;
+		this.remainingResults = maxResults > 0 ? maxResults : -1;
+	}
+
+	@Override
+	public boolean hasNext() {
+		return results != null && remainingResults != 0 && results.hasNext();
+	}
+
+	@Override
+	public T next() {
+		if (results == null) {
+			throw new NoSuchElementException("The iterator has been closed");
+		}
+		if (remainingResults == 0) {
+			throw new NoSuchElementException("The maximum number of results has been returned");
+		}
+		T result = results.next();
+		if (remainingResults > 0) {
+			remainingResults--;
+		}
+		return result;
+	}
+
+	@Override
+	public void remove() {
+		throw new UnsupportedOperationException("Results cannot be removed through the iterator");
+	}
+
+	@Override
+	public void close() {
+		results = null;
+	}
+
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.query;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityInformation;
+import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBKeyAttributeValueMarshaller;
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.ConsistentReads;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.PaginationLoadingStrategy;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+/**
+ * Executes the queries of each disjunct of an Or query in parallel, merging
+ * their results and removing duplicates by primary key.
+ *
+ * Each disjunct is planned independently, so that disjuncts on hash keys and
+ * indexed attributes are queried rather than scanned. The disjuncts are read
+ * on the given ExecutorService, and by the calling thread, rather than on a
+ * thread pool created for each query.
+ *
+ * The merged results are not resumable from the key of an item, so pages of
+ * results are resumed from their offset in the merged results, which is
+ * carried by the key returned with each page. A page ending at offset n
+ * reads at most n + 1 results of each disjunct.
+ *
+ * @author Michael Lavelle
+ *
+ * @param <T>
+ *            the type of the results
+ * @param <ID>
+ *            the type of the results' identifier
+ */
+public class MultipleEntityOrQuery<T, ID extends Serializable> extends AbstractQuery<T> {
+
+	/**
+	 * The attribute of the keys returned with pages of merged results, whose
+	 * value is the offset of the next page
+	 */
+	static final String OFFSET_KEY_ATTRIBUTE = "#orQueryOffset";
+
+	private DynamoDBEntityInformation<T, ID> entityInformation;
+
+	private DynamoDBKeyAttributeValueMarshaller<T, ID> keyMarshaller;
+
+	private List<Query<T>> disjunctQueries;
+
+	private ExecutorService executorService;
+
+	public MultipleEntityOrQuery(Class<T> clazz, DynamoDBEntityInformation<T, ID> entityInformation,
+			List<Query<T>> disjunctQueries) {
+		this(clazz, entityInformation, disjunctQueries, null);
+	}
+
+	/**
+	 * @param executorService
+	 *            the ExecutorService on which disjuncts are read in parallel
+	 *            with the calling thread - may be null, in which case the
+	 *            disjuncts are read in turn by the calling thread
+	 */
+	public MultipleEntityOrQuery(Class<T> clazz, DynamoDBEntityInformation<T, ID> entityInformation,
+			List<Query<T>> disjunctQueries, ExecutorService executorService) {
+		super(null, clazz);
+		Assert.notEmpty(disjunctQueries);
+		this.entityInformation = entityInformation;
+		this.keyMarshaller = new DynamoDBKeyAttributeValueMarshaller<T, ID>(entityInformation);
+		this.disjunctQueries = disjunctQueries;
+		this.executorService = executorService;
+	}
+
+	@Override
+	public void setScanEnabled(boolean scanEnabled) {
+		super.setScanEnabled(scanEnabled);
+		for (Query<T> disjunctQuery : disjunctQueries) {
+			disjunctQuery.setScanEnabled(scanEnabled);
+		}
+	}
+
+	@Override
+	public void setConsistentReads(ConsistentReads consistentReads) {
+		super.setConsistentReads(consistentReads);
+		for (Query<T> disjunctQuery : disjunctQueries) {
+			disjunctQuery.setConsistentReads(consistentReads);
+		}
+	}
+
+	@Override
+	public void setPageSize(int pageSize) {
+		super.setPageSize(pageSize);
+		for (Query<T> disjunctQuery : disjunctQueries) {
+			disjunctQuery.setPageSize(pageSize);
+		}
+	}
+
+	@Override
+	public void setPaginationLoadingStrategy(PaginationLoadingStrategy paginationLoadingStrategy) {
+		super.setPaginationLoadingStrategy(paginationLoadingStrategy);
+		for (Query<T> disjunctQuery : disjunctQueries) {
+			disjunctQuery.setPaginationLoadingStrategy(paginationLoadingStrategy);
+		}
+	}
+
+	@Override
+	public List<T> getResultList() {
+		return merge(getDisjunctResults(0));
+	}
+
+	/**
+	 * Reads no more than two results of each disjunct, which are enough to
+	 * determine whether there is more than one result
+	 */
+	@Override
+	public T getSingleResult() {
+		return getSingleResult(merge(getDisjunctResults(2)));
+	}
+
+	/**
+	 * Returns the merged results from the offset carried by the given key,
+	 * reading one more result of each disjunct than are needed for the page
+	 * so that the returned key is null only if there are no more results
+	 */
+	@Override
+	public ResultPage<T> getResultPage(Map<String, AttributeValue> exclusiveStartKey, int maxResults) {
+		Assert.isTrue(maxResults > 0, "maxResults must be positive");
+		int offset = getOffset(exclusiveStartKey);
+		int endOfPage = offset + maxResults;
+		List<T> results = merge(getDisjunctResults(endOfPage + 1));
+		if (results.size() <= offset) {
+			return new ResultPage<T>(new ArrayList<T>(), null);
+		}
+		Map<String, AttributeValue> lastEvaluatedKey = null;
+		if (results.size() > endOfPage) {
+			lastEvaluatedKey = Collections.singletonMap(OFFSET_KEY_ATTRIBUTE,
+					new AttributeValue().withN(Integer.toString(endOfPage)));
+		}
+		return new ResultPage<T>(new ArrayList<T>(results.subList(offset, Math.min(endOfPage, results.size()))),
+				lastEvaluatedKey);
+	}
+
+	/**
+	 * The key returned with each page is null if there are no more results,
+	 * so no further result need be read to determine whether there is a next
+	 * slice
+	 */
+	@Override
+	public ResultPage<T> getResultSlice(Map<String, AttributeValue> exclusiveStartKey, int maxResults) {
+		return getResultPage(exclusiveStartKey, maxResults);
+	}
+
+	@Override
+	public boolean hasResults() {
+		for (Query<T> disjunctQuery : disjunctQueries) {
+			if (disjunctQuery.hasResults()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private int getOffset(Map<String, AttributeValue> exclusiveStartKey) {
+		if (exclusiveStartKey == null) {
+			return 0;
+		}
+		AttributeValue offset = exclusiveStartKey.get(OFFSET_KEY_ATTRIBUTE);
+		Assert.isTrue(exclusiveStartKey.size() == 1 && offset != null && offset.getN() != null,
+				"Or queries can only be resumed from a cursor returned by an Or query");
+		try {
+			int offsetValue = Integer.parseInt(offset.getN());
+			Assert.isTrue(offsetValue >= 0, "Or queries can only be resumed from a cursor returned by an Or query");
+			return offsetValue;
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Or queries can only be resumed from a cursor returned by an Or query",
+					e);
+		}
+	}
+
+	/**
+	 * Merges the results of the disjuncts in disjunct order, removing
+	 * duplicates. Reading only the first n results of each disjunct yields
+	 * the first n merged results, as at most the preceding merged results
+	 * are duplicates among a disjunct's first n results.
+	 */
+	private List<T> merge(List<List<T>> disjunctResults) {
+		Map<Object, T> resultsByKey = new LinkedHashMap<Object, T>();
+		for (List<T> results : disjunctResults) {
+			for (T result : results) {
+				ID id = entityInformation.getId(result);
+				// Results without a key cannot be duplicates
+				Object key = id == null ? new Object() : keyMarshaller.getKey(id);
+				if (!resultsByKey.containsKey(key)) {
+					resultsByKey.put(key, result);
+				}
+			}
+		}
+		return new ArrayList<T>(resultsByKey.values());
+	}
+
+	/**
+	 * Reads the results of each disjunct, taking the disjuncts from a shared
+	 * queue on the calling thread and on up to one fewer tasks submitted to
+	 * the ExecutorService, so that the query completes even if the
+	 * ExecutorService is saturated, or the calling thread is one of its
+	 * threads
+	 *
+	 * @param maxResults
+	 *            the maximum number of results to read of each disjunct, or 0
+	 *            to read them in full
+	 */
+	private List<List<T>> getDisjunctResults(final int maxResults) {
+		final AtomicReferenceArray<List<T>> disjunctResults = new AtomicReferenceArray<List<T>>(
+				disjunctQueries.size());
+		final Queue<Integer> disjuncts = new ConcurrentLinkedQueue<Integer>();
+		for (int i = 0; i < disjunctQueries.size(); i++) {
+			disjuncts.add(i);
+		}
+
+		List<FutureTask<Void>> workers = new ArrayList<FutureTask<Void>>();
+		for (int i = 1; i < disjunctQueries.size(); i++) {
+			FutureTask<Void> worker = WorkerTasks.execute(executorService, new Callable<Void>() {
+				public Void call() {
+					readDisjuncts(disjuncts, disjunctResults, maxResults);
+					return null;
+				}
+			});
+			if (worker == null) {
+				// Remaining disjuncts are read by the workers already
+				// submitted and by the calling thread
+				break;
+			}
+			workers.add(worker);
+		}
+
+		try {
+			readDisjuncts(disjuncts, disjunctResults, maxResults);
+		} finally {
+			// Stop workers taking further disjuncts if the calling thread failed
+			disjuncts.clear();
+		}
+		for (FutureTask<Void> worker : workers) {
+			WorkerTasks.await(worker, "querying disjuncts of Or query");
+		}
+
+		List<List<T>> results = new ArrayList<List<T>>(disjunctResults.length());
+		for (int i = 0; i < disjunctResults.length(); i++) {
+			results.add(disjunctResults.get(i));
+		}
+		return results;
+	}
+
+	private void readDisjuncts(Queue<Integer> disjuncts, AtomicReferenceArray<List<T>> disjunctResults,
+			int maxResults) {
+		Integer disjunct;
+		while ((disjunct = disjuncts.poll()) != null) {
+			Query<T> disjunctQuery = disjunctQueries.get(disjunct);
+			List<T> results = maxResults > 0 ? disjunctQuery.getResultPage(null, maxResults).getResults()
+					: disjunctQuery.getResultList();
+			disjunctResults.set(disjunct, new ArrayList<T>(results));
+		}
+	}
+
+}
@@ -16,11 +16,17 @@
 package org.socialsignin.spring.data.dynamodb.query;
 
 import java.util.List;
+import java.util.Map;
 
 import org.socialsignin.spring.data.dynamodb.mapping.DynamoDBPersistentProperty;
+import org.socialsignin.spring.data.dynamodb.repository.CloseableIterator;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.ConsistentReads;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 
 /**
  * {@link DynamoDBPersistentProperty} implementation
@@ -37,9 +43,46 @@ public class MultipleEntityQueryExpressionQuery<T> extends AbstractMultipleEntit
 		this.queryExpression = queryExpression;
 	}
 
+	/**
+	 * Applies the read settings of this query to the query expression, as
+	 * the mapper reads query results with the consistency of the expression
+	 * rather than that of its config
+	 */
+	private void applyReadSettings(Integer limit) {
+		if (consistentReads != null) {
+			queryExpression.setConsistentRead(consistentReads == ConsistentReads.CONSISTENT);
+		}
+		queryExpression.setLimit(limit);
+	}
+
 	@Override
 	public List<T> getResultList() {
-		return dynamoDBMapper.query(clazz, queryExpression);
+		applyReadSettings(pageSize > 0 ? pageSize : null);
+		DynamoDBMapperConfig config = getMapperConfig();
+		return config == null ? dynamoDBMapper.query(clazz, queryExpression) : dynamoDBMapper.query(clazz,
+				queryExpression, config);
+	}
+
+	@Override
+	public long getResultCount() {
+		applyReadSettings(null);
+		queryExpression.setExclusiveStartKey(null);
+		return dynamoDBMapper.count(clazz, queryExpression);
+	}
+
+	@Override
+	public CloseableIterator<T> getResultIterator() {
+		applyReadSettings(pageSize > 0 ? pageSize : null);
+		return new LazyResultIterator<T>(dynamoDBMapper.query(clazz, queryExpression, getIterationMapperConfig())
+				.iterator());
+	}
+
+	@Override
+	protected ResultPage<T> readPage(Map<String, AttributeValue> exclusiveStartKey, Integer limit) {
+		applyReadSettings(limit);
+		queryExpression.setExclusiveStartKey(exclusiveStartKey);
+		QueryResultPage<T> queryResultPage = dynamoDBMapper.queryPage(clazz, queryExpression);
+		return new ResultPage<T>(queryResultPage.getResults(), queryResultPage.getLastEvaluatedKey());
 	}
 
 }
@@ -16,7 +16,13 @@
 package org.socialsignin.spring.data.dynamodb.query;
 
 import java.util.List;
+import java.util.Map;
 
+import org.socialsignin.spring.data.dynamodb.repository.CloseableIterator;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.ConsistentReads;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.PaginationLoadingStrategy;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.QueryRequest;
 
 public class MultipleEntityQueryRequestQuery<T> extends AbstractMultipleEntityQuery<T> {
@@ -30,10 +36,40 @@ public class MultipleEntityQueryRequestQuery<T> extends AbstractMultipleEntityQu
 		this.queryRequestMapper = queryRequestMapper;
 	}
 	
+	private void applyReadSettings(Integer limit) {
+		if (consistentReads != null) {
+			queryRequest.setConsistentRead(consistentReads == ConsistentReads.CONSISTENT);
+		}
+		queryRequest.setLimit(limit);
+	}
+
 	@Override
 	public List<T> getResultList() {
-
+		applyReadSettings(pageSize > 0 ? pageSize : null);
+		if (paginationLoadingStrategy != null) {
+			return queryRequestMapper.query(clazz, queryRequest, paginationLoadingStrategy);
+		}
 		return queryRequestMapper.query(clazz, queryRequest);		
 	}
 
+	@Override
+	public long getResultCount() {
+		applyReadSettings(null);
+		return queryRequestMapper.count(queryRequest);
+	}
+
+	@Override
+	public CloseableIterator<T> getResultIterator() {
+		applyReadSettings(pageSize > 0 ? pageSize : null);
+		return new LazyResultIterator<T>(queryRequestMapper.query(clazz, queryRequest,
+				PaginationLoadingStrategy.ITERATION_ONLY).iterator());
+	}
+
+	@Override
+	protected ResultPage<T> readPage(Map<String, AttributeValue> exclusiveStartKey, Integer limit) {
+		applyReadSettings(limit);
+		queryRequest.setExclusiveStartKey(exclusiveStartKey);
+		return queryRequestMapper.queryPage(clazz, queryRequest);
+	}
+
 }
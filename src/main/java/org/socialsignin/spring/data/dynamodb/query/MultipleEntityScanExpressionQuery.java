@@ -16,26 +16,133 @@
 package org.socialsignin.spring.data.dynamodb.query;
 
 import java.util.List;
+import java.util.Map;
 
+import org.socialsignin.spring.data.dynamodb.repository.CloseableIterator;
+import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityInformation;
 import org.springframework.util.Assert;
 
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 
 public class MultipleEntityScanExpressionQuery<T> extends AbstractMultipleEntityQuery<T> {
 
 	private DynamoDBScanExpression scanExpression;
+
+	private int totalSegments;
 	
 	public MultipleEntityScanExpressionQuery(DynamoDBMapper dynamoDBMapper, Class<T> clazz,DynamoDBScanExpression scanExpression) {
-		super(dynamoDBMapper, clazz);
+		this(dynamoDBMapper, clazz, scanExpression, 1);
+	}
+
+	public MultipleEntityScanExpressionQuery(DynamoDBMapper dynamoDBMapper, Class<T> clazz,DynamoDBScanExpression scanExpression, int totalSegments) {
+		this(dynamoDBMapper, clazz, scanExpression, totalSegments, null);
+	}
+
+	/**
+	 * @param entityInformation
+	 *            the information of the scanned entities, from whose keys
+	 *            pages of filtered results are resumed - may be null
+	 */
+	public MultipleEntityScanExpressionQuery(DynamoDBMapper dynamoDBMapper, Class<T> clazz,
+			DynamoDBScanExpression scanExpression, int totalSegments, DynamoDBEntityInformation<T, ?> entityInformation) {
+		super(dynamoDBMapper, clazz, entityInformation);
 		this.scanExpression = scanExpression;
+		this.totalSegments = totalSegments;
 	}
 
 	@Override
 	public List<T> getResultList() {
 		assertScanEnabled(isScanEnabled());
-		return dynamoDBMapper.scan(clazz,scanExpression);
+		applyPageSize();
+		DynamoDBMapperConfig config = getMapperConfig();
+		if (totalSegments > 1) {
+			return config == null ? dynamoDBMapper.parallelScan(clazz, scanExpression, totalSegments) : dynamoDBMapper
+					.parallelScan(clazz, scanExpression, totalSegments, config);
+		}
+		return config == null ? dynamoDBMapper.scan(clazz, scanExpression) : dynamoDBMapper.scan(clazz,
+				scanExpression, config);
+	}
+
+	/**
+	 * Scans only support eventually consistent reads, so the page size is the
+	 * only read setting applied to the scan expression
+	 */
+	private void applyPageSize() {
+		if (pageSize > 0) {
+			scanExpression.setLimit(pageSize);
+		}
+	}
+
+	/**
+	 * The Limit of a filtered scan limits the items evaluated rather than the
+	 * items matched, so the results are read in full pages instead of a
+	 * single result at a time
+	 */
+	@Override
+	public T getSingleResult() {
+		return getSingleResult(getResultList());
+	}
+
+	/**
+	 * Reads full pages until the first result is found, as the Limit of a
+	 * filtered scan limits the items evaluated rather than the items matched
+	 */
+	@Override
+	public boolean hasResults() {
+		CloseableIterator<T> results = getResultIterator();
+		try {
+			return results.hasNext();
+		} finally {
+			results.close();
+		}
+	}
+
+	@Override
+	public long getResultCount() {
+		assertScanEnabled(isScanEnabled());
+		scanExpression.setExclusiveStartKey(null);
+		scanExpression.setLimit(null);
+		return dynamoDBMapper.count(clazz, scanExpression);
+	}
+
+	@Override
+	public CloseableIterator<T> getResultIterator() {
+		assertScanEnabled(isScanEnabled());
+		applyPageSize();
+		if (totalSegments > 1) {
+			return new LazyResultIterator<T>(dynamoDBMapper.parallelScan(clazz, scanExpression, totalSegments,
+					getIterationMapperConfig()).iterator());
+		}
+		return new LazyResultIterator<T>(dynamoDBMapper.scan(clazz, scanExpression, getIterationMapperConfig())
+				.iterator());
+	}
+
+	/**
+	 * Pages are read from a single segment scan, as a parallel scan cannot be
+	 * resumed from a single key
+	 */
+	@Override
+	public ResultPage<T> getResultPage(Map<String, AttributeValue> exclusiveStartKey, int maxResults) {
+		assertScanEnabled(isScanEnabled());
+		return super.getResultPage(exclusiveStartKey, maxResults);
+	}
+
+	@Override
+	protected boolean isFiltered() {
+		return scanExpression.getScanFilter() != null && !scanExpression.getScanFilter().isEmpty();
+	}
+
+	@Override
+	protected ResultPage<T> readPage(Map<String, AttributeValue> exclusiveStartKey, Integer limit) {
+		scanExpression.setExclusiveStartKey(exclusiveStartKey);
+		scanExpression.setLimit(limit);
+		ScanResultPage<T> scanResultPage = dynamoDBMapper.scanPage(clazz, scanExpression);
+		return new ResultPage<T>(scanResultPage.getResults(), scanResultPage.getLastEvaluatedKey());
 	}
 	
 	public void assertScanEnabled(boolean scanEnabled)
@@ -0,0 +1,170 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.query;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.socialsignin.spring.data.dynamodb.repository.CloseableIterator;
+import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityInformation;
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.PaginationLoadingStrategy;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+
+/**
+ * Scans a table with a ScanRequest rather than a DynamoDBScanExpression, for
+ * scans which use request parameters the mapper's scan expressions do not
+ * support, such as AttributesToGet.
+ * 
+ * @author Michael Lavelle
+ */
+public class MultipleEntityScanRequestQuery<T> extends AbstractMultipleEntityQuery<T> {
+
+	private QueryRequestMapper queryRequestMapper;
+
+	private ScanRequest scanRequest;
+
+	private int totalSegments;
+
+	public MultipleEntityScanRequestQuery(QueryRequestMapper queryRequestMapper, Class<T> clazz,
+			ScanRequest scanRequest, int totalSegments) {
+		this(queryRequestMapper, clazz, scanRequest, totalSegments, null);
+	}
+
+	/**
+	 * @param entityInformation
+	 *            the information of the scanned entities, from whose keys
+	 *            pages of filtered results are resumed - may be null
+	 */
+	public MultipleEntityScanRequestQuery(QueryRequestMapper queryRequestMapper, Class<T> clazz,
+			ScanRequest scanRequest, int totalSegments, DynamoDBEntityInformation<T, ?> entityInformation) {
+		super(null, clazz, entityInformation);
+		this.queryRequestMapper = queryRequestMapper;
+		this.scanRequest = scanRequest;
+		this.totalSegments = totalSegments;
+	}
+
+	@Override
+	public List<T> getResultList() {
+		assertScanEnabled(isScanEnabled());
+		applyPageSize();
+		if (paginationLoadingStrategy != null) {
+			return queryRequestMapper.scan(clazz, scanRequest, totalSegments, paginationLoadingStrategy);
+		}
+		return queryRequestMapper.scan(clazz, scanRequest, totalSegments);
+	}
+
+	/**
+	 * Scans only support eventually consistent reads, so the page size is the
+	 * only read setting applied to the scan request
+	 */
+	private void applyPageSize() {
+		if (pageSize > 0) {
+			scanRequest.setLimit(pageSize);
+		}
+	}
+
+	/**
+	 * The Limit of a filtered scan limits the items evaluated rather than the
+	 * items matched, so the results are read in full pages instead of a
+	 * single result at a time
+	 */
+	@Override
+	public T getSingleResult() {
+		return getSingleResult(getResultList());
+	}
+
+	/**
+	 * Reads full pages until the first result is found, as the Limit of a
+	 * filtered scan limits the items evaluated rather than the items matched
+	 */
+	@Override
+	public boolean hasResults() {
+		CloseableIterator<T> results = getResultIterator();
+		try {
+			return results.hasNext();
+		} finally {
+			results.close();
+		}
+	}
+
+	@Override
+	public long getResultCount() {
+		assertScanEnabled(isScanEnabled());
+		return queryRequestMapper.count(scanRequest.getTableName(), scanRequest.getScanFilter(), totalSegments);
+	}
+
+	@Override
+	public CloseableIterator<T> getResultIterator() {
+		assertScanEnabled(isScanEnabled());
+		applyPageSize();
+		return new LazyResultIterator<T>(queryRequestMapper.scan(clazz, scanRequest, totalSegments,
+				PaginationLoadingStrategy.ITERATION_ONLY).iterator());
+	}
+
+	/**
+	 * Pages are read from a single segment scan, as a parallel scan cannot be
+	 * resumed from a single key
+	 */
+	@Override
+	public ResultPage<T> getResultPage(Map<String, AttributeValue> exclusiveStartKey, int maxResults) {
+		assertScanEnabled(isScanEnabled());
+		return super.getResultPage(exclusiveStartKey, maxResults);
+	}
+
+	@Override
+	protected boolean isFiltered() {
+		return scanRequest.getScanFilter() != null && !scanRequest.getScanFilter().isEmpty();
+	}
+
+	/**
+	 * Pages of filtered results also read the key attributes, if they are not
+	 * projected, so that a page can be resumed from its last returned result
+	 */
+	@Override
+	protected ResultPage<T> readPage(Map<String, AttributeValue> exclusiveStartKey, Integer limit) {
+		scanRequest.setExclusiveStartKey(exclusiveStartKey);
+		scanRequest.setLimit(limit);
+		List<String> attributesToGet = scanRequest.getAttributesToGet();
+		List<String> keyAttributeNames = getKeyAttributeNames();
+		if (attributesToGet == null || keyAttributeNames == null || !isFiltered()
+				|| attributesToGet.containsAll(keyAttributeNames)) {
+			return queryRequestMapper.scanPage(clazz, scanRequest);
+		}
+		List<String> pageAttributesToGet = new ArrayList<String>(attributesToGet);
+		for (String keyAttributeName : keyAttributeNames) {
+			if (!pageAttributesToGet.contains(keyAttributeName)) {
+				pageAttributesToGet.add(keyAttributeName);
+			}
+		}
+		scanRequest.setAttributesToGet(pageAttributesToGet);
+		try {
+			return queryRequestMapper.scanPage(clazz, scanRequest);
+		} finally {
+			scanRequest.setAttributesToGet(attributesToGet);
+		}
+	}
+
+	public void assertScanEnabled(boolean scanEnabled) {
+		Assert.isTrue(scanEnabled, "Scanning for this query is not enabled.  "
+				+ "To enable annotate your repository method with @EnableScan, or "
+				+ "enable scanning for all repository methods by annotating your repository interface with @EnableScan");
+	}
+
+}
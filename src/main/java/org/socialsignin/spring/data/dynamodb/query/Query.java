@@ -16,6 +16,13 @@
 package org.socialsignin.spring.data.dynamodb.query;
 
 import java.util.List;
+import java.util.Map;
+
+import org.socialsignin.spring.data.dynamodb.repository.CloseableIterator;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.ConsistentReads;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.PaginationLoadingStrategy;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 
 
 
@@ -39,7 +46,69 @@ public interface Query<T> {
      *    Persistence query language UPDATE or DELETE statement
      */
     public T getSingleResult();
+
+    /**
+     * Execute a SELECT query to determine whether there are any results,
+     * reading no more items than are needed to find the first result.
+     * @return whether there are any results
+     */
+    public boolean hasResults();
+
+    /**
+     * Execute a SELECT COUNT query, counting the results without reading
+     * them.
+     * @return the number of results
+     */
+    public long getResultCount();
+
+    /**
+     * Execute a SELECT query and return an iterator over the query
+     * results which loads them lazily, a page at a time.
+     * @return an iterator over the results
+     */
+    public CloseableIterator<T> getResultIterator();
+
+    /**
+     * Execute a SELECT query for a bounded page of results, reading no more
+     * items than are needed to fill the page.
+     * @param exclusiveStartKey the key after which to start reading, or null
+     *    to start from the first result
+     * @param maxResults the maximum number of results to return
+     * @return the page of results, and the key at which to resume the query
+     */
+    public ResultPage<T> getResultPage(Map<String, AttributeValue> exclusiveStartKey, int maxResults);
+
+    /**
+     * Execute a SELECT query for a bounded page of results, as
+     * {@link #getResultPage(Map, int)}, reading a single result beyond the
+     * page to determine whether there are further results.
+     * @param exclusiveStartKey the key after which to start reading, or null
+     *    to start from the first result
+     * @param maxResults the maximum number of results to return
+     * @return the page of results, and the key at which to resume the query,
+     *    which is null if and only if there are no further results
+     */
+    public ResultPage<T> getResultSlice(Map<String, AttributeValue> exclusiveStartKey, int maxResults);
     
     
     public void setScanEnabled(boolean scanEnabled);
+
+    /**
+     * @param consistentReads whether to read with strongly or eventually
+     *    consistent reads where supported, or null to use the configured
+     *    consistency
+     */
+    public void setConsistentReads(ConsistentReads consistentReads);
+
+    /**
+     * @param pageSize the maximum number of items evaluated by each request,
+     *    or 0 to read pages of up to 1MB
+     */
+    public void setPageSize(int pageSize);
+
+    /**
+     * @param paginationLoadingStrategy how the pages of result lists are
+     *    loaded, or null to use the configured strategy
+     */
+    public void setPaginationLoadingStrategy(PaginationLoadingStrategy paginationLoadingStrategy);
 }
@@ -15,14 +15,32 @@
  */
 package org.socialsignin.spring.data.dynamodb.query;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+
 import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityInformation;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.PaginationLoadingStrategy;
+import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedParallelScanList;
 import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedQueryList;
+import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedScanList;
+import com.amazonaws.services.dynamodbv2.datamodeling.ParallelScanTask;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.Condition;
 import com.amazonaws.services.dynamodbv2.model.QueryRequest;
 import com.amazonaws.services.dynamodbv2.model.QueryResult;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.Select;
 
 public class QueryRequestMapper {
 
@@ -31,6 +49,10 @@ public class QueryRequestMapper {
 
 	private DynamoDBMapper dynamoDBMapper;
 
+	private int scanTotalSegments = 1;
+
+	private ExecutorService executorService;
+
 	public QueryRequestMapper(AmazonDynamoDB amazonDynamoDB, DynamoDBMapperConfig config, DynamoDBMapper dynamoDBMapper) {
 		this.amazonDynamoDB = amazonDynamoDB;
 		this.dynamoDBMapper = dynamoDBMapper;
@@ -53,9 +75,246 @@ public class QueryRequestMapper {
 
 	public <T> PaginatedQueryList<T> query(Class<T> clazz, QueryRequest queryRequest) {
 
+		return query(clazz, queryRequest, config.getPaginationLoadingStrategy());
+	}
+
+	public <T> PaginatedQueryList<T> query(Class<T> clazz, QueryRequest queryRequest,
+			PaginationLoadingStrategy paginationLoadingStrategy) {
+
 		QueryResult queryResult = amazonDynamoDB.query(queryRequest);
 		return new PaginatedQueryList<T>(dynamoDBMapper, clazz, amazonDynamoDB, queryRequest, queryResult,
-				config.getPaginationLoadingStrategy(), config);
+				paginationLoadingStrategy, config);
+	}
+
+	/**
+	 * Makes a single query request, returning its results and the key at
+	 * which the query is to be resumed
+	 * 
+	 * @param clazz
+	 *            the type of the results
+	 * @param queryRequest
+	 *            the query request, whose Limit and ExclusiveStartKey bound
+	 *            the page
+	 * @return the page of results
+	 */
+	public <T> ResultPage<T> queryPage(Class<T> clazz, QueryRequest queryRequest) {
+
+		QueryResult queryResult = amazonDynamoDB.query(queryRequest);
+		return new ResultPage<T>(unmarshallItems(clazz, queryResult.getItems()), queryResult.getLastEvaluatedKey());
+	}
+
+	/**
+	 * Counts the items matching the key conditions of the given query request,
+	 * selecting only the count of each page of the query, so that no items
+	 * are returned
+	 * 
+	 * @param queryRequest
+	 *            the query request whose matching items to count
+	 * @return the number of matching items
+	 */
+	public long count(QueryRequest queryRequest) {
+
+		QueryRequest countRequest = new QueryRequest(queryRequest.getTableName())
+				.withIndexName(queryRequest.getIndexName()).withKeyConditions(queryRequest.getKeyConditions())
+				.withConsistentRead(queryRequest.getConsistentRead()).withSelect(Select.COUNT);
+		long count = 0;
+		QueryResult queryResult;
+		do {
+			queryResult = amazonDynamoDB.query(countRequest);
+			count += queryResult.getCount();
+			countRequest.setExclusiveStartKey(queryResult.getLastEvaluatedKey());
+		} while (queryResult.getLastEvaluatedKey() != null);
+		return count;
+	}
+
+	public <T> List<T> scan(Class<T> clazz, ScanRequest scanRequest, int totalSegments) {
+
+		return scan(clazz, scanRequest, totalSegments, config.getPaginationLoadingStrategy());
+	}
+
+	/**
+	 * Scans a table with the given scan request, scanning the table in the
+	 * given number of segments in parallel when totalSegments is greater than
+	 * one, as DynamoDBMapper does for scan expressions
+	 * 
+	 * @param clazz
+	 *            the type of the results
+	 * @param scanRequest
+	 *            the scan request
+	 * @param totalSegments
+	 *            the number of segments to scan in parallel
+	 * @param paginationLoadingStrategy
+	 * @return the results, loaded a page at a time
+	 */
+	public <T> List<T> scan(Class<T> clazz, ScanRequest scanRequest, int totalSegments,
+			PaginationLoadingStrategy paginationLoadingStrategy) {
+
+		if (totalSegments <= 1) {
+			ScanResult scanResult = amazonDynamoDB.scan(scanRequest);
+			return new PaginatedScanList<T>(dynamoDBMapper, clazz, amazonDynamoDB, scanRequest, scanResult,
+					paginationLoadingStrategy, config);
+		}
+		List<ScanRequest> segmentScanRequests = new ArrayList<ScanRequest>(totalSegments);
+		for (int segment = 0; segment < totalSegments; segment++) {
+			segmentScanRequests.add(new ScanRequest(scanRequest.getTableName())
+					.withScanFilter(scanRequest.getScanFilter()).withSelect(scanRequest.getSelect())
+					.withAttributesToGet(scanRequest.getAttributesToGet()).withLimit(scanRequest.getLimit())
+					.withTotalSegments(totalSegments).withSegment(segment));
+		}
+		return new PaginatedParallelScanList<T>(dynamoDBMapper, clazz, amazonDynamoDB, new ParallelScanTask(
+				dynamoDBMapper, amazonDynamoDB, segmentScanRequests), paginationLoadingStrategy, config);
+	}
+
+	/**
+	 * Makes a single scan request, returning its results and the key at which
+	 * the scan is to be resumed
+	 * 
+	 * @param clazz
+	 *            the type of the results
+	 * @param scanRequest
+	 *            the scan request, whose Limit and ExclusiveStartKey bound the
+	 *            page
+	 * @return the page of results
+	 */
+	public <T> ResultPage<T> scanPage(Class<T> clazz, ScanRequest scanRequest) {
+
+		ScanResult scanResult = amazonDynamoDB.scan(scanRequest);
+		return new ResultPage<T>(unmarshallItems(clazz, scanResult.getItems()), scanResult.getLastEvaluatedKey());
+	}
+
+	/**
+	 * Counts the items of the given table matching the given scan filter,
+	 * scanning the table in the given number of segments when totalSegments
+	 * is greater than one.
+	 * 
+	 * Segments are taken from a shared queue by the calling thread and, when
+	 * an ExecutorService is configured, by up to one task per remaining
+	 * segment submitted to it, so that segments are scanned in parallel
+	 * without a thread pool being created for each count, and the count
+	 * completes even if the ExecutorService is saturated, or the calling
+	 * thread is one of its threads.
+	 * 
+	 * @param tableName
+	 *            the name of the table to scan
+	 * @param scanFilter
+	 *            the scan filter to apply - may be null
+	 * @param totalSegments
+	 *            the number of segments to scan
+	 * @return the number of matching items
+	 */
+	public long count(final String tableName, final Map<String, Condition> scanFilter, final int totalSegments) {
+		if (totalSegments <= 1) {
+			return countSegment(new ScanRequest(tableName).withScanFilter(scanFilter).withSelect(Select.COUNT));
+		}
+
+		final Queue<ScanRequest> segmentScanRequests = new ConcurrentLinkedQueue<ScanRequest>();
+		for (int segment = 0; segment < totalSegments; segment++) {
+			segmentScanRequests.add(new ScanRequest(tableName).withScanFilter(scanFilter).withSelect(Select.COUNT)
+					.withTotalSegments(totalSegments).withSegment(segment));
+		}
+
+		List<FutureTask<Long>> workers = new ArrayList<FutureTask<Long>>();
+		for (int i = 1; i < totalSegments; i++) {
+			FutureTask<Long> worker = WorkerTasks.execute(executorService, new Callable<Long>() {
+				public Long call() {
+					return countSegments(segmentScanRequests);
+				}
+			});
+			if (worker == null) {
+				// Remaining segments are counted by the workers already
+				// submitted and by the calling thread
+				break;
+			}
+			workers.add(worker);
+		}
+
+		long count;
+		try {
+			count = countSegments(segmentScanRequests);
+		} finally {
+			// Stop workers taking further segments if the calling thread failed
+			segmentScanRequests.clear();
+		}
+		for (FutureTask<Long> worker : workers) {
+			count += WorkerTasks.await(worker, "counting scan segments of table " + tableName);
+		}
+		return count;
+	}
+
+	private long countSegments(Queue<ScanRequest> segmentScanRequests) {
+		long count = 0;
+		ScanRequest segmentScanRequest;
+		while ((segmentScanRequest = segmentScanRequests.poll()) != null) {
+			count += countSegment(segmentScanRequest);
+		}
+		return count;
+	}
+
+	private long countSegment(ScanRequest scanRequest) {
+		long count = 0;
+		ScanResult scanResult;
+		do {
+			scanResult = amazonDynamoDB.scan(scanRequest);
+			count += scanResult.getCount();
+			scanRequest.setExclusiveStartKey(scanResult.getLastEvaluatedKey());
+		} while (scanResult.getLastEvaluatedKey() != null);
+		return count;
+	}
+
+	/**
+	 * Unmarshalls the given items into objects of the given type
+	 * 
+	 * @param clazz
+	 *            the type of the objects
+	 * @param items
+	 *            the items to unmarshall
+	 * @return the objects, in the order of their items
+	 */
+	@SuppressWarnings("deprecation")
+	public <T> List<T> unmarshallItems(Class<T> clazz, List<Map<String, AttributeValue>> items) {
+
+		if (items == null || items.isEmpty()) {
+			return new ArrayList<T>();
+		}
+		// marshallIntoObjects is deprecated, but is the only public API
+		// through which DynamoDBMapper unmarshalls items it did not read
+		return new ArrayList<T>(dynamoDBMapper.marshallIntoObjects(clazz, items));
+	}
+
+	public AmazonDynamoDB getAmazonDynamoDB() {
+		return amazonDynamoDB;
+	}
+
+	/**
+	 * @return whether reads should be strongly consistent, as configured by
+	 *         the DynamoDBMapperConfig
+	 */
+	public boolean isConsistentReads() {
+		return config.getConsistentReads() == DynamoDBMapperConfig.ConsistentReads.CONSISTENT;
+	}
+
+	/**
+	 * @return the number of segments in which scan-backed operations scan
+	 *         tables in parallel - 1 if scans are not parallelised
+	 */
+	public int getScanTotalSegments() {
+		return scanTotalSegments;
+	}
+
+	public void setScanTotalSegments(int scanTotalSegments) {
+		this.scanTotalSegments = scanTotalSegments;
+	}
+
+	/**
+	 * @return the ExecutorService on which table segments are scanned in
+	 *         parallel - null if segments are scanned by the calling thread
+	 */
+	public ExecutorService getExecutorService() {
+		return executorService;
+	}
+
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
 	}
 
 }
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.query;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import org.springframework.util.Assert;
+
+/**
+ * Collapses concurrent requests with equal keys into a single in-flight
+ * request.
+ *
+ * The first thread to make a request for a key executes it, and threads
+ * requesting the same key while it is in flight wait for and share its
+ * outcome - the same result, or the same exception - instead of making a
+ * request of their own. Requests made once the in-flight request has
+ * completed are executed afresh, so results are never served after the fact.
+ *
+ * @author Michael Lavelle
+ *
+ * @param <K>
+ *            the type of the keys identifying equivalent requests
+ * @param <V>
+ *            the type of the requests' results
+ */
+public class RequestCollapser<K, V> {
+
+	private final ConcurrentMap<K, FutureTask<V>> inFlightRequests = new ConcurrentHashMap<K, FutureTask<V>>();
+
+	public V execute(K key, Callable<V> request) {
+		Assert.notNull(key);
+		Assert.notNull(request);
+		FutureTask<V> newRequest = new FutureTask<V>(request);
+		FutureTask<V> inFlightRequest = inFlightRequests.putIfAbsent(key, newRequest);
+		if (inFlightRequest == null) {
+			inFlightRequest = newRequest;
+			try {
+				newRequest.run();
+			} finally {
+				inFlightRequests.remove(key, newRequest);
+			}
+		}
+		return await(inFlightRequest);
+	}
+
+	private V await(FutureTask<V> request) {
+		try {
+			return request.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while awaiting in-flight request", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException("Unable to execute request", e.getCause());
+		}
+	}
+
+}
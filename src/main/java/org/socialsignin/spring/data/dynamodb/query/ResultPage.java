@@ -0,0 +1,55 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.query;
+
+import java.util.List;
+import java.util.Map;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+/**
+ * A bounded page of the results of a query, together with the key at which
+ * the query is to be resumed to read the results after them.
+ * 
+ * @author Michael Lavelle
+ * 
+ * @param <T>
+ *            the type of the results
+ */
+public class ResultPage<T> {
+
+	private List<T> results;
+
+	private Map<String, AttributeValue> lastEvaluatedKey;
+
+	public ResultPage(List<T> results, Map<String, AttributeValue> lastEvaluatedKey) {
+		this.results = results;
+		this.lastEvaluatedKey = lastEvaluatedKey;
+	}
+
+	public List<T> getResults() {
+		return results;
+	}
+
+	/**
+	 * @return the key at which to resume the query, or null if there are no
+	 *         further results
+	 */
+	public Map<String, AttributeValue> getLastEvaluatedKey() {
+		return lastEvaluatedKey;
+	}
+
+}
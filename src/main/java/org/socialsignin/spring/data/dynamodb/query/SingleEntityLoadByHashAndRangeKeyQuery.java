@@ -16,6 +16,7 @@
 package org.socialsignin.spring.data.dynamodb.query;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 
 /**
  * @author Michael Lavelle
@@ -33,7 +34,9 @@ public class SingleEntityLoadByHashAndRangeKeyQuery<T> extends AbstractSingleEnt
 
 	@Override
 	public T getSingleResult() {
-		return dynamoDBMapper.load(clazz, hashKey, rangeKey);
+		DynamoDBMapperConfig config = getMapperConfig();
+		return config == null ? dynamoDBMapper.load(clazz, hashKey, rangeKey) : dynamoDBMapper.load(clazz, hashKey,
+				rangeKey, config);
 	}
 
 }
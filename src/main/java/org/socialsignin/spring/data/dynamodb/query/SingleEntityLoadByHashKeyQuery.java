@@ -16,6 +16,7 @@
 package org.socialsignin.spring.data.dynamodb.query;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 
 /**
  * @author Michael Lavelle
@@ -31,7 +32,8 @@ public class SingleEntityLoadByHashKeyQuery<T> extends AbstractSingleEntityQuery
 
 	@Override
 	public T getSingleResult() {
-		return dynamoDBMapper.load(clazz, hashKey);
+		DynamoDBMapperConfig config = getMapperConfig();
+		return config == null ? dynamoDBMapper.load(clazz, hashKey) : dynamoDBMapper.load(clazz, hashKey, config);
 	}
 
 }
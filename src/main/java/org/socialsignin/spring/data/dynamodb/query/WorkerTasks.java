@@ -0,0 +1,95 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.query;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Executes tasks on an optional ExecutorService, and waits for them without
+ * deadlocking when the waiting thread is itself a thread of that
+ * ExecutorService.
+ *
+ * Tasks are executed as {@link FutureTask}s, so that a task which the
+ * ExecutorService has not started when it is waited for is run by the waiting
+ * thread instead - running a task which has started, or has completed, is a
+ * no-op. A thread of a saturated ExecutorService waiting for tasks queued
+ * behind it therefore runs them itself rather than waiting forever.
+ *
+ * @author Michael Lavelle
+ */
+public final class WorkerTasks {
+
+	private WorkerTasks() {
+	}
+
+	/**
+	 * @param executorService
+	 *            the ExecutorService on which to execute the task - may be
+	 *            null
+	 * @param task
+	 * @return the task executed on the ExecutorService, or null if there is no
+	 *         ExecutorService or it rejected the task
+	 */
+	public static <V> FutureTask<V> execute(ExecutorService executorService, Callable<V> task) {
+		if (executorService == null) {
+			return null;
+		}
+		FutureTask<V> futureTask = new FutureTask<V>(task);
+		try {
+			executorService.execute(futureTask);
+			return futureTask;
+		} catch (RejectedExecutionException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Waits for the given task, running it on the calling thread if the
+	 * ExecutorService has not started it
+	 *
+	 * @param task
+	 *            the task to wait for - may be null
+	 * @param description
+	 *            what the task does, such as "loading items from table
+	 *            User", for the messages of exceptions
+	 * @return the result of the task, or null if the task is null
+	 */
+	public static <V> V await(FutureTask<V> task, String description) {
+		if (task == null) {
+			return null;
+		}
+		task.run();
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while " + description, e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException("Failed while " + description, e.getCause());
+		}
+	}
+
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Makes count() on the annotated repository interface, or the count() method
+ * it annotates, return the approximate number of items in the table as
+ * reported by DescribeTable rather than scanning the table.
+ * 
+ * DynamoDB updates the reported item count roughly every six hours, and the
+ * count is additionally cached for {@link #maxAgeMillis()}. Scanning need not
+ * be enabled for count() in approximate mode.
+ * 
+ * @author Michael Lavelle
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Documented
+public @interface ApproximateCount {
+
+	/**
+	 * @return the time in milliseconds for which a described item count is
+	 *         reused
+	 */
+	long maxAgeMillis() default 300000;
+
+}
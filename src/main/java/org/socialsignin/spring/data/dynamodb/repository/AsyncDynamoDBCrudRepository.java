@@ -0,0 +1,50 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.concurrent.Future;
+
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * DynamoDB specific extension of
+ * {@link org.springframework.data.repository.Repository} which exposes
+ * asynchronous variants of the core CRUD operations.
+ *
+ * When an AmazonDynamoDBAsyncClient is configured, findOneAsync and
+ * deleteAsync are made through its asynchronous API. Other operations are
+ * submitted to the ExecutorService configured for the repository factory (
+ * or to the ExecutorService of the configured AmazonDynamoDBAsyncClient ), so
+ * that calling threads are not blocked for the duration of each DynamoDB round
+ * trip. Query methods declared on repositories extending this interface may
+ * also return a {@link Future} of any type they may return synchronously.
+ *
+ * @author Michael Lavelle
+ */
+@NoRepositoryBean
+public interface AsyncDynamoDBCrudRepository<T, ID extends Serializable> extends DynamoDBCrudRepository<T, ID> {
+
+	Future<T> findOneAsync(ID id);
+
+	Future<List<T>> findAllAsync(Iterable<ID> ids);
+
+	<S extends T> Future<S> saveAsync(S entity);
+
+	Future<Void> deleteAsync(ID id);
+
+}
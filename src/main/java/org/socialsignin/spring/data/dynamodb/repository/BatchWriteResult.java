@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The outcome of a bulk save or delete: the number of entities written, and
+ * the entities which could not be written once retries were exhausted,
+ * together with the exceptions which caused them to fail.
+ *
+ * @author Michael Lavelle
+ *
+ * @param <T>
+ *            the type of the entities written
+ */
+public class BatchWriteResult<T> {
+
+	private int writtenCount;
+
+	private List<T> failedEntities;
+
+	private List<Exception> exceptions;
+
+	public BatchWriteResult(int writtenCount, List<T> failedEntities, List<Exception> exceptions) {
+		this.writtenCount = writtenCount;
+		this.failedEntities = Collections.unmodifiableList(failedEntities);
+		this.exceptions = Collections.unmodifiableList(exceptions);
+	}
+
+	/**
+	 * @return the number of distinct entities written successfully
+	 */
+	public int getWrittenCount() {
+		return writtenCount;
+	}
+
+	/**
+	 * @return the entities which could not be written
+	 */
+	public List<T> getFailedEntities() {
+		return failedEntities;
+	}
+
+	/**
+	 * @return the exceptions which caused entities to fail to be written
+	 */
+	public List<Exception> getExceptions() {
+		return exceptions;
+	}
+
+	public boolean isSuccessful() {
+		return failedEntities.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "BatchWriteResult [writtenCount=" + writtenCount + ", failedCount=" + failedEntities.size() + "]";
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Enables a read-through cache of the annotated entity class, shared by all
+ * repositories of the entity created by the same repository factory.
+ * 
+ * findOne, exists and findAll by id consult the cache before DynamoDB, and
+ * only load the entities which are not cached. Entities are evicted once
+ * {@link #maxEntries()} entities are cached, least recently used first, and
+ * {@link #timeToLiveMillis()} after they were loaded, and are invalidated
+ * when saved or deleted through the repositories. Writes made by other
+ * processes, or by query methods, are seen once cached entities expire.
+ * 
+ * Cached entities are shared between callers, so should not be modified
+ * other than in order to save them.
+ * 
+ * @author Michael Lavelle
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface CachedEntity {
+
+	/**
+	 * @return the maximum number of entities cached
+	 */
+	int maxEntries() default 1000;
+
+	/**
+	 * @return the time in milliseconds for which a loaded entity is cached
+	 */
+	long timeToLiveMillis() default 60000;
+
+}
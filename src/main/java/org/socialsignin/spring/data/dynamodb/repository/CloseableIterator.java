@@ -0,0 +1,36 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository;
+
+import java.io.Closeable;
+import java.util.Iterator;
+
+/**
+ * An {@link Iterator} over results which are loaded lazily, a page at a time,
+ * as iteration proceeds. Closing the iterator releases the page being
+ * iterated and stops any further pages from being requested.
+ * 
+ * @author Michael Lavelle
+ * 
+ * @param <T>
+ *            the type of the results
+ */
+public interface CloseableIterator<T> extends Iterator<T>, Closeable {
+
+	@Override
+	void close();
+
+}
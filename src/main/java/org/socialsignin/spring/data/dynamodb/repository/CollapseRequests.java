@@ -0,0 +1,45 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Enables collapsing of concurrent identical requests for the entities of the
+ * annotated repository interface, or of the annotated query method.
+ * 
+ * Concurrent calls to findOne with the same id, or to a query method
+ * returning a single entity, a page or a slice with equal parameters, are
+ * served by a single request, and every caller receives the same entity
+ * instances. Callers must therefore treat the entities returned as
+ * read-only, copying them before modifying them. Without this annotation
+ * each call makes its own request and receives its own instances.
+ * 
+ * Count and exists query methods, whose results are immutable, are always
+ * collapsed.
+ * 
+ * @author Michael Lavelle
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+@Documented
+public @interface CollapseRequests {
+
+}
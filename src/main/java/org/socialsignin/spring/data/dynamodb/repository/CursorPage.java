@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * A page of results which carries the opaque cursor at which the next page
+ * starts, so that the next page can be retrieved without re-reading the
+ * results before it.
+ * 
+ * The total number of results is not known without reading them all, so
+ * {@link #getTotalElements()} counts the results up to the end of this page,
+ * plus one if there may be a further page.
+ * 
+ * @author Michael Lavelle
+ * 
+ * @param <T>
+ *            the type of the results
+ */
+public class CursorPage<T> extends PageImpl<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String nextCursor;
+
+	public CursorPage(List<T> content, Pageable pageable, String nextCursor) {
+		super(content, pageable, pageable.getOffset() + content.size() + (nextCursor == null ? 0 : 1));
+		this.nextCursor = nextCursor;
+	}
+
+	/**
+	 * @return the cursor at which the next page starts, or null if this is
+	 *         the last page
+	 */
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	/**
+	 * Returns whether there may be a further page. DynamoDB only reports that
+	 * there are no further results once they have been read, so the page
+	 * after a page which ends exactly at the end of the results is empty -
+	 * see {@link CursorSlice} for pages which determine this exactly.
+	 */
+	@Override
+	public boolean hasNextPage() {
+		return nextCursor != null;
+	}
+
+	@Override
+	public boolean isLastPage() {
+		return nextCursor == null;
+	}
+
+	@Override
+	public Pageable nextPageable() {
+		return nextCursor == null ? null : new CursorPageRequest(getNumber() + 1, getSize(), nextCursor);
+	}
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository;
+
+import org.springframework.data.domain.PageRequest;
+
+/**
+ * A page request which resumes a scan or query at the position identified by
+ * an opaque cursor obtained from a previous {@link CursorPage}, so that
+ * retrieving a page reads only the items of that page, however deep into the
+ * results it is.
+ * 
+ * @author Michael Lavelle
+ */
+public class CursorPageRequest extends PageRequest {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String cursor;
+
+	/**
+	 * @param page
+	 *            the zero-based number of the page, used for page numbering
+	 *            only
+	 * @param size
+	 *            the size of the page
+	 * @param cursor
+	 *            the cursor at which to resume, or null to start from the
+	 *            first page
+	 */
+	public CursorPageRequest(int page, int size, String cursor) {
+		super(page, size);
+		this.cursor = cursor;
+	}
+
+	/**
+	 * @return the cursor at which to resume, or null to start from the first
+	 *         page
+	 */
+	public String getCursor() {
+		return cursor;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof CursorPageRequest) || !super.equals(obj)) {
+			return false;
+		}
+		String otherCursor = ((CursorPageRequest) obj).cursor;
+		return cursor == null ? otherCursor == null : cursor.equals(otherCursor);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * super.hashCode() + (cursor == null ? 0 : cursor.hashCode());
+	}
+
+	@Override
+	public String toString() {
+		return "CursorPageRequest [page=" + getPageNumber() + ", size=" + getPageSize() + ", cursor=" + cursor + "]";
+	}
+
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+
+/**
+ * A {@link CursorPage} for clients which only move forwards from page to page,
+ * such as infinite scrolling feeds, and which need to know exactly whether
+ * there is a next page but not how many results there are.
+ * 
+ * Whether there is a next page is determined by reading a single result
+ * beyond the page, so {@link #hasNextPage()} is exact, and the page after a
+ * slice which ends at the end of the results is never requested.
+ * 
+ * Derived query methods declared to return a CursorSlice, and
+ * {@link DynamoDBPagingAndSortingRepository#findAllSlice(Pageable)}, return
+ * slices.
+ * 
+ * @author Michael Lavelle
+ * 
+ * @param <T>
+ *            the type of the results
+ */
+public class CursorSlice<T> extends CursorPage<T> {
+
+	private static final long serialVersionUID = 1L;
+
+	public CursorSlice(List<T> content, Pageable pageable, String nextCursor) {
+		super(content, pageable, nextCursor);
+	}
+
+}
@@ -16,6 +16,8 @@
 package org.socialsignin.spring.data.dynamodb.repository;
 
 import java.io.Serializable;
+import java.util.Map;
+import java.util.Set;
 
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.NoRepositoryBean;
@@ -29,4 +31,64 @@ import org.springframework.data.repository.NoRepositoryBean;
 @NoRepositoryBean
 public interface DynamoDBCrudRepository<T, ID extends Serializable> extends CrudRepository<T, ID> {
 
+	/**
+	 * Determines which of the given ids identify existing entities, retrieving
+	 * only the key attributes of each entity.
+	 * 
+	 * @param ids
+	 *            must not be {@literal null}.
+	 * @return the subset of the given ids for which an entity exists
+	 */
+	Set<ID> existsAll(Iterable<ID> ids);
+
+	/**
+	 * Returns the entities with the given ids, keyed by id in the order in
+	 * which the ids are given. Repeated ids are loaded once, and ids for which
+	 * no entity exists are omitted.
+	 * 
+	 * @param ids
+	 *            must not be {@literal null}.
+	 * @return the entities with the given ids, keyed by id
+	 */
+	Map<ID, T> findAllAsMap(Iterable<ID> ids);
+
+	/**
+	 * Returns an iterator over all entities which loads them lazily, a page
+	 * at a time, releasing each page once it has been iterated over. Closing
+	 * the iterator stops further pages from being loaded.
+	 * 
+	 * @return an iterator over all entities
+	 */
+	CloseableIterator<T> findAllIterator();
+
+	/**
+	 * Returns the approximate number of entities, as last reported by
+	 * DynamoDB for the entity's table, without scanning the table. The
+	 * reported count is updated by DynamoDB roughly every six hours.
+	 * 
+	 * @return the approximate number of entities
+	 */
+	long approximateCount();
+
+	/**
+	 * Saves the given entities in concurrent batches, reporting rather than
+	 * throwing on entities which could not be saved. Where several of the
+	 * given entities share a key, only the last of them is saved.
+	 * 
+	 * @param entities
+	 *            must not be {@literal null}.
+	 * @return the result of the bulk save
+	 */
+	<S extends T> BatchWriteResult<S> batchSave(Iterable<S> entities);
+
+	/**
+	 * Deletes the given entities in concurrent batches, reporting rather than
+	 * throwing on entities which could not be deleted.
+	 * 
+	 * @param entities
+	 *            must not be {@literal null}.
+	 * @return the result of the bulk delete
+	 */
+	BatchWriteResult<T> batchDelete(Iterable<? extends T> entities);
+
 }
@@ -17,6 +17,7 @@ package org.socialsignin.spring.data.dynamodb.repository;
 
 import java.io.Serializable;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.NoRepositoryBean;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
@@ -29,4 +30,15 @@ import org.springframework.data.repository.PagingAndSortingRepository;
 @NoRepositoryBean
 public interface DynamoDBPagingAndSortingRepository<T, ID extends Serializable> extends PagingAndSortingRepository<T, ID> {
 
+	/**
+	 * Returns a {@link CursorSlice} of entities meeting the paging
+	 * restriction provided in the {@code Pageable} object, reading only the
+	 * entities of the slice and a single entity beyond it, unless a page
+	 * other than the first is requested without a cursor.
+	 * 
+	 * @param pageable
+	 * @return a slice of entities
+	 */
+	CursorSlice<T> findAllSlice(Pageable pageable);
+
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Enables batching of findOne on the annotated repository interface.
+ * 
+ * The ids passed to findOne by concurrent callers within
+ * {@link #windowMillis()} of each other are loaded together with a single
+ * BatchGetItem request, which is sent as soon as {@link #maxBatchSize()}
+ * distinct ids have been gathered. Each findOne call is delayed by at most
+ * the window in exchange for fewer round trips.
+ * 
+ * @author Michael Lavelle
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface FindOneBatching {
+
+	/**
+	 * @return the time in milliseconds for which ids are gathered before
+	 *         they are loaded
+	 */
+	long windowMillis() default 2;
+
+	/**
+	 * @return the number of distinct ids at which a batch is loaded without
+	 *         waiting for the window to elapse
+	 */
+	int maxBatchSize() default 100;
+
+}
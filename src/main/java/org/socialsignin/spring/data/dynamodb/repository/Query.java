@@ -0,0 +1,73 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the query executed by the annotated query method, in place of the
+ * query derived from its name.
+ * 
+ * Key condition and filter expressions are conjunctions of conditions on
+ * entity properties, joined by AND, such as
+ * <code>userName = :userName AND playlistName BETWEEN :from AND :to</code>.
+ * Conditions compare a property using one of =, &lt;&gt;, &lt;, &lt;=, &gt;,
+ * &gt;=, BETWEEN :a AND :b or IN (:a, :b), or take the form
+ * begins_with(property, :p), contains(property, :p), attribute_exists(property)
+ * or attribute_not_exists(property). Placeholders are bound to the method
+ * parameters of the same name, as named by
+ * {@link org.springframework.data.repository.query.Param}.
+ * 
+ * Methods with a key condition expression query the table or index, while
+ * methods without one scan the table, and so must be enabled with
+ * {@link EnableScan}. Filter expressions are only supported for scans.
+ * 
+ * @author Michael Lavelle
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.ANNOTATION_TYPE })
+@Documented
+public @interface Query {
+
+	/**
+	 * @return the conditions on the hash key, and optionally the range key,
+	 *         of the table or index to query - empty to scan the table
+	 */
+	String keyConditionExpression() default "";
+
+	/**
+	 * @return the conditions on other properties which scanned items must
+	 *         match
+	 */
+	String filterExpression() default "";
+
+	/**
+	 * @return the comma-separated names of the properties to read - empty to
+	 *         read those of the method's projection, or all properties
+	 */
+	String projectionExpression() default "";
+
+	/**
+	 * @return the name of the secondary index to query - empty to query the
+	 *         table
+	 */
+	String indexName() default "";
+
+}
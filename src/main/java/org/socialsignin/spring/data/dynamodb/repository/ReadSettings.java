@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.ConsistentReads;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.PaginationLoadingStrategy;
+
+/**
+ * Overrides how the annotated query method reads items, or how all query
+ * methods of the annotated repository interface read items. Settings on a
+ * query method take precedence over those on its repository interface, and
+ * settings which are not specified are those of the DynamoDBMapperConfig the
+ * repositories are configured with.
+ *
+ * @author Michael Lavelle
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.METHOD, ElementType.TYPE })
+@Documented
+public @interface ReadSettings {
+
+	/**
+	 * @return whether items are read with strongly or eventually consistent
+	 *         reads - at most one value, none to use the configured
+	 *         consistency. Scans and global secondary index queries only
+	 *         support eventually consistent reads.
+	 */
+	ConsistentReads[] consistentReads() default {};
+
+	/**
+	 * @return the maximum number of items evaluated by each query or scan
+	 *         request, or 0 to read pages of up to 1MB
+	 */
+	int pageSize() default 0;
+
+	/**
+	 * @return how the pages of List results are loaded - at most one value,
+	 *         none to use the configured strategy. Iterator results are always
+	 *         loaded a page at a time as they are iterated over.
+	 */
+	PaginationLoadingStrategy[] paginationLoadingStrategy() default {};
+
+	/**
+	 * @return the maximum number of items returned by List and Iterator
+	 *         results, after which no further items are read, or 0 if the
+	 *         number of items is not limited
+	 */
+	int maxItems() default 0;
+
+}
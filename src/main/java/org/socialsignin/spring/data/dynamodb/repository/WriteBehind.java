@@ -0,0 +1,72 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Enables write-behind for save(entity) on the annotated repository
+ * interface.
+ * 
+ * Saved entities are buffered by key, repeated saves of the same key being
+ * collapsed to the latest entity, and are written in batches once
+ * {@link #maxBufferedEntities()} keys are buffered or every
+ * {@link #flushIntervalMillis()}, and when the repository factory is
+ * destroyed. findOne, exists and findAll by id return buffered entities, and
+ * findAll() and count() flush the buffer first, but query methods only see
+ * entities once they have been written.
+ * 
+ * Once {@link #capacity()} keys are buffered, saves of further keys block
+ * until a flush has made room. Entities which fail to be written in
+ * {@link #maxWriteAttempts()} flushes are dropped and logged as errors.
+ * 
+ * @author Michael Lavelle
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@Documented
+public @interface WriteBehind {
+
+	/**
+	 * @return the number of buffered keys at which a background flush of the
+	 *         buffer is requested
+	 */
+	int maxBufferedEntities() default 1000;
+
+	/**
+	 * @return the number of buffered keys at which saves of further keys
+	 *         block until a flush has made room - zero or less for four times
+	 *         {@link #maxBufferedEntities()}
+	 */
+	int capacity() default 0;
+
+	/**
+	 * @return the number of flushes a buffered entity may fail to be written
+	 *         in before it is dropped
+	 */
+	int maxWriteAttempts() default 3;
+
+	/**
+	 * @return the interval in milliseconds at which the buffer is flushed in
+	 *         the background
+	 */
+	long flushIntervalMillis() default 1000;
+
+}
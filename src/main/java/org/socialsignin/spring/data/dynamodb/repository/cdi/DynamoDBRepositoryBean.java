@@ -16,7 +16,11 @@
 package org.socialsignin.spring.data.dynamodb.repository.cdi;
 
 import java.lang.annotation.Annotation;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 
 import javax.enterprise.context.spi.CreationalContext;
 import javax.enterprise.inject.spi.Bean;
@@ -28,6 +32,7 @@ import org.springframework.data.repository.cdi.CdiRepositoryBean;
 import org.springframework.util.Assert;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsyncClient;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 
@@ -44,6 +49,9 @@ class DynamoDBRepositoryBean<T> extends CdiRepositoryBean<T> {
 
 	private final Bean<DynamoDBMapperConfig> dynamoDBMapperConfigBean;
 
+	private final Map<T, DynamoDBRepositoryFactory> repositoryFactories = Collections
+			.synchronizedMap(new IdentityHashMap<T, DynamoDBRepositoryFactory>());
+
 	/**
 	 * Constructs a {@link DynamoDBRepositoryBean}.
 	 * 
@@ -86,8 +94,35 @@ class DynamoDBRepositoryBean<T> extends CdiRepositoryBean<T> {
 		DynamoDBMapper dynamoDBMapper = dynamoDBMapperConfig == null ? new DynamoDBMapper(amazonDynamoDB) : new DynamoDBMapper(
 				amazonDynamoDB, dynamoDBMapperConfig);
 
-		DynamoDBRepositoryFactory factory = new DynamoDBRepositoryFactory(dynamoDBMapper, new QueryRequestMapper(amazonDynamoDB,
-				dynamoDBMapperConfig, dynamoDBMapper));
-		return factory.getRepository(repositoryType);
+		// Asynchronous repository operations use the ExecutorService of an
+		// AmazonDynamoDBAsyncClient, if one is configured
+		ExecutorService executorService = amazonDynamoDB instanceof AmazonDynamoDBAsyncClient ? ((AmazonDynamoDBAsyncClient) amazonDynamoDB)
+				.getExecutorService() : null;
+
+		QueryRequestMapper queryRequestMapper = new QueryRequestMapper(amazonDynamoDB, dynamoDBMapperConfig, dynamoDBMapper);
+		queryRequestMapper.setExecutorService(executorService);
+
+		DynamoDBRepositoryFactory factory = new DynamoDBRepositoryFactory(dynamoDBMapper, queryRequestMapper,
+				executorService);
+		T repository = factory.getRepository(repositoryType);
+		repositoryFactories.put(repository, factory);
+		return repository;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see javax.enterprise.context.spi.Contextual#destroy(java.lang.Object,
+	 * javax.enterprise.context.spi.CreationalContext)
+	 */
+	@Override
+	public void destroy(T instance, CreationalContext<T> creationalContext) {
+
+		// Flush the entities buffered by write-behind repositories
+		DynamoDBRepositoryFactory factory = repositoryFactories.remove(instance);
+		if (factory != null) {
+			factory.destroy();
+		}
+		super.destroy(instance, creationalContext);
 	}
 }
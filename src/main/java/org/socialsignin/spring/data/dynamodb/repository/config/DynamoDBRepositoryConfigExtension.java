@@ -36,6 +36,12 @@ public class DynamoDBRepositoryConfigExtension extends RepositoryConfigurationEx
 
 	private static final String AMAZON_DYNAMODB_REF = "amazon-dynamodb-ref";
 
+	private static final String EXECUTOR_SERVICE_REF = "executor-service-ref";
+
+	private static final String SCAN_TOTAL_SEGMENTS = "scan-total-segments";
+
+	private static final String BATCH_WRITE_PARALLELISM = "batch-write-parallelism";
+
 	@Override
 	public String getRepositoryFactoryClassName() {
 		return DynamoDBRepositoryFactoryBean.class.getName();
@@ -45,7 +51,10 @@ public class DynamoDBRepositoryConfigExtension extends RepositoryConfigurationEx
 	public void postProcess(BeanDefinitionBuilder builder, AnnotationRepositoryConfigurationSource config) {
 		AnnotationAttributes attributes = config.getAttributes();
 
-		postProcess(builder, attributes.getString("amazonDynamoDBRef"), attributes.getString("dynamoDBMapperConfigRef"));
+		postProcess(builder, attributes.getString("amazonDynamoDBRef"), attributes.getString("dynamoDBMapperConfigRef"),
+				attributes.getString("executorServiceRef"));
+		builder.addPropertyValue("scanTotalSegments", attributes.getNumber("scanTotalSegments"));
+		builder.addPropertyValue("batchWriteParallelism", attributes.getNumber("batchWriteParallelism"));
 
 	}
 
@@ -66,10 +75,14 @@ public class DynamoDBRepositoryConfigExtension extends RepositoryConfigurationEx
 
 		ParsingUtils.setPropertyReference(builder, element, AMAZON_DYNAMODB_REF, "amazonDynamoDB");
 		ParsingUtils.setPropertyReference(builder, element, DYNAMO_DB_MAPPER_CONFIG_REF, "dynamoDBMapperConfig");
+		ParsingUtils.setPropertyReference(builder, element, EXECUTOR_SERVICE_REF, "executorService");
+		ParsingUtils.setPropertyValue(builder, element, SCAN_TOTAL_SEGMENTS, "scanTotalSegments");
+		ParsingUtils.setPropertyValue(builder, element, BATCH_WRITE_PARALLELISM, "batchWriteParallelism");
 
 	}
 
-	private void postProcess(BeanDefinitionBuilder builder, String amazonDynamoDBRef, String dynamoDBMapperConfigRef) {
+	private void postProcess(BeanDefinitionBuilder builder, String amazonDynamoDBRef, String dynamoDBMapperConfigRef,
+			String executorServiceRef) {
 
 		amazonDynamoDBRef = StringUtils.hasText(amazonDynamoDBRef) ? amazonDynamoDBRef : DEFAULT_AMAZON_DYNAMO_DB_BEAN_NAME;
 
@@ -78,6 +91,10 @@ public class DynamoDBRepositoryConfigExtension extends RepositoryConfigurationEx
 		if (StringUtils.hasText(dynamoDBMapperConfigRef)) {
 			builder.addPropertyReference("dynamoDBMapperConfig", dynamoDBMapperConfigRef);
 		}
+
+		if (StringUtils.hasText(executorServiceRef)) {
+			builder.addPropertyReference("executorService", executorServiceRef);
+		}
 	}
 
 	@Override
@@ -133,4 +133,35 @@ public @interface EnableDynamoDBRepositories {
 	 */
 	String dynamoDBMapperConfigRef() default "";
 
+	/**
+	 * Returns the {@link java.util.concurrent.ExecutorService } reference to
+	 * be used to execute asynchronous repository operations. If not
+	 * specified, and the configured AmazonDynamoDB is an
+	 * AmazonDynamoDBAsyncClient, the ExecutorService of that client is used.
+	 * 
+	 * @return
+	 */
+	String executorServiceRef() default "";
+
+	/**
+	 * Returns the number of segments in which scan-backed repository
+	 * operations ( findAll(), count(), deleteAll() and scanning query
+	 * methods ) scan tables in parallel. Defaults to 1, a sequential scan. A
+	 * value of 0 sizes the number of segments by the number of available
+	 * processors.
+	 * 
+	 * @return
+	 */
+	int scanTotalSegments() default 1;
+
+	/**
+	 * Returns the maximum number of 25-entity chunks written concurrently by
+	 * bulk saves and deletes, on the repositories' ExecutorService. Defaults
+	 * to 1, chunks being written one at a time, as they are when there is no
+	 * ExecutorService.
+	 * 
+	 * @return
+	 */
+	int batchWriteParallelism() default 1;
+
 }
@@ -17,19 +17,42 @@ package org.socialsignin.spring.data.dynamodb.repository.query;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 
+import org.socialsignin.spring.data.dynamodb.query.KeyCursorCodec;
+import org.socialsignin.spring.data.dynamodb.query.LazyResultIterator;
 import org.socialsignin.spring.data.dynamodb.query.Query;
+import org.socialsignin.spring.data.dynamodb.query.RequestCollapser;
+import org.socialsignin.spring.data.dynamodb.query.ResultPage;
+import org.socialsignin.spring.data.dynamodb.repository.BatchWriteResult;
+import org.socialsignin.spring.data.dynamodb.repository.CloseableIterator;
+import org.socialsignin.spring.data.dynamodb.repository.CollapseRequests;
+import org.socialsignin.spring.data.dynamodb.repository.CursorPage;
+import org.socialsignin.spring.data.dynamodb.repository.CursorPageRequest;
+import org.socialsignin.spring.data.dynamodb.repository.CursorSlice;
+import org.socialsignin.spring.data.dynamodb.repository.ReadSettings;
+import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityInformation;
+import org.socialsignin.spring.data.dynamodb.repository.support.EntityBatchWriter;
+import org.socialsignin.spring.data.dynamodb.repository.support.EntityCache;
+import org.socialsignin.spring.data.dynamodb.repository.support.WriteBehindBuffer;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.repository.query.ParameterAccessor;
 import org.springframework.data.repository.query.Parameters;
 import org.springframework.data.repository.query.ParametersParameterAccessor;
 import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.util.Assert;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 
 /**
  * @author Michael Lavelle
@@ -38,30 +61,162 @@ public abstract class AbstractDynamoDBQuery<T, ID extends Serializable> implemen
 
 	protected final DynamoDBMapper dynamoDBMapper;
 	private final DynamoDBQueryMethod<T, ID> method;
+	private final ExecutorService executorService;
+	private final RequestCollapser<List<Object>, Object> executions = new RequestCollapser<List<Object>, Object>();
+	private int batchWriteParallelism = 1;
+	private WriteBehindBuffer<T, ID> writeBehindBuffer;
+	private EntityCache<T, ID> entityCache;
 
 	public AbstractDynamoDBQuery(DynamoDBMapper dynamoDBMapper, DynamoDBQueryMethod<T, ID> method) {
+		this(dynamoDBMapper, method, null);
+	}
+
+	public AbstractDynamoDBQuery(DynamoDBMapper dynamoDBMapper, DynamoDBQueryMethod<T, ID> method,
+			ExecutorService executorService) {
 		this.dynamoDBMapper = dynamoDBMapper;
 		this.method = method;
+		this.executorService = executorService;
+	}
+
+	/**
+	 * @param batchWriteParallelism
+	 *            the maximum number of 25-item batches deleted concurrently by
+	 *            deleting queries
+	 */
+	public void setBatchWriteParallelism(int batchWriteParallelism) {
+		this.batchWriteParallelism = batchWriteParallelism;
+	}
+
+	/**
+	 * @param writeBehindBuffer
+	 *            the write-behind buffer of the repository, from which
+	 *            entities deleted by deleting queries are discarded - may be
+	 *            null
+	 */
+	public void setWriteBehindBuffer(WriteBehindBuffer<T, ID> writeBehindBuffer) {
+		this.writeBehindBuffer = writeBehindBuffer;
+	}
+
+	/**
+	 * @param entityCache
+	 *            the entity cache of the repository, from which entities
+	 *            deleted by deleting queries are evicted - may be null
+	 */
+	public void setEntityCache(EntityCache<T, ID> entityCache) {
+		this.entityCache = entityCache;
 	}
 
 	protected QueryExecution<T, ID> getExecution() {
 
-		if (method.isCollectionQuery()) {
-			return new CollectionExecution();
-		} else if (method.isPageQuery()) {
-			return new PagedExecution(method.getParameters());
+		if (method.isAsyncQuery()) {
+			// Asynchronous methods are executed as the synchronous methods
+			// returning the type wrapped by their Future would be
+			Class<?> resultType = method.getAsyncResultType();
+			boolean pageResult = Page.class.isAssignableFrom(resultType);
+			return new AsyncExecution(getExecution(Iterator.class.isAssignableFrom(resultType),
+					!pageResult && Iterable.class.isAssignableFrom(resultType),
+					CursorSlice.class.isAssignableFrom(resultType), pageResult));
+		}
+		return getExecution(method.isIteratorQuery(), method.isCollectionQuery(), method.isSliceQuery(),
+				method.isPageQuery());
+	}
+
+	private QueryExecution<T, ID> getExecution(boolean iteratorQuery, boolean collectionQuery, boolean sliceQuery,
+			boolean pageQuery) {
+
+		if (isCountQuery()) {
+			return new CollapsingExecution(new CountExecution());
+		} else if (isExistsQuery()) {
+			return new CollapsingExecution(new ExistsExecution());
+		} else if (isDeleteQuery()) {
+			return new DeleteExecution();
+		} else if (iteratorQuery) {
+			return project(new IteratorExecution());
+		} else if (collectionQuery) {
+			return project(new CollectionExecution());
+		} else if (sliceQuery) {
+			return project(collapseIfEnabled(new SlicedExecution(method.getParameters())));
+		} else if (pageQuery) {
+			return project(collapseIfEnabled(new PagedExecution(method.getParameters())));
 		} else if (method.isModifyingQuery()) {
 			throw new UnsupportedOperationException("Modifying queries not yet supported");
 		} else {
-			return new SingleEntityExecution();
+			return project(collapseIfEnabled(new SingleEntityExecution()));
 		}
 	}
 
+	private QueryExecution<T, ID> collapseIfEnabled(QueryExecution<T, ID> execution) {
+		// Collapsed invocations share the same entity instances, so entity
+		// results are only collapsed for methods which opt in
+		return method.isCollapseRequests() ? new CollapsingExecution(execution) : execution;
+	}
+
+	private QueryExecution<T, ID> project(QueryExecution<T, ID> execution) {
+		DynamoDBProjection projection = method.getProjection();
+		return projection == null ? execution : new ProjectingExecution(execution, projection);
+	}
+
 	protected abstract Query<T> doCreateQuery(Object[] values);
 
+	/**
+	 * Returns whether the query counts its results rather than returning them
+	 * 
+	 * @return
+	 */
+	protected boolean isCountQuery() {
+		return false;
+	}
+
+	/**
+	 * Returns whether the query determines whether there are any results
+	 * rather than returning them
+	 * 
+	 * @return
+	 */
+	protected boolean isExistsQuery() {
+		return false;
+	}
+
+	/**
+	 * Returns whether the query deletes its results rather than returning
+	 * them
+	 * 
+	 * @return
+	 */
+	protected boolean isDeleteQuery() {
+		return false;
+	}
+
+	/**
+	 * Returns the maximum number of results of the query, bounded by both the
+	 * result limit of a findFirst... or findTopN... method and the item budget
+	 * of its read settings
+	 * 
+	 * @return the maximum number of results, or 0 if the number of results is
+	 *         not limited
+	 */
+	private int getMaxResults() {
+		int resultLimit = method.getResultLimit();
+		int maxItems = method.getReadSettings() == null ? 0 : method.getReadSettings().maxItems();
+		if (resultLimit == 0 || maxItems == 0) {
+			return Math.max(resultLimit, maxItems);
+		}
+		return Math.min(resultLimit, maxItems);
+	}
+
 	protected Query<T> doCreateQueryWithPermissions(Object values[]) {
 		Query<T> query = doCreateQuery(values);
 		query.setScanEnabled(method.isScanEnabled());
+		ReadSettings readSettings = method.getReadSettings();
+		if (readSettings != null) {
+			if (readSettings.consistentReads().length > 0) {
+				query.setConsistentReads(readSettings.consistentReads()[0]);
+			}
+			if (readSettings.paginationLoadingStrategy().length > 0) {
+				query.setPaginationLoadingStrategy(readSettings.paginationLoadingStrategy()[0]);
+			}
+			query.setPageSize(readSettings.pageSize());
+		}
 		return query;
 	}
 
@@ -69,19 +224,57 @@ public abstract class AbstractDynamoDBQuery<T, ID extends Serializable> implemen
 		public Object execute(AbstractDynamoDBQuery<T, ID> query, Object[] values);
 	}
 
+	/**
+	 * Returns a list of the results, reading only the first results of
+	 * findFirst... and findTopN... methods and of methods with an item budget.
+	 */
 	class CollectionExecution implements QueryExecution<T, ID> {
 
 		@Override
 		public Object execute(AbstractDynamoDBQuery<T, ID> dynamoDBQuery, Object[] values) {
 			Query<T> query = dynamoDBQuery.doCreateQueryWithPermissions(values);
+			int maxResults = getMaxResults();
+			if (maxResults > 0) {
+				return query.getResultPage(null, maxResults).getResults();
+			}
 			return query.getResultList();
 		}
 
 	}
 
+	/**
+	 * Returns a {@link org.socialsignin.spring.data.dynamodb.repository.CloseableIterator}
+	 * which loads the results a page at a time as they are iterated over,
+	 * holding only the page being iterated in memory.
+	 */
+	class IteratorExecution implements QueryExecution<T, ID> {
+
+		@Override
+		public Object execute(AbstractDynamoDBQuery<T, ID> dynamoDBQuery, Object[] values) {
+			Query<T> query = dynamoDBQuery.doCreateQueryWithPermissions(values);
+			int maxResults = getMaxResults();
+			if (method.getResultLimit() > 0) {
+				return new LazyResultIterator<T>(query.getResultPage(null, maxResults).getResults().iterator());
+			}
+			if (maxResults > 0) {
+				// An item budget alone stops iteration once it has been spent,
+				// leaving the remaining pages unread
+				return new LazyResultIterator<T>(query.getResultIterator(), maxResults);
+			}
+			return query.getResultIterator();
+		}
+
+	}
+
 	/**
 	 * Executes the {@link AbstractStringBasedJpaQuery} to return a
 	 * {@link org.springframework.data.domain.Page} of entities.
+	 * 
+	 * Page requests with a cursor, and requests for the first page, read only
+	 * the items of the requested page, resuming the query at the cursor's key,
+	 * and return a {@link CursorPage} carrying the cursor for the next page.
+	 * Other page requests read only the items up to the end of the requested
+	 * page, plus one to determine whether there is a next page.
 	 */
 	class PagedExecution implements QueryExecution<T, ID> {
 
@@ -92,23 +285,54 @@ public abstract class AbstractDynamoDBQuery<T, ID extends Serializable> implemen
 			this.parameters = parameters;
 		}
 
-		private int scanThroughResults(Iterator<T> iterator, int resultsToScan) {
-			int processed = 0;
-			while (iterator.hasNext() && processed < resultsToScan) {
-				iterator.next();
-				processed++;
+		@Override
+		public Object execute(AbstractDynamoDBQuery<T, ID> dynamoDBQuery, Object[] values) {
+
+			ParameterAccessor accessor = new ParametersParameterAccessor(parameters, values);
+			Pageable pageable = accessor.getPageable();
+			Query<T> query = dynamoDBQuery.doCreateQueryWithPermissions(values);
+			if (pageable instanceof CursorPageRequest || pageable.getOffset() == 0) {
+				String cursor = pageable instanceof CursorPageRequest ? ((CursorPageRequest) pageable).getCursor() : null;
+				ResultPage<T> resultPage = query.getResultPage(KeyCursorCodec.decode(cursor), pageable.getPageSize());
+				return new CursorPage<T>(resultPage.getResults(), pageable, KeyCursorCodec.encode(resultPage
+						.getLastEvaluatedKey()));
 			}
-			return processed;
+			int endOfPage = pageable.getOffset() + pageable.getPageSize();
+			List<T> results = query.getResultPage(null, endOfPage + 1).getResults();
+			return createPage(results, pageable);
 		}
 
-		private List<T> readPageOfResults(Iterator<T> iterator, int pageSize) {
-			int processed = 0;
-			List<T> resultsPage = new ArrayList<T>();
-			while (iterator.hasNext() && processed < pageSize) {
-				resultsPage.add(iterator.next());
-				processed++;
+		private Page<T> createPage(List<T> results, Pageable pageable) {
+
+			if (results.size() <= pageable.getOffset()) {
+				return new PageImpl<T>(new ArrayList<T>());
 			}
-			return resultsPage;
+			int endOfPage = pageable.getOffset() + pageable.getPageSize();
+			List<T> pageOfResults = new ArrayList<T>(results.subList(pageable.getOffset(),
+					Math.min(endOfPage, results.size())));
+			// Set total count to be the number up to the end of this page, plus
+			// one if there is a next page. This allows paging to determine
+			// next/prev page correctly, even though we are unable to return
+			// the actual count of total results due to the way DynamoDB scans
+			// results
+			return new PageImpl<T>(pageOfResults, pageable, Math.min(results.size(), endOfPage + 1));
+
+		}
+	}
+
+	/**
+	 * Executes the query to return a {@link CursorSlice} of entities, reading
+	 * the items of the requested slice and a single item beyond it. Requests
+	 * without a cursor for pages other than the first read through the items
+	 * before the page to find the key at which it starts.
+	 */
+	class SlicedExecution implements QueryExecution<T, ID> {
+
+		private final Parameters<?, ?> parameters;
+
+		public SlicedExecution(Parameters<?, ?> parameters) {
+
+			this.parameters = parameters;
 		}
 
 		@Override
@@ -117,44 +341,263 @@ public abstract class AbstractDynamoDBQuery<T, ID extends Serializable> implemen
 			ParameterAccessor accessor = new ParametersParameterAccessor(parameters, values);
 			Pageable pageable = accessor.getPageable();
 			Query<T> query = dynamoDBQuery.doCreateQueryWithPermissions(values);
-			List<T> results = query.getResultList();
-			return createPage(results, pageable);
+			Map<String, AttributeValue> exclusiveStartKey = null;
+			if (pageable instanceof CursorPageRequest) {
+				exclusiveStartKey = KeyCursorCodec.decode(((CursorPageRequest) pageable).getCursor());
+			} else if (pageable.getOffset() > 0) {
+				exclusiveStartKey = query.getResultPage(null, pageable.getOffset()).getLastEvaluatedKey();
+				if (exclusiveStartKey == null) {
+					return new CursorSlice<T>(new ArrayList<T>(), pageable, null);
+				}
+			}
+			ResultPage<T> resultSlice = query.getResultSlice(exclusiveStartKey, pageable.getPageSize());
+			return new CursorSlice<T>(resultSlice.getResults(), pageable, KeyCursorCodec.encode(resultSlice
+					.getLastEvaluatedKey()));
+		}
+	}
+
+	/**
+	 * Returns the single result, or the first result of findFirst... methods,
+	 * which is null if there are no results.
+	 */
+	class SingleEntityExecution implements QueryExecution<T, ID> {
+
+		@Override
+		public Object execute(AbstractDynamoDBQuery<T, ID> dynamoDBQuery, Object[] values) {
+
+			Query<T> query = dynamoDBQuery.doCreateQueryWithPermissions(values);
+			if (method.getResultLimit() > 0) {
+				List<T> results = query.getResultPage(null, 1).getResults();
+				return results.isEmpty() ? null : results.get(0);
+			}
+			return query.getSingleResult();
+
 		}
+	}
 
-		private Page<T> createPage(List<T> allResults, Pageable pageable) {
-
-			Iterator<T> iterator = allResults.iterator();
-			int processedCount = 0;
-			if (pageable.getOffset() > 0) {
-				processedCount = scanThroughResults(iterator, pageable.getOffset());
-				if (processedCount < pageable.getOffset())
-					return new PageImpl<T>(new ArrayList<T>());
-			}
-			List<T> results = readPageOfResults(iterator, pageable.getPageSize());
-			// Scan ahead to retrieve the next page count
-			int nextPageItemCount = scanThroughResults(iterator, pageable.getPageSize());
-			boolean hasMoreResults = nextPageItemCount > 0;
-			int totalProcessed = processedCount + results.size();
-			// Set total count to be the number already returned, or the number
-			// returned added to the count of the next page
-			// This allows paging to determine next/page prev page correctly,
-			// even though we are unable to return
-			// the actual count of total results due to the way DynamoDB scans
-			// results
-			int totalCount = hasMoreResults ? (totalProcessed + nextPageItemCount) : totalProcessed;
-			return new PageImpl<T>(results, pageable, totalCount);
+	/**
+	 * Counts the results of the query without reading them
+	 */
+	class CountExecution implements QueryExecution<T, ID> {
 
+		@Override
+		public Object execute(AbstractDynamoDBQuery<T, ID> dynamoDBQuery, Object[] values) {
+
+			Query<T> query = dynamoDBQuery.doCreateQueryWithPermissions(values);
+			return toCountResult(query.getResultCount());
 		}
 	}
 
-	class SingleEntityExecution implements QueryExecution<T, ID> {
+	/**
+	 * Determines whether the query has any results, reading no more than the
+	 * first result
+	 */
+	class ExistsExecution implements QueryExecution<T, ID> {
 
 		@Override
 		public Object execute(AbstractDynamoDBQuery<T, ID> dynamoDBQuery, Object[] values) {
 
-			return dynamoDBQuery.doCreateQueryWithPermissions(values).getSingleResult();
+			Query<T> query = dynamoDBQuery.doCreateQueryWithPermissions(values);
+			return query.hasResults();
+		}
+	}
+
+	/**
+	 * Deletes the results of the query as they are read, a page at a time,
+	 * in batches of 25 items of which up to batchWriteParallelism are written
+	 * concurrently, returning the number of items deleted
+	 */
+	class DeleteExecution implements QueryExecution<T, ID> {
+
+		@Override
+		public Object execute(AbstractDynamoDBQuery<T, ID> dynamoDBQuery, Object[] values) {
+
+			Query<T> query = dynamoDBQuery.doCreateQueryWithPermissions(values);
+			EntityBatchWriter<T, ID> batchWriter = new EntityBatchWriter<T, ID>(dynamoDBMapper,
+					method.getEntityInformation(), executorService, batchWriteParallelism);
+			int chunkSize = EntityBatchWriter.MAX_BATCH_WRITE_ITEMS * Math.max(1, batchWriteParallelism);
+			long deletedCount = 0;
+			CloseableIterator<T> results = query.getResultIterator();
+			try {
+				List<T> chunk = new ArrayList<T>(chunkSize);
+				while (results.hasNext()) {
+					chunk.add(results.next());
+					if (chunk.size() == chunkSize || !results.hasNext()) {
+						deletedCount += delete(batchWriter, chunk, deletedCount);
+						chunk.clear();
+					}
+				}
+			} finally {
+				results.close();
+			}
+			return toCountResult(deletedCount);
+		}
+
+		private int delete(EntityBatchWriter<T, ID> batchWriter, List<T> chunk, long deletedCount) {
+			// As for the repository's delete, buffered entities are discarded
+			// so that they are not written after being deleted, and cached
+			// entities are evicted once deleted
+			DynamoDBEntityInformation<T, ID> entityInformation = method.getEntityInformation();
+			if (writeBehindBuffer != null) {
+				for (T entity : chunk) {
+					writeBehindBuffer.discard(entityInformation.getId(entity));
+				}
+			}
+			BatchWriteResult<T> result;
+			try {
+				result = batchWriter.delete(chunk);
+			} finally {
+				if (entityCache != null) {
+					for (T entity : chunk) {
+						ID id = entityInformation.getId(entity);
+						if (id != null) {
+							entityCache.evict(id);
+						}
+					}
+				}
+			}
+			if (!result.isSuccessful()) {
+				throw new DataAccessResourceFailureException(String.format(
+						"Unable to delete %s %s entities matching %s, after deleting %s", result.getFailedEntities()
+								.size(), method.getEntityType().getSimpleName(), method.getName(), deletedCount
+								+ result.getWrittenCount()), result.getExceptions().isEmpty() ? null : result
+						.getExceptions().get(0));
+			}
+			return result.getWrittenCount();
+		}
+	}
 
+	/**
+	 * Shares the result of the wrapped {@link QueryExecution} between
+	 * concurrent invocations with equal parameters, so that they make a
+	 * single request. Collection results are not shared, as they are
+	 * paginated lazily by the thread iterating over them, and entity results
+	 * are only shared for methods annotated with {@link CollapseRequests}, as
+	 * every invocation receives the same entity instances.
+	 */
+	class CollapsingExecution implements QueryExecution<T, ID> {
+
+		private final QueryExecution<T, ID> execution;
+
+		public CollapsingExecution(QueryExecution<T, ID> execution) {
+			this.execution = execution;
+		}
+
+		@Override
+		public Object execute(final AbstractDynamoDBQuery<T, ID> dynamoDBQuery, final Object[] values) {
+			return executions.execute(Arrays.asList(values), new Callable<Object>() {
+				public Object call() {
+					return execution.execute(dynamoDBQuery, values);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Projects the entities returned by the wrapped {@link QueryExecution}
+	 * onto the type returned by the query method
+	 */
+	class ProjectingExecution implements QueryExecution<T, ID> {
+
+		private final QueryExecution<T, ID> execution;
+
+		private final DynamoDBProjection projection;
+
+		public ProjectingExecution(QueryExecution<T, ID> execution, DynamoDBProjection projection) {
+			this.execution = execution;
+			this.projection = projection;
+		}
+
+		@Override
+		public Object execute(AbstractDynamoDBQuery<T, ID> dynamoDBQuery, Object[] values) {
+			Object result = execution.execute(dynamoDBQuery, values);
+			if (result instanceof Page) {
+				return projectPage((Page<?>) result);
+			} else if (result instanceof Iterable) {
+				return projectAll((Iterable<?>) result);
+			} else if (result instanceof CloseableIterator) {
+				final CloseableIterator<?> iterator = (CloseableIterator<?>) result;
+				return new CloseableIterator<Object>() {
+
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					public Object next() {
+						return projection.project(iterator.next());
+					}
+
+					public void remove() {
+						iterator.remove();
+					}
+
+					public void close() {
+						iterator.close();
+					}
+				};
+			}
+			return projection.project(result);
+		}
+
+		private List<Object> projectAll(Iterable<?> entities) {
+			List<Object> projections = new ArrayList<Object>();
+			for (Object entity : entities) {
+				projections.add(projection.project(entity));
+			}
+			return projections;
+		}
+
+		private Page<Object> projectPage(Page<?> page) {
+			List<Object> content = projectAll(page.getContent());
+			if (page.getSize() == 0) {
+				return new PageImpl<Object>(content);
+			}
+			Pageable pageable = new PageRequest(page.getNumber(), page.getSize(), page.getSort());
+			if (page instanceof CursorSlice) {
+				return new CursorSlice<Object>(content, pageable, ((CursorSlice<?>) page).getNextCursor());
+			} else if (page instanceof CursorPage) {
+				return new CursorPage<Object>(content, pageable, ((CursorPage<?>) page).getNextCursor());
+			}
+			return new PageImpl<Object>(content, pageable, page.getTotalElements());
+		}
+	}
+
+	/**
+	 * Submits the wrapped {@link QueryExecution} to the configured
+	 * ExecutorService, returning a {@link java.util.concurrent.Future} for
+	 * the result instead of blocking the calling thread
+	 */
+	class AsyncExecution implements QueryExecution<T, ID> {
+
+		private final QueryExecution<T, ID> execution;
+
+		public AsyncExecution(QueryExecution<T, ID> execution) {
+			this.execution = execution;
+		}
+
+		@Override
+		public Object execute(final AbstractDynamoDBQuery<T, ID> dynamoDBQuery, final Object[] values) {
+
+			Assert.state(executorService != null, "No ExecutorService configured for asynchronous query method "
+					+ method.getName() + ": please configure an executorService for the repository factory, "
+					+ "or use an AmazonDynamoDBAsyncClient");
+			return executorService.submit(new Callable<Object>() {
+				public Object call() {
+					return execution.execute(dynamoDBQuery, values);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Returns the given count as an int for methods declared to return one
+	 */
+	private Object toCountResult(long count) {
+		Class<?> countType = method.isAsyncQuery() ? method.getAsyncResultType() : method.getReturnedObjectType();
+		if (int.class.equals(countType) || Integer.class.equals(countType)) {
+			return (int) count;
 		}
+		return count;
 	}
 
 	/*
@@ -25,8 +25,11 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentMap;
 
 import org.socialsignin.spring.data.dynamodb.mapping.DefaultDynamoDBDateMarshaller;
+import org.socialsignin.spring.data.dynamodb.query.MultipleEntityScanExpressionQuery;
+import org.socialsignin.spring.data.dynamodb.query.MultipleEntityScanRequestQuery;
 import org.socialsignin.spring.data.dynamodb.query.Query;
 import org.socialsignin.spring.data.dynamodb.query.QueryRequestMapper;
 import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityInformation;
@@ -41,10 +44,12 @@ import org.springframework.util.MultiValueMap;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMarshaller;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
 import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
 import com.amazonaws.services.dynamodbv2.model.Condition;
 import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
 import com.amazonaws.services.dynamodbv2.model.Select;
 
 /**
@@ -63,8 +68,92 @@ public abstract class AbstractDynamoDBQueryCriteria<T, ID extends Serializable>
 	protected Object hashKeyAttributeValue;
 	protected Object hashKeyPropertyValue;
 	protected Sort sort;
+	protected List<String> projectedPropertyNames;
+
+	private ConcurrentMap<String, DynamoDBQueryPlan> queryPlans;
+	private DynamoDBQueryPlan queryPlan;
+	private boolean planningOnly;
+
+	/**
+	 * @param queryPlans
+	 *            the plans of criteria previously built for the same query
+	 *            method, by shape, to which the plan of these criteria is
+	 *            added if there is none for their shape
+	 */
+	public void setQueryPlans(ConcurrentMap<String, DynamoDBQueryPlan> queryPlans) {
+		this.queryPlans = queryPlans;
+	}
+
+	/**
+	 * @param queryPlan
+	 *            the plan of criteria of the same shape as these, by which
+	 *            these criteria are read rather than being planned
+	 */
+	public void setQueryPlan(DynamoDBQueryPlan queryPlan) {
+		this.queryPlan = queryPlan;
+	}
+
+	/**
+	 * @param planningOnly
+	 *            whether these criteria are created from placeholder
+	 *            arguments only to be planned, in which case their conditions
+	 *            are recorded without values
+	 */
+	public void setPlanningOnly(boolean planningOnly) {
+		this.planningOnly = planningOnly;
+	}
+
+	/**
+	 * Returns the plan of these criteria, reusing the plan of criteria of the
+	 * same shape if one has been created
+	 */
+	protected DynamoDBQueryPlan getQueryPlan() {
+		if (queryPlans == null) {
+			return createQueryPlan();
+		}
+		String queryPlanKey = getQueryPlanKey();
+		DynamoDBQueryPlan plan = queryPlans.get(queryPlanKey);
+		if (plan == null) {
+			plan = createQueryPlan();
+			queryPlans.putIfAbsent(queryPlanKey, plan);
+		}
+		return plan;
+	}
+
+	protected DynamoDBQueryPlan createQueryPlan() {
+		if (planLoad()) {
+			return DynamoDBQueryPlan.load();
+		}
+		return DynamoDBQueryPlan.find(planQuery(), planGlobalSecondaryIndexQuery(), planGlobalSecondaryIndexName());
+	}
+
+	/**
+	 * Returns the shape of these criteria, on which their plan depends: the
+	 * properties with conditions, the comparison operators of those
+	 * conditions, and whether the hash key is specified
+	 */
+	protected String getQueryPlanKey() {
+		StringBuilder queryPlanKey = new StringBuilder(isHashKeySpecified() ? "hashKey" : "");
+		for (Entry<String, List<Condition>> singlePropertyConditions : propertyConditions.entrySet()) {
+			queryPlanKey.append(';').append(singlePropertyConditions.getKey());
+			for (Condition condition : singlePropertyConditions.getValue()) {
+				queryPlanKey.append(' ').append(condition.getComparisonOperator());
+			}
+		}
+		return queryPlanKey.toString();
+	}
 
-	public abstract boolean isApplicableForLoad();
+	public boolean isApplicableForLoad() {
+		return queryPlan != null ? queryPlan.isLoad() : planLoad();
+	}
+
+	public boolean isApplicableForQuery() {
+		return queryPlan != null ? queryPlan.isQuery() : planQuery();
+	}
+
+	protected abstract boolean planLoad();
+
+	protected abstract boolean planQuery();
 
 	protected QueryRequest buildQueryRequest(String tableName, String theIndexName, String hashKeyAttributeName,
 			String rangeKeyAttributeName, String rangeKeyPropertyName, List<Condition> hashKeyConditions,
@@ -108,7 +197,12 @@ public abstract class AbstractDynamoDBQueryCriteria<T, ID extends Serializable>
 			}
 
 			queryRequest.setKeyConditions(keyConditions);
-			queryRequest.setSelect(Select.ALL_PROJECTED_ATTRIBUTES);
+			if (isProjected()) {
+				queryRequest.setSelect(Select.SPECIFIC_ATTRIBUTES);
+				queryRequest.setAttributesToGet(getProjectedAttributeNames());
+			} else {
+				queryRequest.setSelect(Select.ALL_PROJECTED_ATTRIBUTES);
+			}
 			applySortIfSpecified(queryRequest, new ArrayList<String>(new HashSet<String>(allowedSortProperties)));
 		}
 		return queryRequest;
@@ -211,6 +305,10 @@ public abstract class AbstractDynamoDBQueryCriteria<T, ID extends Serializable>
 	}
 
 	protected String getGlobalSecondaryIndexName() {
+		return queryPlan != null ? queryPlan.getGlobalSecondaryIndexName() : planGlobalSecondaryIndexName();
+	}
+
+	protected String planGlobalSecondaryIndexName() {
 
 		if (attributeConditions == null || attributeConditions.size() == 0)
 			return null;
@@ -296,6 +394,10 @@ public abstract class AbstractDynamoDBQueryCriteria<T, ID extends Serializable>
 		return hasIndexRangeKeyCondition;
 	}
 	protected boolean isApplicableForGlobalSecondaryIndex() {
+		return queryPlan != null ? queryPlan.isGlobalSecondaryIndexQuery() : planGlobalSecondaryIndexQuery();
+	}
+
+	protected boolean planGlobalSecondaryIndexQuery() {
 		boolean global = this.getGlobalSecondaryIndexName() != null;
 		if (global && getHashKeyAttributeValue() != null
 				&& !entityInformation.getGlobalSecondaryIndexNamesByPropertyName().keySet().contains(getHashKeyPropertyName())) {
@@ -367,6 +469,9 @@ public abstract class AbstractDynamoDBQueryCriteria<T, ID extends Serializable>
 
 	@Override
 	public Query<T> buildQuery(DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper) {
+		if (queryPlan == null) {
+			queryPlan = getQueryPlan();
+		}
 		if (isApplicableForLoad()) {
 			return buildSingleEntityLoadQuery(dynamoDBMapper);
 		} else {
@@ -374,6 +479,39 @@ public abstract class AbstractDynamoDBQueryCriteria<T, ID extends Serializable>
 		}
 	}
 
+	protected int getScanTotalSegments(QueryRequestMapper queryRequestMapper) {
+		return queryRequestMapper == null ? 1 : queryRequestMapper.getScanTotalSegments();
+	}
+
+	/**
+	 * Builds a scan of the entity's table using the given scan expression,
+	 * reading only the projected attributes if the criteria have a projection
+	 */
+	protected Query<T> buildScanQuery(DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper,
+			DynamoDBScanExpression scanExpression) {
+		if (isProjected() && queryRequestMapper != null) {
+			ScanRequest scanRequest = new ScanRequest(queryRequestMapper.getOverriddenTableName(entityInformation))
+					.withScanFilter(scanExpression.getScanFilter()).withSelect(Select.SPECIFIC_ATTRIBUTES)
+					.withAttributesToGet(getProjectedAttributeNames());
+			return new MultipleEntityScanRequestQuery<T>(queryRequestMapper, clazz, scanRequest,
+					getScanTotalSegments(queryRequestMapper), entityInformation);
+		}
+		return new MultipleEntityScanExpressionQuery<T>(dynamoDBMapper, clazz, scanExpression,
+				getScanTotalSegments(queryRequestMapper), entityInformation);
+	}
+
+	protected boolean isProjected() {
+		return projectedPropertyNames != null && !projectedPropertyNames.isEmpty();
+	}
+
+	protected List<String> getProjectedAttributeNames() {
+		List<String> projectedAttributeNames = new ArrayList<String>();
+		for (String projectedPropertyName : projectedPropertyNames) {
+			projectedAttributeNames.add(getAttributeName(projectedPropertyName));
+		}
+		return projectedAttributeNames;
+	}
+
 	protected abstract Query<T> buildSingleEntityLoadQuery(DynamoDBMapper dynamoDBMapper);
 
 	protected abstract Query<T> buildFinderQuery(DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper);
@@ -396,6 +534,9 @@ public abstract class AbstractDynamoDBQueryCriteria<T, ID extends Serializable>
 
 	@SuppressWarnings("unchecked")
 	protected <V> Object getPropertyAttributeValue(String propertyName, Object value) {
+		if (planningOnly) {
+			return value;
+		}
 		DynamoDBMarshaller<V> marshaller = (DynamoDBMarshaller<V>) entityInformation.getMarshallerForProperty(propertyName);
 
 		if (marshaller != null) {
@@ -517,6 +658,9 @@ public abstract class AbstractDynamoDBQueryCriteria<T, ID extends Serializable>
 
 		Assert.notNull(o, "Creating conditions on null property values not supported: please specify a value for '"
 				+ propertyName + "'");
+		if (planningOnly) {
+			return new Condition().withComparisonOperator(comparisonOperator);
+		}
 
 		Object attributeValue = !alreadyMarshalledIfRequired ? getPropertyAttributeValue(propertyName, o) : o;
 
@@ -535,6 +679,9 @@ public abstract class AbstractDynamoDBQueryCriteria<T, ID extends Serializable>
 
 		Assert.notNull(o, "Creating conditions on null property values not supported: please specify a value for '"
 				+ propertyName + "'");
+		if (planningOnly) {
+			return new Condition().withComparisonOperator(comparisonOperator);
+		}
 		List<AttributeValue> attributeValueList = new ArrayList<AttributeValue>();
 		boolean marshalled = false;
 		for (Object object : o) {
@@ -557,4 +704,10 @@ public abstract class AbstractDynamoDBQueryCriteria<T, ID extends Serializable>
 		return this;
 	}
 
+	@Override
+	public DynamoDBQueryCriteria<T, ID> withProjection(List<String> propertyNames) {
+		this.projectedPropertyNames = propertyNames;
+		return this;
+	}
+
 }
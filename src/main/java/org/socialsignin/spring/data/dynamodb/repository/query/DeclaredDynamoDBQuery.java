@@ -0,0 +1,188 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.query;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import org.socialsignin.spring.data.dynamodb.query.MultipleEntityQueryRequestQuery;
+import org.socialsignin.spring.data.dynamodb.query.MultipleEntityScanRequestQuery;
+import org.socialsignin.spring.data.dynamodb.query.Query;
+import org.socialsignin.spring.data.dynamodb.query.QueryRequestMapper;
+import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityInformation;
+import org.springframework.data.repository.query.Parameter;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.Select;
+
+/**
+ * Executes the query declared by the
+ * {@link org.socialsignin.spring.data.dynamodb.repository.Query} annotation of
+ * a query method.
+ * 
+ * The annotation's expressions are parsed and validated when the query is
+ * created, so that a repository with an invalid declared query fails to
+ * initialize, and each execution only binds the method's arguments to the
+ * parsed expressions.
+ * 
+ * @author Michael Lavelle
+ */
+public class DeclaredDynamoDBQuery<T, ID extends Serializable> extends AbstractDynamoDBQuery<T, ID> {
+
+	private static final List<ComparisonOperator> RANGE_KEY_COMPARISON_OPERATORS = Arrays.asList(
+			ComparisonOperator.EQ, ComparisonOperator.LE, ComparisonOperator.LT, ComparisonOperator.GE,
+			ComparisonOperator.GT, ComparisonOperator.BEGINS_WITH, ComparisonOperator.BETWEEN);
+
+	private final QueryRequestMapper queryRequestMapper;
+
+	private final DynamoDBEntityInformation<T, ID> entityInformation;
+
+	private final DynamoDBExpressionTemplate<T, ID> keyConditionTemplate;
+
+	private final DynamoDBExpressionTemplate<T, ID> filterTemplate;
+
+	private final List<String> projectedAttributeNames;
+
+	private final String indexName;
+
+	public DeclaredDynamoDBQuery(DynamoDBMapper dynamoDBMapper, DynamoDBQueryMethod<T, ID> method,
+			QueryRequestMapper queryRequestMapper) {
+		this(dynamoDBMapper, method, queryRequestMapper, null);
+	}
+
+	public DeclaredDynamoDBQuery(DynamoDBMapper dynamoDBMapper, DynamoDBQueryMethod<T, ID> method,
+			QueryRequestMapper queryRequestMapper, ExecutorService executorService) {
+		super(dynamoDBMapper, method, executorService);
+		org.socialsignin.spring.data.dynamodb.repository.Query declaredQuery = method.getDeclaredQuery();
+		Assert.notNull(declaredQuery, "No query is declared for method " + method.getName());
+		Assert.notNull(queryRequestMapper, "Declared queries require a QueryRequestMapper");
+		this.queryRequestMapper = queryRequestMapper;
+		this.entityInformation = method.getEntityInformation();
+		Map<String, Parameter> parametersByName = getParametersByName(method);
+		this.keyConditionTemplate = StringUtils.hasText(declaredQuery.keyConditionExpression()) ? new DynamoDBExpressionTemplate<T, ID>(
+				declaredQuery.keyConditionExpression(), entityInformation, parametersByName) : null;
+		this.filterTemplate = StringUtils.hasText(declaredQuery.filterExpression()) ? new DynamoDBExpressionTemplate<T, ID>(
+				declaredQuery.filterExpression(), entityInformation, parametersByName) : null;
+		this.indexName = StringUtils.hasText(declaredQuery.indexName()) ? declaredQuery.indexName() : null;
+		this.projectedAttributeNames = getProjectedAttributeNames(declaredQuery, method);
+		if (keyConditionTemplate != null) {
+			assertValidKeyCondition();
+			// Query requests have no QueryFilter in this version of the AWS
+			// SDK, so only scans can be filtered
+			Assert.isNull(filterTemplate, "Filter expressions are only supported for scans, "
+					+ "which have no key condition expression");
+		} else {
+			Assert.isNull(indexName, "Only queries, which have a key condition expression, can read an index");
+		}
+	}
+
+	private static Map<String, Parameter> getParametersByName(DynamoDBQueryMethod<?, ?> method) {
+		Map<String, Parameter> parametersByName = new HashMap<String, Parameter>();
+		for (Parameter parameter : method.getParameters().getBindableParameters()) {
+			if (parameter.getName() != null) {
+				parametersByName.put(parameter.getName(), parameter);
+			}
+		}
+		return parametersByName;
+	}
+
+	private List<String> getProjectedAttributeNames(org.socialsignin.spring.data.dynamodb.repository.Query declaredQuery,
+			DynamoDBQueryMethod<T, ID> method) {
+		List<String> projectedPropertyNames = null;
+		if (StringUtils.hasText(declaredQuery.projectionExpression())) {
+			projectedPropertyNames = Arrays.asList(StringUtils.trimArrayElements(StringUtils
+					.commaDelimitedListToStringArray(declaredQuery.projectionExpression())));
+		} else if (method.getProjection() != null) {
+			projectedPropertyNames = method.getProjection().getPropertyNames();
+		}
+		if (projectedPropertyNames == null) {
+			return null;
+		}
+		List<String> projectedAttributeNames = new ArrayList<String>();
+		for (String propertyName : projectedPropertyNames) {
+			Assert.hasText(propertyName, "Invalid projection expression '" + declaredQuery.projectionExpression() + "'");
+			String overriddenAttributeName = entityInformation.getOverriddenAttributeName(propertyName);
+			projectedAttributeNames.add(overriddenAttributeName != null ? overriddenAttributeName : propertyName);
+		}
+		return projectedAttributeNames;
+	}
+
+	/**
+	 * Asserts that the key condition has an equality condition on the hash
+	 * key of the table or index, and at most one other condition, with a
+	 * comparison permitted for range keys
+	 */
+	private void assertValidKeyCondition() {
+		List<String> propertyNames = keyConditionTemplate.getPropertyNames();
+		Assert.isTrue(propertyNames.size() <= 2, "Invalid key condition expression '" + keyConditionTemplate
+				+ "': key conditions may have at most a hash key and a range key condition");
+		String hashKeyPropertyName = null;
+		for (String propertyName : propertyNames) {
+			boolean hashKeyProperty = entityInformation.isHashKeyProperty(propertyName)
+					|| (indexName != null && entityInformation.isGlobalIndexHashKeyProperty(propertyName));
+			if (hashKeyProperty && keyConditionTemplate.getComparisonOperator(propertyName) == ComparisonOperator.EQ) {
+				hashKeyPropertyName = propertyName;
+			}
+		}
+		Assert.notNull(hashKeyPropertyName, "Invalid key condition expression '" + keyConditionTemplate + "': key "
+				+ "conditions must compare the hash key of the " + (indexName == null ? "table" : "index")
+				+ " for equality");
+		for (String propertyName : propertyNames) {
+			if (!propertyName.equals(hashKeyPropertyName)) {
+				Assert.isTrue(RANGE_KEY_COMPARISON_OPERATORS.contains(keyConditionTemplate
+						.getComparisonOperator(propertyName)), "Invalid key condition expression '"
+						+ keyConditionTemplate + "': range keys cannot be compared with "
+						+ keyConditionTemplate.getComparisonOperator(propertyName));
+			}
+		}
+	}
+
+	@Override
+	protected Query<T> doCreateQuery(Object[] values) {
+		String tableName = queryRequestMapper.getOverriddenTableName(entityInformation);
+		if (keyConditionTemplate != null) {
+			QueryRequest queryRequest = new QueryRequest(tableName).withIndexName(indexName).withKeyConditions(
+					keyConditionTemplate.bind(values));
+			if (projectedAttributeNames != null) {
+				queryRequest.withSelect(Select.SPECIFIC_ATTRIBUTES).withAttributesToGet(projectedAttributeNames);
+			} else if (indexName != null) {
+				queryRequest.setSelect(Select.ALL_PROJECTED_ATTRIBUTES);
+			}
+			return new MultipleEntityQueryRequestQuery<T>(queryRequestMapper, entityInformation.getJavaType(),
+					queryRequest);
+		}
+		ScanRequest scanRequest = new ScanRequest(tableName);
+		if (filterTemplate != null) {
+			scanRequest.setScanFilter(filterTemplate.bind(values));
+		}
+		if (projectedAttributeNames != null) {
+			scanRequest.withSelect(Select.SPECIFIC_ATTRIBUTES).withAttributesToGet(projectedAttributeNames);
+		}
+		return new MultipleEntityScanRequestQuery<T>(queryRequestMapper, entityInformation.getJavaType(), scanRequest,
+				queryRequestMapper.getScanTotalSegments(), entityInformation);
+	}
+
+}
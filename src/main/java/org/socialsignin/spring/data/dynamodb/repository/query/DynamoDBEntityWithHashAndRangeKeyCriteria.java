@@ -27,7 +27,6 @@ import java.util.Set;
 
 import org.socialsignin.spring.data.dynamodb.query.MultipleEntityQueryExpressionQuery;
 import org.socialsignin.spring.data.dynamodb.query.MultipleEntityQueryRequestQuery;
-import org.socialsignin.spring.data.dynamodb.query.MultipleEntityScanExpressionQuery;
 import org.socialsignin.spring.data.dynamodb.query.Query;
 import org.socialsignin.spring.data.dynamodb.query.QueryRequestMapper;
 import org.socialsignin.spring.data.dynamodb.query.SingleEntityLoadByHashAndRangeKeyQuery;
@@ -202,12 +201,12 @@ public class DynamoDBEntityWithHashAndRangeKeyCriteria<T, ID extends Serializabl
 				return new MultipleEntityQueryExpressionQuery<T>(dynamoDBMapper, entityInformation.getJavaType(), queryExpression);
 			}
 		} else {
-			return new MultipleEntityScanExpressionQuery<T>(dynamoDBMapper, clazz, buildScanExpression());
+			return buildScanQuery(dynamoDBMapper, queryRequestMapper, buildScanExpression());
 		}
 	}
 
 	@Override
-	public boolean isApplicableForLoad() {
+	protected boolean planLoad() {
 		return attributeConditions.size() == 0 && isHashAndRangeKeySpecified();
 	}
 
@@ -259,8 +258,9 @@ public class DynamoDBEntityWithHashAndRangeKeyCriteria<T, ID extends Serializabl
 		return hasCondition;
 	}
 
-	protected boolean isApplicableForGlobalSecondaryIndex() {
-		boolean global = super.isApplicableForGlobalSecondaryIndex();
+	@Override
+	protected boolean planGlobalSecondaryIndexQuery() {
+		boolean global = super.planGlobalSecondaryIndexQuery();
 		if (global && getRangeKeyAttributeValue() != null
 				&& !entityInformation.getGlobalSecondaryIndexNamesByPropertyName().keySet().contains(getRangeKeyPropertyName())) {
 			return false;
@@ -270,10 +270,11 @@ public class DynamoDBEntityWithHashAndRangeKeyCriteria<T, ID extends Serializabl
 
 	}
 
-	protected String getGlobalSecondaryIndexName() {
+	@Override
+	protected String planGlobalSecondaryIndexName() {
 		// Get the target global secondary index name using the property
 		// conditions
-		String globalSecondaryIndexName = super.getGlobalSecondaryIndexName();
+		String globalSecondaryIndexName = super.planGlobalSecondaryIndexName();
 
 		// Hash and Range Entities store range key equals conditions as
 		// rangeKeyAttributeValue attribute instead of as property condition
@@ -291,7 +292,8 @@ public class DynamoDBEntityWithHashAndRangeKeyCriteria<T, ID extends Serializabl
 		return globalSecondaryIndexName;
 	}
 
-	public boolean isApplicableForQuery() {
+	@Override
+	protected boolean planQuery() {
 
 		return isOnlyHashKeySpecified()
 				|| (isHashKeySpecified() && isOnlyASingleAttributeConditionAndItIsOnEitherRangeOrIndexRangeKey() && comparisonOperatorsPermittedForQuery())
@@ -366,4 +368,9 @@ public class DynamoDBEntityWithHashAndRangeKeyCriteria<T, ID extends Serializabl
 		return isHashKeySpecified() && attributeConditions.size() == 0 && !isRangeKeySpecified();
 	}
 
+	@Override
+	protected String getQueryPlanKey() {
+		return (isRangeKeySpecified() ? "rangeKey;" : "") + super.getQueryPlanKey();
+	}
+
 }
@@ -20,7 +20,6 @@ import java.util.List;
 import java.util.Map;
 
 import org.socialsignin.spring.data.dynamodb.query.MultipleEntityQueryRequestQuery;
-import org.socialsignin.spring.data.dynamodb.query.MultipleEntityScanExpressionQuery;
 import org.socialsignin.spring.data.dynamodb.query.Query;
 import org.socialsignin.spring.data.dynamodb.query.QueryRequestMapper;
 import org.socialsignin.spring.data.dynamodb.query.SingleEntityLoadByHashKeyQuery;
@@ -56,7 +55,7 @@ public class DynamoDBEntityWithHashKeyOnlyCriteria<T, ID extends Serializable> e
 					getGlobalSecondaryIndexName(), getHashKeyAttributeName(), null, null, hashKeyConditions, null);
 			return new MultipleEntityQueryRequestQuery<T>(queryRequestMapper, entityInformation.getJavaType(), queryRequest);
 		} else {
-			return new MultipleEntityScanExpressionQuery<T>(dynamoDBMapper, clazz, buildScanExpression());
+			return buildScanQuery(dynamoDBMapper, queryRequestMapper, buildScanExpression());
 		}
 	}
 
@@ -66,10 +65,19 @@ public class DynamoDBEntityWithHashKeyOnlyCriteria<T, ID extends Serializable> e
 	}
 
 	@Override
-	public boolean isApplicableForLoad() {
+	protected boolean planLoad() {
 		return isOnlyHashKeySpecified();
 	}
 
+	/**
+	 * Entities without range keys can only be queried by global secondary
+	 * index
+	 */
+	@Override
+	protected boolean planQuery() {
+		return planGlobalSecondaryIndexQuery();
+	}
+
 	public DynamoDBScanExpression buildScanExpression() {
 
 		if (sort != null) {
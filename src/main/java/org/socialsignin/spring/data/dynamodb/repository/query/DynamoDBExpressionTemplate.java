@@ -0,0 +1,390 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.query;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.socialsignin.spring.data.dynamodb.mapping.DefaultDynamoDBDateMarshaller;
+import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityInformation;
+import org.springframework.data.repository.query.Parameter;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMarshaller;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
+import com.amazonaws.services.dynamodbv2.model.Condition;
+
+/**
+ * A key condition or filter expression of a {@link
+ * org.socialsignin.spring.data.dynamodb.repository.Query} annotation, parsed
+ * once into the attribute names, comparison operators and parameters of its
+ * conditions, so that executing the query only binds the values of its
+ * parameters.
+ * 
+ * The AWS SDK's requests take conditions rather than expression strings, so
+ * expressions are limited to what conditions can express: conjunctions of at
+ * most one condition per property.
+ * 
+ * @author Michael Lavelle
+ * 
+ * @param <T>
+ *            the type of the entities queried
+ * @param <ID>
+ *            the type of the entities' identifier
+ */
+public class DynamoDBExpressionTemplate<T, ID extends Serializable> {
+
+	private static final Pattern TOKEN_PATTERN = Pattern
+			.compile("\\s*(?:(:[A-Za-z_][A-Za-z0-9_]*)|([A-Za-z_][A-Za-z0-9_.]*)|(<>|<=|>=|=|<|>)|([(),]))");
+
+	private static final Map<String, ComparisonOperator> COMPARATORS = new HashMap<String, ComparisonOperator>();
+
+	private static final Map<String, ComparisonOperator> FUNCTIONS = new HashMap<String, ComparisonOperator>();
+
+	static {
+		COMPARATORS.put("=", ComparisonOperator.EQ);
+		COMPARATORS.put("<>", ComparisonOperator.NE);
+		COMPARATORS.put("<", ComparisonOperator.LT);
+		COMPARATORS.put("<=", ComparisonOperator.LE);
+		COMPARATORS.put(">", ComparisonOperator.GT);
+		COMPARATORS.put(">=", ComparisonOperator.GE);
+		FUNCTIONS.put("begins_with", ComparisonOperator.BEGINS_WITH);
+		FUNCTIONS.put("contains", ComparisonOperator.CONTAINS);
+		FUNCTIONS.put("attribute_exists", ComparisonOperator.NOT_NULL);
+		FUNCTIONS.put("attribute_not_exists", ComparisonOperator.NULL);
+	}
+
+	private final String expression;
+
+	private final List<ConditionTemplate> conditions;
+
+	/**
+	 * Parses the given expression
+	 * 
+	 * @param expression
+	 *            the key condition or filter expression
+	 * @param entityInformation
+	 *            the entity information of the entities queried, naming the
+	 *            attributes and marshallers of the properties in the
+	 *            expression
+	 * @param parametersByName
+	 *            the query method's parameters, by the names its placeholders
+	 *            refer to them by
+	 * @throws IllegalArgumentException
+	 *             if the expression is not valid
+	 */
+	public DynamoDBExpressionTemplate(String expression, DynamoDBEntityInformation<T, ID> entityInformation,
+			Map<String, Parameter> parametersByName) {
+		Assert.hasText(expression);
+		this.expression = expression;
+		this.conditions = Collections.unmodifiableList(new Parser(expression, entityInformation, parametersByName)
+				.parseExpression());
+	}
+
+	/**
+	 * Binds the values of the query method's parameters to the conditions of
+	 * the expression
+	 * 
+	 * @param values
+	 *            the arguments of the query method
+	 * @return the conditions, by attribute name
+	 */
+	public Map<String, Condition> bind(Object[] values) {
+		Map<String, Condition> boundConditions = new HashMap<String, Condition>();
+		for (ConditionTemplate condition : conditions) {
+			boundConditions.put(condition.attributeName, condition.bind(values));
+		}
+		return boundConditions;
+	}
+
+	/**
+	 * @return the names of the properties with conditions in the expression,
+	 *         in the order in which they appear
+	 */
+	public List<String> getPropertyNames() {
+		List<String> propertyNames = new ArrayList<String>();
+		for (ConditionTemplate condition : conditions) {
+			propertyNames.add(condition.propertyName);
+		}
+		return propertyNames;
+	}
+
+	/**
+	 * @param propertyName
+	 * @return the comparison operator of the condition on the given property,
+	 *         or null if the expression has no condition on it
+	 */
+	public ComparisonOperator getComparisonOperator(String propertyName) {
+		for (ConditionTemplate condition : conditions) {
+			if (condition.propertyName.equals(propertyName)) {
+				return condition.comparisonOperator;
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+
+	/**
+	 * A condition of the expression, with its placeholders resolved to the
+	 * query method's parameters
+	 */
+	private static class ConditionTemplate {
+
+		private final String propertyName;
+		private final String attributeName;
+		private final ComparisonOperator comparisonOperator;
+		// Marshallers such as date marshallers are not thread-safe, so a
+		// marshaller is obtained for each binding rather than held here
+		private final DynamoDBEntityInformation<?, ?> entityInformation;
+		private final List<Parameter> parameters;
+
+		ConditionTemplate(String propertyName, DynamoDBEntityInformation<?, ?> entityInformation,
+				ComparisonOperator comparisonOperator, List<Parameter> parameters) {
+			String overriddenAttributeName = entityInformation.getOverriddenAttributeName(propertyName);
+			this.propertyName = propertyName;
+			this.attributeName = overriddenAttributeName != null ? overriddenAttributeName : propertyName;
+			this.comparisonOperator = comparisonOperator;
+			this.entityInformation = entityInformation;
+			this.parameters = parameters;
+		}
+
+		@SuppressWarnings("unchecked")
+		Condition bind(Object[] values) {
+			DynamoDBMarshaller<Object> marshaller = (DynamoDBMarshaller<Object>) entityInformation
+					.getMarshallerForProperty(propertyName);
+			List<AttributeValue> attributeValues = new ArrayList<AttributeValue>();
+			for (Parameter parameter : parameters) {
+				Object value = values[parameter.getIndex()];
+				Assert.notNull(value, "Creating conditions on null property values not supported: please specify a value for '"
+						+ propertyName + "'");
+				if (comparisonOperator == ComparisonOperator.IN && value instanceof Iterable) {
+					for (Object element : (Iterable<?>) value) {
+						attributeValues.add(toAttributeValue(element, marshaller));
+					}
+				} else if (comparisonOperator == ComparisonOperator.IN && ObjectUtils.isArray(value)
+						&& !(value instanceof byte[])) {
+					for (Object element : ObjectUtils.toObjectArray(value)) {
+						attributeValues.add(toAttributeValue(element, marshaller));
+					}
+				} else {
+					attributeValues.add(toAttributeValue(value, marshaller));
+				}
+			}
+			return new Condition().withComparisonOperator(comparisonOperator).withAttributeValueList(
+					attributeValues.isEmpty() ? null : attributeValues);
+		}
+
+		private AttributeValue toAttributeValue(Object value, DynamoDBMarshaller<Object> marshaller) {
+			Assert.notNull(value, "Creating conditions on null property values not supported: please specify a value for '"
+					+ propertyName + "'");
+			if (marshaller != null) {
+				return new AttributeValue().withS(marshaller.marshall(value));
+			} else if (value instanceof String) {
+				return new AttributeValue().withS((String) value);
+			} else if (value instanceof Number) {
+				return new AttributeValue().withN(value.toString());
+			} else if (value instanceof Boolean) {
+				return new AttributeValue().withN(((Boolean) value).booleanValue() ? "1" : "0");
+			} else if (value instanceof Date) {
+				return new AttributeValue().withS(new DefaultDynamoDBDateMarshaller().marshall((Date) value));
+			} else if (value instanceof byte[]) {
+				return new AttributeValue().withB(ByteBuffer.wrap((byte[]) value));
+			} else if (value instanceof ByteBuffer) {
+				return new AttributeValue().withB((ByteBuffer) value);
+			}
+			throw new IllegalArgumentException("Cannot create condition for type:" + value.getClass()
+					+ " property conditions must be String,Number,Boolean,Date or binary, or have a DynamoDBMarshaller configured");
+		}
+
+	}
+
+	/**
+	 * Recursive descent parser of expressions of the form
+	 * 
+	 * <pre>
+	 * expression := condition (AND condition)*
+	 * condition  := property comparator placeholder
+	 *             | property BETWEEN placeholder AND placeholder
+	 *             | property IN ( placeholder (, placeholder)* )
+	 *             | property IN placeholder
+	 *             | function ( property (, placeholder)? )
+	 * </pre>
+	 */
+	private static class Parser {
+
+		private final String expression;
+		private final DynamoDBEntityInformation<?, ?> entityInformation;
+		private final Map<String, Parameter> parametersByName;
+		private final List<String> tokens = new ArrayList<String>();
+		private int position = 0;
+
+		Parser(String expression, DynamoDBEntityInformation<?, ?> entityInformation,
+				Map<String, Parameter> parametersByName) {
+			this.expression = expression;
+			this.entityInformation = entityInformation;
+			this.parametersByName = parametersByName;
+			Matcher matcher = TOKEN_PATTERN.matcher(expression);
+			int end = 0;
+			while (expression.substring(end).trim().length() > 0) {
+				matcher.region(end, expression.length());
+				if (!matcher.lookingAt()) {
+					throw invalid("unexpected character '" + expression.substring(end).trim().charAt(0) + "'");
+				}
+				tokens.add(matcher.group().trim());
+				end = matcher.end();
+			}
+		}
+
+		List<ConditionTemplate> parseExpression() {
+			Map<String, ConditionTemplate> conditionsByPropertyName = new LinkedHashMap<String, ConditionTemplate>();
+			do {
+				ConditionTemplate condition = parseCondition();
+				if (conditionsByPropertyName.put(condition.propertyName, condition) != null) {
+					throw invalid("at most one condition per property is supported, but '" + condition.propertyName
+							+ "' has more than one");
+				}
+			} while (acceptKeyword("AND"));
+			if (position < tokens.size()) {
+				if ("OR".equalsIgnoreCase(peek()) || "NOT".equalsIgnoreCase(peek())) {
+					throw invalid("only conditions joined by AND are supported");
+				}
+				throw invalid("unexpected '" + peek() + "'");
+			}
+			return new ArrayList<ConditionTemplate>(conditionsByPropertyName.values());
+		}
+
+		private ConditionTemplate parseCondition() {
+			String name = expectName();
+			if (accept("(")) {
+				ComparisonOperator comparisonOperator = FUNCTIONS.get(name.toLowerCase(Locale.ENGLISH));
+				if (comparisonOperator == null) {
+					throw invalid("unknown function '" + name + "'");
+				}
+				String propertyName = expectName();
+				List<Parameter> parameters = new ArrayList<Parameter>();
+				if (comparisonOperator != ComparisonOperator.NULL && comparisonOperator != ComparisonOperator.NOT_NULL) {
+					expect(",");
+					parameters.add(expectPlaceholder());
+				}
+				expect(")");
+				return new ConditionTemplate(propertyName, entityInformation, comparisonOperator, parameters);
+			}
+			String operator = next("a comparison");
+			ComparisonOperator comparisonOperator = COMPARATORS.get(operator);
+			if (comparisonOperator != null) {
+				return new ConditionTemplate(name, entityInformation, comparisonOperator,
+						Collections.singletonList(expectPlaceholder()));
+			} else if ("BETWEEN".equalsIgnoreCase(operator)) {
+				Parameter from = expectPlaceholder();
+				if (!acceptKeyword("AND")) {
+					throw invalid("expected AND after BETWEEN " + from.getName());
+				}
+				return new ConditionTemplate(name, entityInformation, ComparisonOperator.BETWEEN, Arrays.asList(from,
+						expectPlaceholder()));
+			} else if ("IN".equalsIgnoreCase(operator)) {
+				List<Parameter> parameters = new ArrayList<Parameter>();
+				if (accept("(")) {
+					do {
+						parameters.add(expectPlaceholder());
+					} while (accept(","));
+					expect(")");
+				} else {
+					parameters.add(expectPlaceholder());
+				}
+				return new ConditionTemplate(name, entityInformation, ComparisonOperator.IN, parameters);
+			}
+			throw invalid("unknown comparison '" + operator + "'");
+		}
+
+		private String peek() {
+			return position < tokens.size() ? tokens.get(position) : null;
+		}
+
+		private String next(String expected) {
+			if (position == tokens.size()) {
+				throw invalid("expected " + expected + " at end of expression");
+			}
+			return tokens.get(position++);
+		}
+
+		private boolean accept(String token) {
+			if (token.equals(peek())) {
+				position++;
+				return true;
+			}
+			return false;
+		}
+
+		private boolean acceptKeyword(String keyword) {
+			if (keyword.equalsIgnoreCase(peek())) {
+				position++;
+				return true;
+			}
+			return false;
+		}
+
+		private void expect(String token) {
+			String next = next("'" + token + "'");
+			if (!token.equals(next)) {
+				throw invalid("expected '" + token + "' but found '" + next + "'");
+			}
+		}
+
+		private String expectName() {
+			String next = next("a property name");
+			if (!Character.isLetter(next.charAt(0)) && next.charAt(0) != '_') {
+				throw invalid("expected a property name but found '" + next + "'");
+			}
+			return next;
+		}
+
+		private Parameter expectPlaceholder() {
+			String next = next("a placeholder");
+			if (next.charAt(0) != ':') {
+				throw invalid("expected a placeholder but found '" + next + "'");
+			}
+			Parameter parameter = parametersByName.get(next.substring(1));
+			if (parameter == null) {
+				throw invalid("no parameter is named '" + next.substring(1)
+						+ "' - name the parameter with @Param(\"" + next.substring(1) + "\")");
+			}
+			return parameter;
+		}
+
+		private IllegalArgumentException invalid(String message) {
+			return new IllegalArgumentException("Invalid expression '" + expression + "': " + message);
+		}
+
+	}
+
+}
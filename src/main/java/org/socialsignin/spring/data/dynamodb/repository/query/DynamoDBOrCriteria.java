@@ -0,0 +1,127 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.query;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.socialsignin.spring.data.dynamodb.query.MultipleEntityOrQuery;
+import org.socialsignin.spring.data.dynamodb.query.Query;
+import org.socialsignin.spring.data.dynamodb.query.QueryRequestMapper;
+import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityInformation;
+import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBIdIsHashAndRangeKeyEntityInformation;
+import org.springframework.data.domain.Sort;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
+
+/**
+ * Criteria matching the items matched by any of a number of disjunct
+ * criteria, each of which is planned as a query or scan of its own.
+ *
+ * Conditions are added to the disjunct criteria before they are combined, so
+ * conditions cannot be added to the combined criteria.
+ *
+ * @author Michael Lavelle
+ */
+public class DynamoDBOrCriteria<T, ID extends Serializable> implements DynamoDBQueryCriteria<T, ID> {
+
+	private DynamoDBEntityInformation<T, ID> entityInformation;
+
+	private List<DynamoDBQueryCriteria<T, ID>> disjuncts = new ArrayList<DynamoDBQueryCriteria<T, ID>>();
+
+	public DynamoDBOrCriteria(DynamoDBEntityInformation<T, ID> entityInformation) {
+		this.entityInformation = entityInformation;
+	}
+
+	public DynamoDBOrCriteria<T, ID> or(DynamoDBQueryCriteria<T, ID> criteria) {
+		disjuncts.add(criteria);
+		return this;
+	}
+
+	@Override
+	public DynamoDBQueryCriteria<T, ID> withSingleValueCriteria(String propertyName,
+			ComparisonOperator comparisonOperator, Object value, Class<?> type) {
+		throw new UnsupportedOperationException("Conditions must be added to the disjuncts of Or criteria");
+	}
+
+	@Override
+	public DynamoDBQueryCriteria<T, ID> withNoValuedCriteria(String segment, ComparisonOperator null1) {
+		throw new UnsupportedOperationException("Conditions must be added to the disjuncts of Or criteria");
+	}
+
+	@Override
+	public DynamoDBQueryCriteria<T, ID> withPropertyEquals(String segment, Object next, Class<?> type) {
+		throw new UnsupportedOperationException("Conditions must be added to the disjuncts of Or criteria");
+	}
+
+	@Override
+	public DynamoDBQueryCriteria<T, ID> withPropertyIn(String segment, Iterable<?> o, Class<?> type) {
+		throw new UnsupportedOperationException("Conditions must be added to the disjuncts of Or criteria");
+	}
+
+	@Override
+	public DynamoDBQueryCriteria<T, ID> withPropertyBetween(String segment, Object value1, Object value2, Class<?> type) {
+		throw new UnsupportedOperationException("Conditions must be added to the disjuncts of Or criteria");
+	}
+
+	/**
+	 * The results of the disjuncts are merged in no particular order, so Or
+	 * queries cannot be sorted
+	 */
+	@Override
+	public DynamoDBQueryCriteria<T, ID> withSort(Sort sort) {
+		throw new UnsupportedOperationException("Sorting not supported for Or queries");
+	}
+
+	/**
+	 * The key attributes are read in addition to the given properties, so
+	 * that the results of the disjuncts can be merged by key
+	 */
+	@Override
+	public DynamoDBQueryCriteria<T, ID> withProjection(List<String> propertyNames) {
+		List<String> projectedPropertyNames = new ArrayList<String>(propertyNames);
+		List<String> keyPropertyNames = new ArrayList<String>();
+		keyPropertyNames.add(entityInformation.getHashKeyPropertyName());
+		if (entityInformation.isRangeKeyAware()) {
+			keyPropertyNames.add(((DynamoDBIdIsHashAndRangeKeyEntityInformation<T, ID>) entityInformation)
+					.getRangeKeyPropertyName());
+		}
+		for (String keyPropertyName : keyPropertyNames) {
+			if (!projectedPropertyNames.contains(keyPropertyName)) {
+				projectedPropertyNames.add(keyPropertyName);
+			}
+		}
+		for (DynamoDBQueryCriteria<T, ID> disjunct : disjuncts) {
+			disjunct.withProjection(projectedPropertyNames);
+		}
+		return this;
+	}
+
+	@Override
+	public Query<T> buildQuery(DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper) {
+		List<Query<T>> disjunctQueries = new ArrayList<Query<T>>();
+		for (DynamoDBQueryCriteria<T, ID> disjunct : disjuncts) {
+			disjunctQueries.add(disjunct.buildQuery(dynamoDBMapper, queryRequestMapper));
+		}
+		// Without a QueryRequestMapper the disjuncts are read in turn by the
+		// calling thread
+		return new MultipleEntityOrQuery<T, ID>(entityInformation.getJavaType(), entityInformation, disjunctQueries,
+				queryRequestMapper == null ? null : queryRequestMapper.getExecutorService());
+	}
+
+}
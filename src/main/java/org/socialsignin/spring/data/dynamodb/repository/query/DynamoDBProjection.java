@@ -0,0 +1,182 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.query;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * A projection of entities onto the type returned by a query method, where
+ * that type is neither the entity type nor one of its supertypes.
+ * 
+ * Interface projections are backed by the entity, exposing the entity
+ * properties named by their getters. DTO projections are created with their
+ * no-argument constructor and populated through their setters, or, if they
+ * have no such constructor, created with the constructor with the most
+ * parameters, whose parameter names - which must be compiled in as debug
+ * information - name the entity properties to pass to it.
+ * 
+ * Only the projected properties need be read from DynamoDB, as reported by
+ * {@link #getPropertyNames()}.
+ * 
+ * @author Michael Lavelle
+ */
+public class DynamoDBProjection {
+
+	private final Class<?> entityType;
+
+	private final Class<?> projectionType;
+
+	private final List<String> propertyNames;
+
+	private final Constructor<?> constructor;
+
+	/**
+	 * @param entityType
+	 * @param returnedType
+	 *            the type of the results returned by a query method
+	 * @return the projection of the entity type onto the returned type, or
+	 *         null if results of the returned type are entities, or are not
+	 *         entities at all
+	 */
+	public static DynamoDBProjection forReturnedType(Class<?> entityType, Class<?> returnedType) {
+		if (returnedType == null || returnedType.isAssignableFrom(entityType) || returnedType.isArray()
+				|| ClassUtils.isPrimitiveOrWrapper(returnedType) || returnedType.getName().startsWith("java.")) {
+			return null;
+		}
+		return new DynamoDBProjection(entityType, returnedType);
+	}
+
+	DynamoDBProjection(Class<?> entityType, Class<?> projectionType) {
+		this.entityType = entityType;
+		this.projectionType = projectionType;
+		List<String> propertyNames = new ArrayList<String>();
+		if (projectionType.isInterface() || ClassUtils.hasConstructor(projectionType)) {
+			this.constructor = null;
+			for (PropertyDescriptor propertyDescriptor : BeanUtils.getPropertyDescriptors(projectionType)) {
+				boolean projected = projectionType.isInterface() ? propertyDescriptor.getReadMethod() != null
+						: propertyDescriptor.getWriteMethod() != null;
+				if (projected && isEntityProperty(propertyDescriptor.getName())) {
+					propertyNames.add(propertyDescriptor.getName());
+				}
+			}
+		} else {
+			this.constructor = getPersistenceConstructor(projectionType);
+			String[] parameterNames = new LocalVariableTableParameterNameDiscoverer().getParameterNames(constructor);
+			Assert.notNull(parameterNames, "Unable to discover the constructor parameter names of projection "
+					+ projectionType.getName() + ": compile it with debug information, or give it a default constructor");
+			for (String parameterName : parameterNames) {
+				Assert.isTrue(isEntityProperty(parameterName), "Projection " + projectionType.getName()
+						+ " constructor parameter '" + parameterName + "' is not a property of " + entityType.getName());
+				propertyNames.add(parameterName);
+			}
+		}
+		Assert.notEmpty(propertyNames, "Projection " + projectionType.getName() + " has no properties of "
+				+ entityType.getName());
+		this.propertyNames = Collections.unmodifiableList(propertyNames);
+	}
+
+	private boolean isEntityProperty(String propertyName) {
+		PropertyDescriptor entityProperty = BeanUtils.getPropertyDescriptor(entityType, propertyName);
+		return entityProperty != null && entityProperty.getReadMethod() != null;
+	}
+
+	private static Constructor<?> getPersistenceConstructor(Class<?> type) {
+		Constructor<?> persistenceConstructor = null;
+		for (Constructor<?> candidate : type.getDeclaredConstructors()) {
+			if (persistenceConstructor == null
+					|| candidate.getParameterTypes().length > persistenceConstructor.getParameterTypes().length) {
+				persistenceConstructor = candidate;
+			}
+		}
+		Assert.notNull(persistenceConstructor, "Projection " + type.getName() + " has no constructor");
+		return persistenceConstructor;
+	}
+
+	public Class<?> getProjectionType() {
+		return projectionType;
+	}
+
+	/**
+	 * @return the names of the entity properties which are projected
+	 */
+	public List<String> getPropertyNames() {
+		return propertyNames;
+	}
+
+	/**
+	 * @param entity
+	 * @return the projection of the given entity, or null if it is null
+	 */
+	public Object project(Object entity) {
+		if (entity == null) {
+			return null;
+		}
+		final BeanWrapper entityWrapper = new BeanWrapperImpl(entity);
+		if (projectionType.isInterface()) {
+			return Proxy.newProxyInstance(projectionType.getClassLoader(), new Class<?>[] { projectionType },
+					new InvocationHandler() {
+						public Object invoke(Object proxy, Method method, Object[] args) {
+							return invokeOnEntity(entityWrapper, proxy, method, args);
+						}
+					});
+		}
+		if (constructor != null) {
+			Object[] arguments = new Object[propertyNames.size()];
+			for (int i = 0; i < arguments.length; i++) {
+				arguments[i] = entityWrapper.getPropertyValue(propertyNames.get(i));
+			}
+			return BeanUtils.instantiateClass(constructor, arguments);
+		}
+		BeanWrapper projectionWrapper = new BeanWrapperImpl(projectionType);
+		for (String propertyName : propertyNames) {
+			projectionWrapper.setPropertyValue(propertyName, entityWrapper.getPropertyValue(propertyName));
+		}
+		return projectionWrapper.getWrappedInstance();
+	}
+
+	private Object invokeOnEntity(BeanWrapper entityWrapper, Object proxy, Method method, Object[] args) {
+		if (method.getDeclaringClass() == Object.class) {
+			if (method.getName().equals("equals")) {
+				return proxy == args[0];
+			}
+			if (method.getName().equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			return projectionType.getSimpleName() + " projection of " + entityWrapper.getWrappedInstance();
+		}
+		PropertyDescriptor propertyDescriptor = BeanUtils.findPropertyForMethod(method);
+		if (propertyDescriptor != null && propertyNames.contains(propertyDescriptor.getName())) {
+			return entityWrapper.getPropertyValue(propertyDescriptor.getName());
+		}
+		throw new UnsupportedOperationException("Method " + method.getName() + " of projection "
+				+ projectionType.getName() + " does not read a property of " + entityType.getName());
+	}
+
+}
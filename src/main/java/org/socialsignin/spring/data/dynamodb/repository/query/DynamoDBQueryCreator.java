@@ -17,7 +17,10 @@ package org.socialsignin.spring.data.dynamodb.repository.query;
 
 import java.io.Serializable;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.ClassUtils;
 import org.socialsignin.spring.data.dynamodb.query.Query;
@@ -29,6 +32,7 @@ import org.springframework.data.repository.query.ParameterAccessor;
 import org.springframework.data.repository.query.parser.AbstractQueryCreator;
 import org.springframework.data.repository.query.parser.Part;
 import org.springframework.data.repository.query.parser.Part.IgnoreCaseType;
+import org.springframework.data.repository.query.parser.Part.Type;
 import org.springframework.data.repository.query.parser.PartTree;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
@@ -42,9 +46,13 @@ import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
 public class DynamoDBQueryCreator<T, ID extends Serializable> extends
 		AbstractQueryCreator<Query<T>, DynamoDBQueryCriteria<T, ID>> {
 
+	private static final Object PLACEHOLDER_ARGUMENT = new Object();
+
 	private DynamoDBEntityInformation<T, ID> entityMetadata;
 	private DynamoDBMapper dynamoDBMapper;
 	private QueryRequestMapper queryRequestMapper;
+	private List<String> projectedPropertyNames;
+	private ConcurrentMap<String, DynamoDBQueryPlan> queryPlans;
 
 	public DynamoDBQueryCreator(PartTree tree, DynamoDBEntityInformation<T, ID> entityMetadata, DynamoDBMapper dynamoDBMapper,
 			QueryRequestMapper queryRequestMapper) {
@@ -54,6 +62,22 @@ public class DynamoDBQueryCreator<T, ID extends Serializable> extends
 		this.queryRequestMapper = queryRequestMapper;
 	}
 
+	/**
+	 * Creates a query creator whose criteria are bound to arguments passed to
+	 * {@link #createCriteria(List, Iterator, DynamoDBQueryPlan)}, rather than
+	 * to those of a parameter accessor, so that a single query creator can
+	 * create the criteria of every execution of a query method
+	 * 
+	 * @param projectedPropertyNames
+	 *            the names of the properties to read, or null to read entire
+	 *            entities
+	 */
+	public DynamoDBQueryCreator(PartTree tree, DynamoDBEntityInformation<T, ID> entityMetadata,
+			DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper, List<String> projectedPropertyNames) {
+		this(tree, entityMetadata, dynamoDBMapper, queryRequestMapper);
+		this.projectedPropertyNames = projectedPropertyNames;
+	}
+
 	public DynamoDBQueryCreator(PartTree tree, ParameterAccessor parameterAccessor,
 			DynamoDBEntityInformation<T, ID> entityMetadata, DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper) {
 		super(tree, parameterAccessor);
@@ -63,13 +87,77 @@ public class DynamoDBQueryCreator<T, ID extends Serializable> extends
 
 	}
 
+	/**
+	 * @param projectedPropertyNames
+	 *            the names of the properties to read, or null to read entire
+	 *            entities
+	 */
+	public DynamoDBQueryCreator(PartTree tree, ParameterAccessor parameterAccessor,
+			DynamoDBEntityInformation<T, ID> entityMetadata, DynamoDBMapper dynamoDBMapper,
+			QueryRequestMapper queryRequestMapper, List<String> projectedPropertyNames) {
+		this(tree, parameterAccessor, entityMetadata, dynamoDBMapper, queryRequestMapper);
+		this.projectedPropertyNames = projectedPropertyNames;
+	}
+
+	/**
+	 * @param projectedPropertyNames
+	 *            the names of the properties to read, or null to read entire
+	 *            entities
+	 * @param queryPlans
+	 *            the plans of the criteria previously created for the query
+	 *            method, by shape, which the criteria created reuse rather
+	 *            than planning again
+	 */
+	public DynamoDBQueryCreator(PartTree tree, ParameterAccessor parameterAccessor,
+			DynamoDBEntityInformation<T, ID> entityMetadata, DynamoDBMapper dynamoDBMapper,
+			QueryRequestMapper queryRequestMapper, List<String> projectedPropertyNames,
+			ConcurrentMap<String, DynamoDBQueryPlan> queryPlans) {
+		this(tree, parameterAccessor, entityMetadata, dynamoDBMapper, queryRequestMapper, projectedPropertyNames);
+		this.queryPlans = queryPlans;
+	}
+
 	@Override
 	protected DynamoDBQueryCriteria<T, ID> create(Part part, Iterator<Object> iterator) {
 
-		DynamoDBQueryCriteria<T, ID> criteria = entityMetadata.isRangeKeyAware() ? new DynamoDBEntityWithHashAndRangeKeyCriteria<T, ID>(
+		AbstractDynamoDBQueryCriteria<T, ID> criteria = newCriteria();
+		criteria.setQueryPlans(queryPlans);
+		return addCriteria(criteria, part, iterator);
+	}
+
+	/**
+	 * Creates the criteria of the conjunction of the given parts, bound to
+	 * the next of the given arguments, which are read by the given plan
+	 * rather than being planned again
+	 */
+	public DynamoDBQueryCriteria<T, ID> createCriteria(List<Part> parts, Iterator<Object> arguments,
+			DynamoDBQueryPlan queryPlan) {
+		AbstractDynamoDBQueryCriteria<T, ID> criteria = newCriteria();
+		criteria.setQueryPlan(queryPlan);
+		for (Part part : parts) {
+			addCriteria(criteria, part, arguments);
+		}
+		return criteria;
+	}
+
+	/**
+	 * Plans the criteria of the conjunction of the given parts. The plan
+	 * depends only on the properties and comparison operators of the
+	 * conditions, so is made from placeholder arguments.
+	 */
+	public DynamoDBQueryPlan planCriteria(List<Part> parts) {
+		AbstractDynamoDBQueryCriteria<T, ID> criteria = newCriteria();
+		criteria.setPlanningOnly(true);
+		for (Part part : parts) {
+			Object placeholder = Type.IN.equals(part.getType()) ? Collections.emptyList() : PLACEHOLDER_ARGUMENT;
+			addCriteria(criteria, part, Collections.nCopies(part.getNumberOfArguments(), placeholder).iterator());
+		}
+		return criteria.createQueryPlan();
+	}
+
+	private AbstractDynamoDBQueryCriteria<T, ID> newCriteria() {
+		return entityMetadata.isRangeKeyAware() ? new DynamoDBEntityWithHashAndRangeKeyCriteria<T, ID>(
 				(DynamoDBIdIsHashAndRangeKeyEntityInformation<T, ID>) entityMetadata)
 				: new DynamoDBEntityWithHashKeyOnlyCriteria<T, ID>(entityMetadata);
-		return addCriteria(criteria, part, iterator);
 	}
 
 	protected DynamoDBQueryCriteria<T, ID> addCriteria(DynamoDBQueryCriteria<T, ID> criteria, Part part, Iterator<Object> iterator) {
@@ -139,9 +227,16 @@ public class DynamoDBQueryCreator<T, ID extends Serializable> extends
 
 	}
 
+	/**
+	 * Combines the criteria of each Or disjunct, each of which is queried or
+	 * scanned independently
+	 */
 	@Override
 	protected DynamoDBQueryCriteria<T, ID> or(DynamoDBQueryCriteria<T, ID> base, DynamoDBQueryCriteria<T, ID> criteria) {
-		throw new UnsupportedOperationException("Or queries not supported");
+		if (base instanceof DynamoDBOrCriteria) {
+			return ((DynamoDBOrCriteria<T, ID>) base).or(criteria);
+		}
+		return new DynamoDBOrCriteria<T, ID>(entityMetadata).or(base).or(criteria);
 	}
 
 	@Override
@@ -149,6 +244,9 @@ public class DynamoDBQueryCreator<T, ID extends Serializable> extends
 		if (sort != null) {
 			criteria.withSort(sort);
 		}
+		if (projectedPropertyNames != null) {
+			criteria.withProjection(projectedPropertyNames);
+		}
 
 		return criteria.buildQuery(dynamoDBMapper, queryRequestMapper);
 
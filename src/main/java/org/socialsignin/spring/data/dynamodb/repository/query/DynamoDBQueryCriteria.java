@@ -16,6 +16,7 @@
 package org.socialsignin.spring.data.dynamodb.repository.query;
 
 import java.io.Serializable;
+import java.util.List;
 
 import org.socialsignin.spring.data.dynamodb.query.Query;
 import org.socialsignin.spring.data.dynamodb.query.QueryRequestMapper;
@@ -42,6 +43,15 @@ public interface DynamoDBQueryCriteria<T, ID extends Serializable> {
 
 	public DynamoDBQueryCriteria<T, ID> withSort(Sort sort);
 
+	/**
+	 * Restricts the attributes read to those of the given properties, where
+	 * the query allows it
+	 * 
+	 * @param propertyNames
+	 *            the names of the properties to read
+	 */
+	public DynamoDBQueryCriteria<T, ID> withProjection(List<String> propertyNames);
+
 	public Query<T> buildQuery(DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper);
 
 }
@@ -17,6 +17,7 @@ package org.socialsignin.spring.data.dynamodb.repository.query;
 
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
 
 import org.socialsignin.spring.data.dynamodb.query.QueryRequestMapper;
 import org.springframework.data.repository.core.NamedQueries;
@@ -49,11 +50,16 @@ public class DynamoDBQueryLookupStrategy {
 
 		protected DynamoDBMapper dynamoDBMapper;
 		protected QueryRequestMapper queryRequestMapper;
+		protected ExecutorService executorService;
+		protected int batchWriteParallelism;
 
-		public AbstractQueryLookupStrategy(DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper) {
+		public AbstractQueryLookupStrategy(DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper,
+				ExecutorService executorService, int batchWriteParallelism) {
 
 			this.dynamoDBMapper = dynamoDBMapper;
 			this.queryRequestMapper = queryRequestMapper;
+			this.executorService = executorService;
+			this.batchWriteParallelism = batchWriteParallelism;
 		}
 
 		/*
@@ -80,17 +86,20 @@ public class DynamoDBQueryLookupStrategy {
 	 */
 	private static class CreateQueryLookupStrategy extends AbstractQueryLookupStrategy {
 
-		public CreateQueryLookupStrategy(DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper) {
+		public CreateQueryLookupStrategy(DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper,
+				ExecutorService executorService, int batchWriteParallelism) {
 
-			super(dynamoDBMapper, queryRequestMapper);
+			super(dynamoDBMapper, queryRequestMapper, executorService, batchWriteParallelism);
 		}
 
 		@Override
 		protected <T, ID extends Serializable> RepositoryQuery createDynamoDBQuery(Method method, RepositoryMetadata metadata,
 				Class<T> entityClass, Class<ID> idClass, NamedQueries namedQueries) {
 			try {
-				return new PartTreeDynamoDBQuery<T, ID>(dynamoDBMapper, new DynamoDBQueryMethod<T, ID>(method, metadata),
-						queryRequestMapper);
+				PartTreeDynamoDBQuery<T, ID> query = new PartTreeDynamoDBQuery<T, ID>(dynamoDBMapper,
+						new DynamoDBQueryMethod<T, ID>(method, metadata), queryRequestMapper, executorService);
+				query.setBatchWriteParallelism(batchWriteParallelism);
+				return query;
 			} catch (IllegalArgumentException e) {
 				throw new IllegalArgumentException(String.format("Could not create query metamodel for method %s!",
 						method.toString()), e);
@@ -101,28 +110,44 @@ public class DynamoDBQueryLookupStrategy {
 
 	/**
 	 * {@link QueryLookupStrategy} that tries to detect a declared query
-	 * declared via {@link Query} annotation
+	 * declared via
+	 * {@link org.socialsignin.spring.data.dynamodb.repository.Query}
+	 * annotation
 	 * 
 	 * @author Michael Lavelle
 	 */
 	private static class DeclaredQueryLookupStrategy extends AbstractQueryLookupStrategy {
 
-		public DeclaredQueryLookupStrategy(DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper) {
+		public DeclaredQueryLookupStrategy(DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper,
+				ExecutorService executorService, int batchWriteParallelism) {
 
-			super(dynamoDBMapper, queryRequestMapper);
+			super(dynamoDBMapper, queryRequestMapper, executorService, batchWriteParallelism);
 		}
 
 		@Override
 		protected <T, ID extends Serializable> RepositoryQuery createDynamoDBQuery(Method method, RepositoryMetadata metadata,
 				Class<T> entityClass, Class<ID> idClass, NamedQueries namedQueries) {
-			throw new UnsupportedOperationException("Declared Queries not supported at this time");
+			DynamoDBQueryMethod<T, ID> queryMethod = new DynamoDBQueryMethod<T, ID>(method, metadata);
+			if (queryMethod.getDeclaredQuery() == null) {
+				throw new IllegalStateException(String.format("Did not find a @Query annotation on method %s!",
+						method.toString()));
+			}
+			try {
+				DeclaredDynamoDBQuery<T, ID> query = new DeclaredDynamoDBQuery<T, ID>(dynamoDBMapper, queryMethod,
+						queryRequestMapper, executorService);
+				query.setBatchWriteParallelism(batchWriteParallelism);
+				return query;
+			} catch (IllegalArgumentException e) {
+				throw new IllegalArgumentException(String.format("Could not create declared query for method %s!",
+						method.toString()), e);
+			}
 		}
 
 	}
 
 	/**
 	 * {@link QueryLookupStrategy} to try to detect a declared query first (
-	 * {@link org.springframework.data.jpa.repository.Query}. In case none is
+	 * {@link org.socialsignin.spring.data.dynamodb.repository.Query}). In case none is
 	 * found we fall back on query creation.
 	 * 
 	 * @author Michael Lavelle
@@ -132,11 +157,14 @@ public class DynamoDBQueryLookupStrategy {
 		private final DeclaredQueryLookupStrategy strategy;
 		private final CreateQueryLookupStrategy createStrategy;
 
-		public CreateIfNotFoundQueryLookupStrategy(DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper) {
+		public CreateIfNotFoundQueryLookupStrategy(DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper,
+				ExecutorService executorService, int batchWriteParallelism) {
 
-			super(dynamoDBMapper, queryRequestMapper);
-			this.strategy = new DeclaredQueryLookupStrategy(dynamoDBMapper, queryRequestMapper);
-			this.createStrategy = new CreateQueryLookupStrategy(dynamoDBMapper, queryRequestMapper);
+			super(dynamoDBMapper, queryRequestMapper, executorService, batchWriteParallelism);
+			this.strategy = new DeclaredQueryLookupStrategy(dynamoDBMapper, queryRequestMapper, executorService,
+					batchWriteParallelism);
+			this.createStrategy = new CreateQueryLookupStrategy(dynamoDBMapper, queryRequestMapper, executorService,
+					batchWriteParallelism);
 		}
 
 		@Override
@@ -146,8 +174,6 @@ public class DynamoDBQueryLookupStrategy {
 				return strategy.createDynamoDBQuery(method, metadata, entityClass, idClass, namedQueries);
 			} catch (IllegalStateException e) {
 				return createStrategy.createDynamoDBQuery(method, metadata, entityClass, idClass, namedQueries);
-			} catch (UnsupportedOperationException e) {
-				return createStrategy.createDynamoDBQuery(method, metadata, entityClass, idClass, namedQueries);
 			}
 
 		}
@@ -162,18 +188,57 @@ public class DynamoDBQueryLookupStrategy {
 	 * @return
 	 */
 	public static QueryLookupStrategy create(DynamoDBMapper dynamoDBMapper, Key key, QueryRequestMapper queryRequestMapper) {
+		return create(dynamoDBMapper, key, queryRequestMapper, null);
+	}
+
+	/**
+	 * Creates a {@link QueryLookupStrategy} for the given
+	 * {@link DynamoDBMapper} and {@link Key}, with asynchronous query methods
+	 * executed on the given {@link ExecutorService}.
+	 * 
+	 * @param dynamoDBMapper
+	 * @param key
+	 * @param queryRequestMapper
+	 * @param executorService
+	 * @return
+	 */
+	public static QueryLookupStrategy create(DynamoDBMapper dynamoDBMapper, Key key, QueryRequestMapper queryRequestMapper,
+			ExecutorService executorService) {
+		return create(dynamoDBMapper, key, queryRequestMapper, executorService, 1);
+	}
+
+	/**
+	 * Creates a {@link QueryLookupStrategy} for the given
+	 * {@link DynamoDBMapper} and {@link Key}, with asynchronous query methods
+	 * executed on the given {@link ExecutorService}, and the items matched by
+	 * deleteBy... query methods deleted in up to batchWriteParallelism
+	 * concurrent batches.
+	 * 
+	 * @param dynamoDBMapper
+	 * @param key
+	 * @param queryRequestMapper
+	 * @param executorService
+	 * @param batchWriteParallelism
+	 * @return
+	 */
+	public static QueryLookupStrategy create(DynamoDBMapper dynamoDBMapper, Key key, QueryRequestMapper queryRequestMapper,
+			ExecutorService executorService, int batchWriteParallelism) {
 
 		if (key == null) {
-			return new CreateQueryLookupStrategy(dynamoDBMapper, queryRequestMapper);
+			return new CreateQueryLookupStrategy(dynamoDBMapper, queryRequestMapper, executorService,
+					batchWriteParallelism);
 		}
 
 		switch (key) {
 		case CREATE:
-			return new CreateQueryLookupStrategy(dynamoDBMapper, queryRequestMapper);
+			return new CreateQueryLookupStrategy(dynamoDBMapper, queryRequestMapper, executorService,
+					batchWriteParallelism);
 		case USE_DECLARED_QUERY:
-			throw new IllegalArgumentException(String.format("Unsupported query lookup strategy %s!", key));
+			return new DeclaredQueryLookupStrategy(dynamoDBMapper, queryRequestMapper, executorService,
+					batchWriteParallelism);
 		case CREATE_IF_NOT_FOUND:
-			return new CreateIfNotFoundQueryLookupStrategy(dynamoDBMapper, queryRequestMapper);
+			return new CreateIfNotFoundQueryLookupStrategy(dynamoDBMapper, queryRequestMapper, executorService,
+					batchWriteParallelism);
 		default:
 			throw new IllegalArgumentException(String.format("Unsupported query lookup strategy %s!", key));
 		}
@@ -17,25 +17,79 @@ package org.socialsignin.spring.data.dynamodb.repository.query;
 
 import java.io.Serializable;
 import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+import org.socialsignin.spring.data.dynamodb.repository.CollapseRequests;
+import org.socialsignin.spring.data.dynamodb.repository.CursorSlice;
 import org.socialsignin.spring.data.dynamodb.repository.EnableScan;
+import org.socialsignin.spring.data.dynamodb.repository.Query;
+import org.socialsignin.spring.data.dynamodb.repository.ReadSettings;
 import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityInformation;
 import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityMetadataSupport;
+import org.springframework.data.domain.Page;
 import org.springframework.data.repository.core.RepositoryMetadata;
 import org.springframework.data.repository.query.QueryMethod;
+import org.springframework.util.Assert;
 
 /**
  * @author Michael Lavelle
  */
 public class DynamoDBQueryMethod<T, ID extends Serializable> extends QueryMethod {
 
+	private static final Pattern LIMITING_QUERY_PATTERN = Pattern
+			.compile("^(find|read|get|query)(Distinct)?(First|Top)(\\d*)(Distinct)?(\\p{Lu}.*?)??By");
+
 	private final Method method;
 	private final boolean scanEnabledForRepository;
+	private final boolean collapseRequestsForRepository;
+	private final DynamoDBProjection projection;
+	private final int resultLimit;
+	private final ReadSettings readSettings;
+	private volatile DynamoDBEntityInformation<T, ID> entityInformation;
 
 	public DynamoDBQueryMethod(Method method, RepositoryMetadata metadata) {
 		super(method, metadata);
 		this.method = method;
 		this.scanEnabledForRepository = metadata.getRepositoryInterface().isAnnotationPresent(EnableScan.class);
+		this.collapseRequestsForRepository = metadata.getRepositoryInterface().isAnnotationPresent(
+				CollapseRequests.class);
+		this.projection = DynamoDBProjection.forReturnedType(getDomainClass(), getResultElementType());
+		this.resultLimit = parseResultLimit(method.getName());
+		this.readSettings = findReadSettings(method, metadata);
+		if (isAsyncQuery() && Page.class.isAssignableFrom(getAsyncResultType())) {
+			Assert.isTrue(getParameters().hasPageableParameter(), String.format(
+					"Paging query needs to have a Pageable parameter! Offending method %s", method.toString()));
+		}
+	}
+
+	private static ReadSettings findReadSettings(Method method, RepositoryMetadata metadata) {
+		ReadSettings readSettings = method.getAnnotation(ReadSettings.class);
+		if (readSettings == null) {
+			readSettings = metadata.getRepositoryInterface().getAnnotation(ReadSettings.class);
+		}
+		if (readSettings != null) {
+			Assert.isTrue(readSettings.consistentReads().length <= 1, "At most one ConsistentReads may be specified");
+			Assert.isTrue(readSettings.paginationLoadingStrategy().length <= 1,
+					"At most one PaginationLoadingStrategy may be specified");
+			Assert.isTrue(readSettings.pageSize() >= 0, "pageSize must not be negative");
+			Assert.isTrue(readSettings.maxItems() >= 0, "maxItems must not be negative");
+		}
+		return readSettings;
+	}
+
+	private static int parseResultLimit(String methodName) {
+		Matcher matcher = LIMITING_QUERY_PATTERN.matcher(methodName);
+		if (!matcher.find()) {
+			return 0;
+		}
+		int resultLimit = matcher.group(4).length() == 0 ? 1 : Integer.parseInt(matcher.group(4));
+		Assert.isTrue(resultLimit > 0, "The number of results of method " + methodName + " must be positive");
+		return resultLimit;
 	}
 
 	/**
@@ -48,10 +102,136 @@ public class DynamoDBQueryMethod<T, ID extends Serializable> extends QueryMethod
 		return method.getReturnType();
 	}
 
+	/**
+	 * Returns whether the method returns a {@link Future}, in which case the
+	 * query is executed asynchronously
+	 * 
+	 * @return
+	 */
+	public boolean isAsyncQuery() {
+		return Future.class.isAssignableFrom(method.getReturnType());
+	}
+
+	/**
+	 * Returns whether the method returns an {@link Iterator}, in which case
+	 * the results are loaded lazily as they are iterated over
+	 * 
+	 * @return
+	 */
+	public boolean isIteratorQuery() {
+		return Iterator.class.isAssignableFrom(method.getReturnType());
+	}
+
+	/**
+	 * Returns whether the method returns a {@link CursorSlice}, in which case
+	 * only a single result beyond the page is read to determine whether there
+	 * is a next page
+	 * 
+	 * @return
+	 */
+	public boolean isSliceQuery() {
+		return CursorSlice.class.isAssignableFrom(method.getReturnType());
+	}
+
+	/**
+	 * Returns the type of the result wrapped by the {@link Future} returned
+	 * from an asynchronous query method
+	 * 
+	 * @return
+	 */
+	public Class<?> getAsyncResultType() {
+		Type returnType = method.getGenericReturnType();
+		if (returnType instanceof ParameterizedType) {
+			Type resultType = ((ParameterizedType) returnType).getActualTypeArguments()[0];
+			if (resultType instanceof ParameterizedType) {
+				return (Class<?>) ((ParameterizedType) resultType).getRawType();
+			}
+			if (resultType instanceof Class) {
+				return (Class<?>) resultType;
+			}
+		}
+		return Object.class;
+	}
+
+	/**
+	 * Returns the type of the results returned by the method, unwrapped from
+	 * any {@link Future}, collection, page or iterator in which they are
+	 * returned
+	 * 
+	 * @return
+	 */
+	private Class<?> getResultElementType() {
+		Type resultType = method.getGenericReturnType();
+		while (resultType instanceof ParameterizedType) {
+			ParameterizedType parameterizedType = (ParameterizedType) resultType;
+			Class<?> rawType = (Class<?>) parameterizedType.getRawType();
+			boolean wrapper = Future.class.isAssignableFrom(rawType) || Iterable.class.isAssignableFrom(rawType)
+					|| Iterator.class.isAssignableFrom(rawType);
+			if (!wrapper || parameterizedType.getActualTypeArguments().length != 1) {
+				return rawType;
+			}
+			resultType = parameterizedType.getActualTypeArguments()[0];
+		}
+		return resultType instanceof Class ? (Class<?>) resultType : null;
+	}
+
+	/**
+	 * Returns the projection of the entities queried onto the results
+	 * returned by the method, if the method returns projections rather than
+	 * entities
+	 * 
+	 * @return the projection, or null if the method returns entities
+	 */
+	public DynamoDBProjection getProjection() {
+		return projection;
+	}
+
+	/**
+	 * Returns the maximum number of results of a findFirst... or
+	 * findTopN... method
+	 * 
+	 * @return the maximum number of results, or 0 if the number of results is
+	 *         not limited
+	 */
+	public int getResultLimit() {
+		return resultLimit;
+	}
+
+	/**
+	 * Returns the read settings of the method, or those of its repository
+	 * interface if the method has none
+	 * 
+	 * @return the read settings, or null if neither the method nor its
+	 *         repository interface has any
+	 */
+	public ReadSettings getReadSettings() {
+		return readSettings;
+	}
+
+	/**
+	 * Returns the query declared for the method
+	 * 
+	 * @return the query, or null if the query is to be derived from the
+	 *         method name
+	 */
+	public Query getDeclaredQuery() {
+		return method.getAnnotation(Query.class);
+	}
+
 	public boolean isScanEnabled() {
 		return scanEnabledForRepository || method.isAnnotationPresent(EnableScan.class);
 	}
 
+	/**
+	 * Returns whether concurrent invocations of the method with equal
+	 * parameters may share a single request and its resulting entities
+	 * 
+	 * @return
+	 */
+	public boolean isCollapseRequests() {
+		return collapseRequestsForRepository || method.isAnnotationPresent(CollapseRequests.class);
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -62,7 +242,12 @@ public class DynamoDBQueryMethod<T, ID extends Serializable> extends QueryMethod
 	@Override
 	@SuppressWarnings({ "rawtypes", "unchecked" })
 	public DynamoDBEntityInformation<T, ID> getEntityInformation() {
-		return new DynamoDBEntityMetadataSupport(getDomainClass()).getEntityInformation();
+		// Entity information is read from the domain class by reflection, so
+		// is created once rather than each time the method is executed
+		if (entityInformation == null) {
+			entityInformation = new DynamoDBEntityMetadataSupport(getDomainClass()).getEntityInformation();
+		}
+		return entityInformation;
 	}
 
 	public Class<T> getEntityType() {
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.query;
+
+/**
+ * How criteria of a given shape - the properties they have conditions on, the
+ * comparison operators of those conditions, and whether they specify the hash
+ * and range keys - are read: by loading a single item, by querying the table
+ * or a global secondary index, or by scanning the table.
+ * 
+ * The plan depends only on the shape of the criteria, not on the values of
+ * their conditions, so a query method's criteria are planned once for each
+ * shape and the plan is reused by every execution with that shape.
+ * 
+ * @author Michael Lavelle
+ */
+public class DynamoDBQueryPlan {
+
+	private static final DynamoDBQueryPlan LOAD = new DynamoDBQueryPlan(true, false, false, null);
+
+	private final boolean load;
+
+	private final boolean query;
+
+	private final boolean globalSecondaryIndexQuery;
+
+	private final String globalSecondaryIndexName;
+
+	/**
+	 * @return the plan of criteria which load a single item by its key
+	 */
+	public static DynamoDBQueryPlan load() {
+		return LOAD;
+	}
+
+	/**
+	 * @param query
+	 *            whether the criteria are read by querying the table or an
+	 *            index, rather than by scanning the table
+	 * @param globalSecondaryIndexQuery
+	 *            whether the criteria are read by querying a global secondary
+	 *            index
+	 * @param globalSecondaryIndexName
+	 *            the name of the global secondary index the criteria's
+	 *            conditions are on, if any
+	 * @return the plan of criteria which find items
+	 */
+	public static DynamoDBQueryPlan find(boolean query, boolean globalSecondaryIndexQuery,
+			String globalSecondaryIndexName) {
+		return new DynamoDBQueryPlan(false, query, globalSecondaryIndexQuery, globalSecondaryIndexName);
+	}
+
+	private DynamoDBQueryPlan(boolean load, boolean query, boolean globalSecondaryIndexQuery,
+			String globalSecondaryIndexName) {
+		this.load = load;
+		this.query = query;
+		this.globalSecondaryIndexQuery = globalSecondaryIndexQuery;
+		this.globalSecondaryIndexName = globalSecondaryIndexName;
+	}
+
+	public boolean isLoad() {
+		return load;
+	}
+
+	public boolean isQuery() {
+		return query;
+	}
+
+	public boolean isGlobalSecondaryIndexQuery() {
+		return globalSecondaryIndexQuery;
+	}
+
+	public String getGlobalSecondaryIndexName() {
+		return globalSecondaryIndexName;
+	}
+
+	@Override
+	public String toString() {
+		if (load) {
+			return "load";
+		}
+		if (globalSecondaryIndexQuery) {
+			return "query of index " + globalSecondaryIndexName;
+		}
+		return query ? "query" : "scan";
+	}
+
+}
@@ -16,13 +16,26 @@
 package org.socialsignin.spring.data.dynamodb.repository.query;
 
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.socialsignin.spring.data.dynamodb.query.Query;
 import org.socialsignin.spring.data.dynamodb.query.QueryRequestMapper;
+import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityInformation;
+import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBIdIsHashAndRangeKeyEntityInformation;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.query.Parameters;
 import org.springframework.data.repository.query.ParametersParameterAccessor;
 import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.data.repository.query.parser.Part;
 import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.query.parser.PartTree.OrPart;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 
@@ -31,6 +44,8 @@ import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
  */
 public class PartTreeDynamoDBQuery<T, ID extends Serializable> extends AbstractDynamoDBQuery<T, ID> implements RepositoryQuery {
 
+	private static final Pattern KEYS_ONLY_QUERY_PATTERN = Pattern.compile("^(delete|remove|exists)(\\p{Lu}.*?)??By");
+
 	private DynamoDBQueryMethod<T, ID> queryMethod;
 	private final Parameters<?, ?> parameters;
 
@@ -38,31 +53,151 @@ public class PartTreeDynamoDBQuery<T, ID extends Serializable> extends AbstractD
 
 	private final PartTree tree;
 
+	private final boolean deleteQuery;
+
+	private final boolean existsQuery;
+
+	private final DynamoDBEntityInformation<T, ID> entityInformation;
+
+	private final List<String> projectedPropertyNames;
+
+	private final ConcurrentMap<String, DynamoDBQueryPlan> queryPlans = new ConcurrentHashMap<String, DynamoDBQueryPlan>();
+
+	private final DynamoDBQueryCreator<T, ID> queryCreator;
+
+	private final List<List<Part>> disjunctParts = new ArrayList<List<Part>>();
+
+	private final List<DynamoDBQueryPlan> disjunctQueryPlans;
+
 	public PartTreeDynamoDBQuery(DynamoDBMapper dynamoDBMapper, DynamoDBQueryMethod<T, ID> method,
 			QueryRequestMapper queryRequestMapper) {
-		super(dynamoDBMapper, method);
+		this(dynamoDBMapper, method, queryRequestMapper, null);
+	}
+
+	public PartTreeDynamoDBQuery(DynamoDBMapper dynamoDBMapper, DynamoDBQueryMethod<T, ID> method,
+			QueryRequestMapper queryRequestMapper, ExecutorService executorService) {
+		super(dynamoDBMapper, method, executorService);
 		this.queryMethod = method;
 		this.parameters = method.getParameters();
-		this.tree = new PartTree(method.getName(), method.getEntityType());
+		// Spring Data Commons does not yet parse deleteBy..., removeBy... and
+		// existsBy... methods, so their criteria are parsed as those of a
+		// findBy... method
+		Matcher keysOnlyQueryMatcher = KEYS_ONLY_QUERY_PATTERN.matcher(method.getName());
+		boolean keysOnlyQuery = keysOnlyQueryMatcher.find();
+		this.deleteQuery = keysOnlyQuery && !"exists".equals(keysOnlyQueryMatcher.group(1));
+		this.existsQuery = keysOnlyQuery && "exists".equals(keysOnlyQueryMatcher.group(1));
+		this.tree = new PartTree(keysOnlyQuery ? "find" + method.getName().substring(keysOnlyQueryMatcher.end(1))
+				: method.getName(), method.getEntityType());
 		this.queryRequestMapper = queryRequestMapper;
+		// The entity information and projection depend only on the method,
+		// so they are resolved once rather than on each execution
+		this.entityInformation = method.getEntityInformation();
+		if (deleteQuery || existsQuery) {
+			this.projectedPropertyNames = getKeyPropertyNames(entityInformation);
+		} else if (method.getProjection() != null) {
+			this.projectedPropertyNames = method.getProjection().getPropertyNames();
+		} else {
+			this.projectedPropertyNames = null;
+		}
+		// The criteria of each Or disjunct are planned here unless their
+		// shape depends on the arguments: conditions of any kind on a
+		// composite id are split into conditions on its hash and range keys,
+		// each only if it is not null
+		boolean argumentDependentShape = false;
+		for (OrPart orPart : tree) {
+			List<Part> parts = new ArrayList<Part>();
+			for (Part part : orPart) {
+				parts.add(part);
+				argumentDependentShape |= entityInformation.isCompositeHashAndRangeKeyProperty(part.getProperty()
+						.getSegment());
+			}
+			disjunctParts.add(parts);
+		}
+		this.queryCreator = new DynamoDBQueryCreator<T, ID>(tree, entityInformation, dynamoDBMapper,
+				queryRequestMapper, projectedPropertyNames);
+		if (argumentDependentShape) {
+			this.disjunctQueryPlans = null;
+		} else {
+			this.disjunctQueryPlans = new ArrayList<DynamoDBQueryPlan>(disjunctParts.size());
+			for (List<Part> parts : disjunctParts) {
+				disjunctQueryPlans.add(queryCreator.planCriteria(parts));
+			}
+		}
 	}
 
 	public PartTree getTree() {
 		return tree;
 	}
 
+	/**
+	 * Creates a query creator reading only the projected properties of
+	 * projecting query methods, and only the keys of the matching items for
+	 * deleteBy... and existsBy... methods, for methods whose criteria could
+	 * not be planned in advance.
+	 * 
+	 * The criteria created share the plans of criteria created for previous
+	 * executions, so that the choice of whether to load, query or scan is
+	 * made once for each shape of criteria.
+	 */
 	protected DynamoDBQueryCreator<T, ID> createCreator(ParametersParameterAccessor accessor) {
-		return new DynamoDBQueryCreator<T, ID>(tree, accessor, queryMethod.getEntityInformation(), dynamoDBMapper,
-				queryRequestMapper);
+		return new DynamoDBQueryCreator<T, ID>(tree, accessor, entityInformation, dynamoDBMapper, queryRequestMapper,
+				projectedPropertyNames, queryPlans);
+	}
+
+	private static <T, ID extends Serializable> List<String> getKeyPropertyNames(
+			DynamoDBEntityInformation<T, ID> entityInformation) {
+		List<String> keyPropertyNames = new ArrayList<String>();
+		keyPropertyNames.add(entityInformation.getHashKeyPropertyName());
+		if (entityInformation.isRangeKeyAware()) {
+			keyPropertyNames.add(((DynamoDBIdIsHashAndRangeKeyEntityInformation<T, ID>) entityInformation)
+					.getRangeKeyPropertyName());
+		}
+		return keyPropertyNames;
+	}
+
+	/**
+	 * countBy... methods count the matching items with a Select of COUNT
+	 */
+	@Override
+	protected boolean isCountQuery() {
+		return Boolean.TRUE.equals(tree.isCountProjection());
+	}
+
+	/**
+	 * deleteBy... and removeBy... methods delete the matching items in
+	 * batches, reading only their keys where the query allows it
+	 */
+	@Override
+	protected boolean isDeleteQuery() {
+		return deleteQuery;
+	}
+
+	/**
+	 * existsBy... methods read no more than the first matching key
+	 */
+	@Override
+	protected boolean isExistsQuery() {
+		return existsQuery;
 	}
 
 	@Override
 	public Query<T> doCreateQuery(Object[] values) {
 
 		ParametersParameterAccessor accessor = new ParametersParameterAccessor(parameters, values);
+		if (disjunctQueryPlans == null) {
+			return createCreator(accessor).createQuery();
+		}
 
-		DynamoDBQueryCreator<T, ID> queryCreator = createCreator(accessor);
-		return queryCreator.createQuery();
+		// Criteria planned in advance only have the arguments bound to them
+		Iterator<Object> arguments = accessor.iterator();
+		DynamoDBQueryCriteria<T, ID> criteria = null;
+		for (int i = 0; i < disjunctParts.size(); i++) {
+			DynamoDBQueryCriteria<T, ID> disjunct = queryCreator.createCriteria(disjunctParts.get(i), arguments,
+					disjunctQueryPlans.get(i));
+			criteria = criteria == null ? disjunct : queryCreator.or(criteria, disjunct);
+		}
+		Sort sort = tree.getSort() == null ? accessor.getSort() : tree.getSort().and(accessor.getSort());
+		return queryCreator.complete(criteria, sort);
 
 	}
 
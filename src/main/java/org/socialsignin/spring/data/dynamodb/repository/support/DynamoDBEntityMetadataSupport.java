@@ -23,6 +23,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.util.Assert;
@@ -53,6 +55,12 @@ public class DynamoDBEntityMetadataSupport<T, ID extends Serializable> implement
 	private String dynamoDBTableName;
 	private Map<String, String[]> globalSecondaryIndexNames = new HashMap<String, String[]>();
 
+	// Attribute names and marshaller classes are found by reflection, so are
+	// cached by property name. Marshallers are still created for each caller,
+	// as marshallers such as date marshallers are not thread-safe.
+	private final ConcurrentMap<String, String> overriddenAttributeNames = new ConcurrentHashMap<String, String>();
+	private final ConcurrentMap<String, Class<?>> marshallerClasses = new ConcurrentHashMap<String, Class<?>>();
+
 	@Override
 	public String getDynamoDBTableName() {
 		return dynamoDBTableName;
@@ -201,6 +209,18 @@ public class DynamoDBEntityMetadataSupport<T, ID extends Serializable> implement
 
 	@Override
 	public String getOverriddenAttributeName(final String propertyName) {
+		String overriddenAttributeName = overriddenAttributeNames.get(propertyName);
+		if (overriddenAttributeName == null) {
+			overriddenAttributeName = findOverriddenAttributeName(propertyName);
+			// Properties without overridden attribute names are cached as
+			// the empty string, which is not a valid attribute name
+			overriddenAttributeNames.putIfAbsent(propertyName, overriddenAttributeName == null ? ""
+					: overriddenAttributeName);
+		}
+		return overriddenAttributeName == null || overriddenAttributeName.length() == 0 ? null : overriddenAttributeName;
+	}
+
+	private String findOverriddenAttributeName(final String propertyName) {
 
 		Method method = findMethod(propertyName);
 		if (method != null) {
@@ -236,10 +256,16 @@ public class DynamoDBEntityMetadataSupport<T, ID extends Serializable> implement
 	@Override
 	public DynamoDBMarshaller<?> getMarshallerForProperty(final String propertyName) {
 
-		Method method = findMethod(propertyName);
-		if (method != null && method.getAnnotation(DynamoDBMarshalling.class) != null) {
+		Class<?> marshallerClass = marshallerClasses.get(propertyName);
+		if (marshallerClass == null) {
+			Method method = findMethod(propertyName);
+			marshallerClass = method != null && method.getAnnotation(DynamoDBMarshalling.class) != null ? method
+					.getAnnotation(DynamoDBMarshalling.class).marshallerClass() : Void.class;
+			marshallerClasses.putIfAbsent(propertyName, marshallerClass);
+		}
+		if (marshallerClass != Void.class) {
 			try {
-				return method.getAnnotation(DynamoDBMarshalling.class).marshallerClass().newInstance();
+				return (DynamoDBMarshaller<?>) marshallerClass.newInstance();
 			} catch (InstantiationException e) {
 				throw new RuntimeException(e);
 			} catch (IllegalAccessException e) {
@@ -0,0 +1,160 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.support;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.socialsignin.spring.data.dynamodb.mapping.DefaultDynamoDBDateMarshaller;
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMarshaller;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+/**
+ * Builds low-level DynamoDB key attribute maps for the ids of an entity, so
+ * that repository operations can address items by key without a preceding
+ * read through DynamoDBMapper.
+ *
+ * Key values are marshalled using the DynamoDBMarshaller configured for the
+ * key property if there is one, otherwise according to their type as
+ * DynamoDBMapper would marshall them.
+ *
+ * @author Michael Lavelle
+ */
+public class DynamoDBKeyAttributeValueMarshaller<T, ID extends Serializable> {
+
+	private DynamoDBEntityInformation<T, ID> entityInformation;
+
+	public DynamoDBKeyAttributeValueMarshaller(DynamoDBEntityInformation<T, ID> entityInformation) {
+		Assert.notNull(entityInformation);
+		this.entityInformation = entityInformation;
+	}
+
+	public String getHashKeyAttributeName() {
+		return getAttributeName(entityInformation.getHashKeyPropertyName());
+	}
+
+	@SuppressWarnings("unchecked")
+	public String getRangeKeyAttributeName() {
+		if (!entityInformation.isRangeKeyAware()) {
+			return null;
+		}
+		return getAttributeName(((DynamoDBHashAndRangeKeyExtractingEntityMetadata<T, ID>) entityInformation)
+				.getRangeKeyPropertyName());
+	}
+
+	/**
+	 * @return the names of the hash key attribute and, if the entity is range
+	 *         key aware, the range key attribute of the entity's table
+	 */
+	public List<String> getKeyAttributeNames() {
+		List<String> keyAttributeNames = new ArrayList<String>();
+		keyAttributeNames.add(getHashKeyAttributeName());
+		if (entityInformation.isRangeKeyAware()) {
+			keyAttributeNames.add(getRangeKeyAttributeName());
+		}
+		return keyAttributeNames;
+	}
+
+	/**
+	 * @param id
+	 * @return the key attribute map addressing the item with the given id
+	 */
+	@SuppressWarnings("unchecked")
+	public Map<String, AttributeValue> getKey(ID id) {
+		Assert.notNull(id, "The given id must not be null!");
+		Map<String, AttributeValue> key = new HashMap<String, AttributeValue>();
+		key.put(getHashKeyAttributeName(),
+				getKeyAttributeValue(entityInformation.getHashKeyPropertyName(), entityInformation.getHashKey(id)));
+		if (entityInformation.isRangeKeyAware()) {
+			String rangeKeyPropertyName = ((DynamoDBHashAndRangeKeyExtractingEntityMetadata<T, ID>) entityInformation)
+					.getRangeKeyPropertyName();
+			key.put(getRangeKeyAttributeName(), getKeyAttributeValue(rangeKeyPropertyName, entityInformation.getRangeKey(id)));
+		}
+		return key;
+	}
+
+	@SuppressWarnings("unchecked")
+	protected <V> AttributeValue getKeyAttributeValue(String propertyName, Object value) {
+		Assert.notNull(value, "Key values must not be null: please specify a value for '" + propertyName + "'");
+		DynamoDBMarshaller<V> marshaller = (DynamoDBMarshaller<V>) entityInformation.getMarshallerForProperty(propertyName);
+		if (marshaller != null) {
+			return new AttributeValue().withS(marshaller.marshall((V) value));
+		}
+		if (value instanceof String) {
+			return new AttributeValue().withS((String) value);
+		} else if (value instanceof Number) {
+			return new AttributeValue().withN(normalizeNumber(value.toString()));
+		} else if (value instanceof Boolean) {
+			return new AttributeValue().withN(((Boolean) value).booleanValue() ? "1" : "0");
+		} else if (value instanceof Date) {
+			return new AttributeValue().withS(new DefaultDynamoDBDateMarshaller().marshall((Date) value));
+		} else if (value instanceof ByteBuffer) {
+			return new AttributeValue().withB((ByteBuffer) value);
+		} else if (value instanceof byte[]) {
+			return new AttributeValue().withB(ByteBuffer.wrap((byte[]) value));
+		}
+		throw new IllegalArgumentException("Cannot marshall key value of type " + value.getClass() + " for property '"
+				+ propertyName + "': key properties must be String, Number, Boolean, Date or binary, "
+				+ "or have a DynamoDBMarshaller configured");
+	}
+
+	/**
+	 * Extracts the key attributes of the given item, normalizing number
+	 * values so that the key is equal to the key built by
+	 * {@link #getKey(Serializable)} for the item's id, whatever the
+	 * representation in which DynamoDB returns its numbers
+	 * 
+	 * @param item
+	 * @return the key attribute map of the item
+	 */
+	public Map<String, AttributeValue> getItemKey(Map<String, AttributeValue> item) {
+		Map<String, AttributeValue> key = new HashMap<String, AttributeValue>();
+		for (String keyAttributeName : getKeyAttributeNames()) {
+			AttributeValue value = item.get(keyAttributeName);
+			if (value != null && value.getN() != null) {
+				value = new AttributeValue().withN(normalizeNumber(value.getN()));
+			}
+			key.put(keyAttributeName, value);
+		}
+		return key;
+	}
+
+	/**
+	 * @param number
+	 * @return the canonical representation of the given number, without
+	 *         trailing zeros or exponent, so that equal numbers have equal
+	 *         representations
+	 */
+	protected String normalizeNumber(String number) {
+		BigDecimal value = new BigDecimal(number);
+		// stripTrailingZeros leaves zero with its scale on older JDKs
+		return value.signum() == 0 ? "0" : value.stripTrailingZeros().toPlainString();
+	}
+
+	protected String getAttributeName(String propertyName) {
+		String overriddenName = entityInformation.getOverriddenAttributeName(propertyName);
+		return overriddenName != null ? overriddenName : propertyName;
+	}
+
+}
@@ -18,15 +18,29 @@ package org.socialsignin.spring.data.dynamodb.repository.support;
 import static org.springframework.data.querydsl.QueryDslUtils.QUERY_DSL_PRESENT;
 
 import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 
+import org.socialsignin.spring.data.dynamodb.query.DeleteProgressListener;
 import org.socialsignin.spring.data.dynamodb.query.QueryRequestMapper;
+import org.socialsignin.spring.data.dynamodb.repository.ApproximateCount;
+import org.socialsignin.spring.data.dynamodb.repository.AsyncDynamoDBCrudRepository;
+import org.socialsignin.spring.data.dynamodb.repository.CachedEntity;
+import org.socialsignin.spring.data.dynamodb.repository.CollapseRequests;
 import org.socialsignin.spring.data.dynamodb.repository.DynamoDBCrudRepository;
+import org.socialsignin.spring.data.dynamodb.repository.FindOneBatching;
+import org.socialsignin.spring.data.dynamodb.repository.WriteBehind;
+import org.socialsignin.spring.data.dynamodb.repository.query.AbstractDynamoDBQuery;
 import org.socialsignin.spring.data.dynamodb.repository.query.DynamoDBQueryLookupStrategy;
 import org.springframework.data.querydsl.QueryDslPredicateExecutor;
+import org.springframework.data.repository.core.NamedQueries;
 import org.springframework.data.repository.core.RepositoryMetadata;
 import org.springframework.data.repository.core.support.RepositoryFactorySupport;
 import org.springframework.data.repository.query.QueryLookupStrategy;
 import org.springframework.data.repository.query.QueryLookupStrategy.Key;
+import org.springframework.data.repository.query.RepositoryQuery;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 
@@ -37,10 +51,48 @@ public class DynamoDBRepositoryFactory extends RepositoryFactorySupport {
 
 	private DynamoDBMapper dynamoDBMapper;
 	private QueryRequestMapper queryRequestMapper;
+	private ExecutorService executorService;
+	private int batchWriteParallelism = 1;
+	private DeleteProgressListener deleteProgressListener;
+	private ConcurrentMap<Class<?>, EntityCache<?, ?>> entityCaches = new ConcurrentHashMap<Class<?>, EntityCache<?, ?>>();
+	private ConcurrentMap<Class<?>, WriteBehindBuffer<?, ?>> writeBehindBuffers = new ConcurrentHashMap<Class<?>, WriteBehindBuffer<?, ?>>();
 
 	public DynamoDBRepositoryFactory(DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper) {
+		this(dynamoDBMapper, queryRequestMapper, null);
+	}
+
+	/**
+	 * @param dynamoDBMapper
+	 * @param queryRequestMapper
+	 * @param executorService
+	 *            the ExecutorService on which asynchronous repository
+	 *            operations and query methods are executed - may be null if
+	 *            no asynchronous repositories are used
+	 */
+	public DynamoDBRepositoryFactory(DynamoDBMapper dynamoDBMapper, QueryRequestMapper queryRequestMapper,
+			ExecutorService executorService) {
 		this.dynamoDBMapper = dynamoDBMapper;
 		this.queryRequestMapper = queryRequestMapper;
+		this.executorService = executorService;
+	}
+
+	/**
+	 * @param batchWriteParallelism
+	 *            the maximum number of 25-entity chunks written concurrently
+	 *            by bulk saves and deletes of the repositories created, and by
+	 *            their deleteBy... query methods
+	 */
+	public void setBatchWriteParallelism(int batchWriteParallelism) {
+		this.batchWriteParallelism = batchWriteParallelism;
+	}
+
+	/**
+	 * @param deleteProgressListener
+	 *            the listener to which deleteAll of the repositories created
+	 *            reports its progress - may be null
+	 */
+	public void setDeleteProgressListener(DeleteProgressListener deleteProgressListener) {
+		this.deleteProgressListener = deleteProgressListener;
 	}
 
 	@Override
@@ -52,7 +104,23 @@ public class DynamoDBRepositoryFactory extends RepositoryFactorySupport {
 
 	@Override
 	protected QueryLookupStrategy getQueryLookupStrategy(Key key) {
-		return DynamoDBQueryLookupStrategy.create(dynamoDBMapper, key, queryRequestMapper);
+		final QueryLookupStrategy queryLookupStrategy = DynamoDBQueryLookupStrategy.create(dynamoDBMapper, key,
+				queryRequestMapper, executorService, batchWriteParallelism);
+		return new QueryLookupStrategy() {
+			@SuppressWarnings({ "unchecked", "rawtypes" })
+			public RepositoryQuery resolveQuery(Method method, RepositoryMetadata metadata, NamedQueries namedQueries) {
+				RepositoryQuery query = queryLookupStrategy.resolveQuery(method, metadata, namedQueries);
+				if (query instanceof AbstractDynamoDBQuery) {
+					// Entities deleted by deleteBy... query methods are
+					// discarded from the repository's write-behind buffer and
+					// evicted from its entity cache, as they are by delete
+					AbstractDynamoDBQuery dynamoDBQuery = (AbstractDynamoDBQuery) query;
+					dynamoDBQuery.setWriteBehindBuffer(getWriteBehindBuffer(metadata));
+					dynamoDBQuery.setEntityCache(getEntityCache(metadata.getDomainType()));
+				}
+				return query;
+			}
+		};
 	}
 
 	/**
@@ -67,8 +135,134 @@ public class DynamoDBRepositoryFactory extends RepositoryFactorySupport {
 	 */
 	@SuppressWarnings({ "unchecked", "rawtypes" })
 	protected <T, ID extends Serializable> DynamoDBCrudRepository<?, ?> getDynamoDBRepository(RepositoryMetadata metadata) {
-		return new SimpleMultiTableDynamoDBCrudRepository(getEntityInformation(metadata.getDomainType()), dynamoDBMapper,
-				getEnableScanPermissions(metadata));
+		SimpleDynamoDBCrudRepository repository;
+		if (isAsyncRepository(metadata.getRepositoryInterface())) {
+			repository = new SimpleAsyncDynamoDBCrudRepository(getEntityInformation(metadata.getDomainType()), dynamoDBMapper,
+					getEnableScanPermissions(metadata), executorService);
+		} else {
+			repository = new SimpleMultiTableDynamoDBCrudRepository(getEntityInformation(metadata.getDomainType()),
+					dynamoDBMapper, getEnableScanPermissions(metadata));
+		}
+		repository.setQueryRequestMapper(queryRequestMapper);
+		repository.setExecutorService(executorService);
+		repository.setBatchWriteParallelism(batchWriteParallelism);
+		repository.setDeleteProgressListener(deleteProgressListener);
+		repository.setCollapseFindOneRequests(metadata.getRepositoryInterface().isAnnotationPresent(
+				CollapseRequests.class));
+		repository.setWriteBehindBuffer(getWriteBehindBuffer(metadata));
+		repository.setEntityCache(getEntityCache(metadata.getDomainType()));
+		ApproximateCount approximateCount = getApproximateCount(metadata.getRepositoryInterface());
+		if (approximateCount != null) {
+			repository.setApproximateCountEnabled(true);
+			repository.setApproximateCountMaxAgeMillis(approximateCount.maxAgeMillis());
+		}
+		FindOneBatching findOneBatching = metadata.getRepositoryInterface().getAnnotation(FindOneBatching.class);
+		if (findOneBatching != null) {
+			repository.setFindOneBatcher(new FindOneBatcher(repository, getEntityInformation(metadata.getDomainType()),
+					findOneBatching.windowMillis(), findOneBatching.maxBatchSize()));
+		}
+		return repository;
+	}
+
+	/**
+	 * Returns the cache of entities of the given domain type shared by the
+	 * repositories created, or null if the domain type is not annotated with
+	 * {@link CachedEntity}
+	 * 
+	 * @param domainType
+	 * @return
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T, ID extends Serializable> EntityCache<T, ID> getEntityCache(Class<T> domainType) {
+		CachedEntity cachedEntity = domainType.getAnnotation(CachedEntity.class);
+		if (cachedEntity == null) {
+			return null;
+		}
+		EntityCache<?, ?> entityCache = entityCaches.get(domainType);
+		if (entityCache == null) {
+			EntityCache<T, ID> newEntityCache = createEntityCache(this.<T, ID> getEntityInformation(domainType),
+					cachedEntity);
+			entityCache = entityCaches.putIfAbsent(domainType, newEntityCache);
+			if (entityCache == null) {
+				entityCache = newEntityCache;
+			}
+		}
+		return (EntityCache<T, ID>) entityCache;
+	}
+
+	/**
+	 * Returns the write-behind buffer shared by the repositories created for
+	 * the given repository interface and by its query methods, or null if the
+	 * repository interface is not annotated with {@link WriteBehind}
+	 * 
+	 * @param metadata
+	 * @return
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	protected <T, ID extends Serializable> WriteBehindBuffer<T, ID> getWriteBehindBuffer(RepositoryMetadata metadata) {
+		WriteBehind writeBehind = metadata.getRepositoryInterface().getAnnotation(WriteBehind.class);
+		if (writeBehind == null) {
+			return null;
+		}
+		WriteBehindBuffer<?, ?> writeBehindBuffer = writeBehindBuffers.get(metadata.getRepositoryInterface());
+		if (writeBehindBuffer == null) {
+			DynamoDBEntityInformation entityInformation = getEntityInformation(metadata.getDomainType());
+			WriteBehindBuffer<?, ?> newWriteBehindBuffer = new WriteBehindBuffer(entityInformation, new EntityBatchWriter(
+					dynamoDBMapper, entityInformation, executorService, batchWriteParallelism),
+					writeBehind.maxBufferedEntities(), writeBehind.capacity(), writeBehind.maxWriteAttempts(),
+					writeBehind.flushIntervalMillis());
+			writeBehindBuffer = writeBehindBuffers.putIfAbsent(metadata.getRepositoryInterface(), newWriteBehindBuffer);
+			if (writeBehindBuffer == null) {
+				writeBehindBuffer = newWriteBehindBuffer;
+			} else {
+				newWriteBehindBuffer.close();
+			}
+		}
+		return (WriteBehindBuffer<T, ID>) writeBehindBuffer;
+	}
+
+	/**
+	 * Creates the cache of entities of a domain type annotated with
+	 * {@link CachedEntity}. Override to plug in an alternative
+	 * {@link EntityCache} implementation.
+	 * 
+	 * @param entityInformation
+	 * @param cachedEntity
+	 * @return
+	 */
+	protected <T, ID extends Serializable> EntityCache<T, ID> createEntityCache(
+			DynamoDBEntityInformation<T, ID> entityInformation, CachedEntity cachedEntity) {
+		return new LruEntityCache<T, ID>(entityInformation, cachedEntity.maxEntries(), cachedEntity.timeToLiveMillis());
+	}
+
+	/**
+	 * Flushes the write-behind buffers of the repositories created, and stops
+	 * their background flushing
+	 */
+	public void destroy() {
+		for (WriteBehindBuffer<?, ?> writeBehindBuffer : writeBehindBuffers.values()) {
+			writeBehindBuffer.close();
+		}
+		writeBehindBuffers.clear();
+	}
+
+	/**
+	 * @param repositoryInterface
+	 * @return the ApproximateCount annotation of the given repository
+	 *         interface, or of its count() method, or null if there is none
+	 */
+	protected ApproximateCount getApproximateCount(Class<?> repositoryInterface) {
+		ApproximateCount approximateCount = repositoryInterface.getAnnotation(ApproximateCount.class);
+		if (approximateCount != null) {
+			return approximateCount;
+		}
+		for (Method method : repositoryInterface.getMethods()) {
+			if (method.getName().equals("count") && method.getParameterTypes().length == 0
+					&& method.isAnnotationPresent(ApproximateCount.class)) {
+				return method.getAnnotation(ApproximateCount.class);
+			}
+		}
+		return null;
 	}
 
 	protected EnableScanPermissions getEnableScanPermissions(RepositoryMetadata metadata) {
@@ -87,9 +281,16 @@ public class DynamoDBRepositoryFactory extends RepositoryFactorySupport {
 		if (isQueryDslRepository(metadata.getRepositoryInterface())) {
 			throw new IllegalArgumentException("QueryDsl Support has not been implemented yet.");
 		}
+		if (isAsyncRepository(metadata.getRepositoryInterface())) {
+			return SimpleAsyncDynamoDBCrudRepository.class;
+		}
 		return SimpleMultiTableDynamoDBCrudRepository.class;
 	}
 
+	private static boolean isAsyncRepository(Class<?> repositoryInterface) {
+		return AsyncDynamoDBCrudRepository.class.isAssignableFrom(repositoryInterface);
+	}
+
 	private static boolean isQueryDslRepository(Class<?> repositoryInterface) {
 		return QUERY_DSL_PRESENT && QueryDslPredicateExecutor.class.isAssignableFrom(repositoryInterface);
 	}
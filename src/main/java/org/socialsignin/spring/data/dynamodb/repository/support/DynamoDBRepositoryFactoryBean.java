@@ -16,14 +16,18 @@
 package org.socialsignin.spring.data.dynamodb.repository.support;
 
 import java.io.Serializable;
+import java.util.concurrent.ExecutorService;
 
 import org.socialsignin.spring.data.dynamodb.mapping.DynamoDBMappingContext;
+import org.socialsignin.spring.data.dynamodb.query.DeleteProgressListener;
 import org.socialsignin.spring.data.dynamodb.query.QueryRequestMapper;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.data.repository.Repository;
 import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
 import org.springframework.data.repository.core.support.RepositoryFactorySupport;
 
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsyncClient;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
 
@@ -37,12 +41,22 @@ import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
  *            the type of the repository
  */
 public class DynamoDBRepositoryFactoryBean<T extends Repository<S, ID>, S, ID extends Serializable> extends
-		RepositoryFactoryBeanSupport<T, S, ID> {
+		RepositoryFactoryBeanSupport<T, S, ID> implements DisposableBean {
 
 	private DynamoDBMapperConfig dynamoDBMapperConfig;
 
 	private AmazonDynamoDB amazonDynamoDB;
 
+	private ExecutorService executorService;
+
+	private int scanTotalSegments = 1;
+
+	private int batchWriteParallelism = 1;
+
+	private DeleteProgressListener deleteProgressListener;
+
+	private DynamoDBRepositoryFactory repositoryFactory;
+
 	public void setAmazonDynamoDB(AmazonDynamoDB amazonDynamoDB) {
 		this.amazonDynamoDB = amazonDynamoDB;
 		setMappingContext(new DynamoDBMappingContext());
@@ -53,11 +67,73 @@ public class DynamoDBRepositoryFactoryBean<T extends Repository<S, ID>, S, ID ex
 	protected RepositoryFactorySupport createRepositoryFactory() {
 		DynamoDBMapper dynamoDBMapper = dynamoDBMapperConfig == null ? new DynamoDBMapper(amazonDynamoDB) : new DynamoDBMapper(
 				amazonDynamoDB, dynamoDBMapperConfig);
-		return new DynamoDBRepositoryFactory(dynamoDBMapper, new QueryRequestMapper(amazonDynamoDB, dynamoDBMapperConfig,
-				dynamoDBMapper));
+		QueryRequestMapper queryRequestMapper = new QueryRequestMapper(amazonDynamoDB, dynamoDBMapperConfig, dynamoDBMapper);
+		queryRequestMapper.setScanTotalSegments(getRepositoryScanTotalSegments());
+		ExecutorService repositoryExecutorService = getRepositoryExecutorService();
+		queryRequestMapper.setExecutorService(repositoryExecutorService);
+		DynamoDBRepositoryFactory factory = new DynamoDBRepositoryFactory(dynamoDBMapper, queryRequestMapper,
+				repositoryExecutorService);
+		factory.setBatchWriteParallelism(batchWriteParallelism);
+		factory.setDeleteProgressListener(deleteProgressListener);
+		this.repositoryFactory = factory;
+		return factory;
+	}
+
+	/**
+	 * Flushes the entities buffered by write-behind repositories
+	 */
+	@Override
+	public void destroy() {
+		if (repositoryFactory != null) {
+			repositoryFactory.destroy();
+		}
+	}
+
+	/**
+	 * Returns the number of segments in which scan-backed repository
+	 * operations scan tables in parallel. A configured value of zero or less
+	 * sizes the number of segments by the number of available processors.
+	 * 
+	 * @return
+	 */
+	protected int getRepositoryScanTotalSegments() {
+		if (scanTotalSegments <= 0) {
+			return Runtime.getRuntime().availableProcessors();
+		}
+		return scanTotalSegments;
+	}
+
+	/**
+	 * Returns the ExecutorService to use for asynchronous repository
+	 * operations - either the one explicitly configured, or that of the
+	 * configured AmazonDynamoDBAsyncClient if there is one.
+	 * 
+	 * @return
+	 */
+	protected ExecutorService getRepositoryExecutorService() {
+		if (executorService == null && amazonDynamoDB instanceof AmazonDynamoDBAsyncClient) {
+			return ((AmazonDynamoDBAsyncClient) amazonDynamoDB).getExecutorService();
+		}
+		return executorService;
 	}
 
 	public void setDynamoDBMapperConfig(DynamoDBMapperConfig dynamoDBMapperConfig) {
 		this.dynamoDBMapperConfig = dynamoDBMapperConfig;
 	}
+
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	public void setScanTotalSegments(int scanTotalSegments) {
+		this.scanTotalSegments = scanTotalSegments;
+	}
+
+	public void setBatchWriteParallelism(int batchWriteParallelism) {
+		this.batchWriteParallelism = batchWriteParallelism;
+	}
+
+	public void setDeleteProgressListener(DeleteProgressListener deleteProgressListener) {
+		this.deleteProgressListener = deleteProgressListener;
+	}
 }
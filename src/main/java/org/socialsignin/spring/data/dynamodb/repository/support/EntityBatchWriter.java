@@ -0,0 +1,243 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.support;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.socialsignin.spring.data.dynamodb.query.WorkerTasks;
+import org.socialsignin.spring.data.dynamodb.repository.BatchWriteResult;
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+
+/**
+ * Saves or deletes entities in bulk.
+ *
+ * Entities are de-duplicated by key - the last occurrence of an entity with a
+ * given key is written - so that no batch contains the same key twice, and
+ * are then split into chunks of 25 entities which are written by up to
+ * {@code parallelism} workers concurrently. DynamoDBMapper retries the
+ * unprocessed items of each chunk until completion; chunks which still fail
+ * are retried with exponential backoff and jitter, and the entities which
+ * fail on the final attempt are reported in the returned
+ * {@link BatchWriteResult}.
+ *
+ * @author Michael Lavelle
+ *
+ * @param <T>
+ *            the type of the entities to write
+ * @param <ID>
+ *            the type of the entities' identifier
+ */
+public class EntityBatchWriter<T, ID extends Serializable> {
+
+	public static final int MAX_BATCH_WRITE_ITEMS = 25;
+
+	private static final int MAX_ATTEMPTS = 3;
+
+	private static final long INITIAL_RETRY_DELAY_MILLIS = 100;
+
+	private static final Random JITTER = new Random();
+
+	private DynamoDBMapper dynamoDBMapper;
+
+	private DynamoDBEntityInformation<T, ID> entityInformation;
+
+	private DynamoDBKeyAttributeValueMarshaller<T, ID> keyMarshaller;
+
+	private ExecutorService executorService;
+
+	private int parallelism;
+
+	/**
+	 * @param dynamoDBMapper
+	 * @param entityInformation
+	 * @param executorService
+	 *            the ExecutorService on which chunks are written concurrently
+	 *            with the calling thread - may be null, in which case the
+	 *            chunks are written in turn by the calling thread
+	 * @param parallelism
+	 *            the maximum number of chunks written concurrently, when an
+	 *            ExecutorService is given
+	 */
+	public EntityBatchWriter(DynamoDBMapper dynamoDBMapper, DynamoDBEntityInformation<T, ID> entityInformation,
+			ExecutorService executorService, int parallelism) {
+		Assert.notNull(dynamoDBMapper);
+		Assert.notNull(entityInformation);
+		this.dynamoDBMapper = dynamoDBMapper;
+		this.entityInformation = entityInformation;
+		this.keyMarshaller = new DynamoDBKeyAttributeValueMarshaller<T, ID>(entityInformation);
+		this.executorService = executorService;
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	public <S extends T> BatchWriteResult<S> save(Iterable<S> entities) {
+		return write(entities, false);
+	}
+
+	public <S extends T> BatchWriteResult<S> delete(Iterable<S> entities) {
+		return write(entities, true);
+	}
+
+	private <S extends T> BatchWriteResult<S> write(Iterable<S> entities, final boolean delete) {
+		Assert.notNull(entities, "The given Iterable of entities must not be null!");
+		List<S> distinctEntities = dedupe(entities);
+
+		final Queue<List<S>> chunks = new ConcurrentLinkedQueue<List<S>>();
+		for (int start = 0; start < distinctEntities.size(); start += MAX_BATCH_WRITE_ITEMS) {
+			chunks.add(new ArrayList<S>(distinctEntities.subList(start,
+					Math.min(start + MAX_BATCH_WRITE_ITEMS, distinctEntities.size()))));
+		}
+		final List<S> failedEntities = Collections.synchronizedList(new ArrayList<S>());
+		final List<Exception> exceptions = Collections.synchronizedList(new ArrayList<Exception>());
+		final AtomicInteger writtenCount = new AtomicInteger();
+
+		int workerCount = Math.min(parallelism, chunks.size()) - 1;
+		List<FutureTask<Void>> workers = new ArrayList<FutureTask<Void>>();
+		for (int i = 0; i < workerCount; i++) {
+			FutureTask<Void> worker = WorkerTasks.execute(executorService, new Callable<Void>() {
+				public Void call() throws InterruptedException {
+					writeChunks(chunks, delete, writtenCount, failedEntities, exceptions);
+					return null;
+				}
+			});
+			if (worker == null) {
+				// Remaining chunks are written by the workers already
+				// submitted and by the calling thread
+				break;
+			}
+			workers.add(worker);
+		}
+		try {
+			writeChunks(chunks, delete, writtenCount, failedEntities, exceptions);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while writing entities", e);
+		} finally {
+			// Stop workers taking further chunks if the calling thread failed
+			chunks.clear();
+		}
+		for (FutureTask<Void> worker : workers) {
+			WorkerTasks.await(worker, "writing entities");
+		}
+		return new BatchWriteResult<S>(writtenCount.get(), new ArrayList<S>(failedEntities), new ArrayList<Exception>(
+				exceptions));
+	}
+
+	private <S extends T> List<S> dedupe(Iterable<S> entities) {
+		Map<Object, S> entitiesByKey = new LinkedHashMap<Object, S>();
+		for (S entity : entities) {
+			ID id = entityInformation.getId(entity);
+			// Entities without an id yet, such as those with auto-generated
+			// keys, cannot be duplicates
+			Object key = id == null ? new Object() : keyMarshaller.getKey(id);
+			entitiesByKey.remove(key);
+			entitiesByKey.put(key, entity);
+		}
+		return new ArrayList<S>(entitiesByKey.values());
+	}
+
+	private <S extends T> void writeChunks(Queue<List<S>> chunks, boolean delete, AtomicInteger writtenCount,
+			List<S> failedEntities, List<Exception> exceptions) throws InterruptedException {
+		List<S> chunk;
+		while ((chunk = chunks.poll()) != null) {
+			List<S> remaining = chunk;
+			List<Exception> chunkExceptions = new ArrayList<Exception>();
+			long retryDelay = INITIAL_RETRY_DELAY_MILLIS;
+			for (int attempt = 1; attempt <= MAX_ATTEMPTS && !remaining.isEmpty(); attempt++) {
+				if (attempt > 1) {
+					Thread.sleep((long) (JITTER.nextDouble() * retryDelay) + 1);
+					retryDelay *= 2;
+				}
+				int attempted = remaining.size();
+				chunkExceptions.clear();
+				List<FailedBatch> failedBatches = delete ? dynamoDBMapper.batchDelete(remaining) : dynamoDBMapper
+						.batchSave(remaining);
+				remaining = getFailedEntities(remaining, failedBatches, chunkExceptions);
+				writtenCount.addAndGet(attempted - remaining.size());
+			}
+			failedEntities.addAll(remaining);
+			if (!remaining.isEmpty()) {
+				exceptions.addAll(chunkExceptions);
+			}
+		}
+	}
+
+	private <S extends T> List<S> getFailedEntities(List<S> attempted, List<FailedBatch> failedBatches,
+			List<Exception> exceptions) {
+		if (failedBatches == null || failedBatches.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		Map<Map<String, AttributeValue>, S> entitiesByKey = new HashMap<Map<String, AttributeValue>, S>();
+		for (S entity : attempted) {
+			ID id = entityInformation.getId(entity);
+			if (id == null) {
+				// The failed entities cannot be identified - retry the chunk
+				return attempted;
+			}
+			entitiesByKey.put(keyMarshaller.getKey(id), entity);
+		}
+
+		List<S> failedEntities = new ArrayList<S>();
+		for (FailedBatch failedBatch : failedBatches) {
+			if (failedBatch.getException() != null) {
+				exceptions.add(failedBatch.getException());
+			}
+			for (List<WriteRequest> writeRequests : failedBatch.getUnprocessedItems().values()) {
+				for (WriteRequest writeRequest : writeRequests) {
+					S entity = entitiesByKey.get(getKey(writeRequest));
+					if (entity == null) {
+						// The failed entities cannot be identified - retry the
+						// chunk
+						return attempted;
+					}
+					failedEntities.add(entity);
+				}
+			}
+		}
+		return failedEntities;
+	}
+
+	/**
+	 * @return the key of the item written by the given request, with its
+	 *         numbers normalized as they are in the keys of the attempted
+	 *         entities
+	 */
+	private Map<String, AttributeValue> getKey(WriteRequest writeRequest) {
+		if (writeRequest.getDeleteRequest() != null) {
+			return keyMarshaller.getItemKey(writeRequest.getDeleteRequest().getKey());
+		}
+		return keyMarshaller.getItemKey(writeRequest.getPutRequest().getItem());
+	}
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.support;
+
+import java.io.Serializable;
+
+/**
+ * A cache of loaded entities by id, consulted by repositories before loading
+ * entities from DynamoDB.
+ * 
+ * @author Michael Lavelle
+ * 
+ * @param <T>
+ *            the type of the entities cached
+ * @param <ID>
+ *            the type of the entities' identifier
+ */
+public interface EntityCache<T, ID extends Serializable> {
+
+	/**
+	 * @param id
+	 * @return the cached entity with the given id, or null if there is none
+	 */
+	T get(ID id);
+
+	void put(ID id, T entity);
+
+	/**
+	 * @param id
+	 * @return the generation of the cache entry for the given id, which
+	 *         changes whenever the entry is evicted or the cache is cleared.
+	 *         Obtained before loading an entity, so that the loaded entity
+	 *         can be cached with {@link #put(Serializable, Object, long)}
+	 */
+	long getGeneration(ID id);
+
+	/**
+	 * Caches the given entity, loaded for the given id, unless the entry for
+	 * the id has been evicted or the cache cleared since the given generation
+	 * was obtained, in which case the entity may have been loaded before a
+	 * concurrent save or delete and be stale
+	 * 
+	 * @param id
+	 * @param entity
+	 * @param generation
+	 * @return whether the entity was cached
+	 */
+	boolean put(ID id, T entity, long generation);
+
+	void evict(ID id);
+
+	void clear();
+
+}
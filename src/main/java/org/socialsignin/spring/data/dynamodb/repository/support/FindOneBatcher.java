@@ -0,0 +1,180 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.support;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.socialsignin.spring.data.dynamodb.repository.DynamoDBCrudRepository;
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+/**
+ * Gathers the ids passed to findOne by concurrent callers into batches, each
+ * of which is loaded with a single findAllAsMap call.
+ * 
+ * No background threads are involved: the caller which opens a batch waits
+ * for up to the batch window for further ids to be added, then loads the
+ * batch on behalf of all its callers - unless the batch reaches its maximum
+ * size first, in which case the caller adding the last id loads it
+ * immediately. Ids of the same key requested within a batch are loaded once.
+ * 
+ * @author Michael Lavelle
+ * 
+ * @param <T>
+ *            the type of the entities to load
+ * @param <ID>
+ *            the type of the entities' identifier
+ */
+public class FindOneBatcher<T, ID extends Serializable> {
+
+	private final Object lock = new Object();
+
+	private DynamoDBCrudRepository<T, ID> repository;
+
+	private DynamoDBKeyAttributeValueMarshaller<T, ID> keyMarshaller;
+
+	private long windowNanos;
+
+	private int maxBatchSize;
+
+	private Batch openBatch;
+
+	/**
+	 * @param repository
+	 *            the repository whose findAllAsMap loads each batch
+	 * @param entityInformation
+	 * @param windowMillis
+	 * @param maxBatchSize
+	 */
+	public FindOneBatcher(DynamoDBCrudRepository<T, ID> repository, DynamoDBEntityInformation<T, ID> entityInformation,
+			long windowMillis, int maxBatchSize) {
+		Assert.notNull(repository);
+		Assert.notNull(entityInformation);
+		Assert.isTrue(windowMillis >= 0, "windowMillis must not be negative");
+		Assert.isTrue(maxBatchSize > 0, "maxBatchSize must be positive");
+		this.repository = repository;
+		this.keyMarshaller = new DynamoDBKeyAttributeValueMarshaller<T, ID>(entityInformation);
+		this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMillis);
+		this.maxBatchSize = maxBatchSize;
+	}
+
+	public T findOne(ID id) {
+		Map<String, AttributeValue> key = keyMarshaller.getKey(id);
+		Batch batch;
+		boolean opened = false;
+		boolean full;
+		synchronized (lock) {
+			if (openBatch == null) {
+				openBatch = new Batch();
+				opened = true;
+			}
+			batch = openBatch;
+			if (!batch.idsByKey.containsKey(key)) {
+				batch.idsByKey.put(key, id);
+			}
+			full = batch.idsByKey.size() >= maxBatchSize;
+			if (full) {
+				openBatch = null;
+				lock.notifyAll();
+			}
+		}
+		if (full || (opened && awaitWindow(batch))) {
+			batch.load();
+		}
+		return batch.get(key);
+	}
+
+	/**
+	 * Waits for the window of the given batch to elapse, unless it is closed
+	 * by reaching its maximum size first
+	 * 
+	 * @param batch
+	 * @return true if the calling thread closed the batch, and so must load
+	 *         it
+	 */
+	private boolean awaitWindow(Batch batch) {
+		long deadline = System.nanoTime() + windowNanos;
+		boolean interrupted = false;
+		synchronized (lock) {
+			long remainingNanos = windowNanos;
+			while (openBatch == batch && remainingNanos > 0 && !interrupted) {
+				try {
+					TimeUnit.NANOSECONDS.timedWait(lock, remainingNanos);
+				} catch (InterruptedException e) {
+					// Load the batch straight away
+					interrupted = true;
+				}
+				remainingNanos = deadline - System.nanoTime();
+			}
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+			if (openBatch == batch) {
+				openBatch = null;
+				return true;
+			}
+			return false;
+		}
+	}
+
+	private class Batch {
+
+		private final Map<Map<String, AttributeValue>, ID> idsByKey = new LinkedHashMap<Map<String, AttributeValue>, ID>();
+
+		private final CountDownLatch loaded = new CountDownLatch(1);
+
+		private Map<ID, T> entitiesById;
+
+		private RuntimeException exception;
+
+		private Error error;
+
+		private void load() {
+			try {
+				entitiesById = repository.findAllAsMap(new ArrayList<ID>(idsByKey.values()));
+			} catch (RuntimeException e) {
+				exception = e;
+			} catch (Error e) {
+				error = e;
+			} finally {
+				loaded.countDown();
+			}
+		}
+
+		private T get(Map<String, AttributeValue> key) {
+			try {
+				loaded.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while awaiting batched findOne", e);
+			}
+			if (exception != null) {
+				throw exception;
+			}
+			if (error != null) {
+				throw error;
+			}
+			return entitiesById.get(idsByKey.get(key));
+		}
+	}
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.support;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+/**
+ * An {@link EntityCache} holding up to a maximum number of entities, evicting
+ * the least recently used entity when full, and expiring entities a fixed
+ * time after they were cached.
+ * 
+ * Entities are cached by the attribute values of their hash and range keys,
+ * so ids which identify the same item share a cache entry.
+ * 
+ * The cache is split into segments by key, each with its own lock and its
+ * share of the maximum number of entities, so that concurrent access to
+ * different keys is not serialized. Least recently used entities are
+ * evicted per segment, and caches of fewer than 128 entities have a single
+ * segment. Each segment keeps a generation, advanced whenever
+ * one of its entries is evicted or the cache is cleared, by which loaded
+ * entities are only cached if none of their segment's entries has been
+ * invalidated while they were being loaded.
+ * 
+ * @author Michael Lavelle
+ * 
+ * @param <T>
+ *            the type of the entities cached
+ * @param <ID>
+ *            the type of the entities' identifier
+ */
+public class LruEntityCache<T, ID extends Serializable> implements EntityCache<T, ID> {
+
+	private static final int MAX_SEGMENTS = 16;
+
+	private static final int MIN_SEGMENT_ENTRIES = 64;
+
+	private final List<Segment<T>> segments;
+
+	private DynamoDBKeyAttributeValueMarshaller<T, ID> keyMarshaller;
+
+	private long timeToLiveNanos;
+
+	public LruEntityCache(DynamoDBEntityInformation<T, ID> entityInformation, int maxEntries, long timeToLiveMillis) {
+		Assert.notNull(entityInformation);
+		Assert.isTrue(maxEntries > 0, "maxEntries must be positive");
+		Assert.isTrue(timeToLiveMillis > 0, "timeToLiveMillis must be positive");
+		this.keyMarshaller = new DynamoDBKeyAttributeValueMarshaller<T, ID>(entityInformation);
+		this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+		// A power of two number of segments, so that small caches have a
+		// single segment and are strictly least recently used
+		int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(MAX_SEGMENTS, maxEntries / MIN_SEGMENT_ENTRIES)));
+		this.segments = new ArrayList<Segment<T>>(segmentCount);
+		for (int i = 0; i < segmentCount; i++) {
+			segments.add(new Segment<T>(maxEntries / segmentCount + (i < maxEntries % segmentCount ? 1 : 0)));
+		}
+	}
+
+	private Segment<T> segmentFor(Map<String, AttributeValue> key) {
+		int hash = key.hashCode();
+		hash ^= (hash >>> 16);
+		return segments.get(hash & (segments.size() - 1));
+	}
+
+	@Override
+	public T get(ID id) {
+		Map<String, AttributeValue> key = keyMarshaller.getKey(id);
+		Segment<T> segment = segmentFor(key);
+		synchronized (segment) {
+			CacheEntry<T> entry = segment.get(key);
+			if (entry == null) {
+				return null;
+			}
+			if (System.nanoTime() - entry.expiresAtNanos > 0) {
+				segment.remove(key);
+				return null;
+			}
+			return entry.entity;
+		}
+	}
+
+	@Override
+	public void put(ID id, T entity) {
+		Assert.notNull(entity, "The entity must not be null!");
+		CacheEntry<T> entry = new CacheEntry<T>(entity, System.nanoTime() + timeToLiveNanos);
+		Map<String, AttributeValue> key = keyMarshaller.getKey(id);
+		Segment<T> segment = segmentFor(key);
+		synchronized (segment) {
+			segment.put(key, entry);
+		}
+	}
+
+	@Override
+	public long getGeneration(ID id) {
+		Segment<T> segment = segmentFor(keyMarshaller.getKey(id));
+		synchronized (segment) {
+			return segment.generation;
+		}
+	}
+
+	@Override
+	public boolean put(ID id, T entity, long generation) {
+		Assert.notNull(entity, "The entity must not be null!");
+		CacheEntry<T> entry = new CacheEntry<T>(entity, System.nanoTime() + timeToLiveNanos);
+		Map<String, AttributeValue> key = keyMarshaller.getKey(id);
+		Segment<T> segment = segmentFor(key);
+		synchronized (segment) {
+			if (segment.generation != generation) {
+				return false;
+			}
+			segment.put(key, entry);
+			return true;
+		}
+	}
+
+	@Override
+	public void evict(ID id) {
+		Map<String, AttributeValue> key = keyMarshaller.getKey(id);
+		Segment<T> segment = segmentFor(key);
+		synchronized (segment) {
+			segment.remove(key);
+			segment.generation++;
+		}
+	}
+
+	@Override
+	public void clear() {
+		for (Segment<T> segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+				segment.generation++;
+			}
+		}
+	}
+
+	private static class Segment<T> extends LinkedHashMap<Map<String, AttributeValue>, CacheEntry<T>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int maxEntries;
+
+		private long generation;
+
+		private Segment(int maxEntries) {
+			super(16, 0.75f, true);
+			this.maxEntries = maxEntries;
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Map<String, AttributeValue>, CacheEntry<T>> eldest) {
+			return size() > maxEntries;
+		}
+	}
+
+	private static class CacheEntry<T> {
+
+		private final T entity;
+
+		private final long expiresAtNanos;
+
+		private CacheEntry(T entity, long expiresAtNanos) {
+			this.entity = entity;
+			this.expiresAtNanos = expiresAtNanos;
+		}
+	}
+
+}
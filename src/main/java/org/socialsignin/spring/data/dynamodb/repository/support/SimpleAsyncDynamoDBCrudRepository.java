@@ -0,0 +1,179 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.support;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.socialsignin.spring.data.dynamodb.repository.AsyncDynamoDBCrudRepository;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.util.Assert;
+
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsync;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemResult;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+
+/**
+ * Default implementation of the {@link AsyncDynamoDBCrudRepository} interface.
+ *
+ * When the repository's client is an AmazonDynamoDBAsync, findOneAsync and
+ * deleteAsync make their GetItem and DeleteItem requests through the
+ * client's asynchronous API, so that no thread is blocked while the request
+ * is in flight. DynamoDBMapper has no asynchronous API, so the remaining
+ * operations, and all operations for other clients, delegate to their
+ * synchronous counterparts, executed on the ExecutorService supplied by the
+ * repository factory. The number of in-flight DynamoDB calls is therefore
+ * bounded by that ExecutorService rather than by the number of calling
+ * threads.
+ *
+ * @author Michael Lavelle
+ *
+ * @param <T>
+ *            the type of the entity to handle
+ * @param <ID>
+ *            the type of the entity's identifier
+ */
+public class SimpleAsyncDynamoDBCrudRepository<T, ID extends Serializable> extends SimpleMultiTableDynamoDBCrudRepository<T, ID>
+		implements AsyncDynamoDBCrudRepository<T, ID> {
+
+	public SimpleAsyncDynamoDBCrudRepository(DynamoDBEntityInformation<T, ID> entityInformation, DynamoDBMapper dynamoDBMapper,
+			EnableScanPermissions enableScanPermissions, ExecutorService executorService) {
+		super(entityInformation, dynamoDBMapper, enableScanPermissions);
+		Assert.notNull(executorService, "An ExecutorService is required for asynchronous repositories: "
+				+ "please configure an executorService for the repository factory, or use an AmazonDynamoDBAsyncClient");
+		this.executorService = executorService;
+	}
+
+	/**
+	 * @return the client through which requests are made asynchronously, or
+	 *         null if the repository's client is not asynchronous
+	 */
+	protected AmazonDynamoDBAsync getAmazonDynamoDBAsync() {
+		if (queryRequestMapper != null && queryRequestMapper.getAmazonDynamoDB() instanceof AmazonDynamoDBAsync) {
+			return (AmazonDynamoDBAsync) queryRequestMapper.getAmazonDynamoDB();
+		}
+		return null;
+	}
+
+	@Override
+	public Future<T> findOneAsync(final ID id) {
+		Assert.notNull(id, "The given id must not be null!");
+		AmazonDynamoDBAsync amazonDynamoDBAsync = getAmazonDynamoDBAsync();
+		// Batched findOnes, and entities awaiting write-behind or cached, are
+		// found as findOne finds them
+		if (amazonDynamoDBAsync == null || findOneBatcher != null || findBufferedOrCached(id) != null) {
+			return executorService.submit(new Callable<T>() {
+				public T call() {
+					return findOne(id);
+				}
+			});
+		}
+		final long cacheGeneration = entityCache == null ? 0 : entityCache.getGeneration(id);
+		GetItemRequest getItemRequest = new GetItemRequest(queryRequestMapper.getOverriddenTableName(entityInformation),
+				keyMarshaller.getKey(id)).withConsistentRead(queryRequestMapper.isConsistentReads());
+		return new TransformingFuture<GetItemResult, T>(amazonDynamoDBAsync.getItemAsync(getItemRequest)) {
+			protected T transform(GetItemResult getItemResult) {
+				if (getItemResult.getItem() == null) {
+					return null;
+				}
+				T entity = queryRequestMapper.unmarshallItems(domainType,
+						Collections.singletonList(getItemResult.getItem())).get(0);
+				if (entityCache != null) {
+					entityCache.put(id, entity, cacheGeneration);
+				}
+				return entity;
+			}
+		};
+	}
+
+	@Override
+	public Future<List<T>> findAllAsync(final Iterable<ID> ids) {
+		Assert.notNull(ids, "The given Iterable of ids must not be null!");
+		return executorService.submit(new Callable<List<T>>() {
+			public List<T> call() {
+				return findAll(ids);
+			}
+		});
+	}
+
+	@Override
+	public <S extends T> Future<S> saveAsync(final S entity) {
+		Assert.notNull(entity, "The entity must not be null!");
+		return executorService.submit(new Callable<S>() {
+			public S call() {
+				return save(entity);
+			}
+		});
+	}
+
+	@Override
+	public Future<Void> deleteAsync(final ID id) {
+		Assert.notNull(id, "The given id must not be null!");
+		AmazonDynamoDBAsync amazonDynamoDBAsync = getAmazonDynamoDBAsync();
+		if (amazonDynamoDBAsync == null) {
+			return executorService.submit(new Callable<Void>() {
+				public Void call() {
+					delete(id);
+					return null;
+				}
+			});
+		}
+		final boolean discarded = writeBehindBuffer != null && writeBehindBuffer.discard(id) != null;
+		evictCached(id);
+		// Evicts the entity again once the request completes, whether or not
+		// the returned Future is ever waited on, in case a concurrent findOne
+		// cached it while the request was in flight
+		AsyncHandler<DeleteItemRequest, DeleteItemResult> evictOnCompletion = new AsyncHandler<DeleteItemRequest, DeleteItemResult>() {
+			public void onSuccess(DeleteItemRequest request, DeleteItemResult result) {
+				evictCached(id);
+			}
+
+			public void onError(Exception exception) {
+				evictCached(id);
+			}
+		};
+		return new TransformingFuture<DeleteItemResult, Void>(amazonDynamoDBAsync.deleteItemAsync(
+				createDeleteItemRequest(queryRequestMapper.getOverriddenTableName(entityInformation), id),
+				evictOnCompletion)) {
+			protected Void transform(DeleteItemResult deleteItemResult) {
+				return null;
+			}
+
+			protected Void transformFailure(ExecutionException requestFailure) throws ExecutionException {
+				if (!(requestFailure.getCause() instanceof ConditionalCheckFailedException)) {
+					throw requestFailure;
+				}
+				// The discarded entity may not have been written yet
+				if (!discarded) {
+					throw new ExecutionException(new EmptyResultDataAccessException(String.format(
+							"No %s entity with id %s exists!", domainType, id), 1));
+				}
+				return null;
+			}
+		};
+	}
+
+}
@@ -17,17 +17,39 @@ package org.socialsignin.spring.data.dynamodb.repository.support;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+import org.socialsignin.spring.data.dynamodb.query.BatchGetItemLoader;
+import org.socialsignin.spring.data.dynamodb.query.DescribeTableItemCounter;
+import org.socialsignin.spring.data.dynamodb.query.DeleteProgressListener;
+import org.socialsignin.spring.data.dynamodb.query.KeyScanningBatchDeleter;
+import org.socialsignin.spring.data.dynamodb.query.LazyResultIterator;
+import org.socialsignin.spring.data.dynamodb.query.QueryRequestMapper;
+import org.socialsignin.spring.data.dynamodb.query.RequestCollapser;
+import org.socialsignin.spring.data.dynamodb.repository.BatchWriteResult;
+import org.socialsignin.spring.data.dynamodb.repository.CloseableIterator;
 import org.socialsignin.spring.data.dynamodb.repository.DynamoDBCrudRepository;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.util.Assert;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.KeyPair;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
 
 /**
  * Default implementation of the
@@ -50,6 +72,32 @@ public class SimpleDynamoDBCrudRepository<T, ID extends Serializable> implements
 
 	protected EnableScanPermissions enableScanPermissions;
 
+	protected QueryRequestMapper queryRequestMapper;
+
+	protected DynamoDBKeyAttributeValueMarshaller<T, ID> keyMarshaller;
+
+	protected ExecutorService executorService;
+
+	protected int batchWriteParallelism = 1;
+
+	protected DeleteProgressListener deleteProgressListener;
+
+	protected WriteBehindBuffer<T, ID> writeBehindBuffer;
+
+	protected EntityCache<T, ID> entityCache;
+
+	protected FindOneBatcher<T, ID> findOneBatcher;
+
+	protected boolean approximateCountEnabled = false;
+
+	protected long approximateCountMaxAgeMillis = 300000;
+
+	protected boolean collapseFindOneRequests = false;
+
+	private volatile DescribeTableItemCounter itemCounter;
+
+	private final RequestCollapser<List<Object>, T> findOneRequests = new RequestCollapser<List<Object>, T>();
+
 	public SimpleDynamoDBCrudRepository(DynamoDBEntityInformation<T, ID> entityInformation, DynamoDBMapper dynamoDBMapper,
 			EnableScanPermissions enableScanPermissions) {
 		Assert.notNull(entityInformation);
@@ -58,32 +106,235 @@ public class SimpleDynamoDBCrudRepository<T, ID extends Serializable> implements
 		this.dynamoDBMapper = dynamoDBMapper;
 		this.domainType = entityInformation.getJavaType();
 		this.enableScanPermissions = enableScanPermissions;
+		this.keyMarshaller = new DynamoDBKeyAttributeValueMarshaller<T, ID>(entityInformation);
+
+	}
+
+	/**
+	 * Sets the QueryRequestMapper used for low-level requests, such as
+	 * counting the items of a table scanned in parallel segments
+	 * 
+	 * @param queryRequestMapper
+	 */
+	public void setQueryRequestMapper(QueryRequestMapper queryRequestMapper) {
+		this.queryRequestMapper = queryRequestMapper;
+	}
+
+	/**
+	 * Sets the ExecutorService on which batch loads dispatch their chunks
+	 * concurrently
+	 * 
+	 * @param executorService
+	 */
+	public void setExecutorService(ExecutorService executorService) {
+		this.executorService = executorService;
+	}
+
+	/**
+	 * Sets the maximum number of 25-entity chunks written concurrently by
+	 * bulk saves and deletes
+	 * 
+	 * @param batchWriteParallelism
+	 */
+	public void setBatchWriteParallelism(int batchWriteParallelism) {
+		this.batchWriteParallelism = batchWriteParallelism;
+	}
+
+	/**
+	 * Sets the listener to which deleteAll reports the number of items
+	 * deleted as it progresses
+	 * 
+	 * @param deleteProgressListener
+	 */
+	public void setDeleteProgressListener(DeleteProgressListener deleteProgressListener) {
+		this.deleteProgressListener = deleteProgressListener;
+	}
+
+	/**
+	 * Enables collapsing of concurrent findOne calls with the same id into a
+	 * single load, whose entity every caller receives
+	 * 
+	 * @param collapseFindOneRequests
+	 */
+	public void setCollapseFindOneRequests(boolean collapseFindOneRequests) {
+		this.collapseFindOneRequests = collapseFindOneRequests;
+	}
+
+	/**
+	 * Enables write-behind for save(entity), buffering saved entities in the
+	 * given buffer
+	 * 
+	 * @param writeBehindBuffer
+	 */
+	public void setWriteBehindBuffer(WriteBehindBuffer<T, ID> writeBehindBuffer) {
+		this.writeBehindBuffer = writeBehindBuffer;
+	}
+
+	/**
+	 * Enables read-through caching of entities loaded by id
+	 * 
+	 * @param entityCache
+	 */
+	public void setEntityCache(EntityCache<T, ID> entityCache) {
+		this.entityCache = entityCache;
+	}
+
+	/**
+	 * Enables batching of concurrent findOne calls into BatchGetItem requests
+	 * 
+	 * @param findOneBatcher
+	 */
+	public void setFindOneBatcher(FindOneBatcher<T, ID> findOneBatcher) {
+		this.findOneBatcher = findOneBatcher;
+	}
 
+	/**
+	 * @param approximateCountEnabled
+	 *            whether count() returns the approximate item count of the
+	 *            table instead of scanning it
+	 */
+	public void setApproximateCountEnabled(boolean approximateCountEnabled) {
+		this.approximateCountEnabled = approximateCountEnabled;
+	}
+
+	/**
+	 * @param approximateCountMaxAgeMillis
+	 *            the time for which the approximate item count of the table
+	 *            is reused
+	 */
+	public void setApproximateCountMaxAgeMillis(long approximateCountMaxAgeMillis) {
+		this.approximateCountMaxAgeMillis = approximateCountMaxAgeMillis;
+	}
+
+	protected int getScanTotalSegments() {
+		return queryRequestMapper == null ? 1 : queryRequestMapper.getScanTotalSegments();
 	}
 
 	@Override
-	public T findOne(ID id) {
-		if (entityInformation.isRangeKeyAware()) {
-			return dynamoDBMapper.load(domainType, entityInformation.getHashKey(id), entityInformation.getRangeKey(id));
-		} else {
-			return dynamoDBMapper.load(domainType, entityInformation.getHashKey(id));
+	public T findOne(final ID id) {
+		T entity = findBufferedOrCached(id);
+		if (entity != null) {
+			return entity;
+		}
+		if (findOneBatcher != null) {
+			return findOneBatcher.findOne(id);
+		}
+		if (!collapseFindOneRequests) {
+			return loadAndCache(id);
 		}
+		// Concurrent loads of the same key share a single request
+		List<Object> key = entityInformation.isRangeKeyAware() ? Arrays.asList(entityInformation.getHashKey(id),
+				entityInformation.getRangeKey(id)) : Arrays.asList(entityInformation.getHashKey(id));
+		return findOneRequests.execute(key, new Callable<T>() {
+			public T call() {
+				return loadAndCache(id);
+			}
+		});
 	}
 
-	@SuppressWarnings("unchecked")
+	private T loadAndCache(ID id) {
+		// The loaded entity is not cached if a concurrent save or delete
+		// invalidates the cache entry while it is loaded
+		long cacheGeneration = entityCache == null ? 0 : entityCache.getGeneration(id);
+		T loadedEntity = load(id);
+		if (loadedEntity != null && entityCache != null) {
+			entityCache.put(id, loadedEntity, cacheGeneration);
+		}
+		return loadedEntity;
+	}
+
+	/**
+	 * @param id
+	 * @return the entity with the given id which is awaiting write-behind or
+	 *         is cached, or null if there is none
+	 */
+	protected T findBufferedOrCached(ID id) {
+		if (writeBehindBuffer != null) {
+			T bufferedEntity = writeBehindBuffer.get(id);
+			if (bufferedEntity != null) {
+				return bufferedEntity;
+			}
+		}
+		return entityCache == null ? null : entityCache.get(id);
+	}
+
+	@Override
 	public List<T> findAll(Iterable<ID> ids) {
-		Map<Class<?>, List<KeyPair>> keyPairsMap = new HashMap<Class<?>, List<KeyPair>>();
-		List<KeyPair> keyPairs = new ArrayList<KeyPair>();
+		return new ArrayList<T>(findAllAsMap(ids).values());
+	}
+
+	@Override
+	public Map<ID, T> findAllAsMap(Iterable<ID> ids) {
+		Assert.notNull(ids, "The given Iterable of ids must not be null!");
+
+		// Repeated ids are loaded once, and results are returned in the order
+		// in which their ids are first given
+		Map<Map<String, AttributeValue>, ID> idsByKey = new LinkedHashMap<Map<String, AttributeValue>, ID>();
 		for (ID id : ids) {
-			if (entityInformation.isRangeKeyAware()) {
-				keyPairs.add(new KeyPair().withHashKey(entityInformation.getHashKey(id)).withRangeKey(
-						entityInformation.getRangeKey(id)));
+			Map<String, AttributeValue> key = keyMarshaller.getKey(id);
+			if (!idsByKey.containsKey(key)) {
+				idsByKey.put(key, id);
+			}
+		}
+
+		// Entities awaiting write-behind or cached are not loaded
+		Map<ID, T> knownEntitiesById = new HashMap<ID, T>();
+		Map<Map<String, AttributeValue>, ID> idsToLoadByKey = new HashMap<Map<String, AttributeValue>, ID>();
+		Map<ID, Long> cacheGenerationsById = new HashMap<ID, Long>();
+		for (Map.Entry<Map<String, AttributeValue>, ID> idByKey : idsByKey.entrySet()) {
+			T knownEntity = findBufferedOrCached(idByKey.getValue());
+			if (knownEntity != null) {
+				knownEntitiesById.put(idByKey.getValue(), knownEntity);
 			} else {
-				keyPairs.add(new KeyPair().withHashKey(id));
+				idsToLoadByKey.put(idByKey.getKey(), idByKey.getValue());
+				if (entityCache != null) {
+					cacheGenerationsById.put(idByKey.getValue(), entityCache.getGeneration(idByKey.getValue()));
+				}
 			}
 		}
-		keyPairsMap.put(domainType, keyPairs);
-		return (List<T>) dynamoDBMapper.batchLoad(keyPairsMap).get(domainType);
+		Map<ID, T> loadedEntitiesById = idsToLoadByKey.isEmpty() ? new HashMap<ID, T>() : loadAllAsMap(idsToLoadByKey);
+		if (entityCache != null) {
+			// Entities invalidated by a concurrent save or delete while they
+			// were loaded are not cached
+			for (Map.Entry<ID, T> loadedEntityById : loadedEntitiesById.entrySet()) {
+				entityCache.put(loadedEntityById.getKey(), loadedEntityById.getValue(),
+						cacheGenerationsById.get(loadedEntityById.getKey()));
+			}
+		}
+
+		Map<ID, T> entitiesById = new LinkedHashMap<ID, T>();
+		for (ID id : idsByKey.values()) {
+			T entity = knownEntitiesById.containsKey(id) ? knownEntitiesById.get(id) : loadedEntitiesById.get(id);
+			if (entity != null) {
+				entitiesById.put(id, entity);
+			}
+		}
+		return entitiesById;
+	}
+
+	private Map<ID, T> loadAllAsMap(Map<Map<String, AttributeValue>, ID> idsByKey) {
+		Map<ID, T> entitiesById = new HashMap<ID, T>();
+		if (queryRequestMapper == null) {
+			for (T entity : batchLoad(idsByKey.values())) {
+				entitiesById.put(entityInformation.getId(entity), entity);
+			}
+			return entitiesById;
+		}
+
+		BatchGetItemLoader loader = new BatchGetItemLoader(queryRequestMapper.getAmazonDynamoDB(),
+				queryRequestMapper.getOverriddenTableName(entityInformation), null, queryRequestMapper.isConsistentReads(),
+				executorService);
+		// Items are matched to ids by their key attributes, normalized as the
+		// keys of the ids are, and unmarshalled in a single pass
+		List<Map<String, AttributeValue>> items = loader.load(new ArrayList<Map<String, AttributeValue>>(idsByKey.keySet()));
+		List<T> entities = queryRequestMapper.unmarshallItems(domainType, items);
+		for (int i = 0; i < items.size(); i++) {
+			ID id = idsByKey.get(keyMarshaller.getItemKey(items.get(i)));
+			if (id != null) {
+				entitiesById.put(id, entities.get(i));
+			}
+		}
+		return entitiesById;
 	}
 
 	protected T load(ID id) {
@@ -94,8 +345,12 @@ public class SimpleDynamoDBCrudRepository<T, ID extends Serializable> implements
 		}
 	}
 
-	@SuppressWarnings("unchecked")
 	protected List<T> loadBatch(Iterable<ID> ids) {
+		return findAll(ids);
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<T> batchLoad(Iterable<ID> ids) {
 		Map<Class<?>, List<KeyPair>> keyPairsMap = new HashMap<Class<?>, List<KeyPair>>();
 		List<KeyPair> keyPairs = new ArrayList<KeyPair>();
 		for (ID id : ids) {
@@ -103,17 +358,27 @@ public class SimpleDynamoDBCrudRepository<T, ID extends Serializable> implements
 				keyPairs.add(new KeyPair().withHashKey(entityInformation.getHashKey(id)).withRangeKey(
 						entityInformation.getRangeKey(id)));
 			} else {
-				keyPairs.add(new KeyPair().withHashKey(id));
-
+				keyPairs.add(new KeyPair().withHashKey(entityInformation.getHashKey(id)));
 			}
 		}
 		keyPairsMap.put(domainType, keyPairs);
-		return (List<T>) dynamoDBMapper.batchLoad(keyPairsMap).get(domainType);
+		// DynamoDBMapper.batchLoad returns the loaded entities keyed by table
+		// name
+		List<T> entities = new ArrayList<T>();
+		for (List<Object> tableEntities : dynamoDBMapper.batchLoad(keyPairsMap).values()) {
+			for (Object entity : tableEntities) {
+				entities.add((T) entity);
+			}
+		}
+		return entities;
 	}
 
 	@Override
 	public <S extends T> S save(S entity) {
-		dynamoDBMapper.save(entity);
+		if (writeBehindBuffer == null || !writeBehindBuffer.save(entity)) {
+			dynamoDBMapper.save(entity);
+		}
+		evictCachedEntity(entity);
 		return entity;
 	}
 
@@ -123,17 +388,108 @@ public class SimpleDynamoDBCrudRepository<T, ID extends Serializable> implements
 		for (S entity : entities) {
 			entityList.add(entity);
 		}
-		dynamoDBMapper.batchSave(entityList);
+		assertBatchWriteSuccessful(batchSave(entityList), "save");
 		return entityList;
 	}
 
+	@Override
+	public <S extends T> BatchWriteResult<S> batchSave(Iterable<S> entities) {
+		Assert.notNull(entities, "The given Iterable of entities must not be null!");
+		List<S> entityList = new ArrayList<S>();
+		for (S entity : entities) {
+			entityList.add(entity);
+		}
+		BatchWriteResult<S> result = new EntityBatchWriter<T, ID>(dynamoDBMapper, entityInformation, executorService,
+				batchWriteParallelism).save(entityList);
+		for (S entity : entityList) {
+			evictCachedEntity(entity);
+		}
+		return result;
+	}
+
+	@Override
+	public BatchWriteResult<T> batchDelete(Iterable<? extends T> entities) {
+		List<T> entityList = new ArrayList<T>();
+		for (T entity : entities) {
+			discardBuffered(entity);
+			entityList.add(entity);
+		}
+		BatchWriteResult<T> result = new EntityBatchWriter<T, ID>(dynamoDBMapper, entityInformation, executorService,
+				batchWriteParallelism).delete(entityList);
+		for (T entity : entityList) {
+			evictCachedEntity(entity);
+		}
+		return result;
+	}
+
+	protected void assertBatchWriteSuccessful(BatchWriteResult<?> result, String operation) {
+		if (!result.isSuccessful()) {
+			throw new DataAccessResourceFailureException(String.format("Unable to %s %s of %s %s entities",
+					operation, result.getFailedEntities().size(), result.getFailedEntities().size()
+							+ result.getWrittenCount(), domainType.getSimpleName()), result.getExceptions().isEmpty() ? null
+					: result.getExceptions().get(0));
+		}
+	}
+
 	@Override
 	public boolean exists(ID id) {
 
 		Assert.notNull(id, "The given id must not be null!");
+		if (findBufferedOrCached(id) != null) {
+			return true;
+		}
+		if (queryRequestMapper != null) {
+			GetItemRequest getItemRequest = new GetItemRequest(queryRequestMapper.getOverriddenTableName(entityInformation),
+					keyMarshaller.getKey(id)).withAttributesToGet(keyMarshaller.getKeyAttributeNames()).withConsistentRead(
+					queryRequestMapper.isConsistentReads());
+			return queryRequestMapper.getAmazonDynamoDB().getItem(getItemRequest).getItem() != null;
+		}
 		return findOne(id) != null;
 	}
 
+	@Override
+	public Set<ID> existsAll(Iterable<ID> ids) {
+		Assert.notNull(ids, "The given Iterable of ids must not be null!");
+		Set<ID> existingIds = new LinkedHashSet<ID>();
+		if (queryRequestMapper == null) {
+			for (ID id : ids) {
+				if (exists(id)) {
+					existingIds.add(id);
+				}
+			}
+			return existingIds;
+		}
+
+		Set<ID> knownIds = new HashSet<ID>();
+		Map<Map<String, AttributeValue>, ID> idsByKey = new LinkedHashMap<Map<String, AttributeValue>, ID>();
+		List<Map<String, AttributeValue>> keysToLoad = new ArrayList<Map<String, AttributeValue>>();
+		for (ID id : ids) {
+			Map<String, AttributeValue> key = keyMarshaller.getKey(id);
+			if (idsByKey.containsKey(key)) {
+				continue;
+			}
+			idsByKey.put(key, id);
+			if (findBufferedOrCached(id) != null) {
+				knownIds.add(id);
+			} else {
+				keysToLoad.add(key);
+			}
+		}
+		BatchGetItemLoader loader = new BatchGetItemLoader(queryRequestMapper.getAmazonDynamoDB(),
+				queryRequestMapper.getOverriddenTableName(entityInformation), keyMarshaller.getKeyAttributeNames(),
+				queryRequestMapper.isConsistentReads());
+		Set<Map<String, AttributeValue>> existingKeys = new HashSet<Map<String, AttributeValue>>();
+		for (Map<String, AttributeValue> item : loader.load(keysToLoad)) {
+			existingKeys.add(keyMarshaller.getItemKey(item));
+		}
+		for (Map.Entry<Map<String, AttributeValue>, ID> idByKey : idsByKey.entrySet()) {
+			if (existingKeys.contains(idByKey.getKey()) || knownIds.contains(idByKey.getValue())) {
+				existingIds.add(idByKey.getValue());
+			}
+		}
+		return existingIds;
+	}
+
 	public void assertScanEnabled(boolean scanEnabled, String methodName) {
 		Assert.isTrue(scanEnabled, "Scanning for unpaginated " + methodName + "() queries is not enabled.  "
 				+ "To enable, re-implement the " + methodName
@@ -145,13 +501,60 @@ public class SimpleDynamoDBCrudRepository<T, ID extends Serializable> implements
 	public List<T> findAll() {
 
 		assertScanEnabled(enableScanPermissions.isFindAllUnpaginatedScanEnabled(), "findAll");
+		flushBuffered();
 		DynamoDBScanExpression scanExpression = new DynamoDBScanExpression();
+		int totalSegments = getScanTotalSegments();
+		if (totalSegments > 1) {
+			return dynamoDBMapper.parallelScan(domainType, scanExpression, totalSegments);
+		}
 		return dynamoDBMapper.scan(domainType, scanExpression);
 	}
 
+	@Override
+	public CloseableIterator<T> findAllIterator() {
+
+		assertScanEnabled(enableScanPermissions.isFindAllUnpaginatedScanEnabled(), "findAll");
+		flushBuffered();
+		DynamoDBScanExpression scanExpression = new DynamoDBScanExpression();
+		int totalSegments = getScanTotalSegments();
+		if (totalSegments > 1) {
+			return new LazyResultIterator<T>(dynamoDBMapper.parallelScan(domainType, scanExpression, totalSegments,
+					LazyResultIterator.ITERATION_ONLY_CONFIG).iterator());
+		}
+		return new LazyResultIterator<T>(dynamoDBMapper.scan(domainType, scanExpression,
+				LazyResultIterator.ITERATION_ONLY_CONFIG).iterator());
+	}
+
 	@Override
 	public long count() {
+		if (approximateCountEnabled) {
+			return approximateCount();
+		}
+		return exactCount();
+	}
+
+	@Override
+	public long approximateCount() {
+		if (queryRequestMapper == null) {
+			return exactCount();
+		}
+		DescribeTableItemCounter counter = itemCounter;
+		if (counter == null) {
+			counter = new DescribeTableItemCounter(queryRequestMapper.getAmazonDynamoDB(),
+					queryRequestMapper.getOverriddenTableName(entityInformation), approximateCountMaxAgeMillis);
+			itemCounter = counter;
+		}
+		return counter.getItemCount();
+	}
+
+	private long exactCount() {
 		assertScanEnabled(enableScanPermissions.isCountUnpaginatedScanEnabled(), "count");
+		flushBuffered();
+		if (queryRequestMapper != null) {
+			// Counts using Select.COUNT scans, which transfer no item payloads
+			return queryRequestMapper.count(queryRequestMapper.getOverriddenTableName(entityInformation), null,
+					getScanTotalSegments());
+		}
 		final DynamoDBScanExpression scanExpression = new DynamoDBScanExpression();
 		return dynamoDBMapper.count(domainType, scanExpression);
 	}
@@ -161,6 +564,26 @@ public class SimpleDynamoDBCrudRepository<T, ID extends Serializable> implements
 
 		Assert.notNull(id, "The given id must not be null!");
 
+		try {
+			if (writeBehindBuffer != null && writeBehindBuffer.discard(id) != null) {
+				// The discarded entity may not have been written yet
+				try {
+					deleteWritten(id);
+				} catch (EmptyResultDataAccessException e) {
+				}
+				return;
+			}
+			deleteWritten(id);
+		} finally {
+			evictCached(id);
+		}
+	}
+
+	private void deleteWritten(ID id) {
+		if (queryRequestMapper != null) {
+			deleteByKey(queryRequestMapper.getOverriddenTableName(entityInformation), id);
+			return;
+		}
 		T entity = findOne(id);
 		if (entity == null) {
 			throw new EmptyResultDataAccessException(String.format("No %s entity with id %s exists!", domainType, id), 1);
@@ -168,10 +591,69 @@ public class SimpleDynamoDBCrudRepository<T, ID extends Serializable> implements
 		dynamoDBMapper.delete(entity);
 	}
 
+	/**
+	 * Deletes the item with the given id from the given table in a single
+	 * round trip, conditional on the item existing.
+	 * 
+	 * @param tableName
+	 * @param id
+	 * @throws EmptyResultDataAccessException
+	 *             if no item with the given id exists
+	 */
+	protected void deleteByKey(String tableName, ID id) {
+		try {
+			queryRequestMapper.getAmazonDynamoDB().deleteItem(createDeleteItemRequest(tableName, id));
+		} catch (ConditionalCheckFailedException e) {
+			throw new EmptyResultDataAccessException(String.format("No %s entity with id %s exists!", domainType, id), 1);
+		}
+	}
+
+	/**
+	 * @param tableName
+	 * @param id
+	 * @return a request deleting the item with the given id from the given
+	 *         table, conditional on the item existing
+	 */
+	protected DeleteItemRequest createDeleteItemRequest(String tableName, ID id) {
+		Map<String, AttributeValue> key = keyMarshaller.getKey(id);
+		String hashKeyAttributeName = keyMarshaller.getHashKeyAttributeName();
+		return new DeleteItemRequest(tableName, key).addExpectedEntry(hashKeyAttributeName, new ExpectedAttributeValue(
+				key.get(hashKeyAttributeName)));
+	}
+
 	@Override
 	public void delete(T entity) {
 		Assert.notNull(entity, "The entity must not be null!");
+		discardBuffered(entity);
 		dynamoDBMapper.delete(entity);
+		evictCachedEntity(entity);
+	}
+
+	protected void discardBuffered(T entity) {
+		if (writeBehindBuffer != null) {
+			writeBehindBuffer.discard(entityInformation.getId(entity));
+		}
+	}
+
+	protected void evictCachedEntity(T entity) {
+		if (entityCache != null) {
+			ID id = entityInformation.getId(entity);
+			if (id != null) {
+				entityCache.evict(id);
+			}
+		}
+	}
+
+	protected void evictCached(ID id) {
+		if (entityCache != null) {
+			entityCache.evict(id);
+		}
+	}
+
+	protected void flushBuffered() {
+		if (writeBehindBuffer != null) {
+			writeBehindBuffer.flush();
+		}
 	}
 
 	@Override
@@ -179,18 +661,26 @@ public class SimpleDynamoDBCrudRepository<T, ID extends Serializable> implements
 
 		Assert.notNull(entities, "The given Iterable of entities not be null!");
 
-		List<T> entityList = new ArrayList<T>();
-		for (T entity : entities) {
-			entityList.add(entity);
-		}
-		dynamoDBMapper.batchDelete(entityList);
+		assertBatchWriteSuccessful(batchDelete(entities), "delete");
 	}
 
 	@Override
 	public void deleteAll() {
 
 		assertScanEnabled(enableScanPermissions.isDeleteAllUnpaginatedScanEnabled(), "deleteAll");
-		dynamoDBMapper.batchDelete(findAll());
+		if (writeBehindBuffer != null) {
+			writeBehindBuffer.clear();
+		}
+		if (entityCache != null) {
+			entityCache.clear();
+		}
+		if (queryRequestMapper != null) {
+			new KeyScanningBatchDeleter(queryRequestMapper.getAmazonDynamoDB(),
+					queryRequestMapper.getOverriddenTableName(entityInformation), keyMarshaller.getKeyAttributeNames(),
+					executorService, deleteProgressListener).deleteAll(getScanTotalSegments());
+		} else {
+			dynamoDBMapper.batchDelete(findAll());
+		}
 	}
 
 }
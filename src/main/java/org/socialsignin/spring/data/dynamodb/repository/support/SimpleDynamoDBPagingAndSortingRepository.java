@@ -19,7 +19,15 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
+import org.socialsignin.spring.data.dynamodb.query.KeyCursorCodec;
+import org.socialsignin.spring.data.dynamodb.query.MultipleEntityScanExpressionQuery;
+import org.socialsignin.spring.data.dynamodb.query.Query;
+import org.socialsignin.spring.data.dynamodb.query.ResultPage;
+import org.socialsignin.spring.data.dynamodb.repository.CursorPage;
+import org.socialsignin.spring.data.dynamodb.repository.CursorPageRequest;
+import org.socialsignin.spring.data.dynamodb.repository.CursorSlice;
 import org.socialsignin.spring.data.dynamodb.repository.DynamoDBPagingAndSortingRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -29,6 +37,7 @@ import org.springframework.data.domain.Sort;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedScanList;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 
 /**
  * Default implementation of the
@@ -37,12 +46,20 @@ import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedScanList;
  * 
  * Due to DynamoDB limitations, sorting is not supported for find-all operations
  * 
- * Due to DynamoDB limitations, paging for find-all queries is not possible
- * using an integer page number For paged requests, attempt to approximate
- * paging behavior by limiting the number of items which will be scanned, and by
- * returning a sublist of the result-set.
+ * Find-all queries are paged by resuming the scan at the LastEvaluatedKey of
+ * the previous page: requests for the first page, and {@link CursorPageRequest}s
+ * for subsequent pages, return a {@link CursorPage} whose
+ * {@link CursorPage#nextPageable()} carries the cursor for the next page, so
+ * that each page reads only its own items. {@link #findAllSlice(Pageable)}
+ * additionally reads a single item beyond the page to determine exactly
+ * whether there is a next page.
  * 
- * NB: Number of results scanned for a given page request is proportional to the
+ * Due to DynamoDB limitations, paging by integer page number alone is not
+ * possible. For other page requests, attempt to approximate paging behavior by
+ * limiting the number of items which will be scanned, and by returning a
+ * sublist of the result-set.
+ * 
+ * NB: Number of results scanned for such a page request is proportional to the
  * page number requested!
  * 
  * 
@@ -73,6 +90,11 @@ public class SimpleDynamoDBPagingAndSortingRepository<T, ID extends Serializable
 		if (pageable.getSort() != null) {
 			throw new UnsupportedOperationException("Sorting not supported for find all scan operations");
 		}
+		flushBuffered();
+		if (pageable instanceof CursorPageRequest || pageable.getOffset() == 0) {
+			String cursor = pageable instanceof CursorPageRequest ? ((CursorPageRequest) pageable).getCursor() : null;
+			return findPage(pageable, cursor);
+		}
 
 		DynamoDBScanExpression scanExpression = new DynamoDBScanExpression();
 		// Scan to the end of the page after the requested page
@@ -101,6 +123,41 @@ public class SimpleDynamoDBPagingAndSortingRepository<T, ID extends Serializable
 
 	}
 
+	private Page<T> findPage(Pageable pageable, String cursor) {
+		ResultPage<T> resultPage = createScanQuery().getResultPage(KeyCursorCodec.decode(cursor), pageable.getPageSize());
+		return new CursorPage<T>(resultPage.getResults(), pageable, KeyCursorCodec.encode(resultPage
+				.getLastEvaluatedKey()));
+	}
+
+	@Override
+	public CursorSlice<T> findAllSlice(Pageable pageable) {
+
+		if (pageable.getSort() != null) {
+			throw new UnsupportedOperationException("Sorting not supported for find all scan operations");
+		}
+		flushBuffered();
+		Query<T> query = createScanQuery();
+		Map<String, AttributeValue> exclusiveStartKey = null;
+		if (pageable instanceof CursorPageRequest) {
+			exclusiveStartKey = KeyCursorCodec.decode(((CursorPageRequest) pageable).getCursor());
+		} else if (pageable.getOffset() > 0) {
+			exclusiveStartKey = query.getResultPage(null, pageable.getOffset()).getLastEvaluatedKey();
+			if (exclusiveStartKey == null) {
+				return new CursorSlice<T>(new ArrayList<T>(), pageable, null);
+			}
+		}
+		ResultPage<T> resultSlice = query.getResultSlice(exclusiveStartKey, pageable.getPageSize());
+		return new CursorSlice<T>(resultSlice.getResults(), pageable, KeyCursorCodec.encode(resultSlice
+				.getLastEvaluatedKey()));
+	}
+
+	private Query<T> createScanQuery() {
+		Query<T> query = new MultipleEntityScanExpressionQuery<T>(dynamoDBMapper, domainType,
+				new DynamoDBScanExpression());
+		query.setScanEnabled(true);
+		return query;
+	}
+
 	private int scanThroughResults(Iterator<T> paginatedScanListIterator, int resultsToScan) {
 		int processed = 0;
 		while (paginatedScanListIterator.hasNext() && processed < resultsToScan) {
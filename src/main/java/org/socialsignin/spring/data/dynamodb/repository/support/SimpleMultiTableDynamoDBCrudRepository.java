@@ -44,6 +44,7 @@ public class SimpleMultiTableDynamoDBCrudRepository<T, ID extends Serializable>
     @Override
     public T saveInTable(String tableName, T t) {
         dynamoDBMapper.save(t, new DynamoDBMapperConfig(new DynamoDBMapperConfig.TableNameOverride(tableName)));
+        evictCachedEntity(t);
         return t;
     }
 
@@ -60,10 +61,18 @@ public class SimpleMultiTableDynamoDBCrudRepository<T, ID extends Serializable>
     public void deleteInTable(String tableName, ID id) {
         Assert.notNull(id, "The given id must not be null!");
 
-        T entity = findOne(id);
-        if (entity == null) {
-            throw new EmptyResultDataAccessException(String.format("No %s entity with id %s exists!", domainType, id), 1);
+        try {
+            if (queryRequestMapper != null) {
+                deleteByKey(tableName, id);
+                return;
+            }
+            T entity = findOneInTable(tableName, id);
+            if (entity == null) {
+                throw new EmptyResultDataAccessException(String.format("No %s entity with id %s exists!", domainType, id), 1);
+            }
+            dynamoDBMapper.delete(entity, new DynamoDBMapperConfig(new TableNameOverride(tableName)));
+        } finally {
+            evictCached(id);
         }
-        dynamoDBMapper.delete(entity, new DynamoDBMapperConfig(new TableNameOverride(tableName)));
     }
 }
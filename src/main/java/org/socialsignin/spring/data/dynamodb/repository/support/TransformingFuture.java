@@ -0,0 +1,125 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.support;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * A {@link Future} for the result of a request made through
+ * AmazonDynamoDBAsync, transformed into the result of a repository operation
+ * the first time it is obtained.
+ * 
+ * @author Michael Lavelle
+ * 
+ * @param <S>
+ *            the type of the request's result
+ * @param <T>
+ *            the type of the repository operation's result
+ */
+abstract class TransformingFuture<S, T> implements Future<T> {
+
+	private final Future<S> future;
+
+	private boolean transformed;
+
+	private T result;
+
+	private ExecutionException failure;
+
+	TransformingFuture(Future<S> future) {
+		this.future = future;
+	}
+
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		return future.cancel(mayInterruptIfRunning);
+	}
+
+	@Override
+	public boolean isCancelled() {
+		return future.isCancelled();
+	}
+
+	@Override
+	public boolean isDone() {
+		return future.isDone();
+	}
+
+	@Override
+	public T get() throws InterruptedException, ExecutionException {
+		S requestResult;
+		try {
+			requestResult = future.get();
+		} catch (ExecutionException e) {
+			return transform(null, e);
+		}
+		return transform(requestResult, null);
+	}
+
+	@Override
+	public T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+		S requestResult;
+		try {
+			requestResult = future.get(timeout, unit);
+		} catch (ExecutionException e) {
+			return transform(null, e);
+		}
+		return transform(requestResult, null);
+	}
+
+	private synchronized T transform(S requestResult, ExecutionException requestFailure) throws ExecutionException {
+		if (!transformed) {
+			try {
+				result = requestFailure == null ? transform(requestResult) : transformFailure(requestFailure);
+			} catch (ExecutionException e) {
+				failure = e;
+			} catch (RuntimeException e) {
+				failure = new ExecutionException(e);
+			}
+			transformed = true;
+		}
+		if (failure != null) {
+			throw failure;
+		}
+		return result;
+	}
+
+	/**
+	 * @param requestResult
+	 *            the result of the request
+	 * @return the result of the repository operation
+	 */
+	protected abstract T transform(S requestResult);
+
+	/**
+	 * Transforms the failure of the request into the outcome of the
+	 * repository operation - by default, the same failure
+	 * 
+	 * @param requestFailure
+	 *            the failure of the request
+	 * @return the result of the repository operation, if the failure is not
+	 *         a failure of the operation
+	 * @throws ExecutionException
+	 *             the failure of the repository operation
+	 */
+	protected T transformFailure(ExecutionException requestFailure) throws ExecutionException {
+		throw requestFailure;
+	}
+
+}
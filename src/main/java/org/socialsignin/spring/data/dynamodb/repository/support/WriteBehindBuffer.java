@@ -0,0 +1,328 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.support;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.socialsignin.spring.data.dynamodb.repository.BatchWriteResult;
+import org.springframework.util.Assert;
+
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+
+/**
+ * Buffers saved entities by key, collapsing repeated saves of the same key to
+ * the latest entity, and writes them in batches once a number of keys are
+ * buffered, at a fixed interval, and on {@link #close()}.
+ *
+ * Flushes are made on a background thread and serialized, so an older
+ * version of an entity can never be written after a newer one. Entities
+ * remain visible through {@link #get(Serializable)} until they have been
+ * written. Entities which fail to be written remain buffered for the next
+ * flush unless they have since been superseded, until they have failed a
+ * maximum number of flushes, after which they are dropped and logged as
+ * errors.
+ *
+ * The buffer is bounded: once it holds its capacity of keys, saves of keys
+ * which are not already buffered block until a flush has made room.
+ *
+ * @author Michael Lavelle
+ *
+ * @param <T>
+ *            the type of the entities to buffer
+ * @param <ID>
+ *            the type of the entities' identifier
+ */
+public class WriteBehindBuffer<T, ID extends Serializable> {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(WriteBehindBuffer.class);
+
+	public static final int DEFAULT_MAX_WRITE_ATTEMPTS = 3;
+
+	private final ConcurrentMap<Map<String, AttributeValue>, T> pendingWrites = new ConcurrentHashMap<Map<String, AttributeValue>, T>();
+
+	private final Object flushLock = new Object();
+
+	private final Object capacityLock = new Object();
+
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+	// The number of failed flushes of each buffered entity - guarded by
+	// flushLock
+	private final Map<T, Integer> failedWriteAttempts = new IdentityHashMap<T, Integer>();
+
+	private DynamoDBEntityInformation<T, ID> entityInformation;
+
+	private DynamoDBKeyAttributeValueMarshaller<T, ID> keyMarshaller;
+
+	private EntityBatchWriter<T, ID> batchWriter;
+
+	private int maxBufferedEntities;
+
+	private int capacity;
+
+	private int maxWriteAttempts;
+
+	private long flushIntervalMillis;
+
+	private ScheduledExecutorService flushScheduler;
+
+	public WriteBehindBuffer(DynamoDBEntityInformation<T, ID> entityInformation, EntityBatchWriter<T, ID> batchWriter,
+			int maxBufferedEntities, long flushIntervalMillis) {
+		this(entityInformation, batchWriter, maxBufferedEntities, 0, DEFAULT_MAX_WRITE_ATTEMPTS, flushIntervalMillis);
+	}
+
+	/**
+	 * @param entityInformation
+	 * @param batchWriter
+	 * @param maxBufferedEntities
+	 *            the number of buffered keys at which a flush is requested
+	 * @param capacity
+	 *            the number of buffered keys at which saves of further keys
+	 *            block until a flush has made room - zero or less for four
+	 *            times maxBufferedEntities
+	 * @param maxWriteAttempts
+	 *            the number of flushes an entity may fail before it is
+	 *            dropped
+	 * @param flushIntervalMillis
+	 *            the interval at which the buffer is flushed
+	 */
+	public WriteBehindBuffer(DynamoDBEntityInformation<T, ID> entityInformation, EntityBatchWriter<T, ID> batchWriter,
+			int maxBufferedEntities, int capacity, int maxWriteAttempts, long flushIntervalMillis) {
+		Assert.notNull(entityInformation);
+		Assert.notNull(batchWriter);
+		Assert.isTrue(maxBufferedEntities > 0, "maxBufferedEntities must be positive");
+		Assert.isTrue(capacity <= 0 || capacity >= maxBufferedEntities,
+				"capacity must not be less than maxBufferedEntities");
+		Assert.isTrue(maxWriteAttempts > 0, "maxWriteAttempts must be positive");
+		Assert.isTrue(flushIntervalMillis > 0, "flushIntervalMillis must be positive");
+		this.entityInformation = entityInformation;
+		this.keyMarshaller = new DynamoDBKeyAttributeValueMarshaller<T, ID>(entityInformation);
+		this.batchWriter = batchWriter;
+		this.maxBufferedEntities = maxBufferedEntities;
+		this.capacity = capacity > 0 ? capacity : maxBufferedEntities * 4;
+		this.maxWriteAttempts = maxWriteAttempts;
+		this.flushIntervalMillis = flushIntervalMillis;
+		this.flushScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "dynamodb-write-behind-"
+						+ WriteBehindBuffer.this.entityInformation.getJavaType().getSimpleName());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		this.flushScheduler.scheduleWithFixedDelay(new Runnable() {
+			public void run() {
+				flushInBackground();
+			}
+		}, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Buffers the given entity, replacing any buffered entity with the same
+	 * key. Requests a background flush if the buffer is full, and blocks while
+	 * the buffer is at capacity unless the entity's key is already buffered.
+	 *
+	 * @param entity
+	 * @return false if the entity could not be buffered because it does not
+	 *         have an id yet, in which case it must be written directly
+	 */
+	public boolean save(T entity) {
+		ID id = entityInformation.getId(entity);
+		if (id == null) {
+			return false;
+		}
+		Map<String, AttributeValue> key = keyMarshaller.getKey(id);
+		if (!pendingWrites.containsKey(key)) {
+			awaitCapacity();
+		}
+		pendingWrites.put(key, entity);
+		if (pendingWrites.size() >= maxBufferedEntities) {
+			requestFlush();
+		}
+		return true;
+	}
+
+	private void awaitCapacity() {
+		synchronized (capacityLock) {
+			while (pendingWrites.size() >= capacity) {
+				requestFlush();
+				try {
+					capacityLock.wait(flushIntervalMillis);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new IllegalStateException("Interrupted while waiting to buffer "
+							+ entityInformation.getJavaType().getSimpleName() + " entity", e);
+				}
+			}
+		}
+	}
+
+	private void requestFlush() {
+		if (!flushRequested.compareAndSet(false, true)) {
+			return;
+		}
+		try {
+			flushScheduler.execute(new Runnable() {
+				public void run() {
+					flushRequested.set(false);
+					flushInBackground();
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// Closed - flush on the calling thread instead
+			flushRequested.set(false);
+			flush();
+		}
+	}
+
+	private void flushInBackground() {
+		try {
+			flush();
+		} catch (RuntimeException e) {
+			LOGGER.error("Unable to flush buffered " + entityInformation.getJavaType() + " entities", e);
+		}
+	}
+
+	/**
+	 * @param id
+	 * @return the buffered entity with the given id, or null if there is none
+	 */
+	public T get(ID id) {
+		return pendingWrites.get(keyMarshaller.getKey(id));
+	}
+
+	/**
+	 * Discards the buffered entity with the given id, if there is one, waiting
+	 * for any flush in progress to complete so that the entity is not written
+	 * after it is discarded
+	 *
+	 * @param id
+	 * @return the discarded entity, or null if there was none
+	 */
+	public T discard(ID id) {
+		if (id == null) {
+			return null;
+		}
+		synchronized (flushLock) {
+			T discarded = pendingWrites.remove(keyMarshaller.getKey(id));
+			if (discarded != null) {
+				failedWriteAttempts.remove(discarded);
+				signalCapacity();
+			}
+			return discarded;
+		}
+	}
+
+	/**
+	 * Discards all buffered entities, waiting for any flush in progress to
+	 * complete
+	 */
+	public void clear() {
+		synchronized (flushLock) {
+			pendingWrites.clear();
+			failedWriteAttempts.clear();
+			signalCapacity();
+		}
+	}
+
+	/**
+	 * Writes all buffered entities on the calling thread
+	 */
+	public void flush() {
+		synchronized (flushLock) {
+			List<Map<String, AttributeValue>> keys = new ArrayList<Map<String, AttributeValue>>();
+			List<T> entities = new ArrayList<T>();
+			for (Map.Entry<Map<String, AttributeValue>, T> pendingWrite : pendingWrites.entrySet()) {
+				keys.add(pendingWrite.getKey());
+				entities.add(pendingWrite.getValue());
+			}
+			if (entities.isEmpty()) {
+				return;
+			}
+			BatchWriteResult<T> result = batchWriter.save(entities);
+			Set<T> failedEntities = Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+			failedEntities.addAll(result.getFailedEntities());
+			int droppedCount = 0;
+			for (int i = 0; i < keys.size(); i++) {
+				T entity = entities.get(i);
+				// Entities saved again since the snapshot remain buffered, as
+				// do those which failed to be written until they have failed
+				// too many times
+				if (!failedEntities.contains(entity) || pendingWrites.get(keys.get(i)) != entity) {
+					pendingWrites.remove(keys.get(i), entity);
+					failedWriteAttempts.remove(entity);
+				} else if (recordFailedWriteAttempt(entity)) {
+					pendingWrites.remove(keys.get(i), entity);
+					droppedCount++;
+					LOGGER.error("Dropping buffered {} entity with key {} after {} failed write attempts", new Object[] {
+							entityInformation.getJavaType().getSimpleName(), keys.get(i), maxWriteAttempts });
+				}
+			}
+			signalCapacity();
+			if (!result.isSuccessful()) {
+				LOGGER.warn("Unable to write {} buffered {} entities, of which {} remain buffered: {}", new Object[] {
+						failedEntities.size(), entityInformation.getJavaType().getSimpleName(),
+						failedEntities.size() - droppedCount, result.getExceptions() });
+			}
+		}
+	}
+
+	/**
+	 * @return whether the entity has now failed the maximum number of write
+	 *         attempts
+	 */
+	private boolean recordFailedWriteAttempt(T entity) {
+		Integer previousAttempts = failedWriteAttempts.get(entity);
+		int attempts = previousAttempts == null ? 1 : previousAttempts + 1;
+		if (attempts >= maxWriteAttempts) {
+			failedWriteAttempts.remove(entity);
+			return true;
+		}
+		failedWriteAttempts.put(entity, attempts);
+		return false;
+	}
+
+	private void signalCapacity() {
+		synchronized (capacityLock) {
+			capacityLock.notifyAll();
+		}
+	}
+
+	/**
+	 * Stops the background flushing of the buffer, and flushes it
+	 */
+	public void close() {
+		flushScheduler.shutdown();
+		flush();
+	}
+
+}
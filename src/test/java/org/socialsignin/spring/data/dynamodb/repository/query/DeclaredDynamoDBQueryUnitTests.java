@@ -0,0 +1,197 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.query;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.Serializable;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.socialsignin.spring.data.dynamodb.domain.sample.Playlist;
+import org.socialsignin.spring.data.dynamodb.domain.sample.PlaylistId;
+import org.socialsignin.spring.data.dynamodb.domain.sample.User;
+import org.socialsignin.spring.data.dynamodb.query.QueryRequestMapper;
+import org.socialsignin.spring.data.dynamodb.repository.EnableScan;
+import org.socialsignin.spring.data.dynamodb.repository.Query;
+import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityInformation;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.DefaultRepositoryMetadata;
+import org.springframework.data.repository.query.Param;
+
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedQueryList;
+import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
+import com.amazonaws.services.dynamodbv2.model.Condition;
+import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.Select;
+
+/**
+ * Unit tests for {@link DeclaredDynamoDBQuery}.
+ * 
+ * @author Michael Lavelle
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class DeclaredDynamoDBQueryUnitTests {
+
+	interface PlaylistRepository extends Repository<Playlist, PlaylistId> {
+
+		@Query(keyConditionExpression = "userName = :userName AND playlistName BETWEEN :from AND :to")
+		List<Playlist> findPlaylists(@Param("userName") String userName, @Param("from") String from,
+				@Param("to") String to);
+
+		@Query(keyConditionExpression = "playlistName = :playlistName")
+		List<Playlist> findByRangeKeyOnly(@Param("playlistName") String playlistName);
+
+		@Query(keyConditionExpression = "userName = :userName AND playlistName = :playlistName")
+		List<Playlist> findWithUnnamedParameter(@Param("userName") String userName, String playlistName);
+
+		@Query(keyConditionExpression = "userName = :userName", filterExpression = "displayName = :displayName")
+		List<Playlist> findWithFilteredQuery(@Param("userName") String userName,
+				@Param("displayName") String displayName);
+
+	}
+
+	interface UserRepository extends Repository<User, String> {
+
+		@EnableScan
+		@Query(filterExpression = "joinYear = :joinYear AND begins_with(postCode, :prefix) AND attribute_exists(name)", projectionExpression = "id, name")
+		List<User> findUsers(@Param("joinYear") Date joinYear, @Param("prefix") String prefix);
+
+	}
+
+	@Mock
+	private DynamoDBMapper mockDynamoDBMapper;
+
+	@Mock
+	private QueryRequestMapper mockQueryRequestMapper;
+
+	@SuppressWarnings("rawtypes")
+	@Mock
+	private PaginatedQueryList mockPlaylistQueryResults;
+
+	@Before
+	public void setUp() {
+		Mockito.when(mockQueryRequestMapper.getOverriddenTableName(Mockito.any(DynamoDBEntityInformation.class)))
+				.thenAnswer(new Answer<String>() {
+					public String answer(InvocationOnMock invocation) {
+						return ((DynamoDBEntityInformation<?, ?>) invocation.getArguments()[0]).getDynamoDBTableName();
+					}
+				});
+		Mockito.when(mockQueryRequestMapper.getScanTotalSegments()).thenReturn(1);
+	}
+
+	private <T> DeclaredDynamoDBQuery<T, ?> createQuery(Class<?> repositoryInterface, String methodName) {
+		for (Method method : repositoryInterface.getMethods()) {
+			if (method.getName().equals(methodName)) {
+				return new DeclaredDynamoDBQuery<T, Serializable>(mockDynamoDBMapper,
+						new DynamoDBQueryMethod<T, Serializable>(method, new DefaultRepositoryMetadata(
+								repositoryInterface)), mockQueryRequestMapper);
+			}
+		}
+		throw new IllegalArgumentException(methodName);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExecute_WhenKeyConditionIsDeclared_QueriesWithTheBoundKeyConditions() {
+		DeclaredDynamoDBQuery<Playlist, ?> query = createQuery(PlaylistRepository.class, "findPlaylists");
+		ArgumentCaptor<QueryRequest> queryRequestCaptor = ArgumentCaptor.forClass(QueryRequest.class);
+		Mockito.when(mockQueryRequestMapper.query(Mockito.eq(Playlist.class), queryRequestCaptor.capture()))
+				.thenReturn(mockPlaylistQueryResults);
+
+		Object result = query.execute(new Object[] { "someUserName", "a", "m" });
+
+		assertEquals(mockPlaylistQueryResults, result);
+		QueryRequest queryRequest = queryRequestCaptor.getValue();
+		assertEquals("Test", queryRequest.getTableName());
+		assertNull(queryRequest.getIndexName());
+		Map<String, Condition> keyConditions = queryRequest.getKeyConditions();
+		assertEquals(2, keyConditions.size());
+		assertEquals(ComparisonOperator.EQ.toString(), keyConditions.get("id").getComparisonOperator());
+		assertEquals("someUserName", keyConditions.get("id").getAttributeValueList().get(0).getS());
+		assertEquals(ComparisonOperator.BETWEEN.toString(), keyConditions.get("range").getComparisonOperator());
+		assertEquals("a", keyConditions.get("range").getAttributeValueList().get(0).getS());
+		assertEquals("m", keyConditions.get("range").getAttributeValueList().get(1).getS());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExecute_WhenOnlyFilterIsDeclared_ScansWithTheBoundFilterAndProjection() {
+		DeclaredDynamoDBQuery<User, ?> query = createQuery(UserRepository.class, "findUsers");
+		ArgumentCaptor<ScanRequest> scanRequestCaptor = ArgumentCaptor.forClass(ScanRequest.class);
+		List<User> users = Arrays.asList(new User());
+		Mockito.when(mockQueryRequestMapper.scan(Mockito.eq(User.class), scanRequestCaptor.capture(), Mockito.eq(1)))
+				.thenReturn(users);
+
+		Object result = query.execute(new Object[] { new GregorianCalendar(2013, Calendar.JUNE, 1).getTime(), "N1" });
+
+		assertEquals(users, result);
+		ScanRequest scanRequest = scanRequestCaptor.getValue();
+		assertEquals("user", scanRequest.getTableName());
+		assertEquals(Select.SPECIFIC_ATTRIBUTES.toString(), scanRequest.getSelect());
+		assertEquals(Arrays.asList("Id", "name"), scanRequest.getAttributesToGet());
+		Map<String, Condition> scanFilter = scanRequest.getScanFilter();
+		assertEquals(3, scanFilter.size());
+		assertEquals("2013", scanFilter.get("joinYear").getAttributeValueList().get(0).getS());
+		assertEquals(ComparisonOperator.BEGINS_WITH.toString(), scanFilter.get("postCode").getComparisonOperator());
+		assertEquals("N1", scanFilter.get("postCode").getAttributeValueList().get(0).getS());
+		assertEquals(ComparisonOperator.NOT_NULL.toString(), scanFilter.get("name").getComparisonOperator());
+		assertNull(scanFilter.get("name").getAttributeValueList());
+	}
+
+	@Test
+	public void testCreate_WhenKeyConditionDoesNotCompareTheHashKey_FailsAtCreation() {
+		assertInvalid(PlaylistRepository.class, "findByRangeKeyOnly");
+	}
+
+	@Test
+	public void testCreate_WhenPlaceholderIsNotANamedParameter_FailsAtCreation() {
+		assertInvalid(PlaylistRepository.class, "findWithUnnamedParameter");
+	}
+
+	@Test
+	public void testCreate_WhenQueryIsFiltered_FailsAtCreation() {
+		assertInvalid(PlaylistRepository.class, "findWithFilteredQuery");
+	}
+
+	private void assertInvalid(Class<?> repositoryInterface, String methodName) {
+		try {
+			createQuery(repositoryInterface, methodName);
+			fail("Expected the declared query of " + methodName + " to be rejected");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+	}
+
+}
@@ -11,6 +11,7 @@ import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -18,42 +19,69 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import org.socialsignin.spring.data.dynamodb.domain.sample.DynamoDBYearMarshaller;
 import org.socialsignin.spring.data.dynamodb.domain.sample.Playlist;
 import org.socialsignin.spring.data.dynamodb.domain.sample.PlaylistId;
 import org.socialsignin.spring.data.dynamodb.domain.sample.User;
 import org.socialsignin.spring.data.dynamodb.query.QueryRequestMapper;
+import org.socialsignin.spring.data.dynamodb.repository.CloseableIterator;
+import org.socialsignin.spring.data.dynamodb.repository.CursorPage;
+import org.socialsignin.spring.data.dynamodb.repository.CursorPageRequest;
+import org.socialsignin.spring.data.dynamodb.repository.ReadSettings;
 import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityInformation;
+import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBEntityMetadataSupport;
 import org.socialsignin.spring.data.dynamodb.repository.support.DynamoDBIdIsHashAndRangeKeyEntityInformation;
+import org.socialsignin.spring.data.dynamodb.repository.support.EntityCache;
+import org.socialsignin.spring.data.dynamodb.repository.support.WriteBehindBuffer;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.repository.query.Parameter;
 import org.springframework.data.repository.query.Parameters;
 import org.springframework.data.repository.query.RepositoryQuery;
 import org.springframework.util.ClassUtils;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.ConsistentReads;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.PaginationLoadingStrategy;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMarshaller;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedQueryList;
 import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedScanList;
+import com.amazonaws.services.dynamodbv2.datamodeling.QueryResultPage;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.ComparisonOperator;
 import com.amazonaws.services.dynamodbv2.model.Condition;
 import com.amazonaws.services.dynamodbv2.model.QueryRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.Select;
 
 @RunWith(MockitoJUnitRunner.class)
 public class PartTreeDynamoDBQueryUnitTests {
 
 	private RepositoryQuery partTreeDynamoDBQuery;
 
+	@SuppressWarnings("rawtypes")
+	private DynamoDBQueryMethod queryMethod;
+
 	@Mock
 	private DynamoDBMapper mockDynamoDBMapper;
 	
@@ -149,14 +177,27 @@ public class PartTreeDynamoDBQueryUnitTests {
 			Mockito.when(mockParameter.getIndex()).thenReturn(i);
 			Mockito.when(mockParameters.getBindableParameter(i)).thenReturn(mockParameter);
 		}
-		partTreeDynamoDBQuery = new PartTreeDynamoDBQuery(mockDynamoDBMapper, mockDynamoDBQueryMethod,mockQueryRequestMapper);
+		queryMethod = mockDynamoDBQueryMethod;
+		partTreeDynamoDBQuery = null;
+	}
+
+	/**
+	 * Creates the query on first use, once each test has mocked the entity
+	 * metadata, as the query plans its criteria when it is created
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	private RepositoryQuery getPartTreeDynamoDBQuery() {
+		if (partTreeDynamoDBQuery == null) {
+			partTreeDynamoDBQuery = new PartTreeDynamoDBQuery(mockDynamoDBMapper, queryMethod, mockQueryRequestMapper);
+		}
+		return partTreeDynamoDBQuery;
 	}
 
 	@Test
 	public void testGetQueryMethod() {
 		setupCommonMocksForThisRepositoryMethod(mockUserEntityMetadata, mockDynamoDBUserQueryMethod, User.class,
 				"findById", 1, "id", null);
-		assertEquals(mockDynamoDBUserQueryMethod, partTreeDynamoDBQuery.getQueryMethod());
+		assertEquals(mockDynamoDBUserQueryMethod, getPartTreeDynamoDBQuery().getQueryMethod());
 	}
 
 	@Test
@@ -169,7 +210,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someId" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected single result
 		assertEquals(o, mockUser);
@@ -189,7 +230,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someUserName", "somePlaylistName" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected single result
 		assertEquals(o, mockPlaylist);
@@ -216,7 +257,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 		// Execute the query
 
 		Object[] parameters = new Object[] { playlistId };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected single result
 		assertEquals(o, mockPlaylist);
@@ -251,7 +292,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 		// Execute the query
 
 		Object[] parameters = new Object[] { playlistId };
-		partTreeDynamoDBQuery.execute(parameters);
+		getPartTreeDynamoDBQuery().execute(parameters);
 
 	}
 
@@ -275,7 +316,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 		// Execute the query
 
 		Object[] parameters = new Object[] { "somePlaylistName" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected results
 		assertEquals(mockPlaylistScanResults, o);
@@ -338,7 +379,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 		// Execute the query
 
 		Object[] parameters = new Object[] { playlistId };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected results
 		assertEquals(mockPlaylistScanResults, o);
@@ -398,7 +439,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someUserName" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected results
 		assertEquals(mockPlaylistQueryResults, o);
@@ -442,7 +483,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someUserName", "somePlaylistName" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected results
 		assertEquals(mockPlaylistScanResults, o);
@@ -523,7 +564,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { playlistId };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected results
 		assertEquals(mockPlaylistQueryResults, o);
@@ -574,7 +615,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { playlistId };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected results
 		assertEquals(mockPlaylistQueryResults, o);
@@ -629,7 +670,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { playlistId };
-		partTreeDynamoDBQuery.execute(parameters);
+		getPartTreeDynamoDBQuery().execute(parameters);
 
 		
 	}
@@ -661,7 +702,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someUserName","someDisplayName" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected results
 		assertEquals(mockPlaylistQueryResults, o);
@@ -715,7 +756,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someUserName","someDisplayName" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected results
 		assertEquals(mockPlaylistQueryResults, o);
@@ -772,7 +813,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someUserName","someDisplayName" };
-		partTreeDynamoDBQuery.execute(parameters);
+		getPartTreeDynamoDBQuery().execute(parameters);
 
 		
 	}
@@ -804,7 +845,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someUserName","someDisplayName" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected results
 		assertEquals(mockPlaylistQueryResults, o);
@@ -859,7 +900,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someUserName","someDisplayName" };
-		partTreeDynamoDBQuery.execute(parameters);
+		getPartTreeDynamoDBQuery().execute(parameters);
 
 
 	}
@@ -893,7 +934,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someUserName","someDisplayName" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected results
 		assertEquals(mockPlaylistQueryResults, o);
@@ -950,7 +991,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { playlistId, "someDisplayName" };
-		partTreeDynamoDBQuery.execute(parameters);
+		getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we scanned DynamoDB for the correct class
 		assertEquals(classCaptor.getValue(), Playlist.class);
@@ -1024,7 +1065,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { playlistId, "someDisplayName" };
-		partTreeDynamoDBQuery.execute(parameters);
+		getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we scanned DynamoDB for the correct class
 		assertEquals(classCaptor.getValue(), Playlist.class);
@@ -1091,7 +1132,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someUserName", "somePlaylistName" };
-		partTreeDynamoDBQuery.execute(parameters);
+		getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we scanned DynamoDB for the correct class
 		assertEquals(classCaptor.getValue(), Playlist.class);
@@ -1169,7 +1210,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { playlistId, "someDisplayName" };
-		partTreeDynamoDBQuery.execute(parameters);
+		getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we scanned DynamoDB for the correct class
 		assertEquals(classCaptor.getValue(), Playlist.class);
@@ -1244,7 +1285,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someName" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected single result
 		assertEquals(o, mockUser);
@@ -1298,7 +1339,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someName" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected single result
 		assertEquals(o, mockUser);
@@ -1351,7 +1392,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someId", "someName" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected single result
 		assertEquals(o, mockUser);
@@ -1417,7 +1458,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { testSet };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected single result
 		assertEquals(o, mockUser);
@@ -1489,7 +1530,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someId", "someName" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected single result
 		assertEquals(o, mockUser);
@@ -1552,7 +1593,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someName" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected list of results
 		assertEquals(o, mockUserScanResults);
@@ -1611,7 +1652,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someName" };
-		partTreeDynamoDBQuery.execute(parameters);
+		getPartTreeDynamoDBQuery().execute(parameters);
 
 	}
 
@@ -1633,7 +1674,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someName" };
-		partTreeDynamoDBQuery.execute(parameters);
+		getPartTreeDynamoDBQuery().execute(parameters);
 
 	}
 
@@ -1655,7 +1696,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { names };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected list of results
 		assertEquals(o, mockUserScanResults);
@@ -1716,7 +1757,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { names };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected list of results
 		assertEquals(o, mockUserScanResults);
@@ -1782,7 +1823,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { joinDate };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected list of results
 		assertEquals(o, mockUserScanResults);
@@ -1848,7 +1889,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { joinYear };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected list of results
 		assertEquals(o, mockUserScanResults);
@@ -1924,7 +1965,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { joinYear};
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 		
 
 		// Assert that we obtain the expected results
@@ -1960,6 +2001,45 @@ public class PartTreeDynamoDBQueryUnitTests {
 		// Verify that the expected DynamoDBMapper method was called
 		Mockito.verify(mockQueryRequestMapper).query(classCaptor.getValue(), queryCaptor.getValue());
 	}
+
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testExecute_WhenFinderMethodIsExecutedRepeatedly_PlansTheQueryOnceAndBindsEachExecutionsParameters()
+			throws ParseException {
+		DateFormat dateFormat = new SimpleDateFormat("yyyy");
+		setupCommonMocksForThisRepositoryMethod(mockUserEntityMetadata, mockDynamoDBUserQueryMethod, User.class,
+				"findByJoinYear", 1, "id", null);
+		Mockito.when(mockDynamoDBUserQueryMethod.isCollectionQuery()).thenReturn(true);
+		Mockito.when(mockUserEntityMetadata.isGlobalIndexHashKeyProperty("joinYear")).thenReturn(true);
+		Mockito.when(mockUserEntityMetadata.getMarshallerForProperty("joinYear")).thenReturn(
+				(DynamoDBMarshaller) new DynamoDBYearMarshaller());
+		Map<String, String[]> indexRangeKeySecondaryIndexNames = new HashMap<String, String[]>();
+		indexRangeKeySecondaryIndexNames.put("joinYear", new String[] { "JoinYear-index" });
+		Mockito.when(mockUserEntityMetadata.getGlobalSecondaryIndexNamesByPropertyName()).thenReturn(
+				indexRangeKeySecondaryIndexNames);
+		Mockito.when(mockQueryRequestMapper.getOverriddenTableName(mockUserEntityMetadata)).thenReturn("user");
+		ArgumentCaptor<QueryRequest> queryCaptor = ArgumentCaptor.forClass(QueryRequest.class);
+		Mockito.when(mockQueryRequestMapper.query(Mockito.eq(User.class), queryCaptor.capture())).thenReturn(
+				mockUserQueryResults);
+
+		RepositoryQuery query = getPartTreeDynamoDBQuery();
+		// The index metadata is only consulted when the query is created, so
+		// both executions query the index planned then
+		Mockito.when(mockUserEntityMetadata.isGlobalIndexHashKeyProperty("joinYear")).thenReturn(false);
+		query.execute(new Object[] { dateFormat.parse("2013") });
+		query.execute(new Object[] { dateFormat.parse("2014") });
+
+		List<QueryRequest> queryRequests = queryCaptor.getAllValues();
+		assertEquals(2, queryRequests.size());
+		assertEquals("JoinYear-index", queryRequests.get(0).getIndexName());
+		assertEquals("JoinYear-index", queryRequests.get(1).getIndexName());
+		assertEquals("2013", queryRequests.get(0).getKeyConditions().get("joinYear").getAttributeValueList().get(0)
+				.getS());
+		assertEquals("2014", queryRequests.get(1).getKeyConditions().get("joinYear").getAttributeValueList().get(0)
+				.getS());
+		Mockito.verify(mockDynamoDBUserQueryMethod, Mockito.times(1)).getEntityInformation();
+	}
 	
 	
 	
@@ -2002,7 +2082,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 			// Execute the query
 			Object[] parameters = new Object[] { joinYear,"nw1"};
-			Object o = partTreeDynamoDBQuery.execute(parameters);
+			Object o = getPartTreeDynamoDBQuery().execute(parameters);
 			
 
 			// Assert that we obtain the expected results
@@ -2080,7 +2160,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 			// Execute the query
 			Object[] parameters = new Object[] { "Michael"};
-			Object o = partTreeDynamoDBQuery.execute(parameters);
+			Object o = getPartTreeDynamoDBQuery().execute(parameters);
 			
 
 			// Assert that we obtain the expected results
@@ -2150,7 +2230,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 					// Execute the query
 					Object[] parameters = new Object[] { "Some Playlist"};
-					Object o = partTreeDynamoDBQuery.execute(parameters);
+					Object o = getPartTreeDynamoDBQuery().execute(parameters);
 					
 
 					// Assert that we obtain the expected results
@@ -2225,7 +2305,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 					// Execute the query
 					Object[] parameters = new Object[] { "1","Michael"};
-					Object o = partTreeDynamoDBQuery.execute(parameters);
+					Object o = getPartTreeDynamoDBQuery().execute(parameters);
 					
 
 					// Assert that we obtain the expected results
@@ -2306,7 +2386,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 					// Execute the query
 					Object[] parameters = new Object[] { "SomePlaylistName","Michael"};
-					Object o = partTreeDynamoDBQuery.execute(parameters);
+					Object o = getPartTreeDynamoDBQuery().execute(parameters);
 					
 
 					// Assert that we obtain the expected results
@@ -2391,7 +2471,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 					// Execute the query
 					Object[] parameters = new Object[] { "SomeDisplayName","SomePlaylistName"};
-					Object o = partTreeDynamoDBQuery.execute(parameters);
+					Object o = getPartTreeDynamoDBQuery().execute(parameters);
 					
 
 					// Assert that we obtain the expected results
@@ -2475,7 +2555,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 					// Execute the query
 					Object[] parameters = new Object[] { "SomeDisplayName","SomeUserName"};
-					Object o = partTreeDynamoDBQuery.execute(parameters);
+					Object o = getPartTreeDynamoDBQuery().execute(parameters);
 					
 
 					// Assert that we obtain the expected results
@@ -2559,7 +2639,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 					// Execute the query
 					Object[] parameters = new Object[] { "1","Michael"};
-					Object o = partTreeDynamoDBQuery.execute(parameters);
+					Object o = getPartTreeDynamoDBQuery().execute(parameters);
 					
 
 					// Assert that we obtain the expected results
@@ -2640,7 +2720,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 					// Execute the query
 					Object[] parameters = new Object[] { "SomePlaylistName","Michael"};
-					Object o = partTreeDynamoDBQuery.execute(parameters);
+					Object o = getPartTreeDynamoDBQuery().execute(parameters);
 					
 
 					// Assert that we obtain the expected results
@@ -2725,7 +2805,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 					// Execute the query
 					Object[] parameters = new Object[] { "SomeDisplayName","SomePlaylistName"};
-					Object o = partTreeDynamoDBQuery.execute(parameters);
+					Object o = getPartTreeDynamoDBQuery().execute(parameters);
 					
 
 					// Assert that we obtain the expected results
@@ -2809,7 +2889,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 					// Execute the query
 					Object[] parameters = new Object[] { "SomeDisplayName","SomeUserName"};
-					Object o = partTreeDynamoDBQuery.execute(parameters);
+					Object o = getPartTreeDynamoDBQuery().execute(parameters);
 					
 
 					// Assert that we obtain the expected results
@@ -2882,7 +2962,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { postcode };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected list of results
 		assertEquals(o, mockUserScanResults);
@@ -2942,7 +3022,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { numberOfPlaylists };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected list of results
 		assertEquals(o, mockUserScanResults);
@@ -3000,7 +3080,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someId" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected list of results
 		assertEquals(o, mockUserScanResults);
@@ -3058,7 +3138,7 @@ public class PartTreeDynamoDBQueryUnitTests {
 
 		// Execute the query
 		Object[] parameters = new Object[] { "someName" };
-		Object o = partTreeDynamoDBQuery.execute(parameters);
+		Object o = getPartTreeDynamoDBQuery().execute(parameters);
 
 		// Assert that we obtain the expected list of results
 		assertEquals(o, mockUserScanResults);
@@ -3099,4 +3179,532 @@ public class PartTreeDynamoDBQueryUnitTests {
 		Mockito.verify(mockDynamoDBMapper).scan(classCaptor.getValue(), scanCaptor.getValue());
 	}
 
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testExecute_WhenFinderMethodReturnsIterator_ScansPagesAsTheyAreIterated() {
+		setupCommonMocksForThisRepositoryMethod(mockUserEntityMetadata, mockDynamoDBUserQueryMethod, User.class,
+				"findByName", 1, "id", null);
+		Mockito.when(mockDynamoDBUserQueryMethod.isIteratorQuery()).thenReturn(true);
+		Mockito.when(mockUserScanResults.iterator()).thenReturn(Arrays.asList(mockUser).iterator());
+		ArgumentCaptor<DynamoDBMapperConfig> configCaptor = ArgumentCaptor.forClass(DynamoDBMapperConfig.class);
+		Mockito.when(
+				mockDynamoDBMapper.scan(Mockito.eq(User.class), Mockito.any(DynamoDBScanExpression.class),
+						configCaptor.capture())).thenReturn(mockUserScanResults);
+
+		CloseableIterator<User> users = (CloseableIterator<User>) getPartTreeDynamoDBQuery()
+				.execute(new Object[] { "someName" });
+
+		assertTrue(users.hasNext());
+		assertEquals(mockUser, users.next());
+		assertEquals(PaginationLoadingStrategy.ITERATION_ONLY, configCaptor.getValue().getPaginationLoadingStrategy());
+		Mockito.verify(mockDynamoDBMapper, Mockito.never()).scan(Mockito.eq(User.class),
+				Mockito.any(DynamoDBScanExpression.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExecute_WhenFinderMethodIsPaged_ScansFilteredPagesInFull() {
+		setupCommonMocksForThisRepositoryMethod(mockUserEntityMetadata, mockDynamoDBUserQueryMethod, User.class,
+				"findByName", 1, "id", null);
+		Mockito.when(mockDynamoDBUserQueryMethod.isPageQuery()).thenReturn(true);
+		Mockito.when(mockParameters.getNumberOfParameters()).thenReturn(2);
+		Mockito.when(mockParameters.hasPageableParameter()).thenReturn(true);
+		Mockito.when(mockParameters.getPageableIndex()).thenReturn(1);
+		Map<String, AttributeValue> lastEvaluatedKey = Collections.singletonMap("id", new AttributeValue().withS("2"));
+		ScanResultPage<User> scanResultPage = new ScanResultPage<User>();
+		scanResultPage.setResults(Arrays.asList(mockUser, mockUser));
+		scanResultPage.setLastEvaluatedKey(lastEvaluatedKey);
+		ArgumentCaptor<DynamoDBScanExpression> scanCaptor = ArgumentCaptor.forClass(DynamoDBScanExpression.class);
+		Mockito.when(mockDynamoDBMapper.scanPage(Mockito.eq(User.class), scanCaptor.capture())).thenReturn(
+				scanResultPage);
+
+		Page<User> firstPage = (Page<User>) getPartTreeDynamoDBQuery().execute(new Object[] { "someName",
+				new PageRequest(0, 2) });
+		Page<User> secondPage = (Page<User>) getPartTreeDynamoDBQuery().execute(new Object[] { "someName",
+				firstPage.nextPageable() });
+
+		assertEquals(2, firstPage.getContent().size());
+		assertTrue(firstPage.hasNextPage());
+		assertTrue(firstPage.nextPageable() instanceof CursorPageRequest);
+		assertEquals(((CursorPage<User>) firstPage).getNextCursor(),
+				((CursorPageRequest) firstPage.nextPageable()).getCursor());
+		assertEquals(2, secondPage.getContent().size());
+		assertNull(scanCaptor.getAllValues().get(0).getLimit());
+		assertNull(scanCaptor.getAllValues().get(0).getExclusiveStartKey());
+		assertEquals(lastEvaluatedKey, scanCaptor.getAllValues().get(1).getExclusiveStartKey());
+		Mockito.verify(mockDynamoDBMapper, Mockito.never()).scan(Mockito.eq(User.class),
+				Mockito.any(DynamoDBScanExpression.class));
+	}
+
+	public interface UserNameView {
+
+		String getName();
+
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExecute_WhenFinderMethodReturnsProjections_ScansOnlyTheProjectedAttributes() {
+		Mockito.when(mockDynamoDBUserQueryMethod.getProjection()).thenReturn(
+				DynamoDBProjection.forReturnedType(User.class, UserNameView.class));
+		setupCommonMocksForThisRepositoryMethod(mockUserEntityMetadata, mockDynamoDBUserQueryMethod, User.class,
+				"findByName", 1, "id", null);
+		Mockito.when(mockDynamoDBUserQueryMethod.isCollectionQuery()).thenReturn(true);
+		Mockito.when(mockUserEntityMetadata.getOverriddenAttributeName("name")).thenReturn("Name");
+		Mockito.when(mockQueryRequestMapper.getOverriddenTableName(mockUserEntityMetadata)).thenReturn("user");
+		Mockito.when(mockQueryRequestMapper.getScanTotalSegments()).thenReturn(1);
+		User user = new User();
+		user.setName("someName");
+		ArgumentCaptor<ScanRequest> scanRequestCaptor = ArgumentCaptor.forClass(ScanRequest.class);
+		Mockito.when(mockQueryRequestMapper.scan(Mockito.eq(User.class), scanRequestCaptor.capture(), Mockito.eq(1)))
+				.thenReturn(Arrays.asList(user));
+
+		List<UserNameView> userNames = (List<UserNameView>) getPartTreeDynamoDBQuery().execute(new Object[] { "someName" });
+
+		assertEquals(1, userNames.size());
+		assertEquals("someName", userNames.get(0).getName());
+		assertEquals("user", scanRequestCaptor.getValue().getTableName());
+		assertEquals(Select.SPECIFIC_ATTRIBUTES.toString(), scanRequestCaptor.getValue().getSelect());
+		assertEquals(Arrays.asList("Name"), scanRequestCaptor.getValue().getAttributesToGet());
+		assertEquals("someName", scanRequestCaptor.getValue().getScanFilter().get("Name").getAttributeValueList().get(0)
+				.getS());
+		Mockito.verify(mockDynamoDBMapper, Mockito.never()).scan(Mockito.eq(User.class),
+				Mockito.any(DynamoDBScanExpression.class));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testExecute_WhenFinderMethodIsFindingTopN_QueriesOnlyTheFirstNItemsInTheRequestedOrder() {
+		setupCommonMocksForThisRepositoryMethod(mockPlaylistEntityMetadata, mockDynamoDBPlaylistQueryMethod,
+				Playlist.class, "findTop2ByUserNameOrderByPlaylistNameDesc", 1, "userName", "playlistName");
+		Mockito.when(mockDynamoDBPlaylistQueryMethod.isCollectionQuery()).thenReturn(true);
+		Mockito.when(mockDynamoDBPlaylistQueryMethod.getResultLimit()).thenReturn(2);
+		Playlist prototypeHashKey = new Playlist();
+		prototypeHashKey.setUserName("someUserName");
+		Mockito.when(mockPlaylistEntityMetadata.getHashKeyPropotypeEntityForHashKey("someUserName")).thenReturn(
+				prototypeHashKey);
+		QueryResultPage<Playlist> queryResultPage = new QueryResultPage<Playlist>();
+		queryResultPage.setResults(Arrays.asList(mockPlaylist, mockPlaylist));
+		queryResultPage.setLastEvaluatedKey(Collections.singletonMap("playlistName", new AttributeValue().withS("b")));
+		ArgumentCaptor<DynamoDBQueryExpression> queryCaptor = ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+		Mockito.when(mockDynamoDBMapper.queryPage(Mockito.eq(Playlist.class), queryCaptor.capture())).thenReturn(
+				queryResultPage);
+
+		List<Playlist> playlists = (List<Playlist>) getPartTreeDynamoDBQuery().execute(new Object[] { "someUserName" });
+
+		assertEquals(Arrays.asList(mockPlaylist, mockPlaylist), playlists);
+		assertEquals(Integer.valueOf(2), queryCaptor.getValue().getLimit());
+		Assert.assertFalse(queryCaptor.getValue().isScanIndexForward());
+		Mockito.verify(mockDynamoDBMapper).queryPage(Mockito.eq(Playlist.class), Mockito.any(DynamoDBQueryExpression.class));
+		Mockito.verify(mockDynamoDBMapper, Mockito.never()).query(Mockito.eq(Playlist.class),
+				Mockito.any(DynamoDBQueryExpression.class));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testExecute_WhenCountMethodIsScanning_CountsWithoutReadingItems() {
+		setupCommonMocksForThisRepositoryMethod(mockUserEntityMetadata, mockDynamoDBUserQueryMethod, User.class,
+				"countByName", 1, "id", null);
+		Mockito.when(mockDynamoDBUserQueryMethod.getReturnedObjectType()).thenReturn((Class) long.class);
+		ArgumentCaptor<DynamoDBScanExpression> scanCaptor = ArgumentCaptor.forClass(DynamoDBScanExpression.class);
+		Mockito.when(mockDynamoDBMapper.count(Mockito.eq(User.class), scanCaptor.capture())).thenReturn(3);
+
+		Object count = getPartTreeDynamoDBQuery().execute(new Object[] { "someName" });
+
+		assertEquals(Long.valueOf(3), count);
+		assertEquals("someName", scanCaptor.getValue().getScanFilter().get("name").getAttributeValueList().get(0)
+				.getS());
+		Mockito.verify(mockDynamoDBMapper, Mockito.never()).scan(Mockito.eq(User.class),
+				Mockito.any(DynamoDBScanExpression.class));
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testExecute_WhenDeleteMethodIsScanning_DeletesTheScannedKeysInBatches() {
+		setupCommonMocksForThisRepositoryMethod(mockUserEntityMetadata, mockDynamoDBUserQueryMethod, User.class,
+				"deleteByName", 1, "id", null);
+		Mockito.when(mockDynamoDBUserQueryMethod.getReturnedObjectType()).thenReturn((Class) long.class);
+		Mockito.when(mockUserEntityMetadata.getOverriddenAttributeName("id")).thenReturn("Id");
+		Mockito.when(mockQueryRequestMapper.getOverriddenTableName(mockUserEntityMetadata)).thenReturn("user");
+		Mockito.when(mockQueryRequestMapper.getScanTotalSegments()).thenReturn(1);
+		User user1 = new User();
+		user1.setId("1");
+		User user2 = new User();
+		user2.setId("2");
+		ArgumentCaptor<ScanRequest> scanRequestCaptor = ArgumentCaptor.forClass(ScanRequest.class);
+		Mockito.when(
+				mockQueryRequestMapper.scan(Mockito.eq(User.class), scanRequestCaptor.capture(), Mockito.eq(1),
+						Mockito.eq(PaginationLoadingStrategy.ITERATION_ONLY))).thenReturn(Arrays.asList(user1, user2));
+		ArgumentCaptor<List> deletedCaptor = ArgumentCaptor.forClass(List.class);
+		Mockito.when(mockDynamoDBMapper.batchDelete(deletedCaptor.capture())).thenReturn(
+				Collections.<FailedBatch> emptyList());
+
+		Object deletedCount = getPartTreeDynamoDBQuery().execute(new Object[] { "someName" });
+
+		assertEquals(Long.valueOf(2), deletedCount);
+		assertEquals(Arrays.asList("Id"), scanRequestCaptor.getValue().getAttributesToGet());
+		assertEquals("someName", scanRequestCaptor.getValue().getScanFilter().get("name").getAttributeValueList().get(0)
+				.getS());
+		assertEquals(Arrays.asList(user1, user2), deletedCaptor.getValue());
+		Mockito.verify(mockDynamoDBMapper, Mockito.times(1)).batchDelete(Mockito.anyList());
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testExecute_WhenDeleteMethodIsScanning_DiscardsAndEvictsTheDeletedEntities() {
+		setupCommonMocksForThisRepositoryMethod(mockUserEntityMetadata, mockDynamoDBUserQueryMethod, User.class,
+				"deleteByName", 1, "id", null);
+		Mockito.when(mockDynamoDBUserQueryMethod.getReturnedObjectType()).thenReturn((Class) long.class);
+		Mockito.when(mockUserEntityMetadata.getOverriddenAttributeName("id")).thenReturn("Id");
+		Mockito.when(mockQueryRequestMapper.getOverriddenTableName(mockUserEntityMetadata)).thenReturn("user");
+		Mockito.when(mockQueryRequestMapper.getScanTotalSegments()).thenReturn(1);
+		User user1 = new User();
+		user1.setId("1");
+		Mockito.when(mockUserEntityMetadata.getId(user1)).thenReturn("1");
+		Mockito.when(mockUserEntityMetadata.getHashKey("1")).thenReturn("1");
+		Mockito.when(
+				mockQueryRequestMapper.scan(Mockito.eq(User.class), Mockito.any(ScanRequest.class), Mockito.eq(1),
+						Mockito.eq(PaginationLoadingStrategy.ITERATION_ONLY))).thenReturn(Arrays.asList(user1));
+		Mockito.when(mockDynamoDBMapper.batchDelete(Mockito.anyList())).thenReturn(Collections.<FailedBatch> emptyList());
+		WriteBehindBuffer<User, String> writeBehindBuffer = Mockito.mock(WriteBehindBuffer.class);
+		EntityCache<User, String> entityCache = Mockito.mock(EntityCache.class);
+		((PartTreeDynamoDBQuery<User, String>) getPartTreeDynamoDBQuery()).setWriteBehindBuffer(writeBehindBuffer);
+		((PartTreeDynamoDBQuery<User, String>) getPartTreeDynamoDBQuery()).setEntityCache(entityCache);
+
+		getPartTreeDynamoDBQuery().execute(new Object[] { "someName" });
+
+		InOrder inOrder = Mockito.inOrder(writeBehindBuffer, mockDynamoDBMapper, entityCache);
+		inOrder.verify(writeBehindBuffer).discard("1");
+		inOrder.verify(mockDynamoDBMapper).batchDelete(Arrays.asList(user1));
+		inOrder.verify(entityCache).evict("1");
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExecute_WhenFinderMethodIsPaged_TrimsTheLastFilteredPageAndResumesFromItsLastResult() {
+		setupCommonMocksForThisRepositoryMethod(mockUserEntityMetadata, mockDynamoDBUserQueryMethod, User.class,
+				"findByName", 1, "id", null);
+		Mockito.when(mockDynamoDBUserQueryMethod.isPageQuery()).thenReturn(true);
+		Mockito.when(mockParameters.getNumberOfParameters()).thenReturn(2);
+		Mockito.when(mockParameters.hasPageableParameter()).thenReturn(true);
+		Mockito.when(mockParameters.getPageableIndex()).thenReturn(1);
+		Mockito.when(mockUserEntityMetadata.getOverriddenAttributeName("id")).thenReturn("Id");
+		Mockito.when(mockUserEntityMetadata.getId(Mockito.any(User.class))).thenAnswer(new Answer<String>() {
+			public String answer(InvocationOnMock invocation) {
+				return ((User) invocation.getArguments()[0]).getId();
+			}
+		});
+		Mockito.when(mockUserEntityMetadata.getHashKey(Mockito.anyString())).thenAnswer(new Answer<Object>() {
+			public Object answer(InvocationOnMock invocation) {
+				return invocation.getArguments()[0];
+			}
+		});
+		List<User> users = new ArrayList<User>();
+		for (int i = 1; i <= 3; i++) {
+			User user = new User();
+			user.setId(Integer.toString(i));
+			users.add(user);
+		}
+		ScanResultPage<User> scanResultPage = new ScanResultPage<User>();
+		scanResultPage.setResults(users);
+		scanResultPage.setLastEvaluatedKey(Collections.singletonMap("Id", new AttributeValue().withS("9")));
+		ArgumentCaptor<DynamoDBScanExpression> scanCaptor = ArgumentCaptor.forClass(DynamoDBScanExpression.class);
+		Mockito.when(mockDynamoDBMapper.scanPage(Mockito.eq(User.class), scanCaptor.capture())).thenReturn(
+				scanResultPage);
+
+		Page<User> firstPage = (Page<User>) getPartTreeDynamoDBQuery().execute(new Object[] { "someName",
+				new PageRequest(0, 2) });
+		getPartTreeDynamoDBQuery().execute(new Object[] { "someName", firstPage.nextPageable() });
+
+		assertEquals(users.subList(0, 2), firstPage.getContent());
+		Mockito.verify(mockDynamoDBMapper, Mockito.times(2)).scanPage(Mockito.eq(User.class),
+				Mockito.any(DynamoDBScanExpression.class));
+		assertNull(scanCaptor.getAllValues().get(0).getLimit());
+		assertEquals(Collections.singletonMap("Id", new AttributeValue().withS("2")), scanCaptor.getAllValues()
+				.get(1).getExclusiveStartKey());
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testExecute_WhenAsyncFinderMethodIsPaged_ScansFilteredPagesInFullOnTheExecutorService()
+			throws Exception {
+		setupCommonMocksForThisRepositoryMethod(mockUserEntityMetadata, mockDynamoDBUserQueryMethod, User.class,
+				"findByName", 1, "id", null);
+		Mockito.when(mockDynamoDBUserQueryMethod.isAsyncQuery()).thenReturn(true);
+		Mockito.when(mockDynamoDBUserQueryMethod.getAsyncResultType()).thenReturn((Class) Page.class);
+		Mockito.when(mockParameters.getNumberOfParameters()).thenReturn(2);
+		Mockito.when(mockParameters.hasPageableParameter()).thenReturn(true);
+		Mockito.when(mockParameters.getPageableIndex()).thenReturn(1);
+		Map<String, AttributeValue> lastEvaluatedKey = Collections.singletonMap("id", new AttributeValue().withS("2"));
+		ScanResultPage<User> scanResultPage = new ScanResultPage<User>();
+		scanResultPage.setResults(Arrays.asList(mockUser, mockUser));
+		scanResultPage.setLastEvaluatedKey(lastEvaluatedKey);
+		ArgumentCaptor<DynamoDBScanExpression> scanCaptor = ArgumentCaptor.forClass(DynamoDBScanExpression.class);
+		Mockito.when(mockDynamoDBMapper.scanPage(Mockito.eq(User.class), scanCaptor.capture())).thenReturn(
+				scanResultPage);
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		try {
+			partTreeDynamoDBQuery = new PartTreeDynamoDBQuery(mockDynamoDBMapper, mockDynamoDBUserQueryMethod,
+					mockQueryRequestMapper, executorService);
+
+			Future<Page<User>> firstPage = (Future<Page<User>>) getPartTreeDynamoDBQuery().execute(new Object[] {
+					"someName", new PageRequest(0, 2) });
+
+			assertEquals(2, firstPage.get().getContent().size());
+			assertTrue(firstPage.get().hasNextPage());
+			assertTrue(firstPage.get().nextPageable() instanceof CursorPageRequest);
+			assertNull(scanCaptor.getValue().getLimit());
+			Mockito.verify(mockDynamoDBMapper, Mockito.never()).scan(Mockito.eq(User.class),
+					Mockito.any(DynamoDBScanExpression.class));
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testExecute_WhenAsyncDeleteMethodReturnsLong_DeletesTheScannedKeysOnTheExecutorService()
+			throws Exception {
+		setupCommonMocksForThisRepositoryMethod(mockUserEntityMetadata, mockDynamoDBUserQueryMethod, User.class,
+				"deleteByName", 1, "id", null);
+		Mockito.when(mockDynamoDBUserQueryMethod.isAsyncQuery()).thenReturn(true);
+		Mockito.when(mockDynamoDBUserQueryMethod.getAsyncResultType()).thenReturn((Class) Long.class);
+		Mockito.when(mockUserEntityMetadata.getOverriddenAttributeName("id")).thenReturn("Id");
+		Mockito.when(mockQueryRequestMapper.getOverriddenTableName(mockUserEntityMetadata)).thenReturn("user");
+		Mockito.when(mockQueryRequestMapper.getScanTotalSegments()).thenReturn(1);
+		User user1 = new User();
+		user1.setId("1");
+		User user2 = new User();
+		user2.setId("2");
+		Mockito.when(
+				mockQueryRequestMapper.scan(Mockito.eq(User.class), Mockito.any(ScanRequest.class), Mockito.eq(1),
+						Mockito.eq(PaginationLoadingStrategy.ITERATION_ONLY))).thenReturn(Arrays.asList(user1, user2));
+		ArgumentCaptor<List> deletedCaptor = ArgumentCaptor.forClass(List.class);
+		Mockito.when(mockDynamoDBMapper.batchDelete(deletedCaptor.capture())).thenReturn(
+				Collections.<FailedBatch> emptyList());
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		try {
+			partTreeDynamoDBQuery = new PartTreeDynamoDBQuery(mockDynamoDBMapper, mockDynamoDBUserQueryMethod,
+					mockQueryRequestMapper, executorService);
+
+			Future<Long> deletedCount = (Future<Long>) getPartTreeDynamoDBQuery().execute(new Object[] { "someName" });
+
+			assertEquals(Long.valueOf(2), deletedCount.get());
+			assertEquals(Arrays.asList(user1, user2), deletedCaptor.getValue());
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testExecute_WhenExistsMethodIsByHashKey_LoadsTheItem() {
+		setupCommonMocksForThisRepositoryMethod(mockUserEntityMetadata, mockDynamoDBUserQueryMethod, User.class,
+				"existsById", 1, "id", null);
+		Mockito.when(mockDynamoDBMapper.load(User.class, "someId")).thenReturn(null);
+
+		Object exists = getPartTreeDynamoDBQuery().execute(new Object[] { "someId" });
+
+		assertEquals(Boolean.FALSE, exists);
+		Mockito.verify(mockDynamoDBMapper).load(User.class, "someId");
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testExecute_WhenExistsMethodIsQuerying_QueriesForASingleItem() {
+		setupCommonMocksForThisRepositoryMethod(mockPlaylistEntityMetadata, mockDynamoDBPlaylistQueryMethod,
+				Playlist.class, "existsByUserName", 1, "userName", "playlistName");
+		Playlist prototypeHashKey = new Playlist();
+		prototypeHashKey.setUserName("someUserName");
+		Mockito.when(mockPlaylistEntityMetadata.getHashKeyPropotypeEntityForHashKey("someUserName")).thenReturn(
+				prototypeHashKey);
+		QueryResultPage<Playlist> queryResultPage = new QueryResultPage<Playlist>();
+		queryResultPage.setResults(Arrays.asList(mockPlaylist));
+		queryResultPage.setLastEvaluatedKey(Collections.singletonMap("playlistName", new AttributeValue().withS("a")));
+		ArgumentCaptor<DynamoDBQueryExpression> queryCaptor = ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+		Mockito.when(mockDynamoDBMapper.queryPage(Mockito.eq(Playlist.class), queryCaptor.capture())).thenReturn(
+				queryResultPage);
+
+		Object exists = getPartTreeDynamoDBQuery().execute(new Object[] { "someUserName" });
+
+		assertEquals(Boolean.TRUE, exists);
+		assertEquals(Integer.valueOf(1), queryCaptor.getValue().getLimit());
+		Mockito.verify(mockDynamoDBMapper).queryPage(Mockito.eq(Playlist.class), Mockito.any(DynamoDBQueryExpression.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExecute_WhenFinderMethodHasStartingWithConditionOnCompositeId_WithRealEntityInformation_BindsTheIdsKeys() {
+		// Conditions on a composite id can only be planned once the id is
+		// known, which mocked entity information would not reveal
+		DynamoDBEntityInformation<Playlist, PlaylistId> entityInformation = new DynamoDBEntityMetadataSupport<Playlist, PlaylistId>(
+				Playlist.class).getEntityInformation();
+		Mockito.when(mockDynamoDBPlaylistQueryMethod.getEntityInformation()).thenReturn(entityInformation);
+		Mockito.when(mockDynamoDBPlaylistQueryMethod.getEntityType()).thenReturn(Playlist.class);
+		Mockito.when(mockDynamoDBPlaylistQueryMethod.getName()).thenReturn("findByPlaylistIdStartingWith");
+		Mockito.when(mockDynamoDBPlaylistQueryMethod.isCollectionQuery()).thenReturn(true);
+		Mockito.when(mockParameters.getNumberOfParameters()).thenReturn(1);
+		Parameter mockParameter = Mockito.mock(Parameter.class);
+		Mockito.when(mockParameter.getIndex()).thenReturn(0);
+		Mockito.when(mockParameters.getBindableParameter(0)).thenReturn(mockParameter);
+		ArgumentCaptor<DynamoDBScanExpression> scanCaptor = ArgumentCaptor.forClass(DynamoDBScanExpression.class);
+		Mockito.when(mockDynamoDBMapper.scan(Mockito.eq(Playlist.class), scanCaptor.capture())).thenReturn(
+				mockPlaylistScanResults);
+
+		RepositoryQuery query = new PartTreeDynamoDBQuery<Playlist, PlaylistId>(mockDynamoDBMapper,
+				mockDynamoDBPlaylistQueryMethod, mockQueryRequestMapper);
+		PlaylistId playlistId = new PlaylistId();
+		playlistId.setUserName("someUser");
+		query.execute(new Object[] { playlistId });
+
+		Map<String, Condition> scanFilter = scanCaptor.getValue().getScanFilter();
+		assertEquals(1, scanFilter.size());
+		assertEquals(ComparisonOperator.BEGINS_WITH.toString(), scanFilter.get("id").getComparisonOperator());
+		assertEquals("someUser", scanFilter.get("id").getAttributeValueList().get(0).getS());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExecute_WhenPagedFinderMethodHasOrCriteria_ReadsOnlyOneResultBeyondThePageOfEachDisjunct() {
+		setupCommonMocksForThisRepositoryMethod(mockUserEntityMetadata, mockDynamoDBUserQueryMethod, User.class,
+				"findByIdOrName", 2, "id", null);
+		Mockito.when(mockDynamoDBUserQueryMethod.isPageQuery()).thenReturn(true);
+		Mockito.when(mockParameters.getNumberOfParameters()).thenReturn(3);
+		Mockito.when(mockParameters.hasPageableParameter()).thenReturn(true);
+		Mockito.when(mockParameters.getPageableIndex()).thenReturn(2);
+		Mockito.when(mockUserEntityMetadata.getOverriddenAttributeName("id")).thenReturn("Id");
+		Mockito.when(mockUserEntityMetadata.getId(Mockito.any(User.class))).thenAnswer(new Answer<String>() {
+			public String answer(InvocationOnMock invocation) {
+				return ((User) invocation.getArguments()[0]).getId();
+			}
+		});
+		Mockito.when(mockUserEntityMetadata.getHashKey(Mockito.anyString())).thenAnswer(new Answer<Object>() {
+			public Object answer(InvocationOnMock invocation) {
+				return invocation.getArguments()[0];
+			}
+		});
+		User user1 = new User();
+		user1.setId("someId");
+		User user1ScanResult = new User();
+		user1ScanResult.setId("someId");
+		User user2 = new User();
+		user2.setId("someOtherId");
+		Mockito.when(mockDynamoDBMapper.load(User.class, "someId")).thenReturn(user1);
+		ScanResultPage<User> scanResultPage = new ScanResultPage<User>();
+		scanResultPage.setResults(Arrays.asList(user1ScanResult, user2));
+		ArgumentCaptor<DynamoDBScanExpression> scanCaptor = ArgumentCaptor.forClass(DynamoDBScanExpression.class);
+		Mockito.when(mockDynamoDBMapper.scanPage(Mockito.eq(User.class), scanCaptor.capture())).thenReturn(
+				scanResultPage);
+
+		Page<User> firstPage = (Page<User>) getPartTreeDynamoDBQuery().execute(new Object[] { "someId", "someName",
+				new PageRequest(0, 1) });
+		Page<User> secondPage = (Page<User>) getPartTreeDynamoDBQuery().execute(new Object[] { "someId", "someName",
+				firstPage.nextPageable() });
+
+		assertEquals(Arrays.asList(user1), firstPage.getContent());
+		assertTrue(firstPage.hasNextPage());
+		assertNull(scanCaptor.getAllValues().get(0).getLimit());
+		assertEquals(Arrays.asList(user2), secondPage.getContent());
+		assertNull(((CursorPage<User>) secondPage).getNextCursor());
+		Mockito.verify(mockDynamoDBMapper, Mockito.never()).scan(Mockito.eq(User.class),
+				Mockito.any(DynamoDBScanExpression.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExecute_WhenFinderMethodHasOrCriteria_MergesTheResultsOfEachDisjunctByKey() {
+		setupCommonMocksForThisRepositoryMethod(mockUserEntityMetadata, mockDynamoDBUserQueryMethod, User.class,
+				"findByIdOrName", 2, "id", null);
+		Mockito.when(mockDynamoDBUserQueryMethod.isCollectionQuery()).thenReturn(true);
+		Mockito.when(mockUserEntityMetadata.getOverriddenAttributeName("id")).thenReturn("Id");
+		Mockito.when(mockUserEntityMetadata.getId(Mockito.any(User.class))).thenAnswer(new Answer<String>() {
+			public String answer(InvocationOnMock invocation) {
+				return ((User) invocation.getArguments()[0]).getId();
+			}
+		});
+		Mockito.when(mockUserEntityMetadata.getHashKey(Mockito.anyString())).thenAnswer(new Answer<Object>() {
+			public Object answer(InvocationOnMock invocation) {
+				return invocation.getArguments()[0];
+			}
+		});
+		User user1 = new User();
+		user1.setId("someId");
+		User user1ScanResult = new User();
+		user1ScanResult.setId("someId");
+		User user2 = new User();
+		user2.setId("someOtherId");
+		Mockito.when(mockDynamoDBMapper.load(User.class, "someId")).thenReturn(user1);
+		Mockito.when(mockUserScanResults.toArray()).thenReturn(new Object[] { user1ScanResult, user2 });
+		ArgumentCaptor<DynamoDBScanExpression> scanCaptor = ArgumentCaptor.forClass(DynamoDBScanExpression.class);
+		Mockito.when(mockDynamoDBMapper.scan(Mockito.eq(User.class), scanCaptor.capture())).thenReturn(
+				mockUserScanResults);
+
+		List<User> users = (List<User>) getPartTreeDynamoDBQuery().execute(new Object[] { "someId", "someName" });
+
+		assertEquals(Arrays.asList(user1, user2), users);
+		assertEquals(1, scanCaptor.getValue().getScanFilter().size());
+		assertEquals("someName", scanCaptor.getValue().getScanFilter().get("name").getAttributeValueList().get(0)
+				.getS());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void testExecute_WhenFinderMethodHasOrCriteria_WithoutQueryRequestMapper_ReadsEachDisjunctInTurn() {
+		setupCommonMocksForThisRepositoryMethod(mockUserEntityMetadata, mockDynamoDBUserQueryMethod, User.class,
+				"findByIdOrName", 2, "id", null);
+		Mockito.when(mockDynamoDBUserQueryMethod.isCollectionQuery()).thenReturn(true);
+		Mockito.when(mockUserEntityMetadata.getId(Mockito.any(User.class))).thenAnswer(new Answer<String>() {
+			public String answer(InvocationOnMock invocation) {
+				return ((User) invocation.getArguments()[0]).getId();
+			}
+		});
+		Mockito.when(mockUserEntityMetadata.getHashKey(Mockito.anyString())).thenAnswer(new Answer<Object>() {
+			public Object answer(InvocationOnMock invocation) {
+				return invocation.getArguments()[0];
+			}
+		});
+		User user1 = new User();
+		user1.setId("someId");
+		User user2 = new User();
+		user2.setId("someOtherId");
+		Mockito.when(mockDynamoDBMapper.load(User.class, "someId")).thenReturn(user1);
+		Mockito.when(mockUserScanResults.toArray()).thenReturn(new Object[] { user2 });
+		Mockito.when(mockDynamoDBMapper.scan(Mockito.eq(User.class), Mockito.any(DynamoDBScanExpression.class)))
+				.thenReturn(mockUserScanResults);
+
+		List<User> users = (List<User>) new PartTreeDynamoDBQuery(mockDynamoDBMapper, queryMethod, null)
+				.execute(new Object[] { "someId", "someName" });
+
+		assertEquals(Arrays.asList(user1, user2), users);
+	}
+
+	@ReadSettings(consistentReads = ConsistentReads.CONSISTENT, pageSize = 10, paginationLoadingStrategy = PaginationLoadingStrategy.EAGER_LOADING)
+	private interface ReadSettingsRepository {
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void testExecute_WhenFinderMethodHasReadSettings_QueriesWithTheConsistencyPageSizeAndLoadingStrategy() {
+		setupCommonMocksForThisRepositoryMethod(mockPlaylistEntityMetadata, mockDynamoDBPlaylistQueryMethod,
+				Playlist.class, "findByUserName", 1, "userName", "playlistName");
+		Mockito.when(mockDynamoDBPlaylistQueryMethod.isCollectionQuery()).thenReturn(true);
+		Mockito.when(mockDynamoDBPlaylistQueryMethod.getReadSettings()).thenReturn(
+				ReadSettingsRepository.class.getAnnotation(ReadSettings.class));
+		Playlist prototypeHashKey = new Playlist();
+		prototypeHashKey.setUserName("someUserName");
+		Mockito.when(mockPlaylistEntityMetadata.getHashKeyPropotypeEntityForHashKey("someUserName")).thenReturn(
+				prototypeHashKey);
+		ArgumentCaptor<DynamoDBQueryExpression> queryCaptor = ArgumentCaptor.forClass(DynamoDBQueryExpression.class);
+		ArgumentCaptor<DynamoDBMapperConfig> configCaptor = ArgumentCaptor.forClass(DynamoDBMapperConfig.class);
+		Mockito.when(mockDynamoDBMapper.query(Mockito.eq(Playlist.class), queryCaptor.capture(), configCaptor.capture()))
+				.thenReturn(mockPlaylistQueryResults);
+
+		Object o = getPartTreeDynamoDBQuery().execute(new Object[] { "someUserName" });
+
+		assertEquals(mockPlaylistQueryResults, o);
+		assertTrue(queryCaptor.getValue().isConsistentRead());
+		assertEquals(Integer.valueOf(10), queryCaptor.getValue().getLimit());
+		assertEquals(ConsistentReads.CONSISTENT, configCaptor.getValue().getConsistentReads());
+		assertEquals(PaginationLoadingStrategy.EAGER_LOADING, configCaptor.getValue().getPaginationLoadingStrategy());
+	}
+
 }
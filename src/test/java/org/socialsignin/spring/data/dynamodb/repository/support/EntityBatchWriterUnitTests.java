@@ -0,0 +1,223 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.socialsignin.spring.data.dynamodb.domain.sample.User;
+import org.socialsignin.spring.data.dynamodb.repository.BatchWriteResult;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.PutRequest;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+
+/**
+ * Unit tests for {@link EntityBatchWriter}.
+ *
+ * @author Michael Lavelle
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class EntityBatchWriterUnitTests {
+
+	@Mock
+	DynamoDBMapper dynamoDBMapper;
+
+	@Mock
+	DynamoDBEntityInformation<User, String> entityInformation;
+
+	private List<List<User>> savedChunks;
+
+	@Before
+	public void setUp() {
+		savedChunks = new ArrayList<List<User>>();
+		when(entityInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(entityInformation.getOverriddenAttributeName("id")).thenReturn("Id");
+		when(entityInformation.getId(Mockito.any(User.class))).thenAnswer(new Answer<String>() {
+			public String answer(InvocationOnMock invocation) {
+				return ((User) invocation.getArguments()[0]).getId();
+			}
+		});
+		when(entityInformation.getHashKey(Mockito.anyString())).thenAnswer(new Answer<Object>() {
+			public Object answer(InvocationOnMock invocation) {
+				return invocation.getArguments()[0];
+			}
+		});
+	}
+
+	private static User user(String id) {
+		User user = new User();
+		user.setId(id);
+		return user;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void saveDedupesKeysAndWritesChunksOf25() {
+		when(dynamoDBMapper.batchSave(Mockito.anyList())).thenAnswer(new Answer<List<FailedBatch>>() {
+			public List<FailedBatch> answer(InvocationOnMock invocation) {
+				savedChunks.add(new ArrayList<User>((List<User>) invocation.getArguments()[0]));
+				return Collections.emptyList();
+			}
+		});
+		List<User> users = new ArrayList<User>();
+		for (int i = 0; i < 30; i++) {
+			users.add(user(Integer.toString(i)));
+		}
+		User duplicate = user("0");
+		users.add(duplicate);
+
+		BatchWriteResult<User> result = new EntityBatchWriter<User, String>(dynamoDBMapper, entityInformation, null, 2)
+				.save(users);
+
+		assertTrue(result.isSuccessful());
+		assertEquals(30, result.getWrittenCount());
+		assertEquals(2, savedChunks.size());
+		int saved = 0;
+		boolean duplicateSaved = false;
+		for (List<User> chunk : savedChunks) {
+			assertTrue(chunk.size() <= EntityBatchWriter.MAX_BATCH_WRITE_ITEMS);
+			saved += chunk.size();
+			duplicateSaved = duplicateSaved || chunk.contains(duplicate);
+		}
+		assertEquals(30, saved);
+		assertTrue(duplicateSaved);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void saveReportsEntitiesWhichStillFailAfterRetries() {
+		Map<String, AttributeValue> failedItem = Collections.singletonMap("Id", new AttributeValue().withS("1"));
+		final FailedBatch failedBatch = new FailedBatch();
+		failedBatch.setUnprocessedItems(Collections.singletonMap("user",
+				Collections.singletonList(new WriteRequest(new PutRequest(failedItem)))));
+		failedBatch.setException(new AmazonServiceException("Throughput exceeded"));
+		when(dynamoDBMapper.batchSave(Mockito.anyList())).thenReturn(Collections.singletonList(failedBatch));
+
+		User failedUser = user("1");
+		List<User> users = new ArrayList<User>();
+		users.add(user("0"));
+		users.add(failedUser);
+
+		BatchWriteResult<User> result = new EntityBatchWriter<User, String>(dynamoDBMapper, entityInformation, null, 1)
+				.save(users);
+
+		assertFalse(result.isSuccessful());
+		assertEquals(1, result.getWrittenCount());
+		assertEquals(Collections.singletonList(failedUser), result.getFailedEntities());
+		assertEquals(failedBatch.getException(), result.getExceptions().get(0));
+		Mockito.verify(dynamoDBMapper, Mockito.times(3)).batchSave(Mockito.anyList());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void saveIdentifiesFailedEntitiesWhoseNumericKeysAreReturnedInAnotherRepresentation() {
+		when(entityInformation.getHashKey(Mockito.anyString())).thenAnswer(new Answer<Object>() {
+			public Object answer(InvocationOnMock invocation) {
+				return new BigDecimal((String) invocation.getArguments()[0]);
+			}
+		});
+		Map<String, AttributeValue> failedItem = Collections.singletonMap("Id", new AttributeValue().withN("1.0"));
+		FailedBatch failedBatch = new FailedBatch();
+		failedBatch.setUnprocessedItems(Collections.singletonMap("user",
+				Collections.singletonList(new WriteRequest(new PutRequest(failedItem)))));
+		when(dynamoDBMapper.batchSave(Mockito.anyList())).thenReturn(Collections.singletonList(failedBatch));
+
+		User failedUser = user("1");
+		List<User> users = new ArrayList<User>();
+		users.add(user("0"));
+		users.add(failedUser);
+
+		BatchWriteResult<User> result = new EntityBatchWriter<User, String>(dynamoDBMapper, entityInformation, null, 1)
+				.save(users);
+
+		assertEquals(1, result.getWrittenCount());
+		assertEquals(Collections.singletonList(failedUser), result.getFailedEntities());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void saveWithoutExecutorServiceWritesChunksOnTheCallingThread() {
+		final List<Thread> writingThreads = Collections.synchronizedList(new ArrayList<Thread>());
+		when(dynamoDBMapper.batchSave(Mockito.anyList())).thenAnswer(new Answer<List<FailedBatch>>() {
+			public List<FailedBatch> answer(InvocationOnMock invocation) {
+				writingThreads.add(Thread.currentThread());
+				return Collections.emptyList();
+			}
+		});
+		List<User> users = new ArrayList<User>();
+		for (int i = 0; i < 100; i++) {
+			users.add(user(Integer.toString(i)));
+		}
+
+		BatchWriteResult<User> result = new EntityBatchWriter<User, String>(dynamoDBMapper, entityInformation, null, 4)
+				.save(users);
+
+		assertEquals(100, result.getWrittenCount());
+		assertEquals(Collections.nCopies(4, Thread.currentThread()), writingThreads);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void saveOnThreadOfItsOwnExecutorServiceWritesUnstartedChunksItself() throws Exception {
+		when(dynamoDBMapper.batchSave(Mockito.anyList())).thenReturn(Collections.<FailedBatch> emptyList());
+		final List<User> users = new ArrayList<User>();
+		for (int i = 0; i < 50; i++) {
+			users.add(user(Integer.toString(i)));
+		}
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		final EntityBatchWriter<User, String> writer = new EntityBatchWriter<User, String>(dynamoDBMapper,
+				entityInformation, executorService, 2);
+		try {
+			// The worker writing the second chunk is queued behind the save
+			// waiting for it
+			Future<BatchWriteResult<User>> result = executorService.submit(new Callable<BatchWriteResult<User>>() {
+				public BatchWriteResult<User> call() {
+					return writer.save(users);
+				}
+			});
+
+			assertEquals(50, result.get(5, TimeUnit.SECONDS).getWrittenCount());
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.socialsignin.spring.data.dynamodb.domain.sample.User;
+import org.socialsignin.spring.data.dynamodb.repository.DynamoDBCrudRepository;
+
+/**
+ * Unit tests for {@link FindOneBatcher}.
+ *
+ * @author Michael Lavelle
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class FindOneBatcherUnitTests {
+
+	@Mock
+	DynamoDBCrudRepository<User, String> repository;
+
+	@Mock
+	DynamoDBEntityInformation<User, String> entityInformation;
+
+	private ExecutorService executorService;
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setUp() {
+		executorService = Executors.newCachedThreadPool();
+		when(entityInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(entityInformation.getHashKey(Mockito.anyString())).thenAnswer(new Answer<Object>() {
+			public Object answer(InvocationOnMock invocation) {
+				return invocation.getArguments()[0];
+			}
+		});
+		when(repository.findAllAsMap(Mockito.anyList())).thenAnswer(new Answer<Map<String, User>>() {
+			public Map<String, User> answer(InvocationOnMock invocation) {
+				Map<String, User> usersById = new LinkedHashMap<String, User>();
+				for (String id : (List<String>) invocation.getArguments()[0]) {
+					if (!id.equals("missing")) {
+						User user = new User();
+						user.setId(id);
+						usersById.put(id, user);
+					}
+				}
+				return usersById;
+			}
+		});
+	}
+
+	@After
+	public void tearDown() {
+		executorService.shutdownNow();
+	}
+
+	private List<Future<User>> findOnes(final FindOneBatcher<User, String> findOneBatcher, String... ids) {
+		List<Future<User>> users = new ArrayList<Future<User>>();
+		for (final String id : ids) {
+			users.add(executorService.submit(new Callable<User>() {
+				public User call() {
+					return findOneBatcher.findOne(id);
+				}
+			}));
+		}
+		return users;
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void concurrentFindOnesWithinWindowAreLoadedTogether() throws Exception {
+		FindOneBatcher<User, String> findOneBatcher = new FindOneBatcher<User, String>(repository, entityInformation,
+				500, 100);
+
+		List<Future<User>> users = findOnes(findOneBatcher, "1", "2", "1", "missing");
+
+		assertEquals("1", users.get(0).get(5, TimeUnit.SECONDS).getId());
+		assertEquals("2", users.get(1).get(5, TimeUnit.SECONDS).getId());
+		assertEquals("1", users.get(2).get(5, TimeUnit.SECONDS).getId());
+		assertNull(users.get(3).get(5, TimeUnit.SECONDS));
+		ArgumentCaptor<List> idsCaptor = ArgumentCaptor.forClass(List.class);
+		Mockito.verify(repository).findAllAsMap(idsCaptor.capture());
+		assertEquals(new HashSet<String>(Arrays.asList("1", "2", "missing")), new HashSet<String>(
+				idsCaptor.getValue()));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void fullBatchIsLoadedWithoutWaitingForWindow() throws Exception {
+		FindOneBatcher<User, String> findOneBatcher = new FindOneBatcher<User, String>(repository, entityInformation,
+				60000, 2);
+
+		List<Future<User>> users = findOnes(findOneBatcher, "1", "2");
+
+		assertEquals("1", users.get(0).get(5, TimeUnit.SECONDS).getId());
+		assertEquals("2", users.get(1).get(5, TimeUnit.SECONDS).getId());
+		Mockito.verify(repository).findAllAsMap(Mockito.anyList());
+	}
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.support;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.socialsignin.spring.data.dynamodb.domain.sample.User;
+
+/**
+ * Unit tests for {@link LruEntityCache}.
+ *
+ * @author Michael Lavelle
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class LruEntityCacheUnitTests {
+
+	@Mock
+	DynamoDBEntityInformation<User, String> entityInformation;
+
+	@Before
+	public void setUp() {
+		when(entityInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(entityInformation.getHashKey(Mockito.anyString())).thenAnswer(new Answer<Object>() {
+			public Object answer(InvocationOnMock invocation) {
+				return invocation.getArguments()[0];
+			}
+		});
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedEntityWhenFull() {
+		LruEntityCache<User, String> entityCache = new LruEntityCache<User, String>(entityInformation, 2, 60000);
+		User user1 = new User();
+		User user2 = new User();
+		User user3 = new User();
+		entityCache.put("1", user1);
+		entityCache.put("2", user2);
+		entityCache.get("1");
+
+		entityCache.put("3", user3);
+
+		assertSame(user1, entityCache.get("1"));
+		assertNull(entityCache.get("2"));
+		assertSame(user3, entityCache.get("3"));
+	}
+
+	@Test
+	public void expiresEntitiesAfterTimeToLive() throws InterruptedException {
+		LruEntityCache<User, String> entityCache = new LruEntityCache<User, String>(entityInformation, 2, 1);
+		entityCache.put("1", new User());
+
+		Thread.sleep(10);
+
+		assertNull(entityCache.get("1"));
+	}
+
+	@Test
+	public void evictRemovesEntity() {
+		LruEntityCache<User, String> entityCache = new LruEntityCache<User, String>(entityInformation, 2, 60000);
+		entityCache.put("1", new User());
+
+		entityCache.evict("1");
+
+		assertNull(entityCache.get("1"));
+	}
+
+	@Test
+	public void putWithGenerationSkipsEntitiesInvalidatedWhileLoading() {
+		LruEntityCache<User, String> entityCache = new LruEntityCache<User, String>(entityInformation, 2, 60000);
+		User staleUser = new User();
+		User user = new User();
+
+		long generation = entityCache.getGeneration("1");
+		entityCache.evict("1");
+
+		assertFalse(entityCache.put("1", staleUser, generation));
+		assertNull(entityCache.get("1"));
+
+		assertTrue(entityCache.put("1", user, entityCache.getGeneration("1")));
+		assertSame(user, entityCache.get("1"));
+	}
+
+	@Test
+	public void segmentedCacheHoldsMaxEntries() {
+		LruEntityCache<User, String> entityCache = new LruEntityCache<User, String>(entityInformation, 1000, 60000);
+		for (int i = 0; i < 2000; i++) {
+			entityCache.put(Integer.toString(i), new User());
+		}
+
+		int cachedCount = 0;
+		for (int i = 0; i < 2000; i++) {
+			if (entityCache.get(Integer.toString(i)) != null) {
+				cachedCount++;
+			}
+		}
+		assertTrue(cachedCount <= 1000);
+		assertTrue(cachedCount > 0);
+	}
+
+}
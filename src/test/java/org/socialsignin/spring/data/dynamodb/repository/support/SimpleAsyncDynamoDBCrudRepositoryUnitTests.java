@@ -0,0 +1,226 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.socialsignin.spring.data.dynamodb.domain.sample.User;
+import org.socialsignin.spring.data.dynamodb.query.QueryRequestMapper;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+import com.amazonaws.handlers.AsyncHandler;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDBAsync;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemResult;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+
+/**
+ * Unit tests for {@link SimpleAsyncDynamoDBCrudRepository}.
+ *
+ * @author Michael Lavelle
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class SimpleAsyncDynamoDBCrudRepositoryUnitTests {
+
+	SimpleAsyncDynamoDBCrudRepository<User, Long> repoForEntityWithOnlyHashKey;
+
+	@Mock
+	DynamoDBMapper dynamoDBMapper;
+
+	@Mock
+	EnableScanPermissions mockEnableScanPermissions;
+
+	@Mock
+	DynamoDBEntityInformation<User, Long> entityWithSimpleIdInformation;
+
+	@Mock
+	QueryRequestMapper mockQueryRequestMapper;
+
+	@Mock
+	AmazonDynamoDBAsync mockAmazonDynamoDBAsync;
+
+	private ExecutorService executorService;
+
+	private User testUser;
+
+	@Before
+	public void setUp() {
+		testUser = new User();
+		executorService = Executors.newSingleThreadExecutor();
+
+		when(entityWithSimpleIdInformation.getJavaType()).thenReturn(User.class);
+		when(entityWithSimpleIdInformation.getHashKey(1l)).thenReturn(1l);
+		when(dynamoDBMapper.load(User.class, 1l)).thenReturn(testUser);
+
+		repoForEntityWithOnlyHashKey = new SimpleAsyncDynamoDBCrudRepository<User, Long>(entityWithSimpleIdInformation,
+				dynamoDBMapper, mockEnableScanPermissions, executorService);
+	}
+
+	@After
+	public void tearDown() {
+		executorService.shutdownNow();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void throwsExceptionIfNoExecutorServiceConfigured() {
+		new SimpleAsyncDynamoDBCrudRepository<User, Long>(entityWithSimpleIdInformation, dynamoDBMapper,
+				mockEnableScanPermissions, null);
+	}
+
+	@Test
+	public void findOneAsyncEntityWithOnlyHashKey() throws Exception {
+		Future<User> user = repoForEntityWithOnlyHashKey.findOneAsync(1l);
+		assertEquals(testUser, user.get());
+		Mockito.verify(dynamoDBMapper).load(User.class, 1l);
+	}
+
+	@Test
+	public void saveAsyncEntity() throws Exception {
+		Future<User> user = repoForEntityWithOnlyHashKey.saveAsync(testUser);
+		assertEquals(testUser, user.get());
+		Mockito.verify(dynamoDBMapper).save(testUser);
+	}
+
+	@Test
+	public void deleteAsyncEntityWithOnlyHashKey() throws Exception {
+		Future<Void> result = repoForEntityWithOnlyHashKey.deleteAsync(1l);
+		assertNull(result.get());
+		Mockito.verify(dynamoDBMapper).delete(testUser);
+	}
+
+	@Test
+	public void deleteAsyncPropagatesExceptionIfEntityDoesNotExist() throws Exception {
+		Future<Void> result = repoForEntityWithOnlyHashKey.deleteAsync(4711l);
+		try {
+			result.get();
+		} catch (ExecutionException e) {
+			assertEquals(EmptyResultDataAccessException.class, e.getCause().getClass());
+			return;
+		}
+		throw new AssertionError("Expected ExecutionException");
+	}
+
+	private static <V> Future<V> completed(Callable<V> request) {
+		FutureTask<V> future = new FutureTask<V>(request);
+		future.run();
+		return future;
+	}
+
+	private void setUpAsyncClient() {
+		when(entityWithSimpleIdInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(mockQueryRequestMapper.getAmazonDynamoDB()).thenReturn(mockAmazonDynamoDBAsync);
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+	}
+
+	@Test
+	public void findOneAsyncGetsItemThroughAsyncClient() throws Exception {
+		setUpAsyncClient();
+		final Map<String, AttributeValue> item = Collections.singletonMap("id", new AttributeValue().withN("1"));
+		when(mockAmazonDynamoDBAsync.getItemAsync(Mockito.any(GetItemRequest.class))).thenReturn(
+				completed(new Callable<GetItemResult>() {
+					public GetItemResult call() {
+						return new GetItemResult().withItem(item);
+					}
+				}));
+		when(mockQueryRequestMapper.unmarshallItems(User.class, Collections.singletonList(item))).thenReturn(
+				Collections.singletonList(testUser));
+
+		Future<User> user = repoForEntityWithOnlyHashKey.findOneAsync(1l);
+
+		assertEquals(testUser, user.get());
+		ArgumentCaptor<GetItemRequest> getItemCaptor = ArgumentCaptor.forClass(GetItemRequest.class);
+		Mockito.verify(mockAmazonDynamoDBAsync).getItemAsync(getItemCaptor.capture());
+		assertEquals("user", getItemCaptor.getValue().getTableName());
+		assertEquals(Collections.singletonMap("id", new AttributeValue().withN("1")), getItemCaptor.getValue().getKey());
+		Mockito.verify(dynamoDBMapper, Mockito.never()).load(User.class, 1l);
+	}
+
+	@Test
+	public void deleteAsyncDeletesItemThroughAsyncClient() throws Exception {
+		setUpAsyncClient();
+		when(
+				mockAmazonDynamoDBAsync.deleteItemAsync(Mockito.any(DeleteItemRequest.class),
+						Mockito.<AsyncHandler<DeleteItemRequest, DeleteItemResult>> any())).thenReturn(
+				completed(new Callable<DeleteItemResult>() {
+					public DeleteItemResult call() {
+						throw new ConditionalCheckFailedException("The conditional request failed");
+					}
+				}));
+
+		Future<Void> result = repoForEntityWithOnlyHashKey.deleteAsync(1l);
+
+		try {
+			result.get();
+			throw new AssertionError("Expected ExecutionException");
+		} catch (ExecutionException e) {
+			assertEquals(EmptyResultDataAccessException.class, e.getCause().getClass());
+		}
+		ArgumentCaptor<DeleteItemRequest> deleteItemCaptor = ArgumentCaptor.forClass(DeleteItemRequest.class);
+		Mockito.verify(mockAmazonDynamoDBAsync).deleteItemAsync(deleteItemCaptor.capture(),
+				Mockito.<AsyncHandler<DeleteItemRequest, DeleteItemResult>> any());
+		assertEquals("user", deleteItemCaptor.getValue().getTableName());
+		assertTrue(deleteItemCaptor.getValue().getExpected().containsKey("id"));
+		Mockito.verify(dynamoDBMapper, Mockito.never()).delete(Mockito.any());
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Test
+	public void deleteAsyncEvictsCachedEntityWhenTheRequestCompletesWithoutBeingWaitedOn() {
+		setUpAsyncClient();
+		EntityCache<User, Long> entityCache = Mockito.mock(EntityCache.class);
+		repoForEntityWithOnlyHashKey.setEntityCache(entityCache);
+		final ArgumentCaptor<AsyncHandler<DeleteItemRequest, DeleteItemResult>> handlerCaptor = ArgumentCaptor
+				.forClass((Class) AsyncHandler.class);
+		when(mockAmazonDynamoDBAsync.deleteItemAsync(Mockito.any(DeleteItemRequest.class), handlerCaptor.capture()))
+				.thenReturn(completed(new Callable<DeleteItemResult>() {
+					public DeleteItemResult call() {
+						return new DeleteItemResult();
+					}
+				}));
+
+		repoForEntityWithOnlyHashKey.deleteAsync(1l);
+		Mockito.verify(entityCache).evict(1l);
+		handlerCaptor.getValue().onSuccess(new DeleteItemRequest(), new DeleteItemResult());
+
+		Mockito.verify(entityCache, Mockito.times(2)).evict(1l);
+	}
+
+}
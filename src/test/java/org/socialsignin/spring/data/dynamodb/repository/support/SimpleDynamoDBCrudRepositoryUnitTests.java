@@ -16,20 +16,66 @@
 package org.socialsignin.spring.data.dynamodb.repository.support;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Mockito.when;
 
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import org.socialsignin.spring.data.dynamodb.domain.sample.Playlist;
 import org.socialsignin.spring.data.dynamodb.domain.sample.PlaylistId;
 import org.socialsignin.spring.data.dynamodb.domain.sample.User;
+import org.socialsignin.spring.data.dynamodb.query.DeleteProgressListener;
+import org.socialsignin.spring.data.dynamodb.query.QueryRequestMapper;
+import org.socialsignin.spring.data.dynamodb.repository.CloseableIterator;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.EmptyResultDataAccessException;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapperConfig.PaginationLoadingStrategy;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedScanList;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchGetItemResult;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.BatchWriteItemResult;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableResult;
+import com.amazonaws.services.dynamodbv2.model.GetItemRequest;
+import com.amazonaws.services.dynamodbv2.model.GetItemResult;
+import com.amazonaws.services.dynamodbv2.model.KeysAndAttributes;
+import com.amazonaws.services.dynamodbv2.model.ScanRequest;
+import com.amazonaws.services.dynamodbv2.model.ScanResult;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
 
 /**
  * Unit tests for {@link DynamoDBSimpleIdRepository}.
@@ -58,6 +104,12 @@ public class SimpleDynamoDBCrudRepositoryUnitTests {
 	@Mock
 	DynamoDBEntityInformation<User, Long> entityWithSimpleIdInformation;
 
+	@Mock
+	QueryRequestMapper mockQueryRequestMapper;
+
+	@Mock
+	AmazonDynamoDB mockAmazonDynamoDB;
+
 	@Mock
 	DynamoDBEntityInformation<Playlist, PlaylistId> entityWithCompositeIdInformation;
 
@@ -130,4 +182,490 @@ public class SimpleDynamoDBCrudRepositoryUnitTests {
 
 		repoForEntityWithHashAndRangeKey.delete(playlistId);
 	}
+
+	@Test
+	public void findAllScansInParallelWhenScanTotalSegmentsConfigured() {
+		when(mockQueryRequestMapper.getScanTotalSegments()).thenReturn(4);
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+
+		repoForEntityWithOnlyHashKey.findAll();
+		Mockito.verify(dynamoDBMapper).parallelScan(Mockito.eq(User.class), Mockito.any(DynamoDBScanExpression.class),
+				Mockito.eq(4));
+	}
+
+	@Test
+	public void countScansInParallelWhenScanTotalSegmentsConfigured() {
+		when(mockQueryRequestMapper.getScanTotalSegments()).thenReturn(4);
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		when(mockQueryRequestMapper.count("user", null, 4)).thenReturn(42l);
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+
+		assertEquals(42l, repoForEntityWithOnlyHashKey.count());
+	}
+
+	@Test
+	public void countOnThreadOfItsOwnExecutorServiceScansUnstartedSegmentsItself() throws Exception {
+		when(mockAmazonDynamoDB.scan(Mockito.any(ScanRequest.class))).thenReturn(new ScanResult().withCount(3));
+		final QueryRequestMapper queryRequestMapper = new QueryRequestMapper(mockAmazonDynamoDB, null, dynamoDBMapper);
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		queryRequestMapper.setExecutorService(executorService);
+		try {
+			// The workers scanning the remaining segments are queued behind
+			// the count waiting for them
+			Future<Long> count = executorService.submit(new Callable<Long>() {
+				public Long call() {
+					return queryRequestMapper.count("user", null, 4);
+				}
+			});
+
+			assertEquals(Long.valueOf(12), count.get(5, TimeUnit.SECONDS));
+		} finally {
+			executorService.shutdownNow();
+		}
+		Mockito.verify(mockAmazonDynamoDB, Mockito.times(4)).scan(Mockito.any(ScanRequest.class));
+	}
+
+	@Test
+	public void deleteAllDeletesScannedKeysInBatchesOf25() {
+		List<Map<String, AttributeValue>> keys = new ArrayList<Map<String, AttributeValue>>();
+		for (int i = 0; i < 30; i++) {
+			keys.add(Collections.singletonMap("Id", new AttributeValue().withN(Integer.toString(i))));
+		}
+		when(entityWithSimpleIdInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(entityWithSimpleIdInformation.getOverriddenAttributeName("id")).thenReturn("Id");
+		when(mockQueryRequestMapper.getScanTotalSegments()).thenReturn(1);
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		when(mockQueryRequestMapper.getAmazonDynamoDB()).thenReturn(mockAmazonDynamoDB);
+		when(mockAmazonDynamoDB.scan(Mockito.any(ScanRequest.class))).thenReturn(new ScanResult().withItems(keys));
+		when(mockAmazonDynamoDB.batchWriteItem(Mockito.any(BatchWriteItemRequest.class))).thenReturn(
+				new BatchWriteItemResult());
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+
+		repoForEntityWithOnlyHashKey.deleteAll();
+
+		ArgumentCaptor<ScanRequest> scanRequestCaptor = ArgumentCaptor.forClass(ScanRequest.class);
+		Mockito.verify(mockAmazonDynamoDB).scan(scanRequestCaptor.capture());
+		assertEquals(Arrays.asList("Id"), scanRequestCaptor.getValue().getAttributesToGet());
+		ArgumentCaptor<BatchWriteItemRequest> batchWriteCaptor = ArgumentCaptor.forClass(BatchWriteItemRequest.class);
+		Mockito.verify(mockAmazonDynamoDB, Mockito.times(2)).batchWriteItem(batchWriteCaptor.capture());
+		assertEquals(25, batchWriteCaptor.getAllValues().get(0).getRequestItems().get("user").size());
+		assertEquals(5, batchWriteCaptor.getAllValues().get(1).getRequestItems().get("user").size());
+		Mockito.verify(dynamoDBMapper, Mockito.never()).batchDelete(Mockito.anyList());
+	}
+
+	@Test
+	public void deleteAllDeletesSegmentsOnExecutorServiceAndReportsProgress() {
+		List<Map<String, AttributeValue>> keys = new ArrayList<Map<String, AttributeValue>>();
+		for (int i = 0; i < 10; i++) {
+			keys.add(Collections.singletonMap("Id", new AttributeValue().withN(Integer.toString(i))));
+		}
+		DeleteProgressListener progressListener = Mockito.mock(DeleteProgressListener.class);
+		ExecutorService executorService = Executors.newFixedThreadPool(2);
+		when(entityWithSimpleIdInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(entityWithSimpleIdInformation.getOverriddenAttributeName("id")).thenReturn("Id");
+		when(mockQueryRequestMapper.getScanTotalSegments()).thenReturn(3);
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		when(mockQueryRequestMapper.getAmazonDynamoDB()).thenReturn(mockAmazonDynamoDB);
+		when(mockAmazonDynamoDB.scan(Mockito.any(ScanRequest.class))).thenReturn(new ScanResult().withItems(keys));
+		when(mockAmazonDynamoDB.batchWriteItem(Mockito.any(BatchWriteItemRequest.class))).thenReturn(
+				new BatchWriteItemResult());
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+		repoForEntityWithOnlyHashKey.setExecutorService(executorService);
+		repoForEntityWithOnlyHashKey.setDeleteProgressListener(progressListener);
+
+		try {
+			repoForEntityWithOnlyHashKey.deleteAll();
+		} finally {
+			executorService.shutdown();
+		}
+
+		Mockito.verify(mockAmazonDynamoDB, Mockito.times(3)).scan(Mockito.any(ScanRequest.class));
+		Mockito.verify(mockAmazonDynamoDB, Mockito.times(3)).batchWriteItem(Mockito.any(BatchWriteItemRequest.class));
+		Mockito.verify(progressListener, Mockito.times(3)).itemsDeleted(Mockito.eq("user"), Mockito.anyLong());
+		Mockito.verify(progressListener).itemsDeleted("user", 30l);
+	}
+
+	@Test
+	public void deleteByIdIssuesConditionalDeleteWithoutRead() {
+		when(entityWithSimpleIdInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		when(mockQueryRequestMapper.getAmazonDynamoDB()).thenReturn(mockAmazonDynamoDB);
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+
+		repoForEntityWithOnlyHashKey.delete(1l);
+
+		ArgumentCaptor<DeleteItemRequest> deleteItemCaptor = ArgumentCaptor.forClass(DeleteItemRequest.class);
+		Mockito.verify(mockAmazonDynamoDB).deleteItem(deleteItemCaptor.capture());
+		assertEquals("user", deleteItemCaptor.getValue().getTableName());
+		assertEquals(new AttributeValue().withN("1"), deleteItemCaptor.getValue().getKey().get("id"));
+		assertEquals(new AttributeValue().withN("1"), deleteItemCaptor.getValue().getExpected().get("id").getValue());
+		Mockito.verify(dynamoDBMapper, Mockito.never()).load(User.class, 1l);
+	}
+
+	@Test(expected = EmptyResultDataAccessException.class)
+	public void deleteByIdThrowsExceptionIfConditionalDeleteFails() {
+		when(entityWithSimpleIdInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(entityWithSimpleIdInformation.getHashKey(4711l)).thenReturn(4711l);
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		when(mockQueryRequestMapper.getAmazonDynamoDB()).thenReturn(mockAmazonDynamoDB);
+		when(mockAmazonDynamoDB.deleteItem(Mockito.any(DeleteItemRequest.class))).thenThrow(
+				new ConditionalCheckFailedException("The conditional request failed"));
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+
+		repoForEntityWithOnlyHashKey.delete(4711l);
+	}
+
+	@Test
+	public void existsRetrievesKeyAttributesOnly() {
+		when(entityWithSimpleIdInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		when(mockQueryRequestMapper.getAmazonDynamoDB()).thenReturn(mockAmazonDynamoDB);
+		when(mockAmazonDynamoDB.getItem(Mockito.any(GetItemRequest.class))).thenReturn(
+				new GetItemResult().withItem(Collections.singletonMap("id", new AttributeValue().withN("1"))));
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+
+		assertTrue(repoForEntityWithOnlyHashKey.exists(1l));
+
+		ArgumentCaptor<GetItemRequest> getItemCaptor = ArgumentCaptor.forClass(GetItemRequest.class);
+		Mockito.verify(mockAmazonDynamoDB).getItem(getItemCaptor.capture());
+		assertEquals(Arrays.asList("id"), getItemCaptor.getValue().getAttributesToGet());
+		Mockito.verify(dynamoDBMapper, Mockito.never()).load(User.class, 1l);
+	}
+
+	@Test
+	public void existsAllReturnsIdsOfExistingEntities() {
+		when(entityWithSimpleIdInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(entityWithSimpleIdInformation.getHashKey(2l)).thenReturn(2l);
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		when(mockQueryRequestMapper.getAmazonDynamoDB()).thenReturn(mockAmazonDynamoDB);
+		List<Map<String, AttributeValue>> existingKeys = new ArrayList<Map<String, AttributeValue>>();
+		existingKeys.add(Collections.singletonMap("id", new AttributeValue().withN("2")));
+		when(mockAmazonDynamoDB.batchGetItem(Mockito.any(BatchGetItemRequest.class))).thenReturn(
+				new BatchGetItemResult().withResponses(Collections.singletonMap("user", existingKeys)));
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+
+		Set<Long> existingIds = repoForEntityWithOnlyHashKey.existsAll(Arrays.asList(1l, 2l));
+
+		assertEquals(Collections.singleton(2l), existingIds);
+		ArgumentCaptor<BatchGetItemRequest> batchGetCaptor = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+		Mockito.verify(mockAmazonDynamoDB).batchGetItem(batchGetCaptor.capture());
+		assertEquals(Arrays.asList("id"), batchGetCaptor.getValue().getRequestItems().get("user").getAttributesToGet());
+		assertEquals(2, batchGetCaptor.getValue().getRequestItems().get("user").getKeys().size());
+	}
+
+	@Test
+	public void findAllReturnsDistinctEntitiesInIdOrderRetryingUnprocessedKeys() {
+		User user2 = new User();
+		User user3 = new User();
+		when(entityWithSimpleIdInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(entityWithSimpleIdInformation.getHashKey(2l)).thenReturn(2l);
+		when(entityWithSimpleIdInformation.getHashKey(3l)).thenReturn(3l);
+		when(entityWithSimpleIdInformation.getHashKey(4l)).thenReturn(4l);
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		when(mockQueryRequestMapper.getAmazonDynamoDB()).thenReturn(mockAmazonDynamoDB);
+
+		Map<String, AttributeValue> item2 = Collections.singletonMap("id", new AttributeValue().withN("2"));
+		Map<String, AttributeValue> item3 = Collections.singletonMap("id", new AttributeValue().withN("3"));
+		List<Map<String, AttributeValue>> unprocessedKeys = new ArrayList<Map<String, AttributeValue>>();
+		unprocessedKeys.add(item2);
+		when(mockAmazonDynamoDB.batchGetItem(Mockito.any(BatchGetItemRequest.class))).thenReturn(
+				new BatchGetItemResult().withResponses(
+						Collections.singletonMap("user", Collections.singletonList(item3))).withUnprocessedKeys(
+						Collections.singletonMap("user", new KeysAndAttributes().withKeys(unprocessedKeys))),
+				new BatchGetItemResult().withResponses(
+						Collections.singletonMap("user", Collections.singletonList(item2))));
+		Map<Map<String, AttributeValue>, User> usersByItem = new HashMap<Map<String, AttributeValue>, User>();
+		usersByItem.put(item2, user2);
+		usersByItem.put(item3, user3);
+		stubUnmarshalling(usersByItem);
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+
+		List<User> users = repoForEntityWithOnlyHashKey.findAll(Arrays.asList(2l, 4l, 3l, 2l));
+
+		assertEquals(Arrays.asList(user2, user3), users);
+		ArgumentCaptor<BatchGetItemRequest> batchGetCaptor = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+		Mockito.verify(mockAmazonDynamoDB, Mockito.times(2)).batchGetItem(batchGetCaptor.capture());
+		assertEquals(3, batchGetCaptor.getAllValues().get(0).getRequestItems().get("user").getKeys().size());
+		assertEquals(unprocessedKeys, batchGetCaptor.getAllValues().get(1).getRequestItems().get("user").getKeys());
+	}
+
+	@Test
+	public void findAllFailsWithKeysStillUnprocessedAfterMaximumAttempts() {
+		when(entityWithSimpleIdInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(entityWithSimpleIdInformation.getHashKey(2l)).thenReturn(2l);
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		when(mockQueryRequestMapper.getAmazonDynamoDB()).thenReturn(mockAmazonDynamoDB);
+
+		Map<String, AttributeValue> key2 = Collections.singletonMap("id", new AttributeValue().withN("2"));
+		when(mockAmazonDynamoDB.batchGetItem(Mockito.any(BatchGetItemRequest.class))).thenReturn(
+				new BatchGetItemResult().withUnprocessedKeys(Collections.singletonMap("user",
+						new KeysAndAttributes().withKeys(Collections.singletonList(key2)))));
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+
+		try {
+			repoForEntityWithOnlyHashKey.findAll(Arrays.asList(2l));
+			fail("Expected DataAccessResourceFailureException");
+		} catch (DataAccessResourceFailureException e) {
+			assertTrue(e.getMessage().contains(key2.toString()));
+		}
+		Mockito.verify(mockAmazonDynamoDB, Mockito.times(6)).batchGetItem(Mockito.any(BatchGetItemRequest.class));
+	}
+
+	@Test
+	public void findAllOnThreadOfItsOwnExecutorServiceLoadsUnstartedChunksItself() throws Exception {
+		when(entityWithSimpleIdInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(entityWithSimpleIdInformation.getHashKey(Mockito.anyLong())).thenAnswer(new Answer<Object>() {
+			public Object answer(InvocationOnMock invocation) {
+				return invocation.getArguments()[0];
+			}
+		});
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		when(mockQueryRequestMapper.getAmazonDynamoDB()).thenReturn(mockAmazonDynamoDB);
+		when(mockAmazonDynamoDB.batchGetItem(Mockito.any(BatchGetItemRequest.class))).thenReturn(
+				new BatchGetItemResult());
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+		final List<Long> ids = new ArrayList<Long>();
+		for (long id = 0; id < 150; id++) {
+			ids.add(id);
+		}
+		ExecutorService executorService = Executors.newSingleThreadExecutor();
+		repoForEntityWithOnlyHashKey.setExecutorService(executorService);
+		try {
+			// The worker loading the second chunk is queued behind the
+			// findAll waiting for it
+			Future<List<User>> users = executorService.submit(new Callable<List<User>>() {
+				public List<User> call() {
+					return repoForEntityWithOnlyHashKey.findAll(ids);
+				}
+			});
+
+			assertTrue(users.get(5, TimeUnit.SECONDS).isEmpty());
+			Mockito.verify(mockAmazonDynamoDB, Mockito.times(2)).batchGetItem(Mockito.any(BatchGetItemRequest.class));
+		} finally {
+			executorService.shutdownNow();
+		}
+	}
+
+	@Test
+	public void findAllAsMapKeysEntitiesById() {
+		when(entityWithSimpleIdInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		when(mockQueryRequestMapper.getAmazonDynamoDB()).thenReturn(mockAmazonDynamoDB);
+		Map<String, AttributeValue> item1 = Collections.singletonMap("id", new AttributeValue().withN("1"));
+		when(mockAmazonDynamoDB.batchGetItem(Mockito.any(BatchGetItemRequest.class))).thenReturn(
+				new BatchGetItemResult().withResponses(Collections.singletonMap("user", Collections.singletonList(item1))));
+		stubUnmarshalling(Collections.singletonMap(item1, testUser));
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+
+		Map<Long, User> usersById = repoForEntityWithOnlyHashKey.findAllAsMap(Arrays.asList(1l));
+
+		assertEquals(Collections.singletonMap(1l, testUser), usersById);
+	}
+
+	@Test
+	public void findAllMatchesItemsWhoseNumericKeysAreReturnedInAnotherRepresentation() {
+		when(entityWithSimpleIdInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(entityWithSimpleIdInformation.getHashKey(1l)).thenReturn(new BigDecimal("1.0"));
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		when(mockQueryRequestMapper.getAmazonDynamoDB()).thenReturn(mockAmazonDynamoDB);
+		Map<String, AttributeValue> item1 = Collections.singletonMap("id", new AttributeValue().withN("1.00"));
+		when(mockAmazonDynamoDB.batchGetItem(Mockito.any(BatchGetItemRequest.class))).thenReturn(
+				new BatchGetItemResult().withResponses(Collections.singletonMap("user", Collections.singletonList(item1))));
+		stubUnmarshalling(Collections.singletonMap(item1, testUser));
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+
+		Map<Long, User> usersById = repoForEntityWithOnlyHashKey.findAllAsMap(Arrays.asList(1l));
+
+		assertEquals(Collections.singletonMap(1l, testUser), usersById);
+		ArgumentCaptor<BatchGetItemRequest> batchGetCaptor = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+		Mockito.verify(mockAmazonDynamoDB).batchGetItem(batchGetCaptor.capture());
+		assertEquals("1", batchGetCaptor.getValue().getRequestItems().get("user").getKeys().get(0).get("id").getN());
+	}
+
+	@SuppressWarnings("unchecked")
+	private void stubUnmarshalling(final Map<Map<String, AttributeValue>, User> usersByItem) {
+		when(mockQueryRequestMapper.unmarshallItems(Mockito.eq(User.class), Mockito.anyList())).thenAnswer(
+				new Answer<List<User>>() {
+					public List<User> answer(InvocationOnMock invocation) {
+						List<User> users = new ArrayList<User>();
+						for (Map<String, AttributeValue> item : (List<Map<String, AttributeValue>>) invocation
+								.getArguments()[1]) {
+							users.add(usersByItem.get(item));
+						}
+						return users;
+					}
+				});
+	}
+
+	@Test
+	public void findOneReadsThroughEntityCacheUntilSaved() {
+		when(entityWithSimpleIdInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(entityWithSimpleIdInformation.getId(testUser)).thenReturn(1l);
+		repoForEntityWithOnlyHashKey.setEntityCache(new LruEntityCache<User, Long>(entityWithSimpleIdInformation, 10,
+				60000));
+
+		assertEquals(testUser, repoForEntityWithOnlyHashKey.findOne(1l));
+		assertEquals(testUser, repoForEntityWithOnlyHashKey.findOne(1l));
+		assertTrue(repoForEntityWithOnlyHashKey.exists(1l));
+		Mockito.verify(dynamoDBMapper, Mockito.times(1)).load(User.class, 1l);
+
+		repoForEntityWithOnlyHashKey.save(testUser);
+		repoForEntityWithOnlyHashKey.findOne(1l);
+
+		Mockito.verify(dynamoDBMapper, Mockito.times(2)).load(User.class, 1l);
+	}
+
+	@Test
+	public void findOneDoesNotCacheEntityLoadedWhileSaved() {
+		when(entityWithSimpleIdInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(entityWithSimpleIdInformation.getId(testUser)).thenReturn(1l);
+		repoForEntityWithOnlyHashKey.setEntityCache(new LruEntityCache<User, Long>(entityWithSimpleIdInformation, 10,
+				60000));
+		when(dynamoDBMapper.load(User.class, 1l)).thenAnswer(new Answer<User>() {
+			public User answer(InvocationOnMock invocation) {
+				// A concurrent save, made after the entity has been read
+				repoForEntityWithOnlyHashKey.save(testUser);
+				return testUser;
+			}
+		}).thenReturn(testUser);
+
+		repoForEntityWithOnlyHashKey.findOne(1l);
+		repoForEntityWithOnlyHashKey.findOne(1l);
+		repoForEntityWithOnlyHashKey.findOne(1l);
+
+		Mockito.verify(dynamoDBMapper, Mockito.times(2)).load(User.class, 1l);
+	}
+
+	@Test
+	public void findAllLoadsOnlyEntitiesMissingFromEntityCache() {
+		User user2 = new User();
+		when(entityWithSimpleIdInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(entityWithSimpleIdInformation.getHashKey(2l)).thenReturn(2l);
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		when(mockQueryRequestMapper.getAmazonDynamoDB()).thenReturn(mockAmazonDynamoDB);
+		Map<String, AttributeValue> item2 = Collections.singletonMap("id", new AttributeValue().withN("2"));
+		when(mockAmazonDynamoDB.batchGetItem(Mockito.any(BatchGetItemRequest.class))).thenReturn(
+				new BatchGetItemResult().withResponses(Collections.singletonMap("user", Collections.singletonList(item2))));
+		stubUnmarshalling(Collections.singletonMap(item2, user2));
+		EntityCache<User, Long> entityCache = new LruEntityCache<User, Long>(entityWithSimpleIdInformation, 10, 60000);
+		entityCache.put(1l, testUser);
+		repoForEntityWithOnlyHashKey.setEntityCache(entityCache);
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+
+		List<User> users = repoForEntityWithOnlyHashKey.findAll(Arrays.asList(1l, 2l));
+
+		assertEquals(Arrays.asList(testUser, user2), users);
+		ArgumentCaptor<BatchGetItemRequest> batchGetCaptor = ArgumentCaptor.forClass(BatchGetItemRequest.class);
+		Mockito.verify(mockAmazonDynamoDB).batchGetItem(batchGetCaptor.capture());
+		assertEquals(Collections.singletonList(item2), batchGetCaptor.getValue().getRequestItems().get("user").getKeys());
+		assertEquals(user2, entityCache.get(2l));
+	}
+
+	@Test
+	public void concurrentFindOnesOfSameKeyShareSingleLoadWhenCollapsingEnabled() throws Exception {
+		repoForEntityWithOnlyHashKey.setCollapseFindOneRequests(true);
+		final CountDownLatch loading = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		when(dynamoDBMapper.load(User.class, 1l)).thenAnswer(new Answer<User>() {
+			public User answer(InvocationOnMock invocation) throws InterruptedException {
+				loading.countDown();
+				release.await();
+				return testUser;
+			}
+		});
+		ExecutorService executorService = Executors.newFixedThreadPool(2);
+		try {
+			Callable<User> findOne = new Callable<User>() {
+				public User call() {
+					return repoForEntityWithOnlyHashKey.findOne(1l);
+				}
+			};
+			Future<User> first = executorService.submit(findOne);
+			loading.await();
+			Future<User> second = executorService.submit(findOne);
+			// Allow the second findOne to join the in-flight load
+			Thread.sleep(100);
+			release.countDown();
+
+			assertEquals(testUser, first.get());
+			assertEquals(testUser, second.get());
+			Mockito.verify(dynamoDBMapper, Mockito.times(1)).load(User.class, 1l);
+		} finally {
+			executorService.shutdown();
+		}
+	}
+
+	@Test
+	public void concurrentFindOnesOfSameKeyLoadSeparatelyByDefault() throws Exception {
+		final CountDownLatch bothLoading = new CountDownLatch(2);
+		when(dynamoDBMapper.load(User.class, 1l)).thenAnswer(new Answer<User>() {
+			public User answer(InvocationOnMock invocation) throws InterruptedException {
+				bothLoading.countDown();
+				bothLoading.await(5, TimeUnit.SECONDS);
+				return new User();
+			}
+		});
+		ExecutorService executorService = Executors.newFixedThreadPool(2);
+		try {
+			Callable<User> findOne = new Callable<User>() {
+				public User call() {
+					return repoForEntityWithOnlyHashKey.findOne(1l);
+				}
+			};
+			Future<User> first = executorService.submit(findOne);
+			Future<User> second = executorService.submit(findOne);
+
+			assertNotSame(first.get(), second.get());
+			Mockito.verify(dynamoDBMapper, Mockito.times(2)).load(User.class, 1l);
+		} finally {
+			executorService.shutdown();
+		}
+	}
+
+	@Test
+	public void countCountsWithSelectCountScan() {
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		when(mockQueryRequestMapper.getScanTotalSegments()).thenReturn(1);
+		when(mockQueryRequestMapper.count("user", null, 1)).thenReturn(42l);
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+
+		assertEquals(42l, repoForEntityWithOnlyHashKey.count());
+
+		Mockito.verify(dynamoDBMapper, Mockito.never()).count(Mockito.eq(User.class),
+				Mockito.any(DynamoDBScanExpression.class));
+	}
+
+	@Test
+	public void approximateCountDescribesTableOncePerMaxAge() {
+		when(mockEnableScanPermissions.isCountUnpaginatedScanEnabled()).thenReturn(false);
+		when(mockQueryRequestMapper.getOverriddenTableName(entityWithSimpleIdInformation)).thenReturn("user");
+		when(mockQueryRequestMapper.getAmazonDynamoDB()).thenReturn(mockAmazonDynamoDB);
+		when(mockAmazonDynamoDB.describeTable(Mockito.any(DescribeTableRequest.class))).thenReturn(
+				new DescribeTableResult().withTable(new TableDescription().withItemCount(1000l)));
+		repoForEntityWithOnlyHashKey.setQueryRequestMapper(mockQueryRequestMapper);
+		repoForEntityWithOnlyHashKey.setApproximateCountEnabled(true);
+
+		assertEquals(1000l, repoForEntityWithOnlyHashKey.count());
+		assertEquals(1000l, repoForEntityWithOnlyHashKey.approximateCount());
+
+		Mockito.verify(mockAmazonDynamoDB, Mockito.times(1)).describeTable(Mockito.any(DescribeTableRequest.class));
+		Mockito.verify(mockAmazonDynamoDB, Mockito.never()).scan(Mockito.any(ScanRequest.class));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void findAllIteratorScansPagesAsTheyAreIteratedUntilClosed() {
+		PaginatedScanList<User> scanResults = Mockito.mock(PaginatedScanList.class);
+		when(scanResults.iterator()).thenReturn(Arrays.asList(testUser, new User()).iterator());
+		ArgumentCaptor<DynamoDBMapperConfig> configCaptor = ArgumentCaptor.forClass(DynamoDBMapperConfig.class);
+		when(dynamoDBMapper.scan(Mockito.eq(User.class), Mockito.any(DynamoDBScanExpression.class),
+				configCaptor.capture())).thenReturn(scanResults);
+
+		CloseableIterator<User> users = repoForEntityWithOnlyHashKey.findAllIterator();
+
+		assertEquals(testUser, users.next());
+		users.close();
+		assertFalse(users.hasNext());
+		assertEquals(PaginationLoadingStrategy.ITERATION_ONLY, configCaptor.getValue().getPaginationLoadingStrategy());
+	}
 }
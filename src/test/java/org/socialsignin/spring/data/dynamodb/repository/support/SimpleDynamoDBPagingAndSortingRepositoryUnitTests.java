@@ -16,20 +16,42 @@
 package org.socialsignin.spring.data.dynamodb.repository.support;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
 import org.socialsignin.spring.data.dynamodb.domain.sample.Playlist;
 import org.socialsignin.spring.data.dynamodb.domain.sample.PlaylistId;
 import org.socialsignin.spring.data.dynamodb.domain.sample.User;
+import org.socialsignin.spring.data.dynamodb.query.KeyCursorCodec;
+import org.socialsignin.spring.data.dynamodb.repository.CursorPage;
+import org.socialsignin.spring.data.dynamodb.repository.CursorPageRequest;
+import org.socialsignin.spring.data.dynamodb.repository.CursorSlice;
 import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBScanExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.ScanResultPage;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 
 /**
  * Unit tests for {@link DynamoDBSimpleIdRepository}.
@@ -131,4 +153,117 @@ public class SimpleDynamoDBPagingAndSortingRepositoryUnitTests {
 
 		repoForEntityWithHashAndRangeKey.delete(playlistId);
 	}
+
+	private static User user(String id) {
+		User user = new User();
+		user.setId(id);
+		return user;
+	}
+
+	private static ScanResultPage<User> scanResultPage(List<User> results, Map<String, AttributeValue> lastEvaluatedKey) {
+		ScanResultPage<User> scanResultPage = new ScanResultPage<User>();
+		scanResultPage.setResults(results);
+		scanResultPage.setLastEvaluatedKey(lastEvaluatedKey);
+		return scanResultPage;
+	}
+
+	@Test
+	public void cursorRoundTripsKeyAttributeValues() {
+		Map<String, AttributeValue> key = new HashMap<String, AttributeValue>();
+		key.put("Id", new AttributeValue().withS("user-1"));
+		key.put("Version", new AttributeValue().withN("42"));
+		Map<String, AttributeValue> binaryKey = Collections.singletonMap("Id",
+				new AttributeValue().withB(ByteBuffer.wrap(new byte[] { 1, 2, 3 })));
+
+		assertEquals(key, KeyCursorCodec.decode(KeyCursorCodec.encode(key)));
+		assertEquals(binaryKey, KeyCursorCodec.decode(KeyCursorCodec.encode(binaryKey)));
+		assertNull(KeyCursorCodec.encode(null));
+		assertNull(KeyCursorCodec.decode(null));
+	}
+
+	@Test
+	public void cursorRoundTripsGlobalSecondaryIndexKey() {
+		// The LastEvaluatedKey of a query of a global secondary index has the
+		// table's hash and range keys as well as the index's
+		Map<String, AttributeValue> indexKey = new HashMap<String, AttributeValue>();
+		indexKey.put("userName", new AttributeValue().withS("michael"));
+		indexKey.put("playlistName", new AttributeValue().withS("playlist1"));
+		indexKey.put("displayName", new AttributeValue().withS("Playlist 1"));
+		indexKey.put("trackCount", new AttributeValue().withN("12"));
+
+		assertEquals(indexKey, KeyCursorCodec.decode(KeyCursorCodec.encode(indexKey)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalidCursorIsRejected() {
+		KeyCursorCodec.decode("not a cursor");
+	}
+
+	private void scanPages(final List<Map<String, AttributeValue>> exclusiveStartKeys, final List<Integer> limits,
+			ScanResultPage<User> firstPage, ScanResultPage<User>... nextPages) {
+		final List<ScanResultPage<User>> pages = new ArrayList<ScanResultPage<User>>();
+		pages.add(firstPage);
+		pages.addAll(Arrays.asList(nextPages));
+		when(dynamoDBMapper.scanPage(Mockito.eq(User.class), Mockito.any(DynamoDBScanExpression.class))).thenAnswer(
+				new Answer<ScanResultPage<User>>() {
+					public ScanResultPage<User> answer(InvocationOnMock invocation) {
+						// The scan expression is reused from request to
+						// request, so record its state at the time of each
+						DynamoDBScanExpression scanExpression = (DynamoDBScanExpression) invocation.getArguments()[1];
+						exclusiveStartKeys.add(scanExpression.getExclusiveStartKey());
+						limits.add(scanExpression.getLimit());
+						return pages.remove(0);
+					}
+				});
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void findAllPagesByResumingScanAtLastEvaluatedKey() {
+		Map<String, AttributeValue> firstPageKey = Collections.singletonMap("Id", new AttributeValue().withS("2"));
+		Map<String, AttributeValue> secondPageKey = Collections.singletonMap("Id", new AttributeValue().withS("3"));
+		List<Map<String, AttributeValue>> exclusiveStartKeys = new ArrayList<Map<String, AttributeValue>>();
+		List<Integer> limits = new ArrayList<Integer>();
+		scanPages(exclusiveStartKeys, limits, scanResultPage(Arrays.asList(user("1"), user("2")), firstPageKey),
+				scanResultPage(Collections.singletonList(user("3")), secondPageKey),
+				scanResultPage(Collections.<User> emptyList(), null));
+
+		Page<User> firstPage = repoForEntityWithOnlyHashKey.findAll(new PageRequest(0, 2));
+
+		assertEquals(2, firstPage.getContent().size());
+		assertTrue(firstPage.hasNextPage());
+		CursorPageRequest nextPageRequest = (CursorPageRequest) firstPage.nextPageable();
+		assertEquals(1, nextPageRequest.getPageNumber());
+
+		// The second page ends part way through, so the scan is resumed
+		// again to fill it
+		Page<User> secondPage = repoForEntityWithOnlyHashKey.findAll(nextPageRequest);
+
+		assertEquals("3", secondPage.getContent().get(0).getId());
+		assertFalse(secondPage.hasNextPage());
+		assertNull(((CursorPage<User>) secondPage).getNextCursor());
+		assertEquals(Arrays.asList(null, firstPageKey, secondPageKey), exclusiveStartKeys);
+		assertEquals(Arrays.asList(2, 2, 1), limits);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void findAllSliceReadsASingleItemBeyondTheSlice() {
+		Map<String, AttributeValue> sliceKey = Collections.singletonMap("Id", new AttributeValue().withS("2"));
+		List<Map<String, AttributeValue>> exclusiveStartKeys = new ArrayList<Map<String, AttributeValue>>();
+		List<Integer> limits = new ArrayList<Integer>();
+		scanPages(exclusiveStartKeys, limits, scanResultPage(Arrays.asList(user("1"), user("2")), sliceKey),
+				scanResultPage(Collections.<User> emptyList(), null));
+
+		CursorSlice<User> slice = repoForEntityWithOnlyHashKey.findAllSlice(new PageRequest(0, 2));
+
+		assertEquals(2, slice.getContent().size());
+		// The slice ends at the end of the results, although the scan
+		// stopped before reaching it
+		assertFalse(slice.hasNextPage());
+		assertNull(slice.nextPageable());
+		assertEquals(Arrays.asList(null, sliceKey), exclusiveStartKeys);
+		assertEquals(Arrays.asList(2, 1), limits);
+	}
+
 }
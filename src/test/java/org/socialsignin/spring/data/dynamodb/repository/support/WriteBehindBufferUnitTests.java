@@ -0,0 +1,242 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.socialsignin.spring.data.dynamodb.repository.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.mockito.stubbing.Answer;
+import org.socialsignin.spring.data.dynamodb.domain.sample.User;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper.FailedBatch;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.PutRequest;
+import com.amazonaws.services.dynamodbv2.model.WriteRequest;
+
+/**
+ * Unit tests for {@link WriteBehindBuffer}.
+ *
+ * @author Michael Lavelle
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class WriteBehindBufferUnitTests {
+
+	@Mock
+	DynamoDBMapper dynamoDBMapper;
+
+	@Mock
+	DynamoDBEntityInformation<User, String> entityInformation;
+
+	private List<User> savedUsers;
+
+	private WriteBehindBuffer<User, String> writeBehindBuffer;
+
+	@SuppressWarnings("unchecked")
+	@Before
+	public void setUp() {
+		savedUsers = Collections.synchronizedList(new ArrayList<User>());
+		when(entityInformation.getJavaType()).thenReturn(User.class);
+		when(entityInformation.getHashKeyPropertyName()).thenReturn("id");
+		when(entityInformation.getOverriddenAttributeName("id")).thenReturn("Id");
+		when(entityInformation.getId(Mockito.any(User.class))).thenAnswer(new Answer<String>() {
+			public String answer(InvocationOnMock invocation) {
+				return ((User) invocation.getArguments()[0]).getId();
+			}
+		});
+		when(entityInformation.getHashKey(Mockito.anyString())).thenAnswer(new Answer<Object>() {
+			public Object answer(InvocationOnMock invocation) {
+				return invocation.getArguments()[0];
+			}
+		});
+		when(dynamoDBMapper.batchSave(Mockito.anyList())).thenAnswer(new Answer<List<FailedBatch>>() {
+			public List<FailedBatch> answer(InvocationOnMock invocation) {
+				savedUsers.addAll((List<User>) invocation.getArguments()[0]);
+				return Collections.emptyList();
+			}
+		});
+		writeBehindBuffer = new WriteBehindBuffer<User, String>(entityInformation, new EntityBatchWriter<User, String>(
+				dynamoDBMapper, entityInformation, null, 1), 3, 60000);
+	}
+
+	@After
+	public void tearDown() {
+		writeBehindBuffer.close();
+	}
+
+	private static User user(String id, String name) {
+		User user = new User();
+		user.setId(id);
+		user.setName(name);
+		return user;
+	}
+
+	@Test
+	public void saveCoalescesRepeatedSavesOfAKeyUntilFlushed() {
+		User first = user("1", "first");
+		User latest = user("1", "latest");
+
+		assertTrue(writeBehindBuffer.save(first));
+		assertTrue(writeBehindBuffer.save(latest));
+
+		assertSame(latest, writeBehindBuffer.get("1"));
+		assertTrue(savedUsers.isEmpty());
+
+		writeBehindBuffer.flush();
+
+		assertEquals(Collections.singletonList(latest), savedUsers);
+		assertNull(writeBehindBuffer.get("1"));
+	}
+
+	private void awaitSavedUsers(int count) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (savedUsers.size() < count && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	@Test
+	public void saveRequestsBackgroundFlushWhenBufferIsFull() throws InterruptedException {
+		writeBehindBuffer.save(user("1", "a"));
+		writeBehindBuffer.save(user("2", "b"));
+		assertTrue(savedUsers.isEmpty());
+
+		writeBehindBuffer.save(user("3", "c"));
+		awaitSavedUsers(3);
+
+		assertEquals(3, savedUsers.size());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void saveBlocksWhileBufferIsAtCapacity() throws Exception {
+		final CountDownLatch flushReleased = new CountDownLatch(1);
+		Mockito.reset(dynamoDBMapper);
+		when(dynamoDBMapper.batchSave(Mockito.anyList())).thenAnswer(new Answer<List<FailedBatch>>() {
+			public List<FailedBatch> answer(InvocationOnMock invocation) throws InterruptedException {
+				flushReleased.await();
+				savedUsers.addAll((List<User>) invocation.getArguments()[0]);
+				return Collections.emptyList();
+			}
+		});
+		writeBehindBuffer.close();
+		writeBehindBuffer = new WriteBehindBuffer<User, String>(entityInformation, new EntityBatchWriter<User, String>(
+				dynamoDBMapper, entityInformation, null, 1), 3, 3, 3, 60000);
+		writeBehindBuffer.save(user("1", "a"));
+		writeBehindBuffer.save(user("2", "b"));
+		writeBehindBuffer.save(user("3", "c"));
+
+		ExecutorService saver = Executors.newSingleThreadExecutor();
+		try {
+			Future<Boolean> blockedSave = saver.submit(new Callable<Boolean>() {
+				public Boolean call() {
+					return writeBehindBuffer.save(user("4", "d"));
+				}
+			});
+			Thread.sleep(100);
+			assertFalse(blockedSave.isDone());
+
+			flushReleased.countDown();
+
+			assertTrue(blockedSave.get(5, TimeUnit.SECONDS));
+			assertTrue(savedUsers.size() >= 3);
+		} finally {
+			flushReleased.countDown();
+			saver.shutdown();
+		}
+	}
+
+	@Test
+	public void saveRejectsEntitiesWithoutId() {
+		assertFalse(writeBehindBuffer.save(user(null, "a")));
+	}
+
+	@Test
+	public void discardedEntitiesAreNotWritten() {
+		User user = user("1", "a");
+		writeBehindBuffer.save(user);
+
+		assertSame(user, writeBehindBuffer.discard("1"));
+		writeBehindBuffer.flush();
+
+		assertTrue(savedUsers.isEmpty());
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void entitiesWhichFailToBeWrittenRemainBuffered() {
+		Map<String, AttributeValue> failedItem = Collections.singletonMap("Id", new AttributeValue().withS("1"));
+		FailedBatch failedBatch = new FailedBatch();
+		failedBatch.setUnprocessedItems(Collections.singletonMap("user",
+				Collections.singletonList(new WriteRequest(new PutRequest(failedItem)))));
+		failedBatch.setException(new AmazonServiceException("Throughput exceeded"));
+		Mockito.reset(dynamoDBMapper);
+		when(dynamoDBMapper.batchSave(Mockito.anyList())).thenReturn(Collections.singletonList(failedBatch));
+		User user = user("1", "a");
+		writeBehindBuffer.save(user);
+
+		writeBehindBuffer.flush();
+
+		assertSame(user, writeBehindBuffer.get("1"));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Test
+	public void entitiesWhichFailEveryWriteAttemptAreDropped() {
+		Map<String, AttributeValue> failedItem = Collections.singletonMap("Id", new AttributeValue().withS("1"));
+		FailedBatch failedBatch = new FailedBatch();
+		failedBatch.setUnprocessedItems(Collections.singletonMap("user",
+				Collections.singletonList(new WriteRequest(new PutRequest(failedItem)))));
+		failedBatch.setException(new AmazonServiceException("Throughput exceeded"));
+		Mockito.reset(dynamoDBMapper);
+		when(dynamoDBMapper.batchSave(Mockito.anyList())).thenReturn(Collections.singletonList(failedBatch));
+		User user = user("1", "a");
+		writeBehindBuffer.save(user);
+
+		for (int attempt = 1; attempt < WriteBehindBuffer.DEFAULT_MAX_WRITE_ATTEMPTS; attempt++) {
+			writeBehindBuffer.flush();
+			assertSame(user, writeBehindBuffer.get("1"));
+		}
+		writeBehindBuffer.flush();
+
+		assertNull(writeBehindBuffer.get("1"));
+	}
+
+}